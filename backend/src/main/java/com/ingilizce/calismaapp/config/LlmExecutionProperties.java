@@ -0,0 +1,64 @@
+package com.ingilizce.calismaapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.llm.execution")
+public class LlmExecutionProperties {
+
+    /**
+     * Execution mode for LLM/TTS-bound request handlers:
+     * - blocking: run on the Tomcat worker thread (legacy behaviour)
+     * - async: release the worker thread and run on a dedicated bounded pool (async servlet dispatch)
+     */
+    private String mode = "blocking";
+    private int corePoolSize = 16;
+    private int maxPoolSize = 64;
+    private int queueCapacity = 200;
+    private long retryAfterSeconds = 5;
+
+    public boolean isAsync() {
+        return "async".equalsIgnoreCase(mode);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public void setCorePoolSize(int corePoolSize) {
+        this.corePoolSize = corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ingilizce.calismaapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs slow, upstream-bound handlers (Groq calls, Piper synthesis) off the servlet
+ * worker pool. In async mode the controller returns a future, Spring MVC starts an
+ * async dispatch and the Tomcat thread goes back to serving fast CRUD endpoints.
+ * Java 17 has no virtual threads, so a bounded platform pool is used instead.
+ */
+@Component
+public class LlmRequestExecutor {
+    private static final Logger log = LoggerFactory.getLogger(LlmRequestExecutor.class);
+    private static final String REJECTED_TOTAL_METRIC = "llm.request.executor.rejected.total";
+
+    private final LlmExecutionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor taskExecutor;
+    private final Executor executor;
+
+    @Autowired
+    public LlmRequestExecutor(LlmExecutionProperties properties,
+                              @Autowired(required = false) MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        if (properties.isAsync()) {
+            this.taskExecutor = createTaskExecutor(properties);
+            this.executor = new DelegatingSecurityContextExecutor(taskExecutor);
+            if (meterRegistry != null) {
+                meterRegistry.gauge("llm.request.executor.active", taskExecutor, ThreadPoolTaskExecutor::getActiveCount);
+                meterRegistry.gauge("llm.request.executor.queued", taskExecutor,
+                        e -> e.getThreadPoolExecutor().getQueue().size());
+            }
+            log.info("LLM request executor in async mode (core={}, max={}, queue={})",
+                    properties.getCorePoolSize(), properties.getMaxPoolSize(), properties.getQueueCapacity());
+        } else {
+            this.taskExecutor = null;
+            this.executor = null;
+        }
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    /**
+     * Runs the handler inline (blocking mode) or on the LLM pool (async mode).
+     * A saturated pool answers 503 with Retry-After instead of queueing unbounded work.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> handler) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(handler.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(handler, executor);
+        } catch (RejectedExecutionException e) {
+            if (meterRegistry != null) {
+                meterRegistry.counter(REJECTED_TOTAL_METRIC).increment();
+            }
+            log.warn("LLM request executor saturated, rejecting request");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, properties.getRetryAfterSeconds())))
+                    .build());
+        }
+    }
+
+    private static ThreadPoolTaskExecutor createTaskExecutor(LlmExecutionProperties properties) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        int core = Math.max(1, properties.getCorePoolSize());
+        taskExecutor.setCorePoolSize(core);
+        taskExecutor.setMaxPoolSize(Math.max(core, properties.getMaxPoolSize()));
+        taskExecutor.setQueueCapacity(Math.max(0, properties.getQueueCapacity()));
+        taskExecutor.setThreadNamePrefix("llm-req-");
+        taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        taskExecutor.setAwaitTerminationSeconds(30);
+        taskExecutor.initialize();
+        return taskExecutor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (taskExecutor != null) {
+            taskExecutor.shutdown();
+        }
+    }
+}
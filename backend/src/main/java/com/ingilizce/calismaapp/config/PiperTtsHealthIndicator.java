@@ -0,0 +1,40 @@
+package com.ingilizce.calismaapp.config;
+
+import com.ingilizce.calismaapp.service.PiperAvailabilityMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Exposes the cached Piper snapshot as the {@code piperTts} health component.
+ * Speech is optional for the app, so a missing Piper reports UNKNOWN (which does
+ * not pull the aggregate status down) unless {@code piper.health.required} is set.
+ */
+@Component
+public class PiperTtsHealthIndicator implements HealthIndicator {
+
+    private final PiperAvailabilityMonitor availabilityMonitor;
+
+    @Value("${piper.health.required:false}")
+    private boolean required = false;
+
+    @Autowired
+    public PiperTtsHealthIndicator(PiperAvailabilityMonitor availabilityMonitor) {
+        this.availabilityMonitor = availabilityMonitor;
+    }
+
+    @Override
+    public Health health() {
+        PiperAvailabilityMonitor.Snapshot snapshot = availabilityMonitor.getSnapshot();
+        Status status = snapshot.available() ? Status.UP : (required ? Status.DOWN : Status.UNKNOWN);
+        return Health.status(status)
+                .withDetail("voices", snapshot.voices())
+                .withDetail("checkedAt", Instant.ofEpochMilli(snapshot.checkedAtMs()).toString())
+                .build();
+    }
+}
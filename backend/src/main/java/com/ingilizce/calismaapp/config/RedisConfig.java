@@ -1,6 +1,8 @@
 package com.ingilizce.calismaapp.config;
 
+import com.ingilizce.calismaapp.service.SentenceCacheService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisPassword;
@@ -8,6 +10,8 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -57,4 +61,16 @@ public class RedisConfig {
         return template;
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "cache.sentences.l1.invalidation.enabled", havingValue = "true")
+    public RedisMessageListenerContainer sentenceCacheInvalidationListener(
+            LettuceConnectionFactory redisConnectionFactory,
+            SentenceCacheService sentenceCacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(sentenceCacheService,
+                new ChannelTopic(SentenceCacheService.INVALIDATION_CHANNEL));
+        return container;
+    }
+
 }
@@ -1,7 +1,10 @@
 package com.ingilizce.calismaapp.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
@@ -10,8 +13,14 @@ import com.ingilizce.calismaapp.repository.WordReviewRepository;
 import com.ingilizce.calismaapp.repository.SentenceRepository;
 import com.ingilizce.calismaapp.repository.SentencePracticeRepository;
 import com.ingilizce.calismaapp.security.CurrentUserContext;
+import com.ingilizce.calismaapp.service.LearningStatsService;
+import com.ingilizce.calismaapp.service.SentenceWarmupService;
 import org.springframework.http.HttpStatus;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
@@ -31,19 +40,61 @@ public class AdminController {
     @Autowired
     private CurrentUserContext currentUserContext;
 
+    @Autowired
+    private SentenceWarmupService sentenceWarmupService;
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
     @PostMapping("/reset-data")
     public String resetData() {
-        if (currentUserContext.shouldEnforceAuthz() && !currentUserContext.hasRole("ADMIN")) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin role required");
-        }
+        requireAdmin();
         try {
             wordReviewRepository.deleteAll();
             sentencePracticeRepository.deleteAll();
             sentenceRepository.deleteAll();
             wordRepository.deleteAll();
+            learningStatsService.invalidateAll();
             return "Mock data (Words, Sentences, Reviews) reset successful.";
         } catch (Exception e) {
             return "Error resetting data: " + e.getMessage();
         }
     }
+
+    /**
+     * Starts a sentence cache warm-up in the background. An optional body
+     * {@code {"words":[...]}} replaces the repository ranking with an imported
+     * frequency-ordered list.
+     */
+    @PostMapping("/cache/sentences/warmup")
+    public ResponseEntity<Map<String, Object>> warmupSentenceCache(
+            @RequestBody(required = false) Map<String, Object> request) {
+        requireAdmin();
+        List<String> words = null;
+        if (request != null && request.get("words") instanceof List<?> rawWords) {
+            words = rawWords.stream().filter(String.class::isInstance).map(String.class::cast).toList();
+        }
+        Map<String, Object> response = new HashMap<>();
+        boolean started = sentenceWarmupService.trigger(words);
+        response.put("started", started);
+        response.put("running", sentenceWarmupService.isRunning() || started);
+        return started
+                ? ResponseEntity.accepted().body(response)
+                : ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @GetMapping("/cache/sentences/warmup")
+    public Map<String, Object> sentenceCacheWarmupStatus() {
+        requireAdmin();
+        Map<String, Object> response = new HashMap<>();
+        response.put("running", sentenceWarmupService.isRunning());
+        response.put("lastRun", sentenceWarmupService.getLastReport());
+        return response;
+    }
+
+    private void requireAdmin() {
+        if (currentUserContext.shouldEnforceAuthz() && !currentUserContext.hasRole("ADMIN")) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin role required");
+        }
+    }
 }
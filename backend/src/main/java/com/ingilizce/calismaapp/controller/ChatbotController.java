@@ -1,34 +1,43 @@
 package com.ingilizce.calismaapp.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.config.LlmRequestExecutor;
 import com.ingilizce.calismaapp.dto.PracticeSentence;
 import com.ingilizce.calismaapp.service.ChatbotService;
 import com.ingilizce.calismaapp.service.WordService;
 import com.ingilizce.calismaapp.service.GrammarCheckService;
+import com.ingilizce.calismaapp.service.LlmJobService;
+import com.ingilizce.calismaapp.service.LlmJsonDecoder;
+import com.ingilizce.calismaapp.service.PromptConcurrencyLimiter;
+import com.ingilizce.calismaapp.service.SentenceBatchService;
+import com.ingilizce.calismaapp.service.SentenceCacheService;
+import com.ingilizce.calismaapp.service.SentenceRequestCoalescer;
 import com.ingilizce.calismaapp.entity.Word;
-import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/chatbot")
 public class ChatbotController {
     private static final Logger log = LoggerFactory.getLogger(ChatbotController.class);
+    private static final Set<String> TRANSLATION_CHECK_FIELDS = Set.of("isCorrect", "correctTranslation", "feedback");
 
     @Autowired
     private ChatbotService chatbotService;
@@ -39,29 +48,26 @@ public class ChatbotController {
     @Autowired
     private com.ingilizce.calismaapp.repository.UserRepository userRepository;
 
-    @Autowired(required = false)
-    private RedisTemplate<String, String> redisTemplate;
-
     @Autowired(required = false)
     private GrammarCheckService grammarCheckService;
 
-    @Autowired(required = false)
-    private MeterRegistry meterRegistry;
+    @Autowired
+    private LlmRequestExecutor llmRequestExecutor;
+
+    @Autowired
+    private SentenceRequestCoalescer sentenceRequestCoalescer;
 
-    @Value("${cache.sentences.ttl:604800}") // Default: 7 days
-    private long cacheTtlSeconds;
+    @Autowired
+    private SentenceCacheService sentenceCacheService;
 
-    private final ObjectMapper objectMapper;
-    private static final String CACHE_KEY_PREFIX = "sentences:";
-    private static final String CACHE_LOOKUP_TOTAL_METRIC = "chatbot.sentences.cache.lookup.total";
-    private static final String CACHE_LOOKUP_LATENCY_METRIC = "chatbot.sentences.cache.lookup.latency";
-    private static final String CACHE_WRITE_TOTAL_METRIC = "chatbot.sentences.cache.write.total";
+    @Autowired
+    private SentenceBatchService sentenceBatchService;
 
-    public ChatbotController() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
-                false);
-    }
+    @Autowired
+    private LlmJobService llmJobService;
+
+    @Value("${chatbot.stream.timeout-ms:120000}")
+    private long streamTimeoutMs = 120000;
 
     // Securely retrieve UserID from the authenticated session (JWT)
     // private Long getUserId() { ... }
@@ -80,8 +86,12 @@ public class ChatbotController {
     }
 
     @PostMapping("/generate-sentences")
-    public ResponseEntity<Map<String, Object>> generateSentences(@RequestBody Map<String, Object> request,
-            @RequestHeader("X-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> generateSentences(
+            @RequestBody Map<String, Object> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleGenerateSentences(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleGenerateSentences(Map<String, Object> request, Long userId) {
         if (!checkSubscription(userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
         }
@@ -103,105 +113,30 @@ public class ChatbotController {
         }
 
         // Validate levels and lengths
-        List<String> validLevels = java.util.Arrays.asList("A1", "A2", "B1", "B2", "C1", "C2");
-        List<String> validLengths = java.util.Arrays.asList("short", "medium", "long");
-        levels = levels.stream()
-                .filter(validLevels::contains)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-        lengths = lengths.stream()
-                .filter(validLengths::contains)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-
-        if (levels.isEmpty())
-            levels = java.util.Arrays.asList("B1");
-        if (lengths.isEmpty())
-            lengths = java.util.Arrays.asList("medium");
+        levels = SentenceCacheService.normalizeLevels(levels);
+        lengths = SentenceCacheService.normalizeLengths(lengths);
 
         String normalizedWord = word.trim().toLowerCase();
         // Separate cache per user? Or global? Sentences are knowledge, so global is
         // fine.
-        String cacheKey = CACHE_KEY_PREFIX + normalizedWord + ":" + String.join(",", levels) + ":"
-                + String.join(",", lengths);
+        String cacheKey = SentenceCacheService.keyFor(normalizedWord, levels, lengths);
 
         try {
             List<PracticeSentence> allSentences;
             boolean cached = false;
 
-            Optional<List<PracticeSentence>> cachedSentences = loadSentencesFromCache(cacheKey);
+            List<String> requestedLevels = levels;
+            List<String> requestedLengths = lengths;
+            // Stale entries are still served; the refresher regenerates them in the background.
+            Optional<List<PracticeSentence>> cachedSentences = sentenceCacheService.get(cacheKey,
+                    () -> generateAndCacheSentences(cacheKey, normalizedWord, requestedLevels, requestedLengths));
             if (cachedSentences.isPresent()) {
                 allSentences = cachedSentences.get();
                 cached = true;
             } else {
-                StringBuilder levelLengthInfo = new StringBuilder();
-                levelLengthInfo.append("Generate 5 diverse sentences total, covering these combinations:\n");
-                for (String level : levels) {
-                    for (String length : lengths) {
-                        levelLengthInfo.append(String.format("- Level: %s, Length: %s\n", level, length));
-                    }
-                }
-                levelLengthInfo.append(
-                        "Distribute the 5 sentences across these combinations. Make sentences diverse and cover different meanings if the word has multiple meanings.");
-
-                String message = String.format("Target word: '%s'.\n%s", normalizedWord, levelLengthInfo.toString());
-
-                String jsonResponse = chatbotService.generateSentences(message);
-
-                // ... (Existing Parsing Logic)
-                jsonResponse = jsonResponse.trim();
-                jsonResponse = jsonResponse.replaceAll("```json", "").replaceAll("```", "").trim();
-
-                int arrayStartIndex = jsonResponse.indexOf('[');
-                if (arrayStartIndex > 0) {
-                    jsonResponse = jsonResponse.substring(arrayStartIndex);
-                }
-                int arrayEndIndex = jsonResponse.lastIndexOf(']');
-                if (arrayEndIndex > 0 && arrayEndIndex < jsonResponse.length() - 1) {
-                    jsonResponse = jsonResponse.substring(0, arrayEndIndex + 1);
-                }
-                jsonResponse = jsonResponse.trim();
-                jsonResponse = jsonResponse.replaceAll("\"turkishTransliteration\"", "\"turkishTranslation\"");
-                jsonResponse = jsonResponse.replaceAll("\"turkish_translation\"", "\"turkishTranslation\"");
-                jsonResponse = jsonResponse.replaceAll("\"turkish\"", "\"turkishTranslation\"");
-
-                allSentences = new ArrayList<>();
-                try {
-                    Object parsed = objectMapper.readValue(jsonResponse, Object.class);
-
-                    if (parsed instanceof List) {
-                        allSentences = objectMapper.readValue(
-                                jsonResponse,
-                                new TypeReference<List<PracticeSentence>>() {
-                                });
-                    } else {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> map = (Map<String, Object>) parsed;
-                        if (map.containsKey("sentences") && map.get("sentences") instanceof List) {
-                            allSentences = objectMapper.convertValue(
-                                    map.get("sentences"),
-                                    new TypeReference<List<PracticeSentence>>() {
-                                    });
-                        } else {
-                            try {
-                                PracticeSentence single = objectMapper.convertValue(parsed, PracticeSentence.class);
-                                allSentences.add(single);
-                            } catch (Exception ex) {
-                                throw new RuntimeException("Unexpected JSON format", ex);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to parse LLM response: " + e.getMessage(), e);
-                }
-
-                if (allSentences.size() > 5) {
-                    allSentences = allSentences.subList(0, 5);
-                }
-
-                storeSentencesToCache(cacheKey, allSentences);
+                allSentences = sentenceRequestCoalescer.load(cacheKey,
+                        () -> loadSentencesFromCache(cacheKey),
+                        () -> generateAndCacheSentences(cacheKey, normalizedWord, requestedLevels, requestedLengths));
             }
 
             // ... (Existing Grammar Check)
@@ -222,6 +157,9 @@ public class ChatbotController {
             result.put("cached", cached);
 
             return ResponseEntity.ok(result);
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            // Mapped to 503 + Retry-After by GlobalExceptionHandler.
+            throw e;
         } catch (Exception e) {
             log.error("Failed to generate sentences for userId={}, word={}", userId, request.get("word"), e);
             Map<String, Object> error = new HashMap<>();
@@ -230,85 +168,117 @@ public class ChatbotController {
         }
     }
 
-    private Optional<List<PracticeSentence>> loadSentencesFromCache(String cacheKey) {
-        long startNs = System.nanoTime();
-        String outcome = "miss";
-        try {
-            if (redisTemplate == null) {
-                outcome = "disabled";
-                return Optional.empty();
-            }
+    @PostMapping("/generate-sentences/batch")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> generateSentencesBatch(
+            @RequestBody Map<String, Object> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleGenerateSentencesBatch(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleGenerateSentencesBatch(Map<String, Object> request,
+            Long userId) {
+        if (!checkSubscription(userId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
+        }
+
+        if (!(request.get("words") instanceof List<?> rawWords) || rawWords.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please provide a non-empty words list"));
+        }
+        if (rawWords.size() > sentenceBatchService.getMaxWords()) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Too many words; maximum per request is " + sentenceBatchService.getMaxWords()));
+        }
+        List<String> words = rawWords.stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .collect(Collectors.toList());
+
+        @SuppressWarnings("unchecked")
+        List<String> levels = request.get("levels") != null ? (List<String>) request.get("levels")
+                : java.util.Arrays.asList("B1");
+        @SuppressWarnings("unchecked")
+        List<String> lengths = request.get("lengths") != null ? (List<String>) request.get("lengths")
+                : java.util.Arrays.asList("medium");
 
-            ValueOperations<String, String> ops = redisTemplate.opsForValue();
-            if (ops == null) {
-                outcome = "disabled";
-                return Optional.empty();
+        try {
+            SentenceBatchService.BatchResult batch = sentenceBatchService.generate(words,
+                    SentenceCacheService.normalizeLevels(levels), SentenceCacheService.normalizeLengths(lengths));
+            if (batch.results().isEmpty() && batch.failed().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Please provide a non-empty words list"));
             }
 
-            String cachedJson = ops.get(cacheKey);
-            if (cachedJson == null || cachedJson.isBlank()) {
-                return Optional.empty();
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (SentenceBatchService.WordResult wordResult : batch.results()) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("word", wordResult.word());
+                item.put("sentences", wordResult.sentences().stream()
+                        .map(PracticeSentence::englishSentence)
+                        .collect(Collectors.toList()));
+                item.put("translations", wordResult.sentences().stream()
+                        .map(ps -> ps.turkishFullTranslation() != null ? ps.turkishFullTranslation() : "")
+                        .collect(Collectors.toList()));
+                item.put("count", wordResult.sentences().size());
+                item.put("cached", wordResult.cached());
+                results.add(item);
             }
 
-            List<PracticeSentence> cachedSentences = objectMapper.readValue(
-                    cachedJson,
-                    new TypeReference<List<PracticeSentence>>() {
-                    });
-            outcome = "hit";
-            return Optional.of(cachedSentences);
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("failed", batch.failed());
+            response.put("cachedCount", batch.results().stream().filter(SentenceBatchService.WordResult::cached).count());
+            response.put("generatedCount", batch.results().stream().filter(r -> !r.cached()).count());
+            response.put("promptCount", batch.promptCount());
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
-            outcome = "error";
-            return Optional.empty();
-        } finally {
-            recordCacheLookupMetric(outcome, System.nanoTime() - startNs);
+            log.error("Failed to generate batch sentences for userId={}", userId, e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Failed to generate sentences: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
         }
     }
 
-    private void storeSentencesToCache(String cacheKey, List<PracticeSentence> sentences) {
-        if (redisTemplate == null || sentences == null || sentences.isEmpty()) {
-            recordCacheWriteMetric("skipped");
-            return;
+    private List<PracticeSentence> generateAndCacheSentences(String cacheKey, String normalizedWord,
+            List<String> levels, List<String> lengths) {
+        long startMs = System.currentTimeMillis();
+        StringBuilder levelLengthInfo = new StringBuilder();
+        levelLengthInfo.append("Generate 5 diverse sentences total, covering these combinations:\n");
+        for (String level : levels) {
+            for (String length : lengths) {
+                levelLengthInfo.append(String.format("- Level: %s, Length: %s\n", level, length));
+            }
         }
+        levelLengthInfo.append(
+                "Distribute the 5 sentences across these combinations. Make sentences diverse and cover different meanings if the word has multiple meanings.");
 
-        try {
-            ValueOperations<String, String> ops = redisTemplate.opsForValue();
-            if (ops == null) {
-                recordCacheWriteMetric("skipped");
-                return;
-            }
+        String message = String.format("Target word: '%s'.\n%s", normalizedWord, levelLengthInfo.toString());
 
-            String serialized = objectMapper.writeValueAsString(sentences);
-            if (cacheTtlSeconds > 0) {
-                ops.set(cacheKey, serialized, Duration.ofSeconds(cacheTtlSeconds));
-            } else {
-                ops.set(cacheKey, serialized);
-            }
-            recordCacheWriteMetric("stored");
-        } catch (Exception ignored) {
-            // Cache failures must not affect user-facing sentence generation.
-            recordCacheWriteMetric("error");
+        String jsonResponse = chatbotService.generateSentences(message);
+
+        List<PracticeSentence> allSentences;
+        try {
+            allSentences = LlmJsonDecoder.decodePracticeSentences(jsonResponse);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse LLM response: " + e.getMessage(), e);
         }
-    }
 
-    private void recordCacheLookupMetric(String outcome, long latencyNanos) {
-        if (meterRegistry == null) {
-            return;
+        if (allSentences.size() > 5) {
+            allSentences = allSentences.subList(0, 5);
         }
-        meterRegistry.counter(CACHE_LOOKUP_TOTAL_METRIC, "outcome", outcome).increment();
-        meterRegistry.timer(CACHE_LOOKUP_LATENCY_METRIC, "outcome", outcome)
-                .record(Math.max(0L, latencyNanos), TimeUnit.NANOSECONDS);
+
+        sentenceCacheService.put(cacheKey, allSentences, System.currentTimeMillis() - startMs);
+        return allSentences;
     }
 
-    private void recordCacheWriteMetric(String outcome) {
-        if (meterRegistry == null) {
-            return;
-        }
-        meterRegistry.counter(CACHE_WRITE_TOTAL_METRIC, "outcome", outcome).increment();
+    private Optional<List<PracticeSentence>> loadSentencesFromCache(String cacheKey) {
+        return sentenceCacheService.get(cacheKey);
     }
 
     @PostMapping("/check-grammar")
-    public ResponseEntity<Map<String, Object>> checkGrammar(@RequestBody Map<String, String> request,
-            @RequestHeader("X-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> checkGrammar(
+            @RequestBody Map<String, String> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleCheckGrammar(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleCheckGrammar(Map<String, String> request, Long userId) {
         if (!checkSubscription(userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
         }
@@ -321,6 +291,8 @@ public class ChatbotController {
         try {
             Map<String, Object> result = grammarCheckService.checkGrammar(sentence);
             return ResponseEntity.ok(result);
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Grammar check failed: " + e.getMessage()));
@@ -328,8 +300,12 @@ public class ChatbotController {
     }
 
     @PostMapping("/check-translation")
-    public ResponseEntity<Map<String, Object>> checkTranslation(@RequestBody Map<String, String> request,
-            @RequestHeader("X-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> checkTranslation(
+            @RequestBody Map<String, String> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleCheckTranslation(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleCheckTranslation(Map<String, String> request, Long userId) {
         if (!checkSubscription(userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
         }
@@ -370,6 +346,8 @@ public class ChatbotController {
                 response = chatbotService.checkTranslation(combinedMessage);
             }
             return ResponseEntity.ok(parseJsonResponse(response));
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to check translation", e);
             return ResponseEntity.internalServerError()
@@ -381,43 +359,19 @@ public class ChatbotController {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            // Clean response - remove markdown code blocks if present
-            response = response.trim();
-            response = response.replaceAll("```json", "").replaceAll("```", "").trim();
-
-            // Try to extract JSON object
-            int jsonStart = response.indexOf("{");
-            int jsonEnd = response.lastIndexOf("}") + 1;
-
-            if (jsonStart >= 0 && jsonEnd > jsonStart) {
-                String jsonStr = response.substring(jsonStart, jsonEnd);
-
-                // Parse isCorrect
-                Pattern isCorrectPattern = Pattern.compile("\"isCorrect\"\\s*:\\s*(true|false)");
-                Matcher isCorrectMatcher = isCorrectPattern.matcher(jsonStr);
-                if (isCorrectMatcher.find()) {
-                    result.put("isCorrect", Boolean.parseBoolean(isCorrectMatcher.group(1)));
-                } else {
-                    result.put("isCorrect", false);
-                }
+            Optional<Map<String, Object>> fields = LlmJsonDecoder.salvageFields(response, TRANSLATION_CHECK_FIELDS);
 
-                // Extract correctTranslation
-                Pattern correctPattern = Pattern.compile("\"correctTranslation\"\\s*:\\s*\"([^\"]+)\"");
-                Matcher correctMatcher = correctPattern.matcher(jsonStr);
-                if (correctMatcher.find()) {
-                    result.put("correctTranslation", correctMatcher.group(1));
-                } else {
-                    result.put("correctTranslation", "");
-                }
+            if (fields.isPresent()) {
+                Object isCorrect = fields.get().get("isCorrect");
+                result.put("isCorrect", isCorrect instanceof Boolean ? isCorrect : false);
 
-                // Extract feedback
-                Pattern feedbackPattern = Pattern.compile("\"feedback\"\\s*:\\s*\"([^\"]+)\"");
-                Matcher feedbackMatcher = feedbackPattern.matcher(jsonStr);
-                if (feedbackMatcher.find()) {
-                    result.put("feedback", feedbackMatcher.group(1));
-                } else {
-                    result.put("feedback", "Çeviri kontrol edildi.");
-                }
+                Object correctTranslation = fields.get().get("correctTranslation");
+                result.put("correctTranslation", correctTranslation instanceof String text && !text.isEmpty()
+                        ? text : "");
+
+                Object feedback = fields.get().get("feedback");
+                result.put("feedback", feedback instanceof String text && !text.isEmpty()
+                        ? text : "Çeviri kontrol edildi.");
             } else {
                 // If no JSON found, try to infer from text
                 boolean isCorrect = response.toLowerCase().contains("\"isCorrect\":true") ||
@@ -496,8 +450,12 @@ public class ChatbotController {
     }
 
     @PostMapping("/chat")
-    public ResponseEntity<Map<String, Object>> chat(@RequestBody Map<String, String> request,
-            @RequestHeader("X-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> chat(
+            @RequestBody Map<String, String> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleChat(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleChat(Map<String, String> request, Long userId) {
         if (!checkSubscription(userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
         }
@@ -513,6 +471,8 @@ public class ChatbotController {
             result.put("response", response);
             result.put("timestamp", System.currentTimeMillis());
             return ResponseEntity.ok(result);
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to get chatbot response for userId={}", userId, e);
             return ResponseEntity.internalServerError()
@@ -520,9 +480,48 @@ public class ChatbotController {
         }
     }
 
-    @PostMapping("/speaking-test/generate-questions")
-    public ResponseEntity<Map<String, Object>> generateSpeakingTestQuestions(@RequestBody Map<String, String> request,
+    /**
+     * SSE variant of {@code /chat}: "delta" events carry {@code {"text": ...}} as tokens
+     * arrive, then one "done" event with the usual response body (or an "error" event).
+     * Closing the connection cancels the upstream Groq stream.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(@RequestBody Map<String, String> request,
             @RequestHeader("X-User-Id") Long userId) {
+        if (!checkSubscription(userId)) {
+            return errorStream(HttpStatus.FORBIDDEN, "Subscription expired or not active.");
+        }
+
+        String message = request.get("message");
+        if (message == null || message.trim().isEmpty()) {
+            return errorStream(HttpStatus.BAD_REQUEST, "Please provide a message");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        CompletableFuture<String> stream;
+        try {
+            stream = chatbotService.chatStream(message.trim(),
+                    delta -> sendStreamEvent(emitter, "delta", Map.of("text", delta)));
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            return busyStream(e);
+        }
+        relayStream(emitter, stream, response -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("response", response);
+            result.put("timestamp", System.currentTimeMillis());
+            return result;
+        }, "Failed to get response: ", userId);
+        return ResponseEntity.ok(emitter);
+    }
+
+    @PostMapping("/speaking-test/generate-questions")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> generateSpeakingTestQuestions(
+            @RequestBody Map<String, String> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleGenerateSpeakingTestQuestions(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleGenerateSpeakingTestQuestions(Map<String, String> request,
+            Long userId) {
         if (!checkSubscription(userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
         }
@@ -535,16 +534,9 @@ public class ChatbotController {
         }
 
         try {
-            String message = String.format("Generate %s Speaking test questions for %s. Return ONLY JSON.", testType,
-                    part);
-            String response = chatbotService.generateSpeakingTestQuestions(message);
-
-            response = response.trim();
-            response = response.replaceAll("```json", "").replaceAll("```", "").trim();
-
-            Map<String, Object> result = objectMapper.readValue(response, new TypeReference<Map<String, Object>>() {
-            });
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(generateSpeakingQuestions(testType, part));
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to generate speaking test questions for userId={}", userId, e);
             return ResponseEntity.internalServerError()
@@ -552,9 +544,19 @@ public class ChatbotController {
         }
     }
 
+    private Map<String, Object> generateSpeakingQuestions(String testType, String part) throws Exception {
+        String message = String.format("Generate %s Speaking test questions for %s. Return ONLY JSON.", testType,
+                part);
+        return LlmJsonDecoder.decodeObject(chatbotService.generateSpeakingTestQuestions(message));
+    }
+
     @PostMapping("/speaking-test/evaluate")
-    public ResponseEntity<Map<String, Object>> evaluateSpeakingTest(@RequestBody Map<String, String> request,
-            @RequestHeader("X-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> evaluateSpeakingTest(
+            @RequestBody Map<String, String> request, @RequestHeader("X-User-Id") Long userId) {
+        return llmRequestExecutor.submit(() -> handleEvaluateSpeakingTest(request, userId));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleEvaluateSpeakingTest(Map<String, String> request, Long userId) {
         if (!checkSubscription(userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
         }
@@ -568,21 +570,219 @@ public class ChatbotController {
         }
 
         try {
-            String message = String.format(
-                    "Evaluate this %s Speaking test response. Question: %s. Candidate's response: %s. Return ONLY JSON.",
-                    testType, question, response);
-            String llmResponse = chatbotService.evaluateSpeakingTest(message);
-
-            llmResponse = llmResponse.trim();
-            llmResponse = llmResponse.replaceAll("```json", "").replaceAll("```", "").trim();
-
-            Map<String, Object> result = objectMapper.readValue(llmResponse, new TypeReference<Map<String, Object>>() {
-            });
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(evaluateSpeakingResponse(testType, question, response));
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to evaluate speaking test for userId={}", userId, e);
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Failed to evaluate response: " + e.getMessage()));
         }
     }
+
+    private Map<String, Object> evaluateSpeakingResponse(String testType, String question, String response)
+            throws Exception {
+        String message = String.format(
+                "Evaluate this %s Speaking test response. Question: %s. Candidate's response: %s. Return ONLY JSON.",
+                testType, question, response);
+        return LlmJsonDecoder.decodeObject(chatbotService.evaluateSpeakingTest(message));
+    }
+
+    /**
+     * Job variant of {@code /speaking-test/generate-questions}: answers 202 with a job id
+     * at once. Poll {@code GET /jobs/{jobId}} or listen on {@code /jobs/{jobId}/events}.
+     * Resending with the same {@code Idempotency-Key} returns the same job.
+     */
+    @PostMapping("/speaking-test/generate-questions/jobs")
+    public ResponseEntity<Map<String, Object>> submitGenerateSpeakingTestQuestionsJob(
+            @RequestBody Map<String, String> request, @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (!checkSubscription(userId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
+        }
+        String testType = request.get("testType");
+        String part = request.get("part");
+        if (testType == null || part == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please provide testType and part"));
+        }
+        LlmJobService.Submission submission = llmJobService.submit(userId, "speaking_questions", idempotencyKey,
+                () -> runJob("Failed to generate questions: ", () -> generateSpeakingQuestions(testType, part)));
+        return jobAccepted(submission);
+    }
+
+    /**
+     * Job variant of {@code /speaking-test/evaluate}; see
+     * {@link #submitGenerateSpeakingTestQuestionsJob}.
+     */
+    @PostMapping("/speaking-test/evaluate/jobs")
+    public ResponseEntity<Map<String, Object>> submitEvaluateSpeakingTestJob(@RequestBody Map<String, String> request,
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (!checkSubscription(userId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Subscription expired or not active."));
+        }
+        String testType = request.get("testType");
+        String question = request.get("question");
+        String response = request.get("response");
+        if (testType == null || question == null || response == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please provide testType, question, and response"));
+        }
+        LlmJobService.Submission submission = llmJobService.submit(userId, "speaking_evaluation", idempotencyKey,
+                () -> runJob("Failed to evaluate response: ",
+                        () -> evaluateSpeakingResponse(testType, question, response)));
+        return jobAccepted(submission);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<LlmJobService.Job> getJob(@PathVariable String jobId,
+            @RequestHeader("X-User-Id") Long userId) {
+        return llmJobService.get(jobId)
+                .filter(job -> userId.equals(job.userId()))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * One "done" or "error" event carrying the job record when the job finishes.
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId, @RequestHeader("X-User-Id") Long userId) {
+        Optional<LlmJobService.Job> job = llmJobService.get(jobId).filter(found -> userId.equals(found.userId()));
+        if (job.isEmpty()) {
+            return errorStream(HttpStatus.NOT_FOUND, "Job not found");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Runnable stopWatching = llmJobService.watch(jobId, finished -> {
+            try {
+                sendStreamEvent(emitter, LlmJobService.STATUS_DONE.equals(finished.status()) ? "done" : "error",
+                        finished);
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(stopWatching);
+        emitter.onTimeout(stopWatching);
+        emitter.onError(error -> stopWatching.run());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private interface JobWork {
+        Map<String, Object> call() throws Exception;
+    }
+
+    private static Map<String, Object> runJob(String errorPrefix, JobWork work) {
+        try {
+            return work.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(errorPrefix + e.getMessage(), e);
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> jobAccepted(LlmJobService.Submission submission) {
+        LlmJobService.Job job = submission.job();
+        Map<String, Object> body = new HashMap<>();
+        body.put("jobId", job.id());
+        body.put("status", job.status());
+        body.put("existing", submission.existing());
+        body.put("statusUrl", "/api/chatbot/jobs/" + job.id());
+        body.put("eventsUrl", "/api/chatbot/jobs/" + job.id() + "/events");
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/chatbot/jobs/" + job.id())
+                .body(body);
+    }
+
+    /**
+     * SSE variant of {@code /speaking-test/evaluate}; the "done" event carries the
+     * parsed evaluation JSON.
+     */
+    @PostMapping(value = "/speaking-test/evaluate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> evaluateSpeakingTestStream(@RequestBody Map<String, String> request,
+            @RequestHeader("X-User-Id") Long userId) {
+        if (!checkSubscription(userId)) {
+            return errorStream(HttpStatus.FORBIDDEN, "Subscription expired or not active.");
+        }
+
+        String testType = request.get("testType");
+        String question = request.get("question");
+        String response = request.get("response");
+        if (testType == null || question == null || response == null) {
+            return errorStream(HttpStatus.BAD_REQUEST, "Please provide testType, question, and response");
+        }
+
+        String message = String.format(
+                "Evaluate this %s Speaking test response. Question: %s. Candidate's response: %s. Return ONLY JSON.",
+                testType, question, response);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        CompletableFuture<String> stream;
+        try {
+            stream = chatbotService.evaluateSpeakingTestStream(message,
+                    delta -> sendStreamEvent(emitter, "delta", Map.of("text", delta)));
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            return busyStream(e);
+        }
+        relayStream(emitter, stream, LlmJsonDecoder::decodeObject, "Failed to evaluate response: ", userId);
+        return ResponseEntity.ok(emitter);
+    }
+
+    private void relayStream(SseEmitter emitter, CompletableFuture<String> stream,
+            Function<String, Map<String, Object>> toResult, String errorPrefix, Long userId) {
+        Runnable cancel = () -> stream.cancel(true);
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+
+        stream.whenComplete((full, error) -> {
+            if (stream.isCancelled()) {
+                return;
+            }
+            try {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (cause instanceof CancellationException) {
+                        return;
+                    }
+                    log.error("Streaming chatbot response failed for userId={}", userId, cause);
+                    sendStreamEvent(emitter, "error", Map.of("error", errorPrefix + cause.getMessage()));
+                } else {
+                    sendStreamEvent(emitter, "done", toResult.apply(full));
+                }
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+    }
+
+    private static void sendStreamEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            // Client disconnected; surfacing it lets the Groq stream stop reading.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ResponseEntity<SseEmitter> errorStream(HttpStatus status, String message) {
+        SseEmitter emitter = new SseEmitter();
+        try {
+            sendStreamEvent(emitter, "error", Map.of("error", message));
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status).body(emitter);
+    }
+
+    private static ResponseEntity<SseEmitter> busyStream(PromptConcurrencyLimiter.LimitExceededException e) {
+        ResponseEntity<SseEmitter> busy = errorStream(HttpStatus.SERVICE_UNAVAILABLE,
+                "AI service is busy, please retry shortly");
+        return ResponseEntity.status(busy.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(busy.getBody());
+    }
 }
@@ -1,15 +1,20 @@
 package com.ingilizce.calismaapp.controller;
 
+import com.ingilizce.calismaapp.config.LlmRequestExecutor;
 import com.ingilizce.calismaapp.service.GrammarCheckService;
+import com.ingilizce.calismaapp.service.PromptConcurrencyLimiter;
 import com.ingilizce.calismaapp.security.CurrentUserContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for grammar checking functionality
@@ -25,6 +30,9 @@ public class GrammarController {
     @Autowired
     private CurrentUserContext currentUserContext;
 
+    @Autowired
+    private LlmRequestExecutor llmRequestExecutor;
+
     /**
      * Check grammar for a single sentence
      * 
@@ -52,7 +60,12 @@ public class GrammarController {
      *         }
      */
     @PostMapping("/check")
-    public ResponseEntity<Map<String, Object>> checkGrammar(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> checkGrammar(
+            @RequestBody Map<String, String> request) {
+        return llmRequestExecutor.submit(() -> handleCheckGrammar(request));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleCheckGrammar(Map<String, String> request) {
         try {
             String sentence = request.get("sentence");
 
@@ -68,6 +81,9 @@ public class GrammarController {
             Map<String, Object> result = grammarCheckService.checkGrammar(sentence);
             return ResponseEntity.ok(result);
 
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            // Mapped to 503 + Retry-After by GlobalExceptionHandler.
+            throw e;
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("hasErrors", false);
@@ -106,12 +122,19 @@ public class GrammarController {
      *         }
      */
     @PostMapping("/check-multiple")
-    public ResponseEntity<Map<String, List<Map<String, Object>>>> checkMultipleSentences(
+    public CompletableFuture<ResponseEntity<Map<String, List<Map<String, Object>>>>> checkMultipleSentences(
             @RequestBody Map<String, List<String>> request) {
+        return llmRequestExecutor.submit(() -> handleCheckMultipleSentences(request));
+    }
+
+    private ResponseEntity<Map<String, List<Map<String, Object>>>> handleCheckMultipleSentences(
+            Map<String, List<String>> request) {
         try {
             List<String> sentences = request.get("sentences");
 
-            if (sentences == null || sentences.isEmpty()) {
+            // Same cap as /check-batch: both fan out on the same executor.
+            if (sentences == null || sentences.isEmpty()
+                    || sentences.size() > grammarCheckService.getMaxBatchSentences()) {
                 return ResponseEntity.badRequest().body(Map.of());
             }
 
@@ -119,11 +142,92 @@ public class GrammarController {
 
             return ResponseEntity.ok(results);
 
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of());
         }
     }
 
+    /**
+     * Check a whole practice session in one call. Sentences are packed into shared
+     * prompts and checked in parallel; a sentence that could not be checked comes
+     * back with status "failed" instead of failing the batch.
+     * 
+     * @param request Map containing "sentences" array
+     * @return Per-sentence results in request order, plus totals
+     * 
+     *         Example request:
+     *         {
+     *         "sentences": ["I goes to school", "She plays tennis"]
+     *         }
+     * 
+     *         Example response:
+     *         {
+     *         "results": [
+     *         { "sentence": "I goes to school", "status": "ok", "hasErrors": true, "errorCount": 1, "errors": [...] },
+     *         { "sentence": "She plays tennis", "status": "failed", "message": "..." }
+     *         ],
+     *         "total": 2,
+     *         "failed": 1,
+     *         "withErrors": 1
+     *         }
+     */
+    @PostMapping("/check-batch")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> checkBatch(
+            @RequestBody Map<String, List<String>> request) {
+        return llmRequestExecutor.submit(() -> handleCheckBatch(request));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleCheckBatch(Map<String, List<String>> request) {
+        try {
+            List<String> sentences = request.get("sentences");
+
+            if (sentences == null || sentences.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("message", "No sentences provided"));
+            }
+            int maxSentences = grammarCheckService.getMaxBatchSentences();
+            if (sentences.size() > maxSentences) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("message", "At most " + maxSentences + " sentences per request"));
+            }
+
+            GrammarCheckService.BatchResult batch = grammarCheckService.checkBatch(sentences);
+            List<Map<String, Object>> results = new ArrayList<>();
+            int failed = 0;
+            int withErrors = 0;
+            for (GrammarCheckService.SentenceResult sentenceResult : batch.results()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("sentence", sentenceResult.sentence());
+                if (sentenceResult.isFailed()) {
+                    failed++;
+                    item.put("status", "failed");
+                    item.put("message", sentenceResult.error());
+                } else {
+                    item.put("status", "ok");
+                    item.putAll(sentenceResult.result());
+                    if (Boolean.TRUE.equals(sentenceResult.result().get("hasErrors"))) {
+                        withErrors++;
+                    }
+                }
+                results.add(item);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("total", results.size());
+            response.put("failed", failed);
+            response.put("withErrors", withErrors);
+            return ResponseEntity.ok(response);
+
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("message", "Grammar check failed: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get grammar checker status
      * 
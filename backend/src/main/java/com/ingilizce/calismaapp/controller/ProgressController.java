@@ -1,6 +1,7 @@
 package com.ingilizce.calismaapp.controller;
 
 import com.ingilizce.calismaapp.model.Achievement;
+import com.ingilizce.calismaapp.service.ProgressEngine;
 import com.ingilizce.calismaapp.service.ProgressService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +20,10 @@ public class ProgressController {
     @Autowired
     private ProgressService progressService;
 
+    // XP writes go through the engine so they never race its buffered increments
+    @Autowired
+    private ProgressEngine progressEngine;
+
     /**
      * Get user progress stats (XP, level, streak)
      */
@@ -65,7 +70,7 @@ public class ProgressController {
     @PostMapping("/check-achievements")
     public ResponseEntity<List<Achievement>> checkAchievements(@RequestHeader("X-User-Id") Long userId) {
         try {
-            List<Achievement> newAchievements = progressService.checkAndUnlockAchievements(userId);
+            List<Achievement> newAchievements = progressEngine.checkAchievements(userId);
             return ResponseEntity.ok(newAchievements);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -82,7 +87,9 @@ public class ProgressController {
             int xp = Integer.parseInt(request.get("xp").toString());
             String reason = request.getOrDefault("reason", "Manual award").toString();
 
-            progressService.awardXp(userId, xp, reason);
+            progressEngine.awardXp(userId, xp, reason);
+            // Writes the XP (and any rewards) before reading the stats back
+            progressEngine.checkAchievements(userId);
             Map<String, Object> stats = progressService.getStats(userId);
 
             return ResponseEntity.ok(stats);
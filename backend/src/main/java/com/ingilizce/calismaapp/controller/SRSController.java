@@ -1,10 +1,16 @@
 package com.ingilizce.calismaapp.controller;
 
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.service.SRSService;
+import com.ingilizce.calismaapp.service.TtsPrerenderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -19,6 +25,9 @@ public class SRSController {
     @Autowired
     private SRSService srsService;
 
+    @Autowired
+    private TtsPrerenderService ttsPrerenderService;
+
     /**
      * Get words that need review today
      * 
@@ -34,6 +43,55 @@ public class SRSController {
         }
     }
 
+    /**
+     * Words due for review as summaries: no sentences, just how many each word has.
+     */
+    @GetMapping("/review-words/summary")
+    public ResponseEntity<List<WordSummary>> getReviewWordSummaries(@RequestHeader("X-User-Id") Long userId) {
+        return ResponseEntity.ok(srsService.getReviewSummaries(userId));
+    }
+
+    /**
+     * Audio manifest for today's review session: every due word and its example
+     * sentences, with the URL and ETag of each clip. Clips not rendered yet are
+     * queued for background rendering and listed as {@code pending}.
+     *
+     * Example response:
+     * {
+     * "voice": "amy",
+     * "total": 2, "ready": 1, "pending": 1,
+     * "clips": [
+     * { "kind": "word", "wordId": 7, "text": "apple", "etag": "...",
+     * "url": "/api/tts/audio?text=apple&voice=amy", "status": "ready" }, ...
+     * ]
+     * }
+     */
+    @GetMapping("/review-audio")
+    public ResponseEntity<TtsPrerenderService.Manifest> getReviewAudioManifest(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(value = "voice", required = false) String voice) {
+        try {
+            return ResponseEntity.ok(ttsPrerenderService.prerenderReviewSession(userId, voice));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * The same session as one zip download: a WAV per clip plus manifest.json.
+     */
+    @GetMapping(value = "/review-audio/zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> getReviewAudioZip(@RequestHeader("X-User-Id") Long userId,
+            @RequestParam(value = "voice", required = false) String voice) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("review-audio.zip").build().toString())
+                .body(out -> ttsPrerenderService.writeZip(userId, voice, out));
+    }
+
     /**
      * Submit a review result
      * 
@@ -1,23 +1,26 @@
 package com.ingilizce.calismaapp.controller;
 
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
+import com.ingilizce.calismaapp.dto.SentenceFeedItem;
+import com.ingilizce.calismaapp.dto.SentenceStats;
 import com.ingilizce.calismaapp.entity.SentencePractice;
 import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.service.LearningStatsService;
+import com.ingilizce.calismaapp.service.SentenceFeedService;
 import com.ingilizce.calismaapp.service.SentencePracticeService;
 import com.ingilizce.calismaapp.repository.SentenceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
 
 @RestController
 @RequestMapping("/api/sentences")
@@ -30,60 +33,33 @@ public class SentencePracticeController {
     @Autowired
     private SentenceRepository sentenceRepository;
 
-    // Get all sentences from both tables (User Scoped)
+    @Autowired
+    private SentenceFeedService sentenceFeedService;
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
+    // Practice and word sentences merged newest first (User Scoped)
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllSentences(
+    public ResponseEntity<List<SentenceFeedItem>> getAllSentences(
             @RequestHeader("X-User-Id") Long userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "100") int size) {
         int normalizedPage = Math.max(page, 0);
         int normalizedSize = Math.min(Math.max(size, 1), 200);
-        List<Map<String, Object>> allSentences = new ArrayList<>();
-
-        // Get sentences from sentence_practices table
-        List<SentencePractice> practiceSentences = sentencePracticeService
-                .getPracticeSentencesPage(userId, normalizedPage, normalizedSize)
-                .getContent();
-        log.debug("Found {} practice sentences for user {}", practiceSentences.size(), userId);
-        for (SentencePractice sp : practiceSentences) {
-            Map<String, Object> sentenceMap = new HashMap<>();
-            sentenceMap.put("id", "practice_" + sp.getId());
-            sentenceMap.put("englishSentence", sp.getEnglishSentence());
-            sentenceMap.put("turkishTranslation", sp.getTurkishTranslation());
-            sentenceMap.put("difficulty", sp.getDifficulty());
-            sentenceMap.put("createdDate", sp.getCreatedDate());
-            sentenceMap.put("source", "practice");
-            allSentences.add(sentenceMap);
-        }
-
-        // Get sentences from sentences table with word information
-        List<Sentence> wordSentences = sentenceRepository
-                .findAllWithWordByUserId(userId, PageRequest.of(normalizedPage, normalizedSize))
-                .getContent();
-        log.debug("Found {} word sentences for user {}", wordSentences.size(), userId);
-        for (Sentence s : wordSentences) {
-            Map<String, Object> sentenceMap = new HashMap<>();
-            sentenceMap.put("id", "word_" + s.getId());
-            sentenceMap.put("englishSentence", s.getSentence());
-            sentenceMap.put("turkishTranslation", s.getTranslation());
-            String difficulty = s.getDifficulty();
-            if (difficulty == null || difficulty.trim().isEmpty()) {
-                difficulty = "easy";
-            } else {
-                difficulty = difficulty.toLowerCase();
-            }
-            sentenceMap.put("difficulty", difficulty);
-            sentenceMap.put("createdDate", s.getWord() != null ? s.getWord().getLearnedDate() : null);
-            sentenceMap.put("source", "word");
-            // Add word information
-            if (s.getWord() != null) {
-                sentenceMap.put("word", s.getWord().getEnglishWord());
-                sentenceMap.put("wordTranslation", s.getWord().getTurkishMeaning());
-            }
-            allSentences.add(sentenceMap);
-        }
+        List<SentenceFeedItem> sentences = sentenceFeedService.getFeedPage(userId, normalizedPage, normalizedSize);
+        log.debug("Found {} sentences for user {}", sentences.size(), userId);
+        return ResponseEntity.ok(sentences);
+    }
 
-        return ResponseEntity.ok(allSentences);
+    // Same list with an opaque cursor instead of page numbers
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<SentenceFeedItem>> getSentenceFeed(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        int normalizedSize = Math.min(Math.max(size, 1), 200);
+        return ResponseEntity.ok(sentenceFeedService.getFeedAfter(userId, cursor, normalizedSize));
     }
 
     @GetMapping("/practice/paged")
@@ -98,6 +74,32 @@ public class SentencePracticeController {
                         normalizedSize));
     }
 
+    @GetMapping("/practice/cursor")
+    public ResponseEntity<CursorPage<SentencePractice>> getPracticeSentencesByCursor(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        int normalizedSize = Math.min(Math.max(size, 1), 200);
+        return ResponseEntity.ok(sentencePracticeService.getPracticeSentencesAfter(userId,
+                KeysetCursor.decode(cursor), normalizedSize));
+    }
+
+    // Word sentences, newest first by id; the cursor's date is informational only
+    @GetMapping("/word-sentences/cursor")
+    public ResponseEntity<CursorPage<Sentence>> getWordSentencesByCursor(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        int normalizedSize = Math.min(Math.max(size, 1), 200);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit limit = Limit.of(normalizedSize + 1);
+        List<Sentence> rows = after == null
+                ? sentenceRepository.findFirstKeysetPageWithWord(userId, limit)
+                : sentenceRepository.findKeysetPageWithWordBefore(userId, after.id(), limit);
+        return ResponseEntity.ok(CursorPage.of(rows, normalizedSize,
+                s -> new KeysetCursor(s.getWord().getLearnedDate(), s.getId())));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SentencePractice> getSentenceById(@PathVariable Long id,
             @RequestHeader("X-User-Id") Long userId) {
@@ -144,6 +146,7 @@ public class SentencePracticeController {
                     return ResponseEntity.notFound().build();
                 }
                 sentenceRepository.delete(sentence.get());
+                learningStatsService.invalidate(userId);
                 return ResponseEntity.ok().build();
             } else {
                 Long numericId = Long.parseLong(id);
@@ -212,34 +215,9 @@ public class SentencePracticeController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<Object> getStatistics(
+    public ResponseEntity<SentenceStats> getStatistics(
             @RequestHeader("X-User-Id") Long userId) {
-
-        // Count from sentence_practices table
-        long practiceTotal = sentencePracticeService.getTotalSentenceCount(userId);
-        long practiceEasy = sentencePracticeService.getSentenceCountByDifficulty(userId,
-                SentencePractice.DifficultyLevel.EASY);
-        long practiceMedium = sentencePracticeService.getSentenceCountByDifficulty(userId,
-                SentencePractice.DifficultyLevel.MEDIUM);
-        long practiceHard = sentencePracticeService.getSentenceCountByDifficulty(userId,
-                SentencePractice.DifficultyLevel.HARD);
-
-        // Count from sentences table with actual difficulty
-        long wordTotal = sentenceRepository.countByUserId(userId);
-        long wordEasy = sentenceRepository.countByDifficultyAndUserId("easy", userId);
-        long wordMedium = sentenceRepository.countByDifficultyAndUserId("medium", userId);
-        long wordHard = sentenceRepository.countByDifficultyAndUserId("hard", userId);
-
-        long totalCount = practiceTotal + wordTotal;
-        long easyCount = practiceEasy + wordEasy;
-        long mediumCount = practiceMedium + wordMedium;
-        long hardCount = practiceHard + wordHard;
-
-        return ResponseEntity.ok(new Object() {
-            public final long total = totalCount;
-            public final long easy = easyCount;
-            public final long medium = mediumCount;
-            public final long hard = hardCount;
-        });
+        // Practice and word sentences, one aggregate query each
+        return ResponseEntity.ok(learningStatsService.sentenceStats(userId));
     }
 }
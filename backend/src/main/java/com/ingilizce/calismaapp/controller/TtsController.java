@@ -1,25 +1,51 @@
 package com.ingilizce.calismaapp.controller;
 
+import com.ingilizce.calismaapp.config.LlmRequestExecutor;
+import com.ingilizce.calismaapp.service.PiperAvailabilityMonitor;
 import com.ingilizce.calismaapp.service.PiperTtsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/tts")
 public class TtsController {
     private static final Logger log = LoggerFactory.getLogger(TtsController.class);
+    private static final MediaType AUDIO_WAV = MediaType.parseMediaType("audio/wav");
+    // Content-addressed: the same URL always yields the same clip.
+    private static final CacheControl AUDIO_CACHE_CONTROL = CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic();
 
     @Autowired
     private PiperTtsService piperTtsService;
 
+    @Autowired
+    private PiperAvailabilityMonitor piperAvailabilityMonitor;
+
+    @Autowired
+    private LlmRequestExecutor llmRequestExecutor;
+
     @PostMapping("/synthesize")
-    public ResponseEntity<?> synthesize(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Object>> synthesize(@RequestBody Map<String, String> request) {
+        // Piper process wait is as slow as an LLM call; keep it off the servlet worker pool.
+        return llmRequestExecutor.submit(() -> handleSynthesize(request));
+    }
+
+    private ResponseEntity<Object> handleSynthesize(Map<String, String> request) {
         String text = request.get("text");
         String voice = request.get("voice");
 
@@ -30,7 +56,13 @@ public class TtsController {
         }
 
         try {
-            if (!piperTtsService.isAvailable()) {
+            // Repeat words/sentences are served from the audio cache without forking Piper.
+            Optional<String> cached = piperTtsService.findCachedSpeech(text.trim(), voice);
+            if (cached.isPresent()) {
+                return ResponseEntity.ok(Map.of("audio", cached.get()));
+            }
+
+            if (!piperAvailabilityMonitor.isAvailable()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Piper TTS is not available.");
                 error.put("available", false);
@@ -54,12 +86,99 @@ public class TtsController {
         }
     }
 
+    /**
+     * Binary counterpart of {@code POST /synthesize}: returns {@code audio/wav} bytes
+     * instead of Base64 in JSON. It is a GET so that browsers and CDNs can cache it.
+     * The ETag is the clip's content address, so {@code If-None-Match} is answered
+     * with 304 before any synthesis. It is weak: Piper does not render byte-identical
+     * WAVs, so two renders of the same text are equivalent but not interchangeable
+     * byte for byte. For the same reason {@code Range} (single range) is honoured only
+     * for the stored cache entry and never with {@code If-Range}, which needs a strong
+     * validator; a clip that is not cached yet is streamed whole from Piper as it is
+     * produced.
+     */
+    @GetMapping("/audio")
+    public ResponseEntity<StreamingResponseBody> audio(@RequestParam(value = "text", required = false) String text,
+                                                       @RequestParam(value = "voice", required = false) String voice,
+                                                       @RequestHeader HttpHeaders requestHeaders) {
+        if (text == null || text.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        String trimmed = text.trim();
+        String opaqueTag = "\"" + piperTtsService.getAudioETag(trimmed, voice) + "\"";
+        String etag = "W/" + opaqueTag;
+        // If-None-Match uses the weak comparison, so either form of the tag matches.
+        for (String candidate : requestHeaders.getIfNoneMatch()) {
+            if ("*".equals(candidate) || opaqueTag.equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(AUDIO_CACHE_CONTROL).build();
+            }
+        }
+
+        List<HttpRange> ranges;
+        try {
+            // A weak ETag can never satisfy If-Range, so such a request gets the whole clip.
+            ranges = requestHeaders.containsKey(HttpHeaders.IF_RANGE) ? List.of() : requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+
+        try {
+            Optional<byte[]> cached = piperTtsService.findCachedAudio(trimmed, voice);
+            if (cached.isEmpty() && !piperAvailabilityMonitor.isAvailable()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            if (cached.isEmpty()) {
+                // A fresh render is not the clip any earlier partial response came from, so
+                // Range is ignored and the whole clip is streamed off the servlet thread.
+                return audioResponse(HttpStatus.OK, etag)
+                        .body(out -> piperTtsService.streamSpeech(trimmed, voice, out));
+            }
+
+            byte[] audio = cached.get();
+            if (ranges.size() != 1) {
+                // No range, or several: RFC 9110 allows answering with the whole representation.
+                return audioResponse(HttpStatus.OK, etag).contentLength(audio.length).body(out -> out.write(audio));
+            }
+            long start = -1;
+            long end = -1;
+            try {
+                start = ranges.get(0).getRangeStart(audio.length);
+                end = ranges.get(0).getRangeEnd(audio.length);
+            } catch (IllegalArgumentException e) {
+                // Reported as unsatisfiable below.
+            }
+            if (start < 0 || start > end || start >= audio.length) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + audio.length)
+                        .build();
+            }
+            int offset = (int) start;
+            int length = (int) (end - start + 1);
+            return audioResponse(HttpStatus.PARTIAL_CONTENT, etag)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + audio.length)
+                    .contentLength(length)
+                    .body(out -> out.write(audio, offset, length));
+
+        } catch (Exception e) {
+            log.error("Failed to synthesize speech via Piper TTS", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private ResponseEntity.BodyBuilder audioResponse(HttpStatus status, String etag) {
+        return ResponseEntity.status(status)
+                .contentType(AUDIO_WAV)
+                .eTag(etag)
+                .cacheControl(AUDIO_CACHE_CONTROL)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getStatus() {
         Map<String, Object> status = new HashMap<>();
-        boolean available = piperTtsService.isAvailable();
-        status.put("available", available);
-        status.put("voices", piperTtsService.getSupportedVoices());
+        PiperAvailabilityMonitor.Snapshot snapshot = piperAvailabilityMonitor.getSnapshot();
+        status.put("available", snapshot.available());
+        status.put("voices", snapshot.voices().toArray(new String[0]));
         return ResponseEntity.ok(status);
     }
 }
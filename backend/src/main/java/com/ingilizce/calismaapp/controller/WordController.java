@@ -2,6 +2,9 @@ package com.ingilizce.calismaapp.controller;
 
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.dto.CreateWordRequest;
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.service.WordService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -41,10 +44,44 @@ public class WordController {
         return ResponseEntity.ok(wordService.getWordsPage(userId, normalizedPage, normalizedSize));
     }
 
+    /**
+     * Newest-first words after an opaque {@code cursor}; pass the returned {@code nextCursor}
+     * to continue. Unlike {@code /paged} there is no count query and no deep-offset scan.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Word>> getWordsByCursor(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        int normalizedSize = Math.min(Math.max(size, 1), 200);
+        return ResponseEntity.ok(wordService.getWordsAfter(userId, KeysetCursor.decode(cursor), normalizedSize));
+    }
+
+    /**
+     * Word cards without their sentences (only a count), for list screens.
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<WordSummary>> getWordSummariesPage(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        int normalizedPage = Math.max(page, 0);
+        int normalizedSize = Math.min(Math.max(size, 1), 200);
+        return ResponseEntity.ok(wordService.getWordSummariesPage(userId, normalizedPage, normalizedSize));
+    }
+
+    @GetMapping("/summaries/range")
+    public List<WordSummary> getWordSummariesByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader("X-User-Id") Long userId) {
+        return wordService.getWordSummariesByDateRange(userId, startDate, endDate);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Word> getWordById(@PathVariable Long id,
             @RequestHeader("X-User-Id") Long userId) {
-        Optional<Word> word = wordService.getWordByIdAndUser(id, userId);
+        Optional<Word> word = wordService.getWordDetail(id, userId);
         return word.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -52,7 +89,7 @@ public class WordController {
     @GetMapping("/{id}/sentences")
     public ResponseEntity<List<com.ingilizce.calismaapp.entity.Sentence>> getWordSentences(@PathVariable Long id,
             @RequestHeader("X-User-Id") Long userId) {
-        Optional<Word> word = wordService.getWordByIdAndUser(id, userId);
+        Optional<Word> word = wordService.getWordDetail(id, userId);
         if (word.isPresent()) {
             return ResponseEntity.ok(word.get().getSentences());
         }
@@ -0,0 +1,25 @@
+package com.ingilizce.calismaapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Body of an OpenAI-compatible {@code /chat/completions} request (Groq speaks the
+ * same API). Optional fields are left out of the JSON when null.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChatCompletionRequest(
+    String model,
+    List<Message> messages,
+    Double temperature,
+    @JsonProperty("response_format") ResponseFormat responseFormat,
+    Boolean stream
+) {
+    public static final ResponseFormat JSON_OBJECT = new ResponseFormat("json_object");
+
+    public record Message(String role, String content) {}
+
+    public record ResponseFormat(String type) {}
+}
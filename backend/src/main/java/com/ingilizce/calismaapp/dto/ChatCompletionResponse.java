@@ -0,0 +1,42 @@
+package com.ingilizce.calismaapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * A chat-completions response, or one {@code data:} chunk of a streamed one. Only
+ * the fields the app reads are bound; usage, ids, logprobs etc. are skipped.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatCompletionResponse(
+    List<Choice> choices,
+    JsonNode error // Groq sends an error object inside a stream instead of a status code
+) {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Message message, Message delta) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Message(String role, String content) {}
+
+    public boolean hasError() {
+        return error != null && !error.isNull();
+    }
+
+    /** Content of the first choice's message; null when absent. */
+    public String messageContent() {
+        Choice first = firstChoice();
+        return first != null && first.message() != null ? first.message().content() : null;
+    }
+
+    /** Content of the first choice's stream delta; null when absent. */
+    public String deltaContent() {
+        Choice first = firstChoice();
+        return first != null && first.delta() != null ? first.delta().content() : null;
+    }
+
+    private Choice firstChoice() {
+        return choices == null || choices.isEmpty() ? null : choices.get(0);
+    }
+}
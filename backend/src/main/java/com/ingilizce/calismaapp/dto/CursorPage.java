@@ -0,0 +1,30 @@
+package com.ingilizce.calismaapp.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is null on the last page;
+ * there is deliberately no total count.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row
+     * only signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> keyOf) {
+        return withTokens(rows, size, row -> keyOf.apply(row).encode());
+    }
+
+    /**
+     * Same as {@link #of}, for lists whose cursor token is more than a single {@link KeysetCursor}.
+     */
+    public static <T> CursorPage<T> withTokens(List<T> rows, int size, Function<T, String> tokenOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), tokenOf.apply(items.get(size - 1)), true);
+    }
+}
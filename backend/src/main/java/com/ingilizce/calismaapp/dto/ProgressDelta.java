@@ -0,0 +1,35 @@
+package com.ingilizce.calismaapp.dto;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * XP and active days buffered for one user since the last progress flush. Every active
+ * day is kept, not just the first and last: after a few failed flushes a delta can span
+ * several days, and dropping the ones in between would break the streak. The set is
+ * empty when only XP was earned (e.g. achievement rewards).
+ */
+public record ProgressDelta(int xp, Set<LocalDate> activeDays) {
+
+    public ProgressDelta {
+        activeDays = activeDays == null ? Set.of() : Set.copyOf(activeDays);
+    }
+
+    public static ProgressDelta of(int xp, LocalDate activeDay) {
+        return new ProgressDelta(xp, Set.of(activeDay));
+    }
+
+    public static ProgressDelta xpOnly(int xp) {
+        return new ProgressDelta(xp, Set.of());
+    }
+
+    public ProgressDelta plus(ProgressDelta other) {
+        if (other.activeDays.isEmpty() || activeDays.containsAll(other.activeDays)) {
+            return new ProgressDelta(xp + other.xp, activeDays);
+        }
+        Set<LocalDate> days = new HashSet<>(activeDays);
+        days.addAll(other.activeDays);
+        return new ProgressDelta(xp + other.xp, days);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ingilizce.calismaapp.dto;
+
+/**
+ * A user's SRS counters, read in one aggregate query over their words.
+ */
+public record ReviewStats(long dueToday, long totalWords, long reviewedWords) {
+}
@@ -0,0 +1,48 @@
+package com.ingilizce.calismaapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ingilizce.calismaapp.entity.SentencePractice;
+
+import java.time.LocalDate;
+
+/**
+ * One row of the unified sentence list, read straight from a JPQL projection. The JSON
+ * matches what {@code GET /api/sentences} returned before: {@code id} is prefixed with
+ * its source, and {@code word}/{@code wordTranslation} only appear on word sentences.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SentenceFeedItem(
+    String id,
+    String englishSentence,
+    String turkishTranslation,
+    String difficulty,
+    LocalDate createdDate,
+    String source,
+    String word,
+    String wordTranslation,
+    @JsonIgnore long rowId
+) {
+    public static final String PRACTICE = "practice";
+    public static final String WORD = "word";
+
+    // sentence_practices row
+    public SentenceFeedItem(Long id, String englishSentence, String turkishTranslation,
+                            SentencePractice.DifficultyLevel difficulty, LocalDate createdDate) {
+        this(PRACTICE + "_" + id, englishSentence, turkishTranslation,
+                difficulty != null ? difficulty.name() : null, createdDate, PRACTICE, null, null, id);
+    }
+
+    // sentences row with its word; dated by the word's learned date
+    public SentenceFeedItem(Long id, String sentence, String translation, String difficulty,
+                            LocalDate learnedDate, String word, String wordTranslation) {
+        this(WORD + "_" + id, sentence, translation,
+                difficulty == null || difficulty.trim().isEmpty() ? "easy" : difficulty.toLowerCase(),
+                learnedDate, WORD, word, wordTranslation, id);
+    }
+
+    @JsonIgnore
+    public boolean isPractice() {
+        return PRACTICE.equals(source);
+    }
+}
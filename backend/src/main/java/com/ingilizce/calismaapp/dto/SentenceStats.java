@@ -0,0 +1,11 @@
+package com.ingilizce.calismaapp.dto;
+
+/**
+ * Sentence counts by difficulty, as returned by {@code GET /api/sentences/stats}.
+ */
+public record SentenceStats(long total, long easy, long medium, long hard) {
+
+    public SentenceStats plus(SentenceStats other) {
+        return new SentenceStats(total + other.total, easy + other.easy, medium + other.medium, hard + other.hard);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ingilizce.calismaapp.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Word card for list views: the word's own columns plus how many example sentences
+ * it has, read in one query without loading the sentences themselves.
+ */
+public record WordSummary(
+    Long id,
+    String englishWord,
+    String turkishMeaning,
+    LocalDate learnedDate,
+    String notes,
+    String difficulty,
+    LocalDate nextReviewDate,
+    Integer reviewCount,
+    Double easeFactor,
+    LocalDate lastReviewDate,
+    long sentenceCount
+) {}
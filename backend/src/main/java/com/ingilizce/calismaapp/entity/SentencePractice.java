@@ -27,7 +27,7 @@ public class SentencePractice {
     @Column(nullable = false)
     private DifficultyLevel difficulty;
 
-    @Column(name = "created_date")
+    @Column(name = "created_date", nullable = false)
     private LocalDate createdDate;
 
     // Constructors
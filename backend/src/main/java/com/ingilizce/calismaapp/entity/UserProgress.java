@@ -141,6 +141,14 @@ public class UserProgress {
         return newLevel > oldLevel;
     }
 
+    /**
+     * Level the stored total XP corresponds to. Differs from {@link #getLevel()} only
+     * after a bulk XP increment whose level update has not run yet.
+     */
+    public int levelForTotalXp() {
+        return calculateLevel(this.totalXp);
+    }
+
     /**
      * Calculate level from total XP
      * Level formula: Level increases every 100 XP initially, then scales
@@ -1,6 +1,7 @@
 package com.ingilizce.calismaapp.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.time.LocalDate;
 import java.util.List;
@@ -51,7 +52,10 @@ public class Word {
     @Column(name = "last_review_date")
     private LocalDate lastReviewDate;
 
+    // Still eager because entity responses serialize sentences outside a session; batch size turns the
+    // per-word select into one select per 100 words. List endpoints use WordSummary instead.
     @OneToMany(mappedBy = "word", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JsonManagedReference
     private List<Sentence> sentences = new ArrayList<>();
 
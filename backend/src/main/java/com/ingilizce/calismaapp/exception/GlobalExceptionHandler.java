@@ -1,10 +1,12 @@
 package com.ingilizce.calismaapp.exception;
 
+import com.ingilizce.calismaapp.service.PromptConcurrencyLimiter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -47,6 +49,16 @@ public class GlobalExceptionHandler {
         return buildError(HttpStatus.CONFLICT, message, request);
     }
 
+    @ExceptionHandler(PromptConcurrencyLimiter.LimitExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handlePromptLimitExceeded(PromptConcurrencyLimiter.LimitExceededException ex,
+                                                                      HttpServletRequest request) {
+        ResponseEntity<ApiErrorResponse> error = buildError(HttpStatus.SERVICE_UNAVAILABLE,
+                "AI service is busy, please retry shortly", request);
+        return ResponseEntity.status(error.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error.getBody());
+    }
+
     @ExceptionHandler({
             NoSuchElementException.class,
             NoResourceFoundException.class,
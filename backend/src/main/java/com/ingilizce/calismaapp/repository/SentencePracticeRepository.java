@@ -1,6 +1,9 @@
 package com.ingilizce.calismaapp.repository;
 
+import com.ingilizce.calismaapp.dto.SentenceFeedItem;
+import com.ingilizce.calismaapp.dto.SentenceStats;
 import com.ingilizce.calismaapp.entity.SentencePractice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -23,6 +26,27 @@ public interface SentencePracticeRepository extends JpaRepository<SentencePracti
     Page<SentencePractice> findByUserIdOrderByCreatedDateDesc(Long userId, Pageable pageable);
     Optional<SentencePractice> findByIdAndUserId(Long id, Long userId);
 
+    // Keyset pages, newest first, walking idx_sentence_practices_user_created_date
+    @Query("SELECT sp FROM SentencePractice sp WHERE sp.userId = :userId ORDER BY sp.createdDate DESC, sp.id DESC")
+    List<SentencePractice> findFirstKeysetPage(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT sp FROM SentencePractice sp WHERE sp.userId = :userId AND (sp.createdDate < :date "
+            + "OR (sp.createdDate = :date AND sp.id < :id)) ORDER BY sp.createdDate DESC, sp.id DESC")
+    List<SentencePractice> findKeysetPageBefore(@Param("userId") Long userId, @Param("date") LocalDate date,
+                                                @Param("id") Long id, Limit limit);
+
+    // Unified sentence feed rows, same order as the keyset pages above
+    String FEED_SELECT = "SELECT new com.ingilizce.calismaapp.dto.SentenceFeedItem(sp.id, sp.englishSentence, "
+            + "sp.turkishTranslation, sp.difficulty, sp.createdDate) FROM SentencePractice sp WHERE sp.userId = :userId ";
+
+    @Query(FEED_SELECT + "ORDER BY sp.createdDate DESC, sp.id DESC")
+    List<SentenceFeedItem> findFirstFeedItems(@Param("userId") Long userId, Limit limit);
+
+    @Query(FEED_SELECT + "AND (sp.createdDate < :date OR (sp.createdDate = :date AND sp.id < :id)) "
+            + "ORDER BY sp.createdDate DESC, sp.id DESC")
+    List<SentenceFeedItem> findFeedItemsBefore(@Param("userId") Long userId, @Param("date") LocalDate date,
+                                               @Param("id") Long id, Limit limit);
+
     // Find sentences by difficulty level (User Scoped)
     List<SentencePractice> findByUserIdAndDifficultyOrderByCreatedDateDesc(Long userId,
             SentencePractice.DifficultyLevel difficulty);
@@ -39,6 +63,14 @@ public interface SentencePracticeRepository extends JpaRepository<SentencePracti
     long countByUserId(Long userId);
     long countByUserIdAndDifficulty(Long userId, SentencePractice.DifficultyLevel difficulty);
 
+    // All difficulty counts in one pass
+    @Query("SELECT new com.ingilizce.calismaapp.dto.SentenceStats(COUNT(sp), "
+            + "COUNT(sp) FILTER (WHERE sp.difficulty = com.ingilizce.calismaapp.entity.SentencePractice.DifficultyLevel.EASY), "
+            + "COUNT(sp) FILTER (WHERE sp.difficulty = com.ingilizce.calismaapp.entity.SentencePractice.DifficultyLevel.MEDIUM), "
+            + "COUNT(sp) FILTER (WHERE sp.difficulty = com.ingilizce.calismaapp.entity.SentencePractice.DifficultyLevel.HARD)) "
+            + "FROM SentencePractice sp WHERE sp.userId = :userId")
+    SentenceStats aggregateStatsByUserId(@Param("userId") Long userId);
+
     // Get all distinct dates when sentences were created (User Scoped)
     @Query("SELECT DISTINCT sp.createdDate FROM SentencePractice sp WHERE sp.userId = :userId ORDER BY sp.createdDate DESC")
     List<LocalDate> findDistinctCreatedDatesByUserId(@Param("userId") Long userId);
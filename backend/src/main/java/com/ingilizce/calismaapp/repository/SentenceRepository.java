@@ -1,6 +1,9 @@
 package com.ingilizce.calismaapp.repository;
 
+import com.ingilizce.calismaapp.dto.SentenceFeedItem;
+import com.ingilizce.calismaapp.dto.SentenceStats;
 import com.ingilizce.calismaapp.entity.Sentence;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +12,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,12 +43,40 @@ public interface SentenceRepository extends JpaRepository<Sentence, Long> {
     @Query("SELECT COUNT(s) FROM Sentence s WHERE s.word.userId = :userId")
     long countByUserId(@Param("userId") Long userId);
 
+    // All difficulty counts in one pass; matches countByDifficultyAndUserId (exact lower-case values)
+    @Query("SELECT new com.ingilizce.calismaapp.dto.SentenceStats(COUNT(s), "
+            + "COUNT(s) FILTER (WHERE s.difficulty = 'easy'), COUNT(s) FILTER (WHERE s.difficulty = 'medium'), "
+            + "COUNT(s) FILTER (WHERE s.difficulty = 'hard')) FROM Sentence s JOIN s.word w WHERE w.userId = :userId")
+    SentenceStats aggregateStatsByUserId(@Param("userId") Long userId);
+
     @Query("SELECT s FROM Sentence s JOIN FETCH s.word w")
     List<Sentence> findAllWithWord();
 
     @Query("SELECT s FROM Sentence s JOIN FETCH s.word w WHERE w.userId = :userId")
     List<Sentence> findAllWithWordByUserId(@Param("userId") Long userId);
 
+    // Keyset pages ordered by sentence id alone, so the sort key stays on sentences and
+    // a page walks the primary key instead of sorting the whole join
+    @Query("SELECT s FROM Sentence s JOIN FETCH s.word w WHERE w.userId = :userId ORDER BY s.id DESC")
+    List<Sentence> findFirstKeysetPageWithWord(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT s FROM Sentence s JOIN FETCH s.word w WHERE w.userId = :userId AND s.id < :id "
+            + "ORDER BY s.id DESC")
+    List<Sentence> findKeysetPageWithWordBefore(@Param("userId") Long userId, @Param("id") Long id, Limit limit);
+
+    // Unified sentence feed rows: no entities, so no eager word/sentence loading
+    String FEED_SELECT = "SELECT new com.ingilizce.calismaapp.dto.SentenceFeedItem(s.id, s.sentence, s.translation, "
+            + "s.difficulty, w.learnedDate, w.englishWord, w.turkishMeaning) FROM Sentence s JOIN s.word w "
+            + "WHERE w.userId = :userId ";
+
+    @Query(FEED_SELECT + "ORDER BY w.learnedDate DESC, s.id DESC")
+    List<SentenceFeedItem> findFirstFeedItems(@Param("userId") Long userId, Limit limit);
+
+    @Query(FEED_SELECT + "AND (w.learnedDate < :date OR (w.learnedDate = :date AND s.id < :id)) "
+            + "ORDER BY w.learnedDate DESC, s.id DESC")
+    List<SentenceFeedItem> findFeedItemsBefore(@Param("userId") Long userId, @Param("date") LocalDate date,
+                                               @Param("id") Long id, Limit limit);
+
     @Query(value = "SELECT s FROM Sentence s JOIN FETCH s.word w WHERE w.userId = :userId ORDER BY s.id DESC",
             countQuery = "SELECT COUNT(s) FROM Sentence s WHERE s.word.userId = :userId")
     Page<Sentence> findAllWithWordByUserId(@Param("userId") Long userId, Pageable pageable);
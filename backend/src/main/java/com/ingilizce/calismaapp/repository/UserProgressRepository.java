@@ -2,8 +2,15 @@ package com.ingilizce.calismaapp.repository;
 
 import com.ingilizce.calismaapp.entity.UserProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,6 +18,51 @@ public interface UserProgressRepository extends JpaRepository<UserProgress, Long
 
     Optional<UserProgress> findByUserId(Long userId);
 
+    @Query("SELECT p.userId FROM UserProgress p WHERE p.userId IN :userIds")
+    List<Long> findExistingUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Adds the same XP to every listed user in one statement; the increment happens
+     * in SQL, so concurrent writers never overwrite each other's XP.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE UserProgress p
+               SET p.totalXp = p.totalXp + :xp,
+                   p.updatedAt = :now
+             WHERE p.userId IN :userIds
+            """)
+    int incrementXp(@Param("userIds") Collection<Long> userIds, @Param("xp") int xp,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Counts {@code day} as an active day for every listed user: the streak grows if
+     * the last active day was {@code previousDay} and restarts at 1 otherwise. Users
+     * already counted for {@code day} (or later) are left alone. Every right-hand side
+     * reads the row's old values, as in {@code ProgressService.updateStreak}.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE UserProgress p
+               SET p.currentStreak = CASE WHEN p.lastActivityDate = :previousDay
+                                          THEN p.currentStreak + 1 ELSE 1 END,
+                   p.longestStreak = CASE WHEN p.lastActivityDate = :previousDay
+                                               AND p.currentStreak + 1 > p.longestStreak
+                                          THEN p.currentStreak + 1
+                                          WHEN p.longestStreak < 1 THEN 1
+                                          ELSE p.longestStreak END,
+                   p.lastActivityDate = :day,
+                   p.updatedAt = :now
+             WHERE p.userId IN :userIds
+               AND (p.lastActivityDate IS NULL OR p.lastActivityDate < :day)
+            """)
+    int recordActiveDay(@Param("userIds") Collection<Long> userIds, @Param("day") LocalDate day,
+                        @Param("previousDay") LocalDate previousDay, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE UserProgress p SET p.level = :level WHERE p.userId = :userId AND p.level <> :level")
+    int updateLevel(@Param("userId") Long userId, @Param("level") int level);
+
     // For leaderboard (future)
     // List<UserProgress> findTop10ByOrderByTotalXpDesc();
 }
@@ -1,6 +1,9 @@
 package com.ingilizce.calismaapp.repository;
 
+import com.ingilizce.calismaapp.dto.ReviewStats;
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.entity.Word;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -49,6 +52,48 @@ public interface WordRepository extends JpaRepository<Word, Long> {
     // Legacy SRS
     List<Word> findByNextReviewDateLessThanEqual(LocalDate date);
 
+    // Word list projections: one statement per page (plus the page count), sentences are only counted
+    String SUMMARY_SELECT = "SELECT new com.ingilizce.calismaapp.dto.WordSummary(w.id, w.englishWord, "
+            + "w.turkishMeaning, w.learnedDate, w.notes, w.difficulty, w.nextReviewDate, w.reviewCount, "
+            + "w.easeFactor, w.lastReviewDate, (SELECT COUNT(s) FROM Sentence s WHERE s.word = w)) FROM Word w ";
+
+    @Query(value = SUMMARY_SELECT + "WHERE w.userId = :userId ORDER BY w.learnedDate DESC, w.id DESC",
+            countQuery = "SELECT COUNT(w) FROM Word w WHERE w.userId = :userId")
+    Page<WordSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE w.userId = :userId AND w.learnedDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY w.learnedDate DESC, w.id DESC")
+    List<WordSummary> findSummariesByUserIdAndDateRange(@Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query(SUMMARY_SELECT + "WHERE w.userId = :userId AND w.nextReviewDate <= :date "
+            + "ORDER BY w.nextReviewDate ASC, w.id ASC")
+    List<WordSummary> findDueSummariesByUserId(@Param("userId") Long userId, @Param("date") LocalDate date);
+
+    // SRS dashboard counters in one pass over the user's words
+    @Query("SELECT new com.ingilizce.calismaapp.dto.ReviewStats("
+            + "COUNT(w) FILTER (WHERE w.nextReviewDate <= :today), COUNT(w), "
+            + "COUNT(w) FILTER (WHERE w.reviewCount > 0)) FROM Word w WHERE w.userId = :userId")
+    ReviewStats aggregateReviewStats(@Param("userId") Long userId, @Param("today") LocalDate today);
+
+    // Keyset pages, newest first, walking idx_words_user_learned_date; callers pass size + 1 as the limit.
+    @Query("SELECT w FROM Word w WHERE w.userId = :userId ORDER BY w.learnedDate DESC, w.id DESC")
+    List<Word> findFirstKeysetPage(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT w FROM Word w WHERE w.userId = :userId AND (w.learnedDate < :date "
+            + "OR (w.learnedDate = :date AND w.id < :id)) ORDER BY w.learnedDate DESC, w.id DESC")
+    List<Word> findKeysetPageBefore(@Param("userId") Long userId, @Param("date") LocalDate date,
+                                    @Param("id") Long id, Limit limit);
+
+    // Detail view: the word and its sentences in one statement
+    @Query("SELECT w FROM Word w LEFT JOIN FETCH w.sentences WHERE w.id = :id AND w.userId = :userId")
+    Optional<Word> findWithSentencesByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Sentence cache warm-up: distinct words ranked by how many rows (across users) contain them
+    @Query("SELECT LOWER(TRIM(w.englishWord)) FROM Word w WHERE w.englishWord IS NOT NULL "
+            + "GROUP BY LOWER(TRIM(w.englishWord)) ORDER BY COUNT(w) DESC, LOWER(TRIM(w.englishWord)) ASC")
+    List<String> findWordsRankedByFrequency(Pageable pageable);
+
     List<Word> findByReviewCountGreaterThan(int count);
     List<Word> findByUserIdAndReviewCountGreaterThan(Long userId, int count);
 }
@@ -0,0 +1,120 @@
+package com.ingilizce.calismaapp.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small in-heap LRU cache bounded by entry count and total weight, with a
+ * per-entry expiry. Kept dependency-free on purpose; all operations take the
+ * instance lock, which is fine for the short critical sections involved.
+ */
+final class BoundedLocalCache<V> {
+
+    enum RemovalReason { SIZE, EXPIRED, INVALIDATED }
+
+    interface RemovalListener {
+        void onRemoval(RemovalReason reason);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long expiresAtMs;
+
+        private Entry(V value, long weight, long expiresAtMs) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier clock;
+    private final RemovalListener removalListener;
+    private long totalWeight;
+
+    BoundedLocalCache(int maxEntries, long maxWeight, ToLongFunction<V> weigher,
+                      LongSupplier clock, RemovalListener removalListener) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeight = Math.max(1L, maxWeight);
+        this.weigher = weigher;
+        this.clock = clock;
+        this.removalListener = removalListener != null ? removalListener : reason -> { };
+    }
+
+    synchronized V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMs <= clock.getAsLong()) {
+            remove(key, RemovalReason.EXPIRED);
+            return null;
+        }
+        return entry.value;
+    }
+
+    synchronized void put(String key, V value, long ttlMs) {
+        if (value == null || ttlMs <= 0) {
+            return;
+        }
+        long weight = Math.max(1L, weigher.applyAsLong(value));
+        if (weight > maxWeight) {
+            // A single oversized value would flush the whole cache; keep it out of L1.
+            remove(key, RemovalReason.INVALIDATED);
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, clock.getAsLong() + ttlMs));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        evictIfNeeded();
+    }
+
+    synchronized boolean invalidate(String key) {
+        return remove(key, RemovalReason.INVALIDATED);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        totalWeight = 0L;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return totalWeight;
+    }
+
+    private void evictIfNeeded() {
+        // Iteration order is least-recently-accessed first. Expired entries that were
+        // never read again age out here as well, so no separate sweep is needed.
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && it.hasNext()) {
+            Entry<V> entry = it.next().getValue();
+            it.remove();
+            totalWeight -= entry.weight;
+            removalListener.onRemoval(entry.expiresAtMs <= now ? RemovalReason.EXPIRED : RemovalReason.SIZE);
+        }
+    }
+
+    private boolean remove(String key, RemovalReason reason) {
+        Entry<V> removed = entries.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        totalWeight -= removed.weight;
+        removalListener.onRemoval(reason);
+        return true;
+    }
+}
@@ -3,22 +3,37 @@ package com.ingilizce.calismaapp.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 public class ChatbotService {
 
   private static final Logger logger = LoggerFactory.getLogger(ChatbotService.class);
   private final GroqService groqService;
+  private final PromptConcurrencyLimiter concurrencyLimiter;
+  private final PromptResultCache resultCache;
   private final ObjectMapper objectMapper;
-
-  public ChatbotService(GroqService groqService) {
+  private final LlmRouter llmRouter;
+
+  @Autowired
+  public ChatbotService(GroqService groqService,
+      @Autowired(required = false) PromptConcurrencyLimiter concurrencyLimiter,
+      @Autowired(required = false) PromptResultCache resultCache,
+      ObjectMapper objectMapper,
+      @Autowired(required = false) LlmRouter llmRouter) {
     this.groqService = groqService;
-    this.objectMapper = new ObjectMapper();
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.resultCache = resultCache;
+    this.objectMapper = objectMapper;
+    this.llmRouter = llmRouter;
   }
 
   /**
@@ -30,12 +45,20 @@ public class ChatbotService {
         "Target word: '" + message + "'. Return ONLY pure, minified JSON. No other text.");
   }
 
+  /**
+   * Birden fazla kelime için tek istekte cümle üretimi (kelime listesi içe aktarma)
+   */
+  public String generateSentencesBatch(String message) {
+    PromptCatalog.PromptDef def = PromptCatalog.generateSentencesBatch();
+    return callGroq(def, message + "\nReturn ONLY pure, minified JSON. No other text.");
+  }
+
   /**
    * Çeviri kontrolü servisi
    */
   public String checkTranslation(String message) {
     PromptCatalog.PromptDef def = PromptCatalog.checkTranslation();
-    return callGroq(def, message);
+    return callGroqCached(def, message);
   }
 
   /**
@@ -43,7 +66,7 @@ public class ChatbotService {
    */
   public String checkEnglishTranslation(String message) {
     PromptCatalog.PromptDef def = PromptCatalog.checkEnglishTranslation();
-    return callGroq(def, message);
+    return callGroqCached(def, message);
   }
 
   /**
@@ -70,7 +93,87 @@ public class ChatbotService {
     return callGroq(def, message + " Return ONLY JSON.");
   }
 
+  /**
+   * Sohbet yanıtını token token akıtır (SSE); tamamlanınca tam metni döner
+   */
+  public CompletableFuture<String> chatStream(String message, Consumer<String> onDelta) {
+    return streamGroq(PromptCatalog.chat(), message, onDelta);
+  }
+
+  /**
+   * Speaking test puanlamasını akıtır; tamamlanınca normalize edilmiş JSON döner
+   */
+  public CompletableFuture<String> evaluateSpeakingTestStream(String message, Consumer<String> onDelta) {
+    return streamGroq(PromptCatalog.evaluateSpeakingTest(), message + " Return ONLY JSON.", onDelta);
+  }
+
+  private CompletableFuture<String> streamGroq(PromptCatalog.PromptDef def, String userMessage,
+      Consumer<String> onDelta) {
+    logger.info("Prompt {} v{} (stream)", def.id(), def.version());
+    boolean jsonMode = def.output() != PromptCatalog.PromptOutput.TEXT;
+    // Stream süresi token sayısına bağlı; gecikme örneği alınmadan sadece slot tutulur
+    PromptConcurrencyLimiter.Permit permit = concurrencyLimiter != null ? concurrencyLimiter.acquire(def.id()) : null;
+    CompletableFuture<String> upstream;
+    try {
+      upstream = groqService.chatCompletionStream(buildMessages(def, userMessage), jsonMode, onDelta);
+    } catch (RuntimeException e) {
+      if (permit != null) {
+        permit.ignore();
+      }
+      throw e;
+    }
+    if (permit != null) {
+      upstream.whenComplete((result, error) -> permit.ignore());
+    }
+    CompletableFuture<String> normalized = upstream.thenApply(raw -> normalizeJson(raw, def.output()));
+    // Cancelling the derived future must reach the upstream connection.
+    normalized.whenComplete((result, error) -> {
+      if (normalized.isCancelled()) {
+        upstream.cancel(true);
+      }
+    });
+    return normalized;
+  }
+
+  /**
+   * Aynı prompt sürümü ve aynı (normalize) mesaj için önceki sonucu Redis'ten döner;
+   * yalnızca geçerli JSON yanıtlar önbelleğe alınır
+   */
+  private String callGroqCached(PromptCatalog.PromptDef def, String userMessage) {
+    if (resultCache == null) {
+      return callGroq(def, userMessage);
+    }
+    return resultCache.getOrCompute(def.id(), def.version(), List.of(userMessage),
+        () -> callGroq(def, userMessage), this::isJson);
+  }
+
+  private boolean isJson(String value) {
+    try {
+      objectMapper.readTree(value);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
   private String callGroq(PromptCatalog.PromptDef def, String userMessage) {
+    List<Map<String, String>> messages = buildMessages(def, userMessage);
+    logger.info("Prompt {} v{}", def.id(), def.version());
+    boolean jsonMode = def.output() != PromptCatalog.PromptOutput.TEXT;
+    String raw = concurrencyLimiter != null
+        ? concurrencyLimiter.execute(def.id(), () -> complete(def.id(), messages, jsonMode))
+        : complete(def.id(), messages, jsonMode);
+    return normalizeJson(raw, def.output());
+  }
+
+  // Streams stay on Groq; blocking calls go through the router when one is configured.
+  private String complete(String promptId, List<Map<String, String>> messages, boolean jsonMode) {
+    return llmRouter != null
+        ? llmRouter.complete(promptId, messages, jsonMode)
+        : groqService.chatCompletion(messages, jsonMode);
+  }
+
+  private List<Map<String, String>> buildMessages(PromptCatalog.PromptDef def, String userMessage) {
     List<Map<String, String>> messages = new ArrayList<>();
 
     Map<String, String> systemMsg = new HashMap<>();
@@ -82,11 +185,7 @@ public class ChatbotService {
     userMsg.put("role", "user");
     userMsg.put("content", userMessage);
     messages.add(userMsg);
-
-    logger.info("Prompt {} v{}", def.id(), def.version());
-    boolean jsonMode = def.output() != PromptCatalog.PromptOutput.TEXT;
-    String raw = groqService.chatCompletion(messages, jsonMode);
-    return normalizeJson(raw, def.output());
+    return messages;
   }
 
   private String normalizeJson(String raw, PromptCatalog.PromptOutput output) {
@@ -94,40 +193,13 @@ public class ChatbotService {
       return raw;
     }
 
-    String cleaned = raw.trim()
-        .replaceAll("```json", "")
-        .replaceAll("```", "")
-        .trim();
-
-    int objStart = cleaned.indexOf('{');
-    int objEnd = cleaned.lastIndexOf('}');
-    int arrStart = cleaned.indexOf('[');
-    int arrEnd = cleaned.lastIndexOf(']');
-
-    if (arrStart >= 0 && arrEnd > arrStart && (objStart < 0 || arrStart < objStart)) {
-      cleaned = cleaned.substring(arrStart, arrEnd + 1).trim();
-    } else if (objStart >= 0 && objEnd > objStart) {
-      cleaned = cleaned.substring(objStart, objEnd + 1).trim();
-    }
-
-    try {
-      Object parsed = objectMapper.readValue(cleaned, Object.class);
-      if (output == PromptCatalog.PromptOutput.JSON_OBJECT && !(parsed instanceof Map)) {
-        throw new IllegalArgumentException("Expected JSON object");
-      }
-      if (output == PromptCatalog.PromptOutput.JSON_ARRAY) {
-        if (parsed instanceof List) {
-          return cleaned;
-        }
-        if (parsed instanceof Map map && map.containsKey("sentences") && map.get("sentences") instanceof List) {
-          return cleaned;
-        }
-        throw new IllegalArgumentException("Expected JSON array (or object with sentences list)");
-      }
-      return cleaned;
-    } catch (Exception ex) {
-      logger.warn("AI JSON validation failed for output type {}. Returning raw response.", output, ex);
+    // JSON_ARRAY prompts may also answer with {"sentences": [...]}.
+    boolean arrayOutput = output == PromptCatalog.PromptOutput.JSON_ARRAY;
+    Optional<LlmJsonDecoder.Span> span = LlmJsonDecoder.locate(raw, true, arrayOutput, arrayOutput);
+    if (span.isEmpty()) {
+      logger.warn("AI JSON validation failed for output type {}. Returning raw response.", output);
       return raw;
     }
+    return raw.substring(span.get().start(), span.get().end());
   }
 }
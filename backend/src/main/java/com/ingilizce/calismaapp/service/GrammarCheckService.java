@@ -1,15 +1,23 @@
 package com.ingilizce.calismaapp.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Groq AI ile gramer kontrolü servisi
@@ -19,16 +27,58 @@ import java.util.Map;
 public class GrammarCheckService {
 
     private static final Logger logger = LoggerFactory.getLogger(GrammarCheckService.class);
+    static final String PROMPT_ID = "check_grammar";
+    // Bump whenever the prompt below changes; cached results are keyed by it.
+    static final int PROMPT_VERSION = 1;
+    static final String BATCH_PROMPT_ID = "check_grammar_batch";
+    static final int BATCH_PROMPT_VERSION = 1;
+    // Results carry fromPos/toPos into the checked sentence, so only the exact text may share them.
+    private static final PromptResultCache.InputMatching OFFSET_KEYED = PromptResultCache.InputMatching.EXACT;
+    private static final String BATCH_SENTENCES_METRIC = "grammar.batch.sentences.total";
+    private static final String BATCH_PROMPTS_METRIC = "grammar.batch.prompts.total";
+
+    /**
+     * Tek bir cümlenin toplu kontrol sonucu; {@code error} doluysa {@code result} null'dır.
+     */
+    public record SentenceResult(String sentence, Map<String, Object> result, String error) {
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+
+    public record BatchResult(List<SentenceResult> results, int promptCount, int cachedCount) {
+    }
 
     // Constructor Injection (Safe)
     private final GroqService groqService;
+    private final PromptConcurrencyLimiter concurrencyLimiter;
+    private final PromptResultCache resultCache;
+    private final MeterRegistry meterRegistry;
     private final ObjectMapper objectMapper;
+    private final LlmRouter llmRouter;
     private boolean enabled = true;
+    // Null in plain unit tests: chunks then run on the calling thread.
+    private ThreadPoolTaskExecutor batchExecutor;
+
+    @Value("${grammar.batch.max-sentences:50}")
+    private int maxBatchSentences = 50;
+
+    @Value("${grammar.batch.max-sentences-per-prompt:8}")
+    private int maxSentencesPerPrompt = 8;
 
     @Autowired
-    public GrammarCheckService(GroqService groqService) {
+    public GrammarCheckService(GroqService groqService,
+                               @Autowired(required = false) PromptConcurrencyLimiter concurrencyLimiter,
+                               @Autowired(required = false) PromptResultCache resultCache,
+                               @Autowired(required = false) MeterRegistry meterRegistry,
+                               ObjectMapper objectMapper,
+                               @Autowired(required = false) LlmRouter llmRouter) {
         this.groqService = groqService;
-        this.objectMapper = new ObjectMapper();
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.resultCache = resultCache;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.llmRouter = llmRouter;
 
         logger.info("============================================");
         logger.info("✅ GrammarCheckService Initialized");
@@ -36,6 +86,18 @@ public class GrammarCheckService {
         logger.info("============================================");
     }
 
+    @Autowired
+    void configureBatchExecutor(@Value("${grammar.batch.concurrency:3}") int concurrency,
+                                @Value("${grammar.batch.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, concurrency));
+        executor.setMaxPoolSize(Math.max(1, concurrency));
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setThreadNamePrefix("grammar-batch-");
+        executor.initialize();
+        this.batchExecutor = executor;
+    }
+
     /**
      * Bir cümlenin gramerini kontrol eder
      * 
@@ -82,7 +144,10 @@ public class GrammarCheckService {
 
             // Groq API çağrısı
             logger.info("🚀 Calling Groq API...");
-            String jsonResponse = groqService.chatCompletion(messages, true);
+            String jsonResponse = resultCache != null
+                    ? resultCache.getOrCompute(PROMPT_ID, PROMPT_VERSION, List.of(sentence), OFFSET_KEYED,
+                            () -> callGroq(messages), this::isGrammarResult)
+                    : callGroq(messages);
             logger.info("📩 Groq Response received (Length: {})",
                     jsonResponse != null ? jsonResponse.length() : "NULL");
 
@@ -90,6 +155,8 @@ public class GrammarCheckService {
                 return objectMapper.readValue(jsonResponse, Map.class);
             }
 
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("❌ Error checking grammar with Groq: {}", e.getMessage(), e);
             throw new RuntimeException("Grammar Check Failed: " + e.getMessage());
@@ -98,20 +165,43 @@ public class GrammarCheckService {
         return createNoErrorResponse();
     }
 
+    private String callGroq(List<Map<String, String>> messages) {
+        return concurrencyLimiter != null
+                ? concurrencyLimiter.execute(PROMPT_ID, () -> complete(PROMPT_ID, messages))
+                : complete(PROMPT_ID, messages);
+    }
+
+    private String complete(String promptId, List<Map<String, String>> messages) {
+        return llmRouter != null
+                ? llmRouter.complete(promptId, messages, true)
+                : groqService.chatCompletion(messages, true);
+    }
+
+    private boolean isGrammarResult(String json) {
+        try {
+            return objectMapper.readTree(json).has("hasErrors");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     /**
-     * Birden fazla cümlenin gramerini kontrol eder
+     * Birden fazla cümlenin gramerini kontrol eder.
+     * Sadece hatalı cümleler döner; kontrol edilemeyen cümleler atlanır.
      */
     @SuppressWarnings("unchecked")
     public Map<String, List<Map<String, Object>>> checkMultipleSentences(List<String> sentences) {
         Map<String, List<Map<String, Object>>> results = new HashMap<>();
 
-        for (String sentence : sentences) {
-            Map<String, Object> checkResult = checkGrammar(sentence);
-            Object errorsObj = checkResult.get("errors");
+        for (SentenceResult sentenceResult : checkBatch(sentences).results()) {
+            if (sentenceResult.isFailed()) {
+                continue;
+            }
+            Object errorsObj = sentenceResult.result().get("errors");
             if (errorsObj instanceof List) {
                 List<Map<String, Object>> errors = (List<Map<String, Object>>) errorsObj;
                 if (errors != null && !errors.isEmpty()) {
-                    results.put(sentence, errors);
+                    results.put(sentenceResult.sentence(), errors);
                 }
             }
         }
@@ -119,6 +209,265 @@ public class GrammarCheckService {
         return results;
     }
 
+    /**
+     * Cümleleri toplu kontrol eder: tekrarlar bir kez sorulur, önbellekte olanlar
+     * Groq'a gitmez, kalanlar {@code max-sentences-per-prompt} boyutunda tek
+     * prompt'lara paketlenir ve parçalar {@code grammar.batch.concurrency} sınırıyla
+     * paralel çalışır. Toplu yanıtta eksik/bozuk gelen cümleler tek tek yeniden
+     * denenir; başarısız olanlar {@link SentenceResult#error()} ile döner, tüm batch
+     * başarısız olmaz.
+     *
+     * @return girdi sırasıyla (tekrarlar dahil) her cümle için bir sonuç
+     */
+    public BatchResult checkBatch(List<String> sentences) {
+        List<String> inputs = sentences != null ? sentences : List.of();
+        Map<String, SentenceResult> resolved = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        int cached = 0;
+
+        for (String sentence : new LinkedHashSet<>(inputs)) {
+            if (sentence == null) {
+                continue;
+            }
+            if (!enabled || sentence.trim().isEmpty()) {
+                resolved.put(sentence, new SentenceResult(sentence, createNoErrorResponse(), null));
+                continue;
+            }
+            Map<String, Object> hit = cachedResult(sentence);
+            if (hit != null) {
+                resolved.put(sentence, new SentenceResult(sentence, hit, null));
+                cached++;
+            } else {
+                pending.add(sentence);
+            }
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        int chunkSize = Math.max(1, maxSentencesPerPrompt);
+        for (int i = 0; i < pending.size(); i += chunkSize) {
+            chunks.add(pending.subList(i, Math.min(pending.size(), i + chunkSize)));
+        }
+
+        List<CompletableFuture<ChunkOutcome>> futures = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            futures.add(submitChunk(chunk));
+        }
+        int prompts = 0;
+        PromptConcurrencyLimiter.LimitExceededException rejected = null;
+        for (CompletableFuture<ChunkOutcome> future : futures) {
+            ChunkOutcome outcome = future.join();
+            prompts += outcome.prompts();
+            for (SentenceResult result : outcome.results()) {
+                resolved.put(result.sentence(), result);
+            }
+            if (outcome.rejected() != null) {
+                rejected = outcome.rejected();
+            }
+        }
+
+        List<SentenceResult> ordered = new ArrayList<>(inputs.size());
+        for (String sentence : inputs) {
+            ordered.add(sentence != null
+                    ? resolved.get(sentence)
+                    : new SentenceResult(null, createNoErrorResponse(), null));
+        }
+        int failed = (int) resolved.values().stream().filter(SentenceResult::isFailed).count();
+        if (rejected != null && failed == resolved.size()) {
+            // Nothing could be checked at all: surface as 503 rather than an all-failed 200.
+            throw rejected;
+        }
+
+        recordBatch(prompts, cached, resolved.size() - cached - failed, failed);
+        logger.info("📝 Grammar batch: {} sentences, {} unique, {} cached, {} failed, {} prompts",
+                inputs.size(), resolved.size(), cached, failed, prompts);
+        return new BatchResult(ordered, prompts, cached);
+    }
+
+    public int getMaxBatchSentences() {
+        return maxBatchSentences;
+    }
+
+    private record ChunkOutcome(List<SentenceResult> results, int prompts,
+                                PromptConcurrencyLimiter.LimitExceededException rejected) {
+    }
+
+    private CompletableFuture<ChunkOutcome> submitChunk(List<String> chunk) {
+        if (batchExecutor == null) {
+            return CompletableFuture.completedFuture(runChunk(chunk));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> runChunk(chunk), batchExecutor);
+        } catch (TaskRejectedException e) {
+            // Pool saturated: the request thread does the work itself instead of failing.
+            return CompletableFuture.completedFuture(runChunk(chunk));
+        }
+    }
+
+    private ChunkOutcome runChunk(List<String> chunk) {
+        List<SentenceResult> results = new ArrayList<>(chunk.size());
+        List<String> retrySingly = new ArrayList<>();
+        int prompts = 0;
+        PromptConcurrencyLimiter.LimitExceededException rejected = null;
+
+        if (chunk.size() == 1) {
+            retrySingly.addAll(chunk);
+        } else {
+            try {
+                prompts++;
+                Map<Integer, Map<String, Object>> parsed = parseBatchResponse(callGroqBatch(chunk), chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    Map<String, Object> result = parsed.get(i);
+                    if (result == null) {
+                        retrySingly.add(chunk.get(i));
+                        continue;
+                    }
+                    results.add(new SentenceResult(chunk.get(i), result, null));
+                    storeBatchResult(chunk.get(i), result);
+                }
+            } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+                rejected = e;
+                for (String sentence : chunk) {
+                    results.add(new SentenceResult(sentence, null, e.getMessage()));
+                }
+            } catch (Exception e) {
+                logger.warn("⚠️ Grammar batch prompt failed, retrying {} sentences one by one: {}",
+                        chunk.size(), e.getMessage());
+                retrySingly.addAll(chunk);
+            }
+        }
+
+        for (String sentence : retrySingly) {
+            try {
+                prompts++;
+                results.add(new SentenceResult(sentence, checkGrammar(sentence), null));
+            } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+                rejected = e;
+                results.add(new SentenceResult(sentence, null, e.getMessage()));
+            } catch (Exception e) {
+                results.add(new SentenceResult(sentence, null, e.getMessage()));
+            }
+        }
+        return new ChunkOutcome(results, prompts, rejected);
+    }
+
+    private String callGroqBatch(List<String> chunk) throws Exception {
+        String prompt = "You are an expert English grammar checker. Analyze EACH of the sentences in the JSON array below "
+                + "independently for grammar, spelling, punctuation, and style errors.\n\n"
+                + "Sentences: " + objectMapper.writeValueAsString(chunk) + "\n\n"
+                + "Return ONLY a valid JSON object with this exact structure (no markdown, no explanations outside JSON):\n"
+                + "{\n"
+                + "  \"results\": [\n"
+                + "    {\n"
+                + "      \"index\": int (0-based position of the sentence in the array),\n"
+                + "      \"hasErrors\": boolean,\n"
+                + "      \"errors\": [\n"
+                + "        {\n"
+                + "          \"message\": \"Detailed explanation of the error\",\n"
+                + "          \"shortMessage\": \"Short error name (e.g. 'Wrong Verb Form')\",\n"
+                + "          \"fromPos\": int (0-based start index of the error in that sentence),\n"
+                + "          \"toPos\": int (0-based end index of the error),\n"
+                + "          \"suggestions\": [\"suggestion1\", \"suggestion2\"]\n"
+                + "        }\n"
+                + "      ],\n"
+                + "      \"errorCount\": int\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}\n\n"
+                + "Return exactly one entry per sentence. If a sentence has no errors, set hasErrors to false, "
+                + "errors to [], and errorCount to 0.\n"
+                + "Ensure fromPos and toPos are accurate character indices within that sentence.";
+
+        List<Map<String, String>> messages = new ArrayList<>();
+        Map<String, String> userMessage = new HashMap<>();
+        userMessage.put("role", "user");
+        userMessage.put("content", prompt);
+        messages.add(userMessage);
+
+        return concurrencyLimiter != null
+                ? concurrencyLimiter.execute(BATCH_PROMPT_ID, () -> complete(BATCH_PROMPT_ID, messages))
+                : complete(BATCH_PROMPT_ID, messages);
+    }
+
+    /**
+     * index -> tek cümle sonucu. Aralık dışı, tekrarlanan veya hasErrors içermeyen
+     * girdiler yok sayılır; çağıran onları tek tek yeniden dener.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Integer, Map<String, Object>> parseBatchResponse(String json, int size) throws Exception {
+        Map<Integer, Map<String, Object>> parsed = new HashMap<>();
+        if (json == null) {
+            return parsed;
+        }
+        JsonNode results = objectMapper.readTree(json).path("results");
+        if (!results.isArray()) {
+            return parsed;
+        }
+        for (JsonNode node : results) {
+            JsonNode index = node.get("index");
+            if (index == null || !index.canConvertToInt() || !node.has("hasErrors")) {
+                continue;
+            }
+            int i = index.asInt();
+            if (i < 0 || i >= size || parsed.containsKey(i)) {
+                continue;
+            }
+            Map<String, Object> result = objectMapper.convertValue(node, Map.class);
+            result.remove("index");
+            parsed.put(i, result);
+        }
+        return parsed;
+    }
+
+    /**
+     * Önce tekli kontrolün, sonra toplu kontrolün önbelleğine bakar.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> cachedResult(String sentence) {
+        if (resultCache == null) {
+            return null;
+        }
+        String json = resultCache.get(PROMPT_ID, PROMPT_VERSION, List.of(sentence), OFFSET_KEYED)
+                .or(() -> resultCache.get(BATCH_PROMPT_ID, BATCH_PROMPT_VERSION, List.of(sentence), OFFSET_KEYED))
+                .orElse(null);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void storeBatchResult(String sentence, Map<String, Object> result) {
+        if (resultCache == null) {
+            return;
+        }
+        try {
+            resultCache.put(BATCH_PROMPT_ID, BATCH_PROMPT_VERSION, List.of(sentence), OFFSET_KEYED,
+                    objectMapper.writeValueAsString(result));
+        } catch (Exception e) {
+            logger.debug("Could not cache grammar batch result: {}", e.getMessage());
+        }
+    }
+
+    private void recordBatch(int prompts, int cached, int checked, int failed) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(BATCH_PROMPTS_METRIC).increment(prompts);
+        meterRegistry.counter(BATCH_SENTENCES_METRIC, "outcome", "cached").increment(cached);
+        meterRegistry.counter(BATCH_SENTENCES_METRIC, "outcome", "checked").increment(checked);
+        meterRegistry.counter(BATCH_SENTENCES_METRIC, "outcome", "failed").increment(failed);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (batchExecutor != null) {
+            batchExecutor.shutdown();
+        }
+    }
+
     private Map<String, Object> createNoErrorResponse() {
         Map<String, Object> result = new HashMap<>();
         result.put("hasErrors", false);
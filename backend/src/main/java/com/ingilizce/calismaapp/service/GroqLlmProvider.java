@@ -0,0 +1,56 @@
+package com.ingilizce.calismaapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link GroqService} as a router provider. Groq's own retries and circuit breaker
+ * stay in place; when its circuit is open the call fails fast and the router moves
+ * on to the next provider.
+ */
+@Component
+public class GroqLlmProvider implements LlmProvider {
+    static final String NAME = "groq";
+
+    private final GroqService groqService;
+
+    @Value("${llm.providers.groq.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${llm.providers.groq.cost-weight:1.0}")
+    private double costWeight = 1.0;
+
+    public GroqLlmProvider(GroqService groqService) {
+        this.groqService = groqService;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public double costWeight() {
+        return costWeight;
+    }
+
+    @Override
+    public String complete(String promptId, List<Map<String, String>> messages, boolean jsonResponse) {
+        return groqService.chatCompletion(messages, jsonResponse);
+    }
+
+    @Override
+    public CompletableFuture<String> completeAsync(String promptId, List<Map<String, String>> messages,
+                                                   boolean jsonResponse) {
+        return groqService.chatCompletionAsync(messages, jsonResponse);
+    }
+}
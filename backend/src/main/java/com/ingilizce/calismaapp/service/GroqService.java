@@ -1,14 +1,22 @@
 package com.ingilizce.calismaapp.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ingilizce.calismaapp.dto.ChatCompletionRequest;
+import com.ingilizce.calismaapp.dto.ChatCompletionResponse;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -18,17 +26,38 @@ import org.springframework.web.client.RestTemplate;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class GroqService {
 
     private static final Logger logger = LoggerFactory.getLogger(GroqService.class);
 
+    static final String TRANSPORT_REST_TEMPLATE = "rest-template";
+    static final String TRANSPORT_HTTP_CLIENT = "http-client";
+    static final String DISABLE_HOSTNAME_VERIFICATION_PROPERTY = "jdk.internal.httpclient.disableHostnameVerification";
+
     @Value("${groq.api.key}")
     private String apiKey;
 
@@ -39,7 +68,10 @@ public class GroqService {
     private String model;
 
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    // Built once from the shared mapper; readers and writers are immutable and thread-safe.
+    private final ObjectWriter requestWriter;
+    private final ObjectReader responseReader;
     private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
     private volatile long circuitOpenUntilMs = 0L;
 
@@ -61,9 +93,31 @@ public class GroqService {
     @Value("${groq.resilience.open-duration-ms:30000}")
     private long openDurationMs;
 
-    public GroqService(@Value("${app.security.allow-insecure-ssl:false}") boolean allowInsecureSsl) {
-        this.objectMapper = new ObjectMapper();
+    /**
+     * Transport used by the blocking {@link #chatCompletion} path:
+     * - rest-template: legacy RestTemplate on HttpURLConnection
+     * - http-client: pooled, keep-alive, HTTP/2-capable JDK HttpClient
+     * {@link #chatCompletionAsync} always uses the JDK HttpClient.
+     */
+    @Value("${groq.transport:" + TRANSPORT_REST_TEMPLATE + "}")
+    private String transport;
+
+    @Value("${groq.http-client.request-timeout-ms:60000}")
+    private long requestTimeoutMs;
+
+    @Value("${groq.stream.max-concurrent:64}")
+    private int maxConcurrentStreams = 64;
+
+    private volatile ExecutorService streamExecutor;
+
+    @Autowired
+    public GroqService(@Value("${app.security.allow-insecure-ssl:false}") boolean allowInsecureSsl,
+                       ObjectMapper objectMapper) {
+        this.requestWriter = objectMapper.writerFor(ChatCompletionRequest.class);
+        this.responseReader = objectMapper.readerFor(ChatCompletionResponse.class);
         this.restTemplate = createRestTemplate(allowInsecureSsl);
+        useMapper(restTemplate, objectMapper);
+        this.httpClient = createHttpClient(allowInsecureSsl);
         if (allowInsecureSsl) {
             logger.warn("GroqService initialized with INSECURE SSL mode (local-dev only)");
         } else {
@@ -88,6 +142,14 @@ public class GroqService {
         }
     }
 
+    private static void useMapper(RestTemplate template, ObjectMapper mapper) {
+        for (HttpMessageConverter<?> converter : template.getMessageConverters()) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jackson) {
+                jackson.setObjectMapper(mapper);
+            }
+        }
+    }
+
     protected RestTemplate createSecureRestTemplate() {
         SimpleClientHttpRequestFactory secureFactory = new SimpleClientHttpRequestFactory();
         secureFactory.setConnectTimeout(60000);
@@ -95,6 +157,35 @@ public class GroqService {
         return new RestTemplate(secureFactory);
     }
 
+    /**
+     * Client for the {@code http-client} transport. In insecure mode it trusts every
+     * certificate like the RestTemplate transport, but unlike it still verifies the
+     * host name: the JDK client only turns that off JVM-wide, through the
+     * {@value #DISABLE_HOSTNAME_VERIFICATION_PROPERTY} system property, which would
+     * also affect every other client in the process. A warning says so at startup.
+     */
+    protected HttpClient createHttpClient(boolean allowInsecureSsl) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (allowInsecureSsl) {
+            try {
+                SSLContext sslContext = createSslContext("TLS");
+                initializeSslContext(sslContext, createTrustAllManagers());
+                builder.sslContext(sslContext);
+                if (!Boolean.getBoolean(DISABLE_HOSTNAME_VERIFICATION_PROPERTY)) {
+                    logger.warn("Groq http-client transport trusts all certificates but still verifies host names; "
+                            + "set -D{}=true to match the rest-template transport",
+                            DISABLE_HOSTNAME_VERIFICATION_PROPERTY);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to create insecure HttpClient, falling back to strict SSL", e);
+            }
+        }
+        return builder.build();
+    }
+
     protected TrustManager[] createTrustAllManagers() {
         return new TrustManager[] {
                 new X509TrustManager() {
@@ -148,7 +239,7 @@ public class GroqService {
      * @return Content string from the response
      */
     public String chatCompletion(List<Map<String, String>> messages, boolean jsonResponse) {
-        logger.info("Groq Request - Model: {}, URL: {}, Key present: {}", model, apiUrl,
+        logger.info("Groq Request - Model: {}, URL: {}, Transport: {}, Key present: {}", model, apiUrl, transport,
                 (apiKey != null && !apiKey.isEmpty()));
 
         if (isCircuitOpen()) {
@@ -163,7 +254,9 @@ public class GroqService {
 
         for (int attempt = 1; attempt <= attempts; attempt++) {
             try {
-                String content = executeChatCompletion(messages, jsonResponse);
+                String content = isHttpClientTransport()
+                        ? executeHttpClientCompletion(messages, jsonResponse)
+                        : executeChatCompletion(messages, jsonResponse);
                 recordSuccess();
                 return content;
             } catch (NonRetryableGroqException e) {
@@ -192,39 +285,274 @@ public class GroqService {
         throw new RuntimeException("Groq API Error: retry budget exhausted");
     }
 
+    /**
+     * Non-blocking variant of {@link #chatCompletion}. Runs on the JDK HttpClient
+     * with the same retry budget, backoff and circuit-breaker accounting; backoff
+     * delays are scheduled instead of sleeping on the caller's thread.
+     */
+    public CompletableFuture<String> chatCompletionAsync(List<Map<String, String>> messages, boolean jsonResponse) {
+        logger.info("Groq Async Request - Model: {}, URL: {}, Key present: {}", model, apiUrl,
+                (apiKey != null && !apiKey.isEmpty()));
+
+        if (isCircuitOpen()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Groq API Error: circuit is open"));
+        }
+
+        long deadlineMs = System.currentTimeMillis() + Math.max(1L, callTimeoutBudgetMs);
+        int attempts = Math.max(1, maxAttempts);
+        long baseBackoffMs = Math.max(0L, initialBackoffMs);
+        long backoffCapMs = Math.max(baseBackoffMs, maxBackoffMs);
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attemptAsync(messages, jsonResponse, 1, attempts, deadlineMs, baseBackoffMs, backoffCapMs, result);
+        return result;
+    }
+
+    private void attemptAsync(List<Map<String, String>> messages, boolean jsonResponse, int attempt, int attempts,
+            long deadlineMs, long baseBackoffMs, long backoffCapMs, CompletableFuture<String> result) {
+        if (result.isDone()) {
+            return;
+        }
+
+        CompletableFuture<String> call;
+        try {
+            call = executeHttpClientCompletionAsync(messages, jsonResponse);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        call.whenComplete((content, error) -> {
+            if (error == null) {
+                recordSuccess();
+                result.complete(content);
+                return;
+            }
+
+            RuntimeException failure = unwrapAsyncFailure(error);
+            if (!(failure instanceof RetryableGroqException)) {
+                recordFailure();
+                result.completeExceptionally(failure);
+                return;
+            }
+
+            long backoffMs = computeBackoffMs(attempt, baseBackoffMs, backoffCapMs);
+            if (attempt == attempts || (System.currentTimeMillis() + backoffMs) >= deadlineMs) {
+                recordFailure();
+                result.completeExceptionally(failure);
+                return;
+            }
+
+            logger.warn("Groq transient failure (attempt {}/{}). Retrying in {} ms", attempt, attempts, backoffMs);
+            CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> attemptAsync(messages, jsonResponse, attempt + 1, attempts, deadlineMs,
+                            baseBackoffMs, backoffCapMs, result));
+        });
+    }
+
+    /**
+     * Streaming variant: sends {@code stream=true} and hands every content delta to
+     * {@code onDelta} as it arrives; the future completes with the full text.
+     *
+     * <p>Cancelling the returned future, or {@code onDelta} throwing (e.g. the client
+     * went away), stops reading and closes the upstream connection. A cancelled
+     * stream counts as neither success nor failure for the circuit breaker. Streams
+     * are not retried because already relayed deltas cannot be taken back.
+     */
+    public CompletableFuture<String> chatCompletionStream(List<Map<String, String>> messages, boolean jsonResponse,
+            Consumer<String> onDelta) {
+        logger.info("Groq Stream Request - Model: {}, URL: {}, Key present: {}", model, apiUrl,
+                (apiKey != null && !apiKey.isEmpty()));
+
+        if (isCircuitOpen()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Groq API Error: circuit is open"));
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        HttpRequest request;
+        try {
+            request = buildHttpRequest(messages, jsonResponse, true);
+        } catch (RuntimeException e) {
+            recordFailure();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<HttpResponse<Stream<String>>> call =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        result.whenComplete((content, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+                call.thenAccept(GroqService::closeQuietly);
+            }
+        });
+
+        call.whenComplete((response, error) -> {
+            if (result.isDone()) {
+                closeQuietly(response);
+                return;
+            }
+            if (error != null) {
+                recordFailure();
+                result.completeExceptionally(unwrapAsyncFailure(error));
+                return;
+            }
+            try {
+                streamExecutor().execute(() -> relayStream(response, onDelta, result));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(response);
+                result.completeExceptionally(new RuntimeException("Groq API Error: stream capacity exhausted"));
+            }
+        });
+        return result;
+    }
+
+    private void relayStream(HttpResponse<Stream<String>> response, Consumer<String> onDelta,
+            CompletableFuture<String> result) {
+        int status = response.statusCode();
+        try (Stream<String> lines = response.body()) {
+            if (status < 200 || status >= 300) {
+                String body = lines.limit(200).collect(Collectors.joining("\n"));
+                logger.error("Groq API stream error: Status={}, Body={}", status, body);
+                recordFailure();
+                result.completeExceptionally(status < 500
+                        ? new NonRetryableGroqException("Groq API Error: " + body, null)
+                        : new RetryableGroqException("Groq API Error: " + body, null));
+                return;
+            }
+
+            StringBuilder content = new StringBuilder();
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                if (result.isDone()) {
+                    // Cancelled by the caller; closing the stream releases the connection.
+                    return;
+                }
+                String line = iterator.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                String delta = extractStreamDelta(data);
+                if (delta == null || delta.isEmpty()) {
+                    continue;
+                }
+                content.append(delta);
+                try {
+                    onDelta.accept(delta);
+                } catch (RuntimeException consumerFailure) {
+                    result.completeExceptionally(new CancellationException("Stream consumer closed"));
+                    return;
+                }
+            }
+            recordSuccess();
+            result.complete(content.toString());
+        } catch (RuntimeException e) {
+            if (result.isDone()) {
+                return;
+            }
+            logger.error("Groq API stream interrupted", e);
+            recordFailure();
+            result.completeExceptionally(e instanceof RetryableGroqException || e instanceof NonRetryableGroqException
+                    ? e
+                    : new RetryableGroqException("Failed to communicate with AI service: " + e.getMessage(), e));
+        }
+    }
+
+    private String extractStreamDelta(String data) {
+        ChatCompletionResponse chunk;
+        try {
+            chunk = responseReader.readValue(data);
+        } catch (Exception e) {
+            throw new RetryableGroqException("Malformed Groq stream chunk", e);
+        }
+        if (chunk.hasError()) {
+            throw new RetryableGroqException("Groq API Error: " + chunk.error(), null);
+        }
+        return chunk.deltaContent();
+    }
+
+    private ExecutorService streamExecutor() {
+        ExecutorService executor = streamExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = streamExecutor;
+                if (executor == null) {
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    executor = new ThreadPoolExecutor(0, Math.max(1, maxConcurrentStreams), 60L, TimeUnit.SECONDS,
+                            new SynchronousQueue<>(), runnable -> {
+                                Thread thread = new Thread(runnable, "groq-stream-" + threadIndex.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+                    streamExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static void closeQuietly(HttpResponse<Stream<String>> response) {
+        if (response != null && response.body() != null) {
+            response.body().close();
+        }
+    }
+
+    @PreDestroy
+    void shutdownStreams() {
+        ExecutorService executor = streamExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private RuntimeException unwrapAsyncFailure(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RetryableGroqException("Failed to communicate with AI service: " + cause.getMessage(), cause);
+    }
+
+    private ChatCompletionRequest buildRequest(List<Map<String, String>> messages, boolean jsonResponse) {
+        return buildRequest(messages, jsonResponse, false);
+    }
+
+    private ChatCompletionRequest buildRequest(List<Map<String, String>> messages, boolean jsonResponse,
+            boolean stream) {
+        List<ChatCompletionRequest.Message> typedMessages = null;
+        if (messages != null) {
+            typedMessages = new ArrayList<>(messages.size());
+            for (Map<String, String> message : messages) {
+                typedMessages.add(new ChatCompletionRequest.Message(message.get("role"), message.get("content")));
+            }
+        }
+        // Pratik modunda cümle üretirken çeşitlilik için temperature yüksek olmalı
+        // JSON formatı genelde bozulmaz, gerekirse 0.6-0.8 arası iyidir
+        return new ChatCompletionRequest(model, typedMessages, 0.7,
+                jsonResponse ? ChatCompletionRequest.JSON_OBJECT : null,
+                stream ? Boolean.TRUE : null);
+    }
+
     private String executeChatCompletion(List<Map<String, String>> messages, boolean jsonResponse) {
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.set("Authorization", "Bearer " + apiKey);
 
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("messages", messages);
-            // Pratik modunda cümle üretirken çeşitlilik için temperature yüksek olmalı
-            // JSON formatı genelde bozulmaz, gerekirse 0.6-0.8 arası iyidir
-            requestBody.put("temperature", 0.7);
-
-            if (jsonResponse) {
-                Map<String, String> responseFormat = new HashMap<>();
-                responseFormat.put("type", "json_object");
-                requestBody.put("response_format", responseFormat);
-            }
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            HttpEntity<ChatCompletionRequest> entity = new HttpEntity<>(buildRequest(messages, jsonResponse), headers);
 
             logger.info("Sending request to Groq...");
-            ResponseEntity<Map> response = restTemplate.postForEntity(apiUrl, entity, Map.class);
+            ResponseEntity<ChatCompletionResponse> response =
+                    restTemplate.postForEntity(apiUrl, entity, ChatCompletionResponse.class);
             logger.info("Groq Response Status: {}", response.getStatusCode());
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map body = response.getBody();
-                List choices = (List) body.get("choices");
-                if (choices != null && !choices.isEmpty()) {
-                    Map choice = (Map) choices.get(0);
-                    Map message = (Map) choice.get("message");
-                    return (String) message.get("content");
-                }
+                return response.getBody().messageContent();
             }
         } catch (HttpClientErrorException e) {
             logger.error("Groq API client error: Status={}, Body={}", e.getStatusCode(), e.getResponseBodyAsString());
@@ -242,6 +570,74 @@ public class GroqService {
         return null;
     }
 
+    private String executeHttpClientCompletion(List<Map<String, String>> messages, boolean jsonResponse) {
+        HttpRequest request = buildHttpRequest(messages, jsonResponse);
+        try {
+            logger.info("Sending request to Groq (http-client)...");
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return handleHttpClientResponse(response);
+        } catch (IOException e) {
+            logger.error("Groq API transient access error", e);
+            throw new RetryableGroqException("Failed to communicate with AI service: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NonRetryableGroqException("Groq API call interrupted", e);
+        }
+    }
+
+    private CompletableFuture<String> executeHttpClientCompletionAsync(List<Map<String, String>> messages,
+            boolean jsonResponse) {
+        HttpRequest request = buildHttpRequest(messages, jsonResponse);
+        logger.info("Sending async request to Groq (http-client)...");
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::handleHttpClientResponse);
+    }
+
+    private HttpRequest buildHttpRequest(List<Map<String, String>> messages, boolean jsonResponse) {
+        return buildHttpRequest(messages, jsonResponse, false);
+    }
+
+    private HttpRequest buildHttpRequest(List<Map<String, String>> messages, boolean jsonResponse, boolean stream) {
+        try {
+            byte[] payload = requestWriter.writeValueAsBytes(buildRequest(messages, jsonResponse, stream));
+            return HttpRequest.newBuilder(URI.create(apiUrl))
+                    .timeout(Duration.ofMillis(Math.max(1L, requestTimeoutMs)))
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                    .build();
+        } catch (Exception e) {
+            throw new NonRetryableGroqException("Failed to build Groq request: " + e.getMessage(), e);
+        }
+    }
+
+    private String handleHttpClientResponse(HttpResponse<String> response) {
+        int status = response.statusCode();
+        logger.info("Groq Response Status: {}", status);
+        if (status >= 400 && status < 500) {
+            logger.error("Groq API client error: Status={}, Body={}", status, response.body());
+            throw new NonRetryableGroqException("Groq API Error: " + response.body(), null);
+        }
+        if (status >= 500) {
+            logger.error("Groq API server error: Status={}, Body={}", status, response.body());
+            throw new RetryableGroqException("Groq API Error: " + response.body(), null);
+        }
+        if (status < 200 || status >= 300 || response.body() == null || response.body().isBlank()) {
+            return null;
+        }
+        try {
+            ChatCompletionResponse body = responseReader.readValue(response.body());
+            return body != null ? body.messageContent() : null;
+        } catch (Exception e) {
+            logger.error("Error parsing Groq API response", e);
+            throw new RetryableGroqException("Failed to communicate with AI service: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isHttpClientTransport() {
+        return TRANSPORT_HTTP_CLIENT.equalsIgnoreCase(transport);
+    }
+
     private long computeBackoffMs(int attempt, long baseBackoffMs, long backoffCapMs) {
         if (baseBackoffMs <= 0L) {
             return 0L;
@@ -0,0 +1,121 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.ReviewStats;
+import com.ingilizce.calismaapp.dto.SentenceStats;
+import com.ingilizce.calismaapp.repository.SentencePracticeRepository;
+import com.ingilizce.calismaapp.repository.SentenceRepository;
+import com.ingilizce.calismaapp.repository.WordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard counters for sentences and SRS reviews, each read with one aggregate query
+ * per table instead of a count per difficulty or a full word list.
+ * <p>
+ * Results are kept per user in a small local cache. Word, sentence and review writes
+ * call {@link #invalidate(Long)}; the TTL bounds staleness for writes made on other
+ * instances.
+ */
+@Service
+public class LearningStatsService {
+    private static final String SENTENCES = "sentences:";
+    private static final String REVIEWS = "reviews:";
+
+    private record CachedReviewStats(LocalDate day, ReviewStats stats) {
+    }
+
+    private final WordRepository wordRepository;
+    private final SentenceRepository sentenceRepository;
+    private final SentencePracticeRepository sentencePracticeRepository;
+    private final BoundedLocalCache<Object> cache;
+
+    @Value("${app.stats.cache.enabled:true}")
+    private boolean cacheEnabled = true;
+
+    @Value("${app.stats.cache.ttl-ms:30000}")
+    private long cacheTtlMs = 30_000;
+
+    @Autowired
+    public LearningStatsService(WordRepository wordRepository, SentenceRepository sentenceRepository,
+                                SentencePracticeRepository sentencePracticeRepository,
+                                @Value("${app.stats.cache.max-entries:10000}") int maxEntries) {
+        this(wordRepository, sentenceRepository, sentencePracticeRepository, maxEntries, System::currentTimeMillis);
+    }
+
+    LearningStatsService(WordRepository wordRepository, SentenceRepository sentenceRepository,
+                         SentencePracticeRepository sentencePracticeRepository, int maxEntries, LongSupplier clock) {
+        this.wordRepository = wordRepository;
+        this.sentenceRepository = sentenceRepository;
+        this.sentencePracticeRepository = sentencePracticeRepository;
+        this.cache = new BoundedLocalCache<>(maxEntries, Long.MAX_VALUE, value -> 1L, clock, null);
+    }
+
+    /**
+     * Practice sentences plus word sentences, by difficulty.
+     */
+    public SentenceStats sentenceStats(Long userId) {
+        return cached(SENTENCES + userId, value -> true, () -> sentencePracticeRepository
+                .aggregateStatsByUserId(userId).plus(sentenceRepository.aggregateStatsByUserId(userId)));
+    }
+
+    public ReviewStats reviewStats(Long userId) {
+        LocalDate today = LocalDate.now();
+        // "Due today" changes at midnight without any write, so the day is part of the entry.
+        CachedReviewStats entry = cached(REVIEWS + userId, (CachedReviewStats cached) -> today.equals(cached.day()),
+                () -> new CachedReviewStats(today, wordRepository.aggregateReviewStats(userId, today)));
+        return entry.stats();
+    }
+
+    /**
+     * Drops the user's cached counters now and, when called inside a transaction, again
+     * after it commits, so a read that raced the write cannot keep the old numbers.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Runnable drop = () -> {
+            cache.invalidate(SENTENCES + userId);
+            cache.invalidate(REVIEWS + userId);
+        };
+        drop.run();
+        afterCommit(drop);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+        afterCommit(cache::clear);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Predicate<T> stillValid, Supplier<T> loader) {
+        if (!cacheEnabled) {
+            return loader.get();
+        }
+        T value = (T) cache.get(key);
+        if (value == null || !stillValid.test(value)) {
+            value = loader.get();
+            cache.put(key, value, cacheTtlMs);
+        }
+        return value;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
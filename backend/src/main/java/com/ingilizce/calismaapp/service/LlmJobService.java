@@ -0,0 +1,314 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs long LLM calls (speaking test evaluation, question generation) as jobs so
+ * the client does not hold a connection open past Groq's budget and then retry
+ * into a second call. A job record lives in Redis for {@code llm.jobs.ttl-seconds};
+ * an {@code Idempotency-Key} maps to the job it started, so a retried submission
+ * attaches to that job instead of starting another. Without Redis (or while it is
+ * down) records are kept in heap on this node.
+ */
+@Service
+public class LlmJobService {
+    private static final Logger log = LoggerFactory.getLogger(LlmJobService.class);
+    static final String JOB_KEY_PREFIX = "llm:job:";
+    static final String IDEMPOTENCY_KEY_PREFIX = "llm:job:idem:";
+    private static final String JOBS_METRIC = "llm.jobs.total";
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_DONE = "done";
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * Job record as stored and as returned to the client. {@code retryAfterSeconds}
+     * is set when the job failed because the AI service was busy.
+     */
+    public record Job(String id, String type, Long userId, String status, Map<String, Object> result,
+                      String error, Long retryAfterSeconds, long createdAtMs, long updatedAtMs) {
+        public boolean isFinished() {
+            return STATUS_DONE.equals(status) || STATUS_FAILED.equals(status);
+        }
+
+        Job with(String newStatus, Map<String, Object> newResult, String newError, Long newRetryAfter) {
+            return new Job(id, type, userId, newStatus, newResult, newError, newRetryAfter, createdAtMs,
+                    System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @param existing true when an idempotency key matched a job submitted earlier
+     */
+    public record Submission(Job job, boolean existing) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final BoundedLocalCache<Job> localJobs;
+    private final BoundedLocalCache<String> localIdempotencyKeys;
+    private final Map<String, CopyOnWriteArrayList<Consumer<Job>>> listeners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService watchScheduler;
+    // Null in plain unit tests: jobs then run inline.
+    private ThreadPoolTaskExecutor jobExecutor;
+
+    @Value("${llm.jobs.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+
+    @Value("${llm.jobs.poll-ms:2000}")
+    private long pollMs = 2000;
+
+    @Autowired
+    public LlmJobService(@Autowired(required = false) StringRedisTemplate redisTemplate,
+                         @Autowired(required = false) MeterRegistry meterRegistry,
+                         ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.localJobs = new BoundedLocalCache<>(10_000, Long.MAX_VALUE, job -> 1L, System::currentTimeMillis,
+                reason -> { });
+        this.localIdempotencyKeys = new BoundedLocalCache<>(10_000, Long.MAX_VALUE, key -> 1L,
+                System::currentTimeMillis, reason -> { });
+        this.watchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "llm-job-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Autowired
+    void configureJobExecutor(@Value("${llm.jobs.concurrency:4}") int concurrency,
+                              @Value("${llm.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, concurrency));
+        executor.setMaxPoolSize(Math.max(1, concurrency));
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setThreadNamePrefix("llm-job-");
+        executor.initialize();
+        this.jobExecutor = executor;
+    }
+
+    /**
+     * Creates a job running {@code work}, or returns the job already started with the
+     * same idempotency key by this user. A job that failed releases its key, so a
+     * retry after a failure starts afresh.
+     *
+     * @throws PromptConcurrencyLimiter.LimitExceededException when the job queue is full
+     */
+    public Submission submit(Long userId, String type, String idempotencyKey, Supplier<Map<String, Object>> work) {
+        long now = System.currentTimeMillis();
+        Job job = new Job(UUID.randomUUID().toString(), type, userId, STATUS_PENDING, null, null, null, now, now);
+        String idemKey = idempotencyKey == null || idempotencyKey.isBlank() ? null
+                : IDEMPOTENCY_KEY_PREFIX + userId + ":" + type + ":" + idempotencyKey.trim();
+
+        // The pending record is written before the key is claimed, so a concurrent retry that
+        // sees the key always finds its job; a key without a record really has outlived it.
+        save(job);
+        if (idemKey != null) {
+            String claimed = claimIdempotencyKey(idemKey, job.id());
+            if (!job.id().equals(claimed)) {
+                Optional<Job> existing = get(claimed);
+                if (existing.isPresent()) {
+                    delete(JOB_KEY_PREFIX + job.id());
+                    record(type, "attached");
+                    return new Submission(existing.get(), true);
+                }
+                // The key outlived its job record; take it over.
+                store(idemKey, job.id());
+            }
+        }
+
+        Runnable task = () -> run(job, idemKey, work);
+        if (jobExecutor == null) {
+            task.run();
+            return new Submission(get(job.id()).orElse(job), false);
+        }
+        try {
+            jobExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            delete(JOB_KEY_PREFIX + job.id());
+            if (idemKey != null) {
+                delete(idemKey);
+            }
+            record(type, "rejected");
+            throw new PromptConcurrencyLimiter.LimitExceededException("llm_jobs", 5);
+        }
+        record(type, "submitted");
+        return new Submission(job, false);
+    }
+
+    public Optional<Job> get(String jobId) {
+        if (jobId == null || jobId.isBlank()) {
+            return Optional.empty();
+        }
+        String key = JOB_KEY_PREFIX + jobId;
+        if (redisTemplate != null) {
+            try {
+                String json = redisTemplate.opsForValue().get(key);
+                if (json != null) {
+                    return Optional.of(objectMapper.readValue(json, Job.class));
+                }
+            } catch (Exception e) {
+                log.warn("LLM job read failed for jobId={}", jobId, e);
+            }
+        }
+        return Optional.ofNullable(localJobs.get(key));
+    }
+
+    /**
+     * Calls {@code onFinish} once when the job is done or failed: straight away when this
+     * node ran it, otherwise when the periodic store check sees it (the job may run on
+     * another node). Returns a handle that stops watching.
+     */
+    public Runnable watch(String jobId, Consumer<Job> onFinish) {
+        AtomicBoolean fired = new AtomicBoolean();
+        Consumer<Job> once = job -> {
+            if (job.isFinished() && fired.compareAndSet(false, true)) {
+                onFinish.accept(job);
+            }
+        };
+        listeners.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(once);
+        ScheduledFuture<?> poll = watchScheduler.scheduleWithFixedDelay(
+                () -> get(jobId).ifPresent(once), 0, Math.max(100L, pollMs), TimeUnit.MILLISECONDS);
+        return () -> {
+            poll.cancel(false);
+            listeners.computeIfPresent(jobId, (id, list) -> {
+                list.remove(once);
+                return list.isEmpty() ? null : list;
+            });
+        };
+    }
+
+    private void run(Job job, String idemKey, Supplier<Map<String, Object>> work) {
+        save(job.with(STATUS_RUNNING, null, null, null));
+        Job finished;
+        try {
+            finished = job.with(STATUS_DONE, work.get(), null, null);
+            record(job.type(), "done");
+        } catch (PromptConcurrencyLimiter.LimitExceededException e) {
+            finished = job.with(STATUS_FAILED, null, "AI service is busy, please retry shortly",
+                    e.getRetryAfterSeconds());
+            record(job.type(), "busy");
+        } catch (RuntimeException e) {
+            log.error("LLM job {} ({}) failed for userId={}", job.id(), job.type(), job.userId(), e);
+            finished = job.with(STATUS_FAILED, null, e.getMessage(), null);
+            record(job.type(), "failed");
+        }
+        save(finished);
+        if (STATUS_FAILED.equals(finished.status()) && idemKey != null) {
+            delete(idemKey);
+        }
+        CopyOnWriteArrayList<Consumer<Job>> waiting = listeners.get(job.id());
+        if (waiting != null) {
+            for (Consumer<Job> listener : waiting) {
+                listener.accept(finished);
+            }
+        }
+    }
+
+    private String claimIdempotencyKey(String idemKey, String jobId) {
+        if (redisTemplate != null) {
+            try {
+                Boolean claimed = redisTemplate.opsForValue().setIfAbsent(idemKey, jobId, ttl());
+                if (Boolean.TRUE.equals(claimed)) {
+                    return jobId;
+                }
+                String existing = redisTemplate.opsForValue().get(idemKey);
+                if (existing != null) {
+                    return existing;
+                }
+            } catch (Exception e) {
+                log.warn("LLM job idempotency lookup failed, using local keys", e);
+            }
+        }
+        synchronized (localIdempotencyKeys) {
+            String existing = localIdempotencyKeys.get(idemKey);
+            if (existing != null) {
+                return existing;
+            }
+            localIdempotencyKeys.put(idemKey, jobId, ttl().toMillis());
+            return jobId;
+        }
+    }
+
+    private void save(Job job) {
+        String key = JOB_KEY_PREFIX + job.id();
+        localJobs.put(key, job, ttl().toMillis());
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(job), ttl());
+        } catch (Exception e) {
+            log.warn("LLM job write failed for jobId={}; kept on this node only", job.id(), e);
+        }
+    }
+
+    private void store(String idemKey, String jobId) {
+        localIdempotencyKeys.put(idemKey, jobId, ttl().toMillis());
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(idemKey, jobId, ttl());
+        } catch (Exception e) {
+            log.warn("LLM job idempotency write failed", e);
+        }
+    }
+
+    private void delete(String key) {
+        localJobs.invalidate(key);
+        localIdempotencyKeys.invalidate(key);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(key);
+        } catch (Exception e) {
+            log.warn("LLM job delete failed for key={}", key, e);
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofSeconds(Math.max(1L, ttlSeconds));
+    }
+
+    private void record(String type, String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(JOBS_METRIC, "type", type, "outcome", outcome).increment();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchScheduler.shutdownNow();
+        if (jobExecutor != null) {
+            jobExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decodes JSON out of raw LLM output in one streaming pass. Models wrap the JSON
+ * in code fences or prose; instead of stripping those with regexes and cutting
+ * substrings, the parser is started at the first {@code {} or {@code [} and stops
+ * at the end of that value, so whatever follows is never read. If the first
+ * candidate does not parse (a bracket inside prose), the next one is tried.
+ * <p>
+ * Practice sentences bind straight to {@link PracticeSentence}; the field aliases
+ * models use ({@code turkish}, {@code turkish_translation}, ...) are resolved
+ * while parsing.
+ */
+public final class LlmJsonDecoder {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+    // Candidates tried before giving up; bounds the cost of prose full of brackets.
+    private static final int MAX_CANDIDATES = 16;
+
+    private LlmJsonDecoder() {
+    }
+
+    /**
+     * Where the first complete JSON value of the requested shape sits in {@code raw}.
+     */
+    public record Span(int start, int end) {
+    }
+
+    /**
+     * Locates the first JSON object (or array, when {@code allowArray}) in the text.
+     * When {@code requireSentences} is set, an object only counts if it has a
+     * {@code sentences} array.
+     */
+    public static Optional<Span> locate(String raw, boolean allowObject, boolean allowArray,
+                                        boolean requireSentences) {
+        if (raw == null) {
+            return Optional.empty();
+        }
+        int from = 0;
+        for (int attempt = 0; attempt < MAX_CANDIDATES; attempt++) {
+            int start = nextCandidate(raw, from, allowObject, allowArray);
+            if (start < 0) {
+                return Optional.empty();
+            }
+            try (JsonParser parser = parserAt(raw, start)) {
+                JsonToken first = parser.nextToken();
+                boolean matches = first == JsonToken.START_ARRAY
+                        ? skipValue(parser)
+                        : requireSentences ? hasSentencesArray(parser) : skipValue(parser);
+                if (matches) {
+                    int end = start + (int) parser.currentLocation().getCharOffset();
+                    return Optional.of(new Span(start, end));
+                }
+            } catch (IOException e) {
+                // Not JSON from here; try the next bracket.
+            }
+            from = start + 1;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Practice sentences from a {@code [...]} array, a {@code {"sentences": [...]}}
+     * wrapper, or a single sentence object.
+     *
+     * @throws IllegalArgumentException when the output holds no usable JSON
+     */
+    public static List<PracticeSentence> decodePracticeSentences(String raw) {
+        IOException lastError = null;
+        int from = 0;
+        for (int attempt = 0; raw != null && attempt < MAX_CANDIDATES; attempt++) {
+            int start = nextCandidate(raw, from, true, true);
+            if (start < 0) {
+                break;
+            }
+            try (JsonParser parser = parserAt(raw, start)) {
+                JsonToken first = parser.nextToken();
+                if (first == JsonToken.START_ARRAY) {
+                    return readSentenceArray(parser);
+                }
+                return readSentenceObjectOrWrapper(parser);
+            } catch (IOException e) {
+                lastError = e;
+            }
+            from = start + 1;
+        }
+        throw new IllegalArgumentException(lastError != null ? messageOf(lastError)
+                : "No JSON found in LLM response");
+    }
+
+    /**
+     * The first JSON object in the output as a map.
+     *
+     * @throws IllegalArgumentException when the output holds no JSON object
+     */
+    public static Map<String, Object> decodeObject(String raw) {
+        Span span = locate(raw, true, false, false)
+                .orElseThrow(() -> new IllegalArgumentException("No JSON object found in LLM response"));
+        try (JsonParser parser = parserAt(raw, span.start())) {
+            return MAPPER.readValue(parser, MAP_TYPE);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(messageOf(e), e);
+        }
+    }
+
+    /**
+     * Top-level scalar fields of the first JSON object, read until the object ends or
+     * the JSON breaks off; what was read before a syntax error is kept, so truncated
+     * model output still yields its leading fields. Empty when there is no {@code {}.
+     */
+    public static Optional<Map<String, Object>> salvageFields(String raw, Collection<String> fieldNames) {
+        int start = raw == null ? -1 : raw.indexOf('{');
+        if (start < 0) {
+            return Optional.empty();
+        }
+        Map<String, Object> fields = new HashMap<>();
+        try (JsonParser parser = parserAt(raw, start)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue() && fieldNames.contains(name) && !fields.containsKey(name)) {
+                    fields.put(name, scalar(parser, value));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // Keep what was read before the break.
+        }
+        return Optional.of(fields);
+    }
+
+    private static List<PracticeSentence> readSentenceArray(JsonParser parser) throws IOException {
+        List<PracticeSentence> sentences = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of sentences array");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                sentences.add(new SentenceFields().read(parser).toSentence());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return sentences;
+    }
+
+    private static List<PracticeSentence> readSentenceObjectOrWrapper(JsonParser parser) throws IOException {
+        SentenceFields single = new SentenceFields();
+        List<PracticeSentence> wrapped = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (wrapped == null && "sentences".equals(name) && value == JsonToken.START_ARRAY) {
+                wrapped = readSentenceArray(parser);
+            } else {
+                single.accept(parser, name, value);
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("Unexpected end of JSON object");
+        }
+        return wrapped != null ? wrapped : new ArrayList<>(List.of(single.toSentence()));
+    }
+
+    /**
+     * Collects one sentence's fields; when a model sends several aliases the
+     * canonical name wins, then the earlier alias in {@code *_ALIASES}.
+     */
+    private static final class SentenceFields {
+        private static final List<String> TRANSLATION_ALIASES = List.of("turkishTranslation", "turkish_translation",
+                "turkish", "turkishTransliteration");
+        private static final List<String> FULL_TRANSLATION_ALIASES = List.of("turkishFullTranslation",
+                "turkish_full_translation");
+
+        private String english;
+        private String translation;
+        private int translationRank = Integer.MAX_VALUE;
+        private String fullTranslation;
+        private int fullTranslationRank = Integer.MAX_VALUE;
+
+        SentenceFields read(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                accept(parser, name, parser.nextToken());
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT) {
+                throw new IOException("Unexpected end of sentence object");
+            }
+            return this;
+        }
+
+        void accept(JsonParser parser, String name, JsonToken value) throws IOException {
+            if (!value.isScalarValue()) {
+                parser.skipChildren();
+                return;
+            }
+            String text = value == JsonToken.VALUE_NULL ? null : parser.getText();
+            if ("englishSentence".equals(name)) {
+                english = text;
+                return;
+            }
+            int rank = TRANSLATION_ALIASES.indexOf(name);
+            if (rank >= 0 && rank < translationRank) {
+                translation = text;
+                translationRank = rank;
+                return;
+            }
+            rank = FULL_TRANSLATION_ALIASES.indexOf(name);
+            if (rank >= 0 && rank < fullTranslationRank) {
+                fullTranslation = text;
+                fullTranslationRank = rank;
+            }
+        }
+
+        PracticeSentence toSentence() {
+            return new PracticeSentence(english, translation, fullTranslation);
+        }
+    }
+
+    private static boolean hasSentencesArray(JsonParser parser) throws IOException {
+        boolean found = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            found |= "sentences".equals(name) && value == JsonToken.START_ARRAY;
+            parser.skipChildren();
+        }
+        return found && parser.currentToken() == JsonToken.END_OBJECT;
+    }
+
+    private static boolean skipValue(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        JsonToken end = parser.currentToken();
+        return end == JsonToken.END_OBJECT || end == JsonToken.END_ARRAY;
+    }
+
+    private static Object scalar(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            default -> parser.getText();
+        };
+    }
+
+    private static int nextCandidate(String raw, int from, boolean allowObject, boolean allowArray) {
+        for (int i = from; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if ((allowObject && c == '{') || (allowArray && c == '[')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String messageOf(IOException e) {
+        return e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+    }
+
+    private static JsonParser parserAt(String raw, int start) throws IOException {
+        StringReader reader = new StringReader(raw);
+        reader.skip(start);
+        return FACTORY.createParser(reader);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ingilizce.calismaapp.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One chat-completion backend the {@link LlmRouter} can send a prompt to. Messages
+ * are the same {@code role}/{@code content} maps {@link GroqService} takes.
+ */
+public interface LlmProvider {
+
+    /** Stable name used in config, logs and metric tags. */
+    String name();
+
+    /** Disabled providers are never routed to. */
+    boolean isEnabled();
+
+    /**
+     * Relative price of a call; the router multiplies a provider's latency score by
+     * it, so a cheaper provider wins when latencies are close.
+     */
+    double costWeight();
+
+    String complete(String promptId, List<Map<String, String>> messages, boolean jsonResponse);
+
+    /**
+     * Non-blocking variant, used when the router hedges a call across two providers.
+     * Cancelling the future should release the underlying request where possible.
+     */
+    CompletableFuture<String> completeAsync(String promptId, List<Map<String, String>> messages,
+                                            boolean jsonResponse);
+}
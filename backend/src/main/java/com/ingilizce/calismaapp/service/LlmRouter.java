@@ -0,0 +1,322 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sends each prompt to the best enabled {@link LlmProvider} for its prompt type and
+ * fails over to the next one when a call fails (including Groq's open circuit).
+ * <p>
+ * Providers are ranked per prompt type by a score of rolling p95 latency plus an
+ * error-rate penalty, times the provider's cost weight; providers whose error rate
+ * is above {@code llm.router.max-error-rate} go to the back. Samples older than
+ * {@code llm.router.window-ms} are dropped, so a provider that was failing gets
+ * traffic again once its bad samples age out.
+ * <p>
+ * Prompt types listed in {@code llm.router.hedge-prompts} are latency-critical: if
+ * the first provider has not answered after {@code llm.router.hedge-delay-ms}, the
+ * same prompt is sent to the runner-up and whichever answers first wins.
+ */
+@Service
+public class LlmRouter {
+    private static final Logger log = LoggerFactory.getLogger(LlmRouter.class);
+    private static final String CALLS_METRIC = "llm.router.calls.total";
+    private static final String HEDGES_METRIC = "llm.router.hedges.total";
+
+    private final List<LlmProvider> providers;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Value("${llm.router.window-ms:300000}")
+    private long windowMs = 300_000;
+
+    @Value("${llm.router.window-size:200}")
+    private int windowSize = 200;
+
+    // Latency assumed for a provider with no samples yet; keeps an untried provider from looking free.
+    @Value("${llm.router.default-latency-ms:2000}")
+    private long defaultLatencyMs = 2000;
+
+    @Value("${llm.router.error-penalty-ms:10000}")
+    private long errorPenaltyMs = 10_000;
+
+    @Value("${llm.router.max-error-rate:0.5}")
+    private double maxErrorRate = 0.5;
+
+    @Value("${llm.router.min-samples:10}")
+    private int minSamples = 10;
+
+    @Value("${llm.router.hedge-delay-ms:1500}")
+    private long hedgeDelayMs = 1500;
+
+    @Value("${llm.router.hedge-prompts:chat_buddy,check_translation_tr,check_translation_en,check_grammar}")
+    private String hedgePrompts = "chat_buddy,check_translation_tr,check_translation_en,check_grammar";
+
+    @Autowired
+    public LlmRouter(List<LlmProvider> providers, @Autowired(required = false) MeterRegistry meterRegistry) {
+        this(providers, meterRegistry, System::currentTimeMillis);
+    }
+
+    LlmRouter(List<LlmProvider> providers, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.providers = List.copyOf(providers);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Provider scores as seen right now, best first.
+     */
+    public record Ranking(String provider, double p95Ms, double errorRate, int samples, double score,
+                          boolean healthy) {
+    }
+
+    /**
+     * Runs the prompt on the best provider, hedging or failing over as configured.
+     *
+     * @throws RuntimeException the last provider's failure when every provider failed
+     */
+    public String complete(String promptId, List<Map<String, String>> messages, boolean jsonResponse) {
+        List<LlmProvider> ranked = rank(promptId);
+        if (ranked.isEmpty()) {
+            throw new IllegalStateException("No LLM provider is enabled");
+        }
+        RuntimeException lastFailure = null;
+        int next = 0;
+        if (ranked.size() > 1 && isHedged(promptId)) {
+            try {
+                return hedged(promptId, ranked.get(0), ranked.get(1), messages, jsonResponse);
+            } catch (RuntimeException e) {
+                lastFailure = e;
+                next = 2;
+            }
+        }
+        for (int i = next; i < ranked.size(); i++) {
+            LlmProvider provider = ranked.get(i);
+            try {
+                return timed(promptId, provider, () -> provider.complete(promptId, messages, jsonResponse));
+            } catch (RuntimeException e) {
+                lastFailure = e;
+                if (i + 1 < ranked.size()) {
+                    log.warn("LLM provider {} failed for prompt {}, trying {}: {}", provider.name(), promptId,
+                            ranked.get(i + 1).name(), e.getMessage());
+                }
+            }
+        }
+        throw lastFailure;
+    }
+
+    public List<Ranking> rankings(String promptId) {
+        return rank(promptId).stream().map(provider -> ranking(promptId, provider)).toList();
+    }
+
+    List<LlmProvider> rank(String promptId) {
+        List<LlmProvider> enabled = new ArrayList<>();
+        for (LlmProvider provider : providers) {
+            if (provider.isEnabled()) {
+                enabled.add(provider);
+            }
+        }
+        if (enabled.size() < 2) {
+            return enabled;
+        }
+        Map<LlmProvider, Ranking> rankings = new HashMap<>();
+        for (LlmProvider provider : enabled) {
+            rankings.put(provider, ranking(promptId, provider));
+        }
+        // Stable sort: ties keep configuration order.
+        enabled.sort(Comparator.<LlmProvider, Boolean>comparing(provider -> !rankings.get(provider).healthy())
+                .thenComparingDouble(provider -> rankings.get(provider).score()));
+        return enabled;
+    }
+
+    private Ranking ranking(String promptId, LlmProvider provider) {
+        Window.Stats stats = window(promptId, provider).stats(clock.getAsLong() - windowMs);
+        double p95 = stats.samples() == 0 ? defaultLatencyMs : stats.p95Ms();
+        double score = (p95 + stats.errorRate() * errorPenaltyMs) * Math.max(0.01, provider.costWeight());
+        boolean healthy = stats.samples() < minSamples || stats.errorRate() <= maxErrorRate;
+        return new Ranking(provider.name(), p95, stats.errorRate(), stats.samples(), score, healthy);
+    }
+
+    private String hedged(String promptId, LlmProvider primary, LlmProvider backup,
+                          List<Map<String, String>> messages, boolean jsonResponse) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        AtomicBoolean backupStarted = new AtomicBoolean();
+
+        Runnable startBackup = () -> {
+            if (!result.isDone() && backupStarted.compareAndSet(false, true)) {
+                outstanding.incrementAndGet();
+                record(HEDGES_METRIC, promptId, backup.name(), "sent");
+                launch(promptId, backup, messages, jsonResponse, calls, result, outstanding, null);
+            }
+        };
+        launch(promptId, primary, messages, jsonResponse, calls, result, outstanding, startBackup);
+        CompletableFuture.delayedExecutor(Math.max(0L, hedgeDelayMs), TimeUnit.MILLISECONDS).execute(startBackup);
+
+        // The loser is not needed any more; release its connection where the provider allows.
+        result.whenComplete((content, error) -> calls.forEach(call -> call.cancel(true)));
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private void launch(String promptId, LlmProvider provider, List<Map<String, String>> messages,
+                        boolean jsonResponse, List<CompletableFuture<String>> calls, CompletableFuture<String> result,
+                        AtomicInteger outstanding, Runnable onFailure) {
+        long startMs = clock.getAsLong();
+        CompletableFuture<String> call;
+        try {
+            call = provider.completeAsync(promptId, messages, jsonResponse);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        calls.add(call);
+        call.whenComplete((content, error) -> {
+            if (error == null) {
+                sample(promptId, provider, startMs, true);
+                if (onFailure == null && !result.isDone()) {
+                    record(HEDGES_METRIC, promptId, provider.name(), "won");
+                }
+                result.complete(content);
+                return;
+            }
+            RuntimeException failure = unwrap(error);
+            if (failure instanceof CancellationException) {
+                // Lost the race: not an error, but the call took at least this long. Recording
+                // that censored latency keeps a primary that always needs hedging from ranking
+                // on its fast wins alone. The primary only loses once the hedge delay is up.
+                long elapsedMs = clock.getAsLong() - startMs;
+                window(promptId, provider).add(clock.getAsLong(),
+                        onFailure != null ? Math.max(elapsedMs, hedgeDelayMs) : elapsedMs, true);
+                record(CALLS_METRIC, promptId, provider.name(), "cancelled");
+                return;
+            }
+            sample(promptId, provider, startMs, false);
+            if (onFailure != null) {
+                onFailure.run();
+            }
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private String timed(String promptId, LlmProvider provider, Supplier<String> call) {
+        long startMs = clock.getAsLong();
+        try {
+            String content = call.get();
+            sample(promptId, provider, startMs, true);
+            return content;
+        } catch (RuntimeException e) {
+            sample(promptId, provider, startMs, false);
+            throw e;
+        }
+    }
+
+    private void sample(String promptId, LlmProvider provider, long startMs, boolean success) {
+        long now = clock.getAsLong();
+        window(promptId, provider).add(now, now - startMs, success);
+        record(CALLS_METRIC, promptId, provider.name(), success ? "success" : "failure");
+    }
+
+    private Window window(String promptId, LlmProvider provider) {
+        return windows.computeIfAbsent(promptId + "|" + provider.name(), key -> new Window(Math.max(1, windowSize)));
+    }
+
+    private boolean isHedged(String promptId) {
+        Set<String> hedged = Arrays.stream(hedgePrompts.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toSet());
+        return hedged.contains(promptId);
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private void record(String metric, String promptId, String provider, String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(metric, "prompt", promptId, "provider", provider, "outcome", outcome).increment();
+        }
+    }
+
+    /**
+     * Last {@code capacity} calls of one provider for one prompt type.
+     */
+    static final class Window {
+        record Stats(int samples, double p95Ms, double errorRate) {
+        }
+
+        private final long[] timestamps;
+        private final long[] latencies;
+        private final boolean[] failures;
+        private int next;
+        private int size;
+
+        Window(int capacity) {
+            this.timestamps = new long[capacity];
+            this.latencies = new long[capacity];
+            this.failures = new boolean[capacity];
+        }
+
+        synchronized void add(long atMs, long latencyMs, boolean success) {
+            timestamps[next] = atMs;
+            latencies[next] = latencyMs;
+            failures[next] = !success;
+            next = (next + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+        }
+
+        synchronized Stats stats(long notBeforeMs) {
+            long[] recent = new long[size];
+            int count = 0;
+            int failed = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] >= notBeforeMs) {
+                    recent[count++] = latencies[i];
+                    if (failures[i]) {
+                        failed++;
+                    }
+                }
+            }
+            if (count == 0) {
+                return new Stats(0, 0, 0);
+            }
+            Arrays.sort(recent, 0, count);
+            int index = (int) Math.ceil(0.95 * count) - 1;
+            return new Stats(count, recent[Math.max(0, index)], (double) failed / count);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ingilizce.calismaapp.dto.ChatCompletionRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Self-hosted Ollama ({@code /api/chat}) as a router provider, configured through the
+ * {@code langchain4j.ollama.chat-model.*} properties. Off unless
+ * {@code llm.providers.ollama.enabled} is set and the base URL is not empty.
+ */
+@Component
+public class OllamaLlmProvider implements LlmProvider {
+    private static final Logger log = LoggerFactory.getLogger(OllamaLlmProvider.class);
+    static final String NAME = "ollama";
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record ChatRequest(String model, List<ChatCompletionRequest.Message> messages, boolean stream, String format,
+                       Options options) {
+    }
+
+    record Options(double temperature, @JsonProperty("top_p") double topP) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ChatResponse(ChatCompletionRequest.Message message, String error) {
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectWriter requestWriter;
+    private final ObjectReader responseReader;
+
+    @Value("${llm.providers.ollama.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${langchain4j.ollama.chat-model.base-url:}")
+    private String baseUrl = "";
+
+    @Value("${langchain4j.ollama.chat-model.model-name:qwen2.5:32b}")
+    private String modelName = "qwen2.5:32b";
+
+    @Value("${langchain4j.ollama.chat-model.temperature:0.2}")
+    private double temperature = 0.2;
+
+    @Value("${langchain4j.ollama.chat-model.top-p:0.9}")
+    private double topP = 0.9;
+
+    @Value("${langchain4j.ollama.chat-model.timeout:180s}")
+    private String timeout = "180s";
+
+    @Value("${llm.providers.ollama.cost-weight:0.5}")
+    private double costWeight = 0.5;
+
+    @Autowired
+    public OllamaLlmProvider(ObjectMapper objectMapper) {
+        this(objectMapper, HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build());
+    }
+
+    OllamaLlmProvider(ObjectMapper objectMapper, HttpClient httpClient) {
+        this.requestWriter = objectMapper.writerFor(ChatRequest.class);
+        this.responseReader = objectMapper.readerFor(ChatResponse.class);
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled && baseUrl != null && !baseUrl.isBlank();
+    }
+
+    @Override
+    public double costWeight() {
+        return costWeight;
+    }
+
+    @Override
+    public String complete(String promptId, List<Map<String, String>> messages, boolean jsonResponse) {
+        try {
+            return handleResponse(httpClient.send(buildRequest(messages, jsonResponse),
+                    HttpResponse.BodyHandlers.ofString()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Ollama request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ollama request interrupted", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> completeAsync(String promptId, List<Map<String, String>> messages,
+                                                   boolean jsonResponse) {
+        HttpRequest request;
+        try {
+            request = buildRequest(messages, jsonResponse);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(this::handleResponse);
+    }
+
+    private HttpRequest buildRequest(List<Map<String, String>> messages, boolean jsonResponse) {
+        List<ChatCompletionRequest.Message> typedMessages = new ArrayList<>(messages.size());
+        for (Map<String, String> message : messages) {
+            typedMessages.add(new ChatCompletionRequest.Message(message.get("role"), message.get("content")));
+        }
+        ChatRequest body = new ChatRequest(modelName, typedMessages, false, jsonResponse ? "json" : null,
+                new Options(temperature, topP));
+        try {
+            return HttpRequest.newBuilder(URI.create(stripTrailingSlash(baseUrl) + "/api/chat"))
+                    .timeout(DurationStyle.detectAndParse(timeout))
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(requestWriter.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to build Ollama request: " + e.getMessage(), e);
+        }
+    }
+
+    private String handleResponse(HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            log.warn("Ollama error: Status={}, Body={}", status, response.body());
+            throw new IllegalStateException("Ollama API Error: " + status);
+        }
+        ChatResponse body;
+        try {
+            body = responseReader.readValue(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed Ollama response: " + e.getMessage(), e);
+        }
+        if (body.error() != null) {
+            throw new IllegalStateException("Ollama API Error: " + body.error());
+        }
+        return body.message() != null ? body.message().content() : null;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,218 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Keeps a snapshot of Piper availability and the installed voices, so request
+ * handlers read a volatile field instead of forking {@code piper --version} and
+ * walking the model directory on every call.
+ * <p>
+ * The snapshot is refreshed periodically, whenever a model file appears or
+ * disappears in the model directory, and after a failed synthesis; a successful
+ * synthesis marks Piper available straight away.
+ */
+@Service
+public class PiperAvailabilityMonitor implements PiperTtsService.SynthesisListener {
+    private static final Logger log = LoggerFactory.getLogger(PiperAvailabilityMonitor.class);
+    private static final String PROBES_METRIC = "piper.availability.probes.total";
+    private static final String AVAILABLE_METRIC = "piper.available";
+
+    /**
+     * Result of the last probe.
+     */
+    public record Snapshot(boolean available, List<String> voices, long checkedAtMs) {
+    }
+
+    private final PiperTtsService piperTtsService;
+    private final MeterRegistry meterRegistry;
+    private volatile Snapshot snapshot;
+    private ThreadPoolTaskExecutor refreshExecutor;
+    private WatchService watchService;
+
+    @Value("${piper.availability.watch-models:true}")
+    private boolean watchModels = true;
+
+    @Autowired
+    public PiperAvailabilityMonitor(PiperTtsService piperTtsService,
+                                    @Autowired(required = false) MeterRegistry meterRegistry) {
+        this.piperTtsService = piperTtsService;
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            // Reads the field directly so that a scrape never triggers a probe.
+            meterRegistry.gauge(AVAILABLE_METRIC, this,
+                    monitor -> monitor.snapshot != null && monitor.snapshot.available() ? 1.0 : 0.0);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        piperTtsService.addSynthesisListener(this);
+
+        // One slot queued at most: refresh requests that pile up while a probe runs collapse into one.
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("piper-probe-");
+        executor.initialize();
+        this.refreshExecutor = executor;
+
+        if (watchModels) {
+            startModelWatcher(Paths.get(piperTtsService.getModelBaseDir()));
+        }
+        requestRefresh();
+    }
+
+    public boolean isAvailable() {
+        return current().available();
+    }
+
+    public Snapshot getSnapshot() {
+        return current();
+    }
+
+    /**
+     * Runs the probe now; the fork and file checks happen here, never on the request path.
+     */
+    @Scheduled(fixedDelayString = "${piper.availability.refresh-ms:60000}",
+            initialDelayString = "${piper.availability.refresh-ms:60000}")
+    public Snapshot refresh() {
+        boolean available = piperTtsService.isAvailable();
+        List<String> voices = List.of(piperTtsService.getSupportedVoices());
+        Snapshot previous = snapshot;
+        Snapshot next = new Snapshot(available, voices, System.currentTimeMillis());
+        snapshot = next;
+        if (previous == null || previous.available() != available || !previous.voices().equals(voices)) {
+            log.info("Piper TTS available={} voices={}", available, voices);
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter(PROBES_METRIC, "outcome", available ? "up" : "down").increment();
+        }
+        return next;
+    }
+
+    @Override
+    public void onSynthesisSuccess() {
+        Snapshot current = snapshot;
+        if (current != null && !current.available()) {
+            snapshot = new Snapshot(true, current.voices(), System.currentTimeMillis());
+            requestRefresh();
+        }
+    }
+
+    @Override
+    public void onSynthesisFailure(Exception error) {
+        // One failed text is not proof Piper is gone; re-probe in the background.
+        requestRefresh();
+    }
+
+    void requestRefresh() {
+        if (refreshExecutor == null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(this::refreshQuietly);
+        } catch (TaskRejectedException e) {
+            // A refresh is already queued.
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // Only until the first background probe lands.
+        synchronized (this) {
+            return snapshot != null ? snapshot : refresh();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Piper availability probe failed", e);
+        }
+    }
+
+    private void startModelWatcher(Path modelDir) {
+        if (!Files.isDirectory(modelDir)) {
+            log.debug("Piper model directory {} not found, not watching it", modelDir);
+            return;
+        }
+        try {
+            WatchService watcher = FileSystems.getDefault().newWatchService();
+            modelDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            this.watchService = watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Cannot watch Piper model directory {}", modelDir, e);
+            return;
+        }
+        Thread thread = new Thread(this::watchLoop, "piper-model-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean modelsChanged = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || (context != null && context.toString().endsWith(".onnx"))) {
+                        modelsChanged = true;
+                    }
+                }
+                if (modelsChanged) {
+                    requestRefresh();
+                }
+                if (!key.reset()) {
+                    log.warn("Piper model directory is no longer watchable");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down.
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Error closing Piper model watcher", e);
+            }
+        }
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ingilizce.calismaapp.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.*;
@@ -11,12 +12,15 @@ import java.nio.file.Paths;
 import java.util.Base64;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Service
 public class PiperTtsService {
@@ -44,6 +48,73 @@ public class PiperTtsService {
     private static final String MODEL_JENNY = "en_GB-jenny_dioco-medium.onnx";
     private static final String MODEL_CORI = "en_GB-cori-medium.onnx";
 
+    // Null when the beans are absent (plain unit tests).
+    private final TtsAudioCache audioCache;
+    // Null or disabled: every synthesis forks its own Piper process.
+    private final PiperWorkerPool workerPool;
+    private final List<SynthesisListener> synthesisListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told about every Piper run, so availability can follow real traffic
+     * instead of only the periodic probe.
+     */
+    public interface SynthesisListener {
+        void onSynthesisSuccess();
+
+        void onSynthesisFailure(Exception error);
+    }
+
+    public PiperTtsService() {
+        this(null, null);
+    }
+
+    @Autowired
+    public PiperTtsService(@Autowired(required = false) TtsAudioCache audioCache,
+                           @Autowired(required = false) PiperWorkerPool workerPool) {
+        this.audioCache = audioCache;
+        this.workerPool = workerPool;
+    }
+
+    public void addSynthesisListener(SynthesisListener listener) {
+        synthesisListeners.add(listener);
+    }
+
+    /**
+     * Returns previously synthesized audio for this text/voice without touching Piper.
+     *
+     * @return Base64 encoded WAV audio data, or empty when it has not been synthesized yet
+     */
+    public Optional<String> findCachedSpeech(String text, String voice) {
+        return findCachedAudio(text, voice).map(audio -> Base64.getEncoder().encodeToString(audio));
+    }
+
+    /**
+     * Same as {@link #findCachedSpeech} but returns the raw WAV bytes.
+     */
+    public Optional<byte[]> findCachedAudio(String text, String voice) {
+        if (audioCache == null || text == null) {
+            return Optional.empty();
+        }
+        return audioCache.get(modelCacheName(getModelFile(voice)), text);
+    }
+
+    /**
+     * Whether this text/voice is already in the audio cache; does not load the clip.
+     */
+    public boolean isAudioCached(String text, String voice) {
+        return audioCache != null && text != null && audioCache.contains(modelCacheName(getModelFile(voice)), text);
+    }
+
+    /**
+     * Opaque tag for the audio of this text/voice: the content address used by the
+     * audio cache, so it is known before the clip has been synthesized. It identifies
+     * the text and voice, not the bytes (renders are not byte-identical), so callers
+     * must send it as a weak ETag and cannot use it to satisfy {@code If-Range}.
+     */
+    public String getAudioETag(String text, String voice) {
+        return TtsAudioCache.keyFor(modelCacheName(getModelFile(voice)), text);
+    }
+
     /**
      * Generate speech audio from text using Piper TTS
      * 
@@ -52,105 +123,214 @@ public class PiperTtsService {
      * @return Base64 encoded WAV audio data
      */
     public String synthesizeSpeech(String text, String voice) {
-        try {
-            // Select model based on voice
-            String modelFile = getModelFile(voice);
-
-            // Create temporary output file
-            Path outputPath = createTempOutputPath();
-            String outputFile = outputPath.toString();
+        return Base64.getEncoder().encodeToString(synthesizeAudio(text, voice));
+    }
 
-            // Build Piper command - keep path resolution overridable for tests
-            String absoluteModelPath = absolutePath(modelFile);
+    /**
+     * Generate speech audio from text using Piper TTS
+     *
+     * @return WAV audio data
+     */
+    public byte[] synthesizeAudio(String text, String voice) {
+        try {
+            String absoluteModelPath = resolveModelPath(voice);
 
-            // Verify model file exists
-            if (!pathExists(absoluteModelPath)) {
-                throw new RuntimeException("Model file not found at SAFE path: " + absoluteModelPath);
+            String cacheModel = modelCacheName(absoluteModelPath);
+            if (audioCache != null) {
+                Optional<byte[]> cached = audioCache.get(cacheModel, text);
+                if (cached.isPresent()) {
+                    return cached.get();
+                }
             }
-            log.debug("Using SAFE model file: {}", absoluteModelPath);
-            log.debug("Model file exists: {}", pathExists(absoluteModelPath));
+            return synthesizeUncached(text, absoluteModelPath, cacheModel);
 
-            String piperPath = findPiperPath();
-            log.debug("Using Piper path: {}", piperPath);
-
-            // Working directory setup moved here
-            File workingDir = new File(getModelBaseDir());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to synthesize speech: " + e.getMessage(), e);
+        }
+    }
 
-            List<String> command = new ArrayList<>();
-            command.add(piperPath);
-            command.add("--model");
-            command.add(absoluteModelPath);
-            command.add("--output_file");
-            command.add(outputFile);
+    /**
+     * Writes the WAV for {@code text} to {@code out}. Without warm workers, Piper is
+     * started with {@code --output_file -} and its stdout is copied straight to
+     * {@code out}, so no temp file or full in-heap copy is needed before the first
+     * byte goes out. Cached clips are written directly; fresh ones are cached once
+     * Piper exits cleanly.
+     */
+    public void streamSpeech(String text, String voice, OutputStream out) throws IOException {
+        String absoluteModelPath = resolveModelPath(voice);
+        String cacheModel = modelCacheName(absoluteModelPath);
+        if (audioCache != null) {
+            Optional<byte[]> cached = audioCache.get(cacheModel, text);
+            if (cached.isPresent()) {
+                out.write(cached.get());
+                return;
+            }
+        }
+        if (workerPool != null && workerPool.isEnabled()) {
+            // A warm worker beats a fresh process even though its protocol needs an output file.
+            try {
+                out.write(synthesizeUncached(text, absoluteModelPath, cacheModel));
+                return;
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to synthesize speech: " + e.getMessage(), e);
+            }
+        }
 
-            Process process = startProcess(command, workingDir);
+        List<String> command = new ArrayList<>();
+        command.add(findPiperPath());
+        command.add("--model");
+        command.add(absoluteModelPath);
+        command.add("--output_file");
+        command.add("-");
+        Process process;
+        try {
+            process = startStreamingProcess(command, new File(getModelBaseDir()));
+        } catch (IOException e) {
+            notifyFailure(e);
+            throw e;
+        }
 
-            // Write text to process stdin and explicitly close it
-            OutputStream stdin = process.getOutputStream();
+        StringBuilder errors = new StringBuilder();
+        Thread errorThread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), java.nio.charset.StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    errors.append(line).append("\n");
+                    log.debug("Piper output: {}", line);
+                }
+            } catch (IOException e) {
+                log.warn("Error reading Piper output", e);
+            }
+        });
+        errorThread.setDaemon(true);
+        errorThread.start();
+
+        // Stdin is fed on its own thread: with long input Piper starts writing audio before it
+        // has read all the text, and a full stdout pipe would otherwise block both sides.
+        AtomicReference<IOException> inputFailure = new AtomicReference<>();
+        Thread inputThread = new Thread(() -> {
             try (BufferedWriter writer = new BufferedWriter(
-                    new OutputStreamWriter(stdin, java.nio.charset.StandardCharsets.UTF_8))) {
+                    new OutputStreamWriter(process.getOutputStream(), java.nio.charset.StandardCharsets.UTF_8))) {
                 writer.write(text);
-                writer.flush();
-            } finally {
-                // Explicitly close stdin to signal end of input
-                try {
-                    stdin.close();
-                } catch (IOException e) {
-                    log.warn("Error closing Piper stdin", e);
-                }
+            } catch (IOException e) {
+                inputFailure.set(e);
             }
+        }, "piper-stdin");
+        inputThread.setDaemon(true);
+        inputThread.start();
 
-            // Read output/error stream in a separate thread to prevent blocking
-            StringBuilder output = new StringBuilder();
-            final Process finalProcess = process;
-
-            Thread outputThread = new Thread(() -> {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(finalProcess.getInputStream(),
-                                java.nio.charset.StandardCharsets.UTF_8))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        output.append(line).append("\n");
-                        log.debug("Piper output: {}", line);
+        ByteArrayOutputStream copy = audioCache != null ? new ByteArrayOutputStream() : null;
+        boolean completed = false;
+        try {
+            try (InputStream audio = process.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = audio.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    if (copy != null) {
+                        copy.write(buffer, 0, read);
                     }
-                } catch (IOException e) {
-                    log.warn("Error reading Piper output", e);
                 }
-            });
-            outputThread.setDaemon(true);
-            outputThread.start();
+                out.flush();
+            }
 
-            // Wait for process to complete with timeout (30 seconds)
-            boolean finished = process.waitFor(30, TimeUnit.SECONDS);
-            if (!finished) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    RuntimeException timeout = new RuntimeException("Piper TTS process timed out after 30 seconds");
+                    notifyFailure(timeout);
+                    throw timeout;
+                }
+                inputThread.join(5000);
+                errorThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while streaming Piper audio", e);
+            }
+            int exitCode = process.exitValue();
+            if (exitCode != 0 || inputFailure.get() != null) {
+                log.error("Piper TTS stream failed with exit code={}: {}", exitCode, errors);
+                String reason = errors.length() > 0 ? errors.toString()
+                        : inputFailure.get() != null ? "could not write input: " + inputFailure.get().getMessage()
+                        : "Unknown error (exit code: " + exitCode + ")";
+                RuntimeException failure = new RuntimeException("Piper TTS failed: " + reason);
+                notifyFailure(failure);
+                throw failure;
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // Client went away, Piper failed or timed out: never leave the process running.
                 process.destroyForcibly();
-                throw new RuntimeException("Piper TTS process timed out after 30 seconds");
             }
+        }
+        notifySuccess();
+        if (copy != null && copy.size() > 0) {
+            audioCache.put(cacheModel, text, copy.toByteArray());
+        }
+    }
 
-            outputThread.join(5000); // Wait max 5 seconds for output thread
+    private void notifySuccess() {
+        for (SynthesisListener listener : synthesisListeners) {
+            listener.onSynthesisSuccess();
+        }
+    }
 
-            int exitCode = process.exitValue();
+    private void notifyFailure(Exception error) {
+        for (SynthesisListener listener : synthesisListeners) {
+            listener.onSynthesisFailure(error);
+        }
+    }
 
-            if (exitCode != 0) {
-                String errorMsg = output.length() > 0 ? output.toString()
-                        : "Unknown error (exit code: " + exitCode + ")";
-                log.error("Piper TTS failed with exit code={}", exitCode);
-                log.error("Piper output: {}", errorMsg);
-                throw new RuntimeException("Piper TTS failed: " + errorMsg);
-            }
+    private String resolveModelPath(String voice) {
+        // Select model based on voice
+        String modelFile = getModelFile(voice);
 
-            // Read generated audio file
-            byte[] audioData = readAllBytes(outputPath);
+        // Build Piper command - keep path resolution overridable for tests
+        String absoluteModelPath = absolutePath(modelFile);
 
-            // Clean up temporary file
-            deleteIfExists(outputPath);
+        // Verify model file exists
+        if (!pathExists(absoluteModelPath)) {
+            throw new RuntimeException("Model file not found at SAFE path: " + absoluteModelPath);
+        }
+        log.debug("Using SAFE model file: {}", absoluteModelPath);
+        return absoluteModelPath;
+    }
 
-            // Return base64 encoded audio
-            return Base64.getEncoder().encodeToString(audioData);
+    private byte[] synthesizeUncached(String text, String absoluteModelPath, String cacheModel) throws Exception {
+        // Create temporary output file
+        Path outputPath = createTempOutputPath();
+        String outputFile = outputPath.toString();
 
+        String piperPath = findPiperPath();
+        log.debug("Using Piper path: {}", piperPath);
+
+        // Working directory setup moved here
+        File workingDir = new File(getModelBaseDir());
+
+        try {
+            if (!synthesizeWithWorker(piperPath, absoluteModelPath, workingDir, text, outputPath)) {
+                // One process per request: the fallback when the worker pool is off or failing.
+                runPiperProcess(piperPath, absoluteModelPath, workingDir, text, outputFile);
+            }
         } catch (Exception e) {
-            throw new RuntimeException("Failed to synthesize speech: " + e.getMessage(), e);
+            notifyFailure(e);
+            throw e;
+        }
+        notifySuccess();
+
+        // Read generated audio file
+        byte[] audioData = readAllBytes(outputPath);
+
+        // Clean up temporary file
+        deleteIfExists(outputPath);
+
+        if (audioCache != null) {
+            audioCache.put(cacheModel, text, audioData);
         }
+        return audioData;
     }
 
     /**
@@ -190,6 +370,98 @@ public class PiperTtsService {
         return defaultPath;
     }
 
+    private boolean synthesizeWithWorker(String piperPath, String modelPath, File workingDir, String text,
+                                         Path outputPath) {
+        if (workerPool == null || !workerPool.isEnabled()) {
+            return false;
+        }
+        try {
+            workerPool.synthesize(piperPath, modelPath, workingDir, text, outputPath);
+            return true;
+        } catch (PiperWorkerPool.WorkerFailureException e) {
+            log.warn("Piper worker failed, falling back to a one-off process: {}", e.getMessage());
+            return false;
+        } catch (PiperWorkerPool.QueueTimeoutException e) {
+            // Every worker stayed busy: a fresh process is slower to start but still answers.
+            log.warn("No Piper worker free, falling back to a one-off process: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void runPiperProcess(String piperPath, String absoluteModelPath, File workingDir, String text,
+                                 String outputFile) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(piperPath);
+        command.add("--model");
+        command.add(absoluteModelPath);
+        command.add("--output_file");
+        command.add(outputFile);
+
+        Process process = startProcess(command, workingDir);
+
+        // Write text to process stdin and explicitly close it
+        OutputStream stdin = process.getOutputStream();
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(stdin, java.nio.charset.StandardCharsets.UTF_8))) {
+            writer.write(text);
+            writer.flush();
+        } finally {
+            // Explicitly close stdin to signal end of input
+            try {
+                stdin.close();
+            } catch (IOException e) {
+                log.warn("Error closing Piper stdin", e);
+            }
+        }
+
+        // Read output/error stream in a separate thread to prevent blocking
+        StringBuilder output = new StringBuilder();
+        final Process finalProcess = process;
+
+        Thread outputThread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(finalProcess.getInputStream(),
+                            java.nio.charset.StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line).append("\n");
+                    log.debug("Piper output: {}", line);
+                }
+            } catch (IOException e) {
+                log.warn("Error reading Piper output", e);
+            }
+        });
+        outputThread.setDaemon(true);
+        outputThread.start();
+
+        // Wait for process to complete with timeout (30 seconds)
+        boolean finished = process.waitFor(30, TimeUnit.SECONDS);
+        if (!finished) {
+            process.destroyForcibly();
+            throw new RuntimeException("Piper TTS process timed out after 30 seconds");
+        }
+
+        outputThread.join(5000); // Wait max 5 seconds for output thread
+
+        int exitCode = process.exitValue();
+
+        if (exitCode != 0) {
+            String errorMsg = output.length() > 0 ? output.toString()
+                    : "Unknown error (exit code: " + exitCode + ")";
+            log.error("Piper TTS failed with exit code={}", exitCode);
+            log.error("Piper output: {}", errorMsg);
+            throw new RuntimeException("Piper TTS failed: " + errorMsg);
+        }
+    }
+
+    /**
+     * Cache entries are keyed by the model file name, not its location on disk.
+     */
+    private static String modelCacheName(String modelPath) {
+        int separator = Math.max(modelPath.lastIndexOf('/'), modelPath.lastIndexOf('\\'));
+        return modelPath.substring(separator + 1);
+    }
+
     /**
      * Find Piper executable path
      */
@@ -341,6 +613,17 @@ public class PiperTtsService {
         return processBuilder.start();
     }
 
+    /**
+     * Like {@link #startProcess} but keeps stderr separate, since stdout carries the audio.
+     */
+    protected Process startStreamingProcess(List<String> command, File workingDir) throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        if (workingDir != null && workingDir.exists()) {
+            processBuilder.directory(workingDir);
+        }
+        return processBuilder.start();
+    }
+
     protected Process startAvailabilityProcess(String piperPath) throws IOException {
         ProcessBuilder processBuilder = new ProcessBuilder(piperPath, "--version");
         processBuilder.redirectErrorStream(true);
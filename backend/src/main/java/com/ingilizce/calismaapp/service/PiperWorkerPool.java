@@ -0,0 +1,385 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-lived Piper processes, a small pool per voice model. Each worker is started
+ * once with {@code --json-input} and then fed one JSON line per utterance
+ * ({@code {"text": ..., "output_file": ...}}); Piper prints the output path when the
+ * file is written. That skips the process spawn and ONNX model load which
+ * otherwise dominate every synthesis.
+ * <p>
+ * Workers are created lazily up to {@code piper.workers.pool-size} per model.
+ * A worker that dies, times out or answers out of step is destroyed and replaced
+ * on the next request; the periodic health check also drops dead idle workers.
+ * Callers wait at most {@code piper.workers.queue-timeout-ms} for a free worker.
+ */
+@Service
+public class PiperWorkerPool {
+    private static final Logger log = LoggerFactory.getLogger(PiperWorkerPool.class);
+    private static final String REQUESTS_METRIC = "piper.workers.requests.total";
+    private static final String REPLACED_METRIC = "piper.workers.replaced.total";
+    private static final String LIVE_METRIC = "piper.workers.live";
+    private static final String EOF = "\u0000eof";
+
+    /**
+     * No worker became free within the queue timeout.
+     */
+    public static class QueueTimeoutException extends RuntimeException {
+        public QueueTimeoutException(String model, long timeoutMs) {
+            super("No Piper worker for " + model + " became free within " + timeoutMs + "ms");
+        }
+    }
+
+    /**
+     * The worker could not be started or failed mid-request; the caller may fall back.
+     */
+    public static class WorkerFailureException extends RuntimeException {
+        public WorkerFailureException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, VoicePool> pools = new ConcurrentHashMap<>();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${piper.workers.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${piper.workers.pool-size:2}")
+    private int poolSize = 2;
+
+    @Value("${piper.workers.queue-timeout-ms:10000}")
+    private long queueTimeoutMs = 10000;
+
+    @Value("${piper.workers.request-timeout-ms:30000}")
+    private long requestTimeoutMs = 30000;
+
+    @Autowired
+    public PiperWorkerPool(@Autowired(required = false) MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        if (meterRegistry != null) {
+            meterRegistry.gauge(LIVE_METRIC, liveWorkers);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && poolSize > 0;
+    }
+
+    /**
+     * Synthesizes {@code text} into {@code outputFile} on a pooled worker for the model.
+     *
+     * @throws QueueTimeoutException  when every worker for the model stayed busy
+     * @throws WorkerFailureException when the worker could not start or did not answer
+     */
+    public void synthesize(String piperPath, String modelPath, File workingDir, String text, Path outputFile) {
+        VoicePool pool = pools.computeIfAbsent(piperPath + "|" + modelPath,
+                key -> new VoicePool(piperPath, modelPath, workingDir));
+        Worker worker = pool.borrow();
+        boolean healthy = false;
+        try {
+            worker.synthesize(text, outputFile);
+            healthy = true;
+            record("ok");
+        } catch (WorkerFailureException e) {
+            record("failed");
+            throw e;
+        } finally {
+            pool.release(worker, healthy);
+        }
+    }
+
+    /**
+     * Drops idle workers whose process has exited, so the next request starts a fresh one.
+     */
+    @Scheduled(fixedDelayString = "${piper.workers.health-check-ms:30000}")
+    public void checkHealth() {
+        for (VoicePool pool : pools.values()) {
+            pool.evictDeadIdleWorkers();
+        }
+    }
+
+    /**
+     * Live worker count per model, for status endpoints.
+     */
+    public Map<String, Integer> getLiveWorkers() {
+        Map<String, Integer> live = new LinkedHashMap<>();
+        for (VoicePool pool : pools.values()) {
+            live.put(Path.of(pool.modelPath).getFileName().toString(), pool.created.get());
+        }
+        return live;
+    }
+
+    /**
+     * Start a worker process. Protected to allow faking Piper in tests.
+     */
+    protected Process startWorkerProcess(List<String> command, File workingDir) throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        if (workingDir != null && workingDir.exists()) {
+            processBuilder.directory(workingDir);
+        }
+        return processBuilder.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (VoicePool pool : pools.values()) {
+            pool.destroyAll();
+        }
+        pools.clear();
+    }
+
+    private void record(String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(REQUESTS_METRIC, "outcome", outcome).increment();
+        }
+    }
+
+    private final class VoicePool {
+        private final String piperPath;
+        private final String modelPath;
+        private final File workingDir;
+        private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+        private final List<Worker> all = new ArrayList<>();
+        private final AtomicInteger created = new AtomicInteger();
+
+        private VoicePool(String piperPath, String modelPath, File workingDir) {
+            this.piperPath = piperPath;
+            this.modelPath = modelPath;
+            this.workingDir = workingDir;
+        }
+
+        private Worker borrow() {
+            Worker worker = idle.poll();
+            if (worker == null) {
+                worker = tryCreate();
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+            while (worker == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    record("queue_timeout");
+                    throw new QueueTimeoutException(modelPath, queueTimeoutMs);
+                }
+                try {
+                    // Short slices so a slot freed by a discarded worker is picked up too.
+                    worker = idle.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new QueueTimeoutException(modelPath, queueTimeoutMs);
+                }
+                if (worker == null) {
+                    worker = tryCreate();
+                }
+            }
+            if (!worker.isAlive()) {
+                // Crashed while idle: replace it in place.
+                replace(worker);
+                Worker replacement = tryCreate();
+                if (replacement == null) {
+                    return borrow();
+                }
+                worker = replacement;
+            }
+            return worker;
+        }
+
+        private void release(Worker worker, boolean healthy) {
+            if (healthy && worker.isAlive()) {
+                idle.offer(worker);
+            } else {
+                replace(worker);
+            }
+        }
+
+        /**
+         * Drops a broken worker; the next borrow starts its replacement.
+         */
+        private void replace(Worker worker) {
+            discard(worker);
+            if (meterRegistry != null) {
+                meterRegistry.counter(REPLACED_METRIC).increment();
+            }
+        }
+
+        private Worker tryCreate() {
+            while (true) {
+                int current = created.get();
+                if (current >= Math.max(1, poolSize)) {
+                    return null;
+                }
+                if (created.compareAndSet(current, current + 1)) {
+                    break;
+                }
+            }
+            try {
+                Worker worker = new Worker(modelPath, startWorkerProcess(command(), workingDir));
+                synchronized (this) {
+                    all.add(worker);
+                }
+                liveWorkers.incrementAndGet();
+                log.info("Started Piper worker for {} ({}/{})", modelPath, created.get(), poolSize);
+                return worker;
+            } catch (IOException e) {
+                created.decrementAndGet();
+                throw new WorkerFailureException("Could not start Piper worker: " + e.getMessage(), e);
+            }
+        }
+
+        private List<String> command() {
+            List<String> command = new ArrayList<>();
+            command.add(piperPath);
+            command.add("--model");
+            command.add(modelPath);
+            command.add("--json-input");
+            command.add("--output_dir");
+            command.add(System.getProperty("java.io.tmpdir"));
+            return command;
+        }
+
+        private void discard(Worker worker) {
+            synchronized (this) {
+                if (!all.remove(worker)) {
+                    return;
+                }
+            }
+            idle.remove(worker);
+            worker.destroy();
+            created.decrementAndGet();
+            liveWorkers.decrementAndGet();
+        }
+
+        private void evictDeadIdleWorkers() {
+            for (Worker worker : idle.toArray(new Worker[0])) {
+                if (!worker.isAlive() && idle.remove(worker)) {
+                    log.warn("Piper worker for {} exited while idle, removing it", modelPath);
+                    replace(worker);
+                }
+            }
+        }
+
+        private void destroyAll() {
+            List<Worker> workers;
+            synchronized (this) {
+                workers = new ArrayList<>(all);
+            }
+            workers.forEach(this::discard);
+        }
+    }
+
+    private final class Worker {
+        private final String modelPath;
+        private final Process process;
+        private final BufferedWriter stdin;
+        // Stdout is read on a daemon thread so a request can wait on it with a timeout.
+        private final BlockingQueue<String> stdoutLines = new LinkedBlockingQueue<>();
+
+        private Worker(String modelPath, Process process) {
+            this.modelPath = modelPath;
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            startReader("piper-worker-out", process.getInputStream(), true);
+            startReader("piper-worker-err", process.getErrorStream(), false);
+        }
+
+        private boolean isAlive() {
+            return process.isAlive();
+        }
+
+        private void synthesize(String text, Path outputFile) {
+            String expected = outputFile.getFileName().toString();
+            try {
+                Map<String, String> line = new LinkedHashMap<>();
+                line.put("text", text.replace('\n', ' ').replace('\r', ' '));
+                line.put("output_file", outputFile.toString());
+                stdin.write(objectMapper.writeValueAsString(line));
+                stdin.newLine();
+                stdin.flush();
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMs);
+                while (true) {
+                    long remaining = deadline - System.nanoTime();
+                    String out = remaining > 0 ? stdoutLines.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (out == null) {
+                        throw new WorkerFailureException("Piper worker timed out after " + requestTimeoutMs + "ms", null);
+                    }
+                    if (EOF.equals(out)) {
+                        throw new WorkerFailureException("Piper worker for " + modelPath + " exited", null);
+                    }
+                    if (out.trim().endsWith(expected)) {
+                        return;
+                    }
+                    log.debug("Piper worker output: {}", out);
+                }
+            } catch (IOException e) {
+                throw new WorkerFailureException("Piper worker I/O failed: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WorkerFailureException("Interrupted waiting for Piper worker", e);
+            }
+        }
+
+        private void startReader(String name, InputStream stream, boolean collect) {
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (collect) {
+                            stdoutLines.offer(line);
+                        } else {
+                            log.debug("Piper worker: {}", line);
+                        }
+                    }
+                } catch (IOException e) {
+                    log.debug("Piper worker stream closed: {}", e.getMessage());
+                }
+                if (collect) {
+                    stdoutLines.offer(EOF);
+                }
+            }, name);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void destroy() {
+            try {
+                stdin.close();
+            } catch (IOException e) {
+                log.debug("Error closing Piper worker stdin", e);
+            }
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.ProgressDelta;
+import com.ingilizce.calismaapp.model.Achievement;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind XP and streak updates for the learning paths (word adds, sentence adds,
+ * reviews). Instead of loading and saving {@code UserProgress} and checking every
+ * achievement inside the request, the request only adds to a per-user in-memory delta.
+ * <p>
+ * Every {@code progress.engine.flush-ms} the buffered deltas are written in one
+ * transaction through {@link ProgressService#applyProgressDeltas}, as
+ * {@code total_xp = total_xp + ?} increments grouped by amount and one streak update
+ * per active day. Users whose progress was written are then evaluated for levels and
+ * achievements; a user stays pending until an evaluation succeeds, so a failed one is
+ * retried on the next run (at least once per write, never skipped). A failed flush
+ * puts its deltas back into the buffer.
+ * <p>
+ * The buffer lives in this instance's memory: reads see new XP after the next flush,
+ * and a hard crash loses at most one interval of XP. Shutdown flushes what is left.
+ * With {@code progress.engine.enabled=false} every call goes straight to
+ * {@link ProgressService} as before.
+ */
+@Service
+public class ProgressEngine {
+    private static final Logger log = LoggerFactory.getLogger(ProgressEngine.class);
+    private static final String FLUSHES_METRIC = "progress.engine.flushes.total";
+    private static final String EVALUATIONS_METRIC = "progress.engine.evaluations.total";
+
+    private final ProgressService progressService;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, ProgressDelta> buffered = new ConcurrentHashMap<>();
+    // User id -> flush that last wrote the user's progress; removed only by a successful evaluation of that flush.
+    private final Map<Long, Long> unevaluated = new ConcurrentHashMap<>();
+    private final AtomicLong flushes = new AtomicLong();
+
+    @Value("${progress.engine.enabled:true}")
+    private boolean enabled = true;
+
+    // Past this many buffered users the recording thread flushes itself, bounding memory.
+    @Value("${progress.engine.max-buffered-users:10000}")
+    private int maxBufferedUsers = 10_000;
+
+    @Autowired
+    public ProgressEngine(ProgressService progressService,
+                          @Autowired(required = false) MeterRegistry meterRegistry) {
+        this.progressService = progressService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * XP for a learning action that also counts today towards the user's streak.
+     */
+    public void recordActivity(Long userId, int xp, String reason) {
+        if (!enabled) {
+            progressService.awardXp(userId, xp, reason);
+            progressService.updateStreak(userId);
+            return;
+        }
+        log.debug("Buffering {} XP for: {}", xp, reason);
+        buffer(userId, ProgressDelta.of(xp, LocalDate.now()));
+    }
+
+    /**
+     * XP that does not count as activity for the streak.
+     */
+    public void awardXp(Long userId, int xp, String reason) {
+        if (!enabled) {
+            progressService.awardXp(userId, xp, reason);
+            return;
+        }
+        log.debug("Buffering {} XP for: {}", xp, reason);
+        buffer(userId, ProgressDelta.xpOnly(xp));
+    }
+
+    /**
+     * Unlocks what the user qualifies for right now, for callers that need the answer in
+     * the response. Buffered XP is flushed first and reward XP is flushed straight after,
+     * so nothing here loads and saves the whole {@code UserProgress} row; rewards that
+     * level the user up are evaluated again until nothing new unlocks.
+     *
+     * @return newly unlocked achievements
+     */
+    public synchronized List<Achievement> checkAchievements(Long userId) {
+        if (!enabled) {
+            return progressService.checkAndUnlockAchievements(userId);
+        }
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("X-User-Id must be a positive number");
+        }
+        List<Achievement> unlocked = new ArrayList<>();
+        List<Achievement> round;
+        do {
+            flush();
+            round = evaluate(userId);
+            unlocked.addAll(round);
+        } while (!round.isEmpty());
+        // The last round ran after the last flush (both hold this lock) and owed no reward.
+        unevaluated.remove(userId);
+        return unlocked;
+    }
+
+    @Scheduled(fixedDelayString = "${progress.engine.flush-ms:1000}",
+            initialDelayString = "${progress.engine.flush-ms:1000}")
+    public void flushAndEvaluate() {
+        flush();
+        evaluatePending();
+    }
+
+    /**
+     * Writes every buffered delta in one transaction.
+     *
+     * @return number of users written, 0 when the buffer was empty or the write failed
+     */
+    public synchronized int flush() {
+        if (buffered.isEmpty()) {
+            return 0;
+        }
+        Map<Long, ProgressDelta> batch = new HashMap<>();
+        for (Long userId : buffered.keySet()) {
+            ProgressDelta delta = buffered.remove(userId);
+            if (delta != null) {
+                batch.put(userId, delta);
+            }
+        }
+        try {
+            progressService.applyProgressDeltas(batch);
+        } catch (RuntimeException e) {
+            // Nothing was committed; merge back so the next flush retries it with newer deltas.
+            batch.forEach(this::merge);
+            record(FLUSHES_METRIC, "failure");
+            log.warn("Progress flush of {} users failed, will retry: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+        long flush = flushes.incrementAndGet();
+        batch.keySet().forEach(userId -> unevaluated.put(userId, flush));
+        record(FLUSHES_METRIC, "success");
+        return batch.size();
+    }
+
+    /**
+     * Levels and achievements for every user written since their last successful
+     * evaluation. Achievement XP goes back into the buffer like any other XP.
+     *
+     * @return number of users evaluated successfully
+     */
+    public synchronized int evaluatePending() {
+        int evaluated = 0;
+        for (Map.Entry<Long, Long> pending : Map.copyOf(unevaluated).entrySet()) {
+            Long userId = pending.getKey();
+            try {
+                evaluate(userId);
+            } catch (RuntimeException e) {
+                log.warn("Achievement evaluation failed for user {}, will retry: {}", userId, e.getMessage());
+                continue;
+            }
+            // A flush that landed meanwhile changed the value; that one still needs its own evaluation.
+            unevaluated.remove(userId, pending.getValue());
+            evaluated++;
+        }
+        return evaluated;
+    }
+
+    int bufferedUsers() {
+        return buffered.size();
+    }
+
+    int pendingEvaluations() {
+        return unevaluated.size();
+    }
+
+    @PreDestroy
+    void drain() {
+        flushAndEvaluate();
+        flush();
+    }
+
+    private List<Achievement> evaluate(Long userId) {
+        List<Achievement> unlocked;
+        try {
+            unlocked = progressService.evaluateAchievements(userId);
+        } catch (RuntimeException e) {
+            record(EVALUATIONS_METRIC, "failure");
+            throw e;
+        }
+        int reward = 0;
+        for (Achievement achievement : unlocked) {
+            reward += achievement.getXpReward();
+            log.info("Achievement unlocked: {} (+{} XP)", achievement.getTitle(), achievement.getXpReward());
+        }
+        if (reward > 0) {
+            merge(userId, ProgressDelta.xpOnly(reward));
+        }
+        record(EVALUATIONS_METRIC, "success");
+        return unlocked;
+    }
+
+    private void buffer(Long userId, ProgressDelta delta) {
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("X-User-Id must be a positive number");
+        }
+        merge(userId, delta);
+        if (buffered.size() > maxBufferedUsers) {
+            flush();
+        }
+    }
+
+    private void merge(Long userId, ProgressDelta delta) {
+        buffered.merge(userId, delta, ProgressDelta::plus);
+    }
+
+    private void record(String metric, String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(metric, "outcome", outcome).increment();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ingilizce.calismaapp.service;
 
+import com.ingilizce.calismaapp.dto.ProgressDelta;
 import com.ingilizce.calismaapp.entity.UserAchievement;
 import com.ingilizce.calismaapp.entity.UserProgress;
 import com.ingilizce.calismaapp.model.Achievement;
@@ -14,16 +15,26 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 @Service
 public class ProgressService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProgressService.class);
+    // Upper bound on users per IN list in the bulk progress updates.
+    private static final int DELTA_BATCH_SIZE = 500;
 
     @Autowired
     private UserProgressRepository progressRepository;
@@ -119,72 +130,178 @@ public class ProgressService {
         List<Achievement> newlyUnlocked = new ArrayList<>();
 
         UserProgress progress = getUserProgress(userId);
+        for (Achievement achievement : earnedAchievements(userId, progress.getCurrentStreak(), progress.getLevel())) {
+            checkAchievement(userId, achievement, newlyUnlocked);
+        }
+
+        // Award XP for newly unlocked achievements
+        for (Achievement achievement : newlyUnlocked) {
+            progress.addXp(achievement.getXpReward());
+            logger.info("Achievement unlocked: {} (+{} XP)",
+                    achievement.getTitle(), achievement.getXpReward());
+        }
+
+        if (!newlyUnlocked.isEmpty()) {
+            progressRepository.save(progress);
+        }
+
+        return newlyUnlocked;
+    }
+
+    /**
+     * Applies buffered XP and activity from {@link ProgressEngine} in one transaction.
+     * Users with the same XP delta share one increment statement, and users active on
+     * the same day share one streak statement, so the statement count grows with the
+     * number of distinct deltas rather than with the number of users.
+     */
+    @Transactional
+    public void applyProgressDeltas(Map<Long, ProgressDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        createMissingProgress(deltas.keySet());
+
+        Map<Integer, List<Long>> usersByXp = new TreeMap<>();
+        NavigableMap<LocalDate, List<Long>> usersByActiveDay = new TreeMap<>();
+        deltas.forEach((userId, delta) -> {
+            if (delta.xp() != 0) {
+                usersByXp.computeIfAbsent(delta.xp(), xp -> new ArrayList<>()).add(userId);
+            }
+            for (LocalDate activeDay : delta.activeDays()) {
+                usersByActiveDay.computeIfAbsent(activeDay, day -> new ArrayList<>()).add(userId);
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        usersByXp.forEach((xp, userIds) -> chunked(userIds,
+                chunk -> progressRepository.incrementXp(chunk, xp, now)));
+        // Oldest day first, so a delta spanning several days extends the streak once per day, in order.
+        usersByActiveDay.forEach((day, userIds) -> chunked(userIds,
+                chunk -> progressRepository.recordActiveDay(chunk, day, day.minusDays(1), now)));
+    }
+
+    /**
+     * Brings the stored level in line with total XP and unlocks every achievement the
+     * user now qualifies for, reading the unlocked codes once instead of one query per
+     * achievement. Unlike {@link #checkAndUnlockAchievements} the achievements' XP is
+     * not added here; the caller credits it.
+     *
+     * @return List of newly unlocked achievements
+     */
+    @Transactional
+    public List<Achievement> evaluateAchievements(Long userId) {
+        validateUserId(userId);
+        UserProgress progress = progressRepository.findByUserId(userId).orElse(null);
+        if (progress == null) {
+            return List.of();
+        }
+        int level = progress.levelForTotalXp();
+        if (level != progress.getLevel()) {
+            progressRepository.updateLevel(userId, level);
+            if (level > progress.getLevel()) {
+                logger.info("User leveled up to level {}!", level);
+            }
+        }
+
+        Set<String> unlockedCodes = new HashSet<>();
+        for (UserAchievement userAchievement : achievementRepository.findByUserId(userId)) {
+            unlockedCodes.add(userAchievement.getAchievementCode());
+        }
+        List<Achievement> newlyUnlocked = new ArrayList<>();
+        List<UserAchievement> toSave = new ArrayList<>();
+        for (Achievement achievement : earnedAchievements(userId, progress.getCurrentStreak(), level)) {
+            if (unlockedCodes.add(achievement.getCode())) {
+                newlyUnlocked.add(achievement);
+                toSave.add(new UserAchievement(userId, achievement.getCode()));
+                logger.info("Unlocked achievement: {}", achievement.getCode());
+            }
+        }
+        if (!toSave.isEmpty()) {
+            achievementRepository.saveAll(toSave);
+        }
+        return newlyUnlocked;
+    }
+
+    /**
+     * Achievements whose conditions the user currently meets, unlocked or not
+     */
+    private List<Achievement> earnedAchievements(Long userId, int currentStreak, int level) {
+        List<Achievement> earned = new ArrayList<>();
         long wordCount = wordRepository.countByUserId(userId);
         long reviewCount = reviewRepository.countByWordUserId(userId);
-        int currentStreak = progress.getCurrentStreak();
-        int level = progress.getLevel();
 
         // Word count achievements
-        checkAchievement(userId, Achievement.FIRST_WORD, wordCount >= 1, newlyUnlocked);
-        checkAchievement(userId, Achievement.WORD_COLLECTOR_10, wordCount >= 10, newlyUnlocked);
-        checkAchievement(userId, Achievement.WORD_COLLECTOR_25, wordCount >= 25, newlyUnlocked);
-        checkAchievement(userId, Achievement.WORD_COLLECTOR_50, wordCount >= 50, newlyUnlocked);
-        checkAchievement(userId, Achievement.WORD_COLLECTOR_100, wordCount >= 100, newlyUnlocked);
-        checkAchievement(userId, Achievement.WORD_COLLECTOR_250, wordCount >= 250, newlyUnlocked);
-        checkAchievement(userId, Achievement.WORD_COLLECTOR_500, wordCount >= 500, newlyUnlocked);
+        addIf(earned, Achievement.FIRST_WORD, wordCount >= 1);
+        addIf(earned, Achievement.WORD_COLLECTOR_10, wordCount >= 10);
+        addIf(earned, Achievement.WORD_COLLECTOR_25, wordCount >= 25);
+        addIf(earned, Achievement.WORD_COLLECTOR_50, wordCount >= 50);
+        addIf(earned, Achievement.WORD_COLLECTOR_100, wordCount >= 100);
+        addIf(earned, Achievement.WORD_COLLECTOR_250, wordCount >= 250);
+        addIf(earned, Achievement.WORD_COLLECTOR_500, wordCount >= 500);
 
         // Review achievements
-        checkAchievement(userId, Achievement.FIRST_REVIEW, reviewCount >= 1, newlyUnlocked);
-        checkAchievement(userId, Achievement.REVIEW_MASTER_10, reviewCount >= 10, newlyUnlocked);
-        checkAchievement(userId, Achievement.REVIEW_MASTER_50, reviewCount >= 50, newlyUnlocked);
-        checkAchievement(userId, Achievement.REVIEW_MASTER_100, reviewCount >= 100, newlyUnlocked);
+        addIf(earned, Achievement.FIRST_REVIEW, reviewCount >= 1);
+        addIf(earned, Achievement.REVIEW_MASTER_10, reviewCount >= 10);
+        addIf(earned, Achievement.REVIEW_MASTER_50, reviewCount >= 50);
+        addIf(earned, Achievement.REVIEW_MASTER_100, reviewCount >= 100);
 
         // Streak achievements
-        checkAchievement(userId, Achievement.STREAK_3, currentStreak >= 3, newlyUnlocked);
-        checkAchievement(userId, Achievement.STREAK_7, currentStreak >= 7, newlyUnlocked);
-        checkAchievement(userId, Achievement.STREAK_14, currentStreak >= 14, newlyUnlocked);
-        checkAchievement(userId, Achievement.STREAK_30, currentStreak >= 30, newlyUnlocked);
-        checkAchievement(userId, Achievement.STREAK_100, currentStreak >= 100, newlyUnlocked);
+        addIf(earned, Achievement.STREAK_3, currentStreak >= 3);
+        addIf(earned, Achievement.STREAK_7, currentStreak >= 7);
+        addIf(earned, Achievement.STREAK_14, currentStreak >= 14);
+        addIf(earned, Achievement.STREAK_30, currentStreak >= 30);
+        addIf(earned, Achievement.STREAK_100, currentStreak >= 100);
 
         // Level achievements
-        checkAchievement(userId, Achievement.LEVEL_5, level >= 5, newlyUnlocked);
-        checkAchievement(userId, Achievement.LEVEL_10, level >= 10, newlyUnlocked);
-        checkAchievement(userId, Achievement.LEVEL_20, level >= 20, newlyUnlocked);
+        addIf(earned, Achievement.LEVEL_5, level >= 5);
+        addIf(earned, Achievement.LEVEL_10, level >= 10);
+        addIf(earned, Achievement.LEVEL_20, level >= 20);
 
         // Time-based achievements (check current time)
         LocalTime now = LocalTime.now();
-        if (now.isBefore(LocalTime.of(8, 0))) {
-            checkAchievement(userId, Achievement.EARLY_BIRD, true, newlyUnlocked);
-        }
-        if (now.isAfter(LocalTime.of(23, 0))) {
-            checkAchievement(userId, Achievement.NIGHT_OWL, true, newlyUnlocked);
-        }
+        addIf(earned, Achievement.EARLY_BIRD, now.isBefore(LocalTime.of(8, 0)));
+        addIf(earned, Achievement.NIGHT_OWL, now.isAfter(LocalTime.of(23, 0)));
 
-        // Award XP for newly unlocked achievements
-        for (Achievement achievement : newlyUnlocked) {
-            progress.addXp(achievement.getXpReward());
-            logger.info("Achievement unlocked: {} (+{} XP)",
-                    achievement.getTitle(), achievement.getXpReward());
-        }
+        return earned;
+    }
 
-        if (!newlyUnlocked.isEmpty()) {
-            progressRepository.save(progress);
+    private static void addIf(List<Achievement> earned, Achievement achievement, boolean condition) {
+        if (condition) {
+            earned.add(achievement);
         }
-
-        return newlyUnlocked;
     }
 
     /**
      * Helper method to check and unlock a single achievement
      */
-    private void checkAchievement(Long userId, Achievement achievement, boolean condition,
-            List<Achievement> newlyUnlocked) {
-        if (condition && !isAchievementUnlocked(userId, achievement)) {
+    private void checkAchievement(Long userId, Achievement achievement, List<Achievement> newlyUnlocked) {
+        if (!isAchievementUnlocked(userId, achievement)) {
             unlockAchievement(userId, achievement);
             newlyUnlocked.add(achievement);
         }
     }
 
+    private void createMissingProgress(Collection<Long> userIds) {
+        Set<Long> missing = new LinkedHashSet<>(userIds);
+        chunked(List.copyOf(userIds), chunk -> missing.removeAll(progressRepository.findExistingUserIds(chunk)));
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<UserProgress> created = new ArrayList<>(missing.size());
+        for (Long userId : missing) {
+            UserProgress progress = new UserProgress();
+            progress.setUserId(userId);
+            created.add(progress);
+        }
+        progressRepository.saveAll(created);
+    }
+
+    private static void chunked(List<Long> userIds, Consumer<List<Long>> action) {
+        for (int i = 0; i < userIds.size(); i += DELTA_BATCH_SIZE) {
+            action.accept(userIds.subList(i, Math.min(userIds.size(), i + DELTA_BATCH_SIZE)));
+        }
+    }
+
     /**
      * Check if achievement is already unlocked
      */
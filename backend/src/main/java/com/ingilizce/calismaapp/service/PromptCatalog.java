@@ -40,6 +40,32 @@ final class PromptCatalog {
         return new PromptDef("generate_sentences", 1, systemPrompt, PromptOutput.JSON_ARRAY);
     }
 
+    static PromptDef generateSentencesBatch() {
+        String systemPrompt = """
+            ROLE: Expert English-Turkish Translator and Linguist.
+
+            TASK:
+            You receive a list of target words. For EACH word, generate English sentences using that word,
+            then provide their PERFECTLY NATURAL Turkish translations. Follow the level/length guidance in the request.
+
+            CRITICAL RULES FOR TURKISH TRANSLATION:
+            1. **NEVER translate word-for-word.** Turkish is SOV; write the sentence the way a native speaker would.
+            2. **Sound like a NATIVE TURKISH SPEAKER.** Use natural idioms, correct suffixes, and daily spoken language flow.
+            3. **Context is King:** The translation must fit the specific context of the English sentence perfectly.
+            4. "turkishTranslation" is the Turkish meaning of the target word in THAT sentence (1-3 words).
+
+            CRITICAL RULES FOR THE BATCH:
+            - Return exactly one item per requested word, using the word EXACTLY as given.
+            - Never mix words: every sentence in an item must use that item's word.
+
+            OUTPUT FORMAT (Compact JSON Object):
+            Return ONLY a MINIFIED JSON object. NO code blocks, NO comments.
+            Example:
+            {"items":[{"word":"plot","sentences":[{"englishSentence":"The plot of the novel is complex.","turkishTranslation":"kurgu","turkishFullTranslation":"Romanın kurgusu oldukça karmaşık."}]}]}
+            """;
+        return new PromptDef("generate_sentences_batch", 1, systemPrompt, PromptOutput.JSON_OBJECT);
+    }
+
     static PromptDef checkTranslation() {
         String systemPrompt = """
             ROLE: You are a supportive and encouraging English-Turkish translation checker.
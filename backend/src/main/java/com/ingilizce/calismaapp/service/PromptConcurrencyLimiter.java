@@ -0,0 +1,251 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Per-prompt bulkheads in front of {@link GroqService}. Each prompt id gets its own
+ * in-flight limit, adapted with AIMD: the limit grows by one after a fast call made
+ * while the bulkhead was at least half full, and shrinks by {@code backoff-ratio}
+ * when a call fails or takes longer than {@code latency-tolerance} times the
+ * prompt's smoothed latency. Callers over the limit are rejected immediately
+ * rather than queued, so one noisy prompt type cannot exhaust the upstream rate
+ * limit (and trip the shared circuit breaker) for the others.
+ */
+@Service
+public class PromptConcurrencyLimiter {
+    private static final Logger log = LoggerFactory.getLogger(PromptConcurrencyLimiter.class);
+    private static final String INFLIGHT_METRIC = "groq.bulkhead.inflight";
+    private static final String LIMIT_METRIC = "groq.bulkhead.limit";
+    private static final String REJECTED_METRIC = "groq.bulkhead.rejected.total";
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    /**
+     * Thrown when a prompt's bulkhead is full; mapped to 503 with Retry-After.
+     */
+    public static class LimitExceededException extends RuntimeException {
+        private final String promptId;
+        private final long retryAfterSeconds;
+
+        public LimitExceededException(String promptId, long retryAfterSeconds) {
+            super("Too many concurrent '" + promptId + "' requests, retry in " + retryAfterSeconds + "s");
+            this.promptId = promptId;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public String getPromptId() {
+            return promptId;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * One admitted call. Exactly one of the release methods must be called.
+     */
+    public final class Permit {
+        private final Bulkhead bulkhead;
+        private final long startMs;
+        private final int inflightAtStart;
+        private boolean released;
+
+        private Permit(Bulkhead bulkhead, int inflightAtStart) {
+            this.bulkhead = bulkhead;
+            this.startMs = clock.getAsLong();
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        public void success() {
+            release(Outcome.SUCCESS);
+        }
+
+        public void failure() {
+            release(Outcome.FAILURE);
+        }
+
+        /**
+         * Frees the slot without a latency sample (streams, cancelled calls).
+         */
+        public void ignore() {
+            release(Outcome.IGNORED);
+        }
+
+        private synchronized void release(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            bulkhead.inflight.decrementAndGet();
+            bulkhead.onSample(outcome, clock.getAsLong() - startMs, inflightAtStart);
+        }
+    }
+
+    private enum Outcome { SUCCESS, FAILURE, IGNORED }
+
+    final class Bulkhead {
+        private final String promptId;
+        private final AtomicInteger inflight = new AtomicInteger();
+        private volatile double limit;
+        private double smoothedLatencyMs;
+
+        private Bulkhead(String promptId) {
+            this.promptId = promptId;
+            this.limit = clamp(initialLimit);
+        }
+
+        int getInflight() {
+            return inflight.get();
+        }
+
+        double getLimit() {
+            return limit;
+        }
+
+        private Permit tryAcquire() {
+            while (true) {
+                int current = inflight.get();
+                if (current >= (int) limit) {
+                    return null;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return new Permit(this, current + 1);
+                }
+            }
+        }
+
+        private synchronized void onSample(Outcome outcome, long latencyMs, int inflightAtStart) {
+            if (outcome == Outcome.IGNORED || !enabled) {
+                return;
+            }
+            double previousLimit = limit;
+            if (outcome == Outcome.FAILURE) {
+                limit = clamp(limit * backoffRatio);
+            } else {
+                boolean slow = smoothedLatencyMs > 0 && latencyMs > smoothedLatencyMs * latencyTolerance;
+                smoothedLatencyMs = smoothedLatencyMs == 0
+                        ? latencyMs
+                        : smoothedLatencyMs + LATENCY_SMOOTHING * (latencyMs - smoothedLatencyMs);
+                if (slow) {
+                    limit = clamp(limit * backoffRatio);
+                } else if (inflightAtStart * 2 >= limit) {
+                    // Only grow when the limit was actually being used.
+                    limit = clamp(limit + 1);
+                }
+            }
+            if ((int) previousLimit != (int) limit) {
+                log.debug("Prompt {} concurrency limit {} -> {}", promptId, (int) previousLimit, (int) limit);
+            }
+        }
+
+        private synchronized long retryAfterSeconds() {
+            // A slot frees up in roughly one call's latency.
+            return Math.max(1L, (long) Math.ceil(smoothedLatencyMs / 1000.0));
+        }
+    }
+
+    private final ConcurrentHashMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+
+    @Value("${groq.bulkhead.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${groq.bulkhead.initial-limit:8}")
+    private int initialLimit = 8;
+
+    @Value("${groq.bulkhead.min-limit:1}")
+    private int minLimit = 1;
+
+    @Value("${groq.bulkhead.max-limit:32}")
+    private int maxLimit = 32;
+
+    @Value("${groq.bulkhead.backoff-ratio:0.9}")
+    private double backoffRatio = 0.9;
+
+    @Value("${groq.bulkhead.latency-tolerance:2.0}")
+    private double latencyTolerance = 2.0;
+
+    @Autowired
+    public PromptConcurrencyLimiter(@Autowired(required = false) MeterRegistry meterRegistry) {
+        this(meterRegistry, System::currentTimeMillis);
+    }
+
+    PromptConcurrencyLimiter(MeterRegistry meterRegistry, LongSupplier clock) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code call} inside the bulkhead of {@code promptId}.
+     *
+     * @throws LimitExceededException when the prompt is at its current limit
+     */
+    public <T> T execute(String promptId, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Permit permit = acquire(promptId);
+        try {
+            T result = call.get();
+            permit.success();
+            return result;
+        } catch (RuntimeException e) {
+            permit.failure();
+            throw e;
+        }
+    }
+
+    /**
+     * Admits one call for {@code promptId}; for callers that complete asynchronously.
+     * Returns a no-op permit when limiting is disabled.
+     *
+     * @throws LimitExceededException when the prompt is at its current limit
+     */
+    public Permit acquire(String promptId) {
+        Bulkhead bulkhead = bulkhead(promptId);
+        if (!enabled) {
+            bulkhead.inflight.incrementAndGet();
+            return new Permit(bulkhead, 0);
+        }
+        Permit permit = bulkhead.tryAcquire();
+        if (permit == null) {
+            if (meterRegistry != null) {
+                meterRegistry.counter(REJECTED_METRIC, "prompt", promptId).increment();
+            }
+            throw new LimitExceededException(promptId, bulkhead.retryAfterSeconds());
+        }
+        return permit;
+    }
+
+    Bulkhead bulkhead(String promptId) {
+        return bulkheads.computeIfAbsent(promptId, this::createBulkhead);
+    }
+
+    private Bulkhead createBulkhead(String promptId) {
+        Bulkhead bulkhead = new Bulkhead(promptId);
+        if (meterRegistry != null) {
+            Tags tags = Tags.of("prompt", promptId);
+            meterRegistry.gauge(INFLIGHT_METRIC, tags, bulkhead, Bulkhead::getInflight);
+            meterRegistry.gauge(LIMIT_METRIC, tags, bulkhead, Bulkhead::getLimit);
+            meterRegistry.counter(REJECTED_METRIC, tags);
+        }
+        return bulkhead;
+    }
+
+    private double clamp(double value) {
+        int min = Math.max(1, minLimit);
+        return Math.max(min, Math.min(Math.max(min, maxLimit), value));
+    }
+}
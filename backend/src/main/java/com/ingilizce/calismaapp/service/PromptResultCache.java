@@ -0,0 +1,178 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache for deterministic-enough LLM checks (grammar, translation).
+ * Entries are keyed by prompt id, prompt version and a SHA-256 of the normalized
+ * inputs, so two learners submitting the same answer share one Groq call, and
+ * bumping a prompt's version makes its old entries unreachable until they expire.
+ * Prompts whose results point into their input (e.g. grammar error offsets) key on
+ * the exact text with {@link InputMatching#EXACT} instead.
+ */
+@Service
+public class PromptResultCache {
+    private static final Logger log = LoggerFactory.getLogger(PromptResultCache.class);
+    static final String KEY_PREFIX = "llm:result:";
+    private static final String LOOKUP_METRIC = "llm.result.cache.lookup.total";
+    private static final String WRITE_METRIC = "llm.result.cache.write.total";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char INPUT_SEPARATOR = '\u001F';
+
+    /**
+     * How inputs are turned into the key. {@code NORMALIZED} lets whitespace and Unicode
+     * variants share an entry; {@code EXACT} is for results holding character offsets,
+     * which are only right for the text the model actually saw.
+     */
+    public enum InputMatching {
+        NORMALIZED,
+        EXACT
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${llm.result-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${llm.result-cache.ttl-seconds:86400}")
+    private long ttlSeconds = 86400;
+
+    @Autowired
+    public PromptResultCache(@Autowired(required = false) RedisTemplate<String, String> redisTemplate,
+                             @Autowired(required = false) MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the cached result for these inputs, or runs {@code compute} and stores
+     * its result when {@code cacheable} accepts it. Redis errors fall through to
+     * {@code compute}; they never fail the request.
+     */
+    public String getOrCompute(String promptId, int promptVersion, List<String> inputs,
+                               Supplier<String> compute, Predicate<String> cacheable) {
+        return getOrCompute(promptId, promptVersion, inputs, InputMatching.NORMALIZED, compute, cacheable);
+    }
+
+    public String getOrCompute(String promptId, int promptVersion, List<String> inputs, InputMatching matching,
+                               Supplier<String> compute, Predicate<String> cacheable) {
+        Optional<String> cached = get(promptId, promptVersion, inputs, matching);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String result = compute.get();
+        if (result == null || !cacheable.test(result)) {
+            record(WRITE_METRIC, promptId, "skipped");
+            return result;
+        }
+        put(promptId, promptVersion, inputs, matching, result);
+        return result;
+    }
+
+    public Optional<String> get(String promptId, int promptVersion, List<String> inputs) {
+        return get(promptId, promptVersion, inputs, InputMatching.NORMALIZED);
+    }
+
+    public Optional<String> get(String promptId, int promptVersion, List<String> inputs, InputMatching matching) {
+        if (!isEnabled()) {
+            record(LOOKUP_METRIC, promptId, "disabled");
+            return Optional.empty();
+        }
+        try {
+            String cached = redisTemplate.opsForValue().get(keyFor(promptId, promptVersion, inputs, matching));
+            record(LOOKUP_METRIC, promptId, cached != null ? "hit" : "miss");
+            return Optional.ofNullable(cached);
+        } catch (Exception e) {
+            log.warn("Prompt result cache read failed for prompt={}", promptId, e);
+            record(LOOKUP_METRIC, promptId, "error");
+            return Optional.empty();
+        }
+    }
+
+    public void put(String promptId, int promptVersion, List<String> inputs, String result) {
+        put(promptId, promptVersion, inputs, InputMatching.NORMALIZED, result);
+    }
+
+    public void put(String promptId, int promptVersion, List<String> inputs, InputMatching matching,
+                    String result) {
+        if (!isEnabled() || result == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(keyFor(promptId, promptVersion, inputs, matching), result,
+                    Duration.ofSeconds(Math.max(1L, ttlSeconds)));
+            record(WRITE_METRIC, promptId, "stored");
+        } catch (Exception e) {
+            log.warn("Prompt result cache write failed for prompt={}", promptId, e);
+            record(WRITE_METRIC, promptId, "error");
+        }
+    }
+
+    private boolean isEnabled() {
+        return enabled && redisTemplate != null;
+    }
+
+    static String keyFor(String promptId, int promptVersion, List<String> inputs) {
+        return keyFor(promptId, promptVersion, inputs, InputMatching.NORMALIZED);
+    }
+
+    static String keyFor(String promptId, int promptVersion, List<String> inputs, InputMatching matching) {
+        StringBuilder material = new StringBuilder(promptId).append(INPUT_SEPARATOR).append(promptVersion);
+        if (matching == InputMatching.EXACT) {
+            // Never shares a key with a normalized entry, even when the text is already normalized.
+            material.append(INPUT_SEPARATOR).append("exact");
+        }
+        for (String input : inputs) {
+            material.append(INPUT_SEPARATOR)
+                    .append(matching == InputMatching.EXACT ? (input == null ? "" : input) : normalize(input));
+        }
+        return KEY_PREFIX + promptId + ":v" + promptVersion + ":" + sha256(material.toString());
+    }
+
+    /**
+     * Unicode NFKC, trimmed, inner whitespace collapsed. Case and punctuation are kept
+     * because both change what a grammar or translation check should say.
+     */
+    static String normalize(String input) {
+        if (input == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void record(String metric, String promptId, String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(metric, "prompt", promptId, "outcome", outcome).increment();
+    }
+}
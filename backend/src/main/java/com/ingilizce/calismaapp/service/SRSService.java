@@ -1,5 +1,7 @@
 package com.ingilizce.calismaapp.service;
 
+import com.ingilizce.calismaapp.dto.ReviewStats;
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.repository.WordRepository;
 import org.slf4j.Logger;
@@ -24,7 +26,10 @@ public class SRSService {
     private WordRepository wordRepository;
 
     @Autowired
-    private ProgressService progressService;
+    private ProgressEngine progressEngine;
+
+    @Autowired
+    private LearningStatsService learningStatsService;
 
     // SM-2 Algorithm Constants
     private static final double MIN_EASE_FACTOR = 1.3;
@@ -48,6 +53,15 @@ public class SRSService {
         return reviewWords;
     }
 
+    /**
+     * Due words as summaries (sentence count only), for review queues that do not
+     * show the example sentences up front.
+     */
+    public List<WordSummary> getReviewSummaries(Long userId) {
+        validateUserId(userId);
+        return wordRepository.findDueSummariesByUserId(userId, LocalDate.now());
+    }
+
     /**
      * Submit a review result and calculate next review date
      * 
@@ -100,6 +114,7 @@ public class SRSService {
                 word.getEnglishWord(), reviewCount, easeFactor, interval, nextReviewDate);
 
         Word savedWord = wordRepository.save(word);
+        learningStatsService.invalidate(userId);
 
         // Award XP based on quality
         int xpEarned = 0;
@@ -118,8 +133,9 @@ public class SRSService {
                 break; // Again (Teselli puanı)
         }
 
-        progressService.awardXp(userId, xpEarned, "Review: " + word.getEnglishWord() + " (Quality: " + quality + ")");
-        progressService.updateStreak(userId); // Update daily streak
+        // Buffered: XP, streak and achievements are written after the request
+        progressEngine.recordActivity(userId, xpEarned,
+                "Review: " + word.getEnglishWord() + " (Quality: " + quality + ")");
 
         return savedWord;
     }
@@ -197,22 +213,14 @@ public class SRSService {
         validateUserId(userId);
         java.util.Map<String, Object> stats = new java.util.HashMap<>();
 
-        LocalDate today = LocalDate.now();
-
-        // Words due today
-        List<Word> dueToday = wordRepository.findByUserIdAndNextReviewDateLessThanEqual(userId, today);
-        stats.put("dueToday", dueToday.size());
-
-        // Total words
-        long totalWords = wordRepository.countByUserId(userId);
-        stats.put("totalWords", totalWords);
-
-        // Words reviewed (review_count > 0)
-        List<Word> reviewedWords = wordRepository.findByUserIdAndReviewCountGreaterThan(userId, 0);
-        stats.put("reviewedWords", reviewedWords.size());
+        // One aggregate row instead of loading the due and reviewed word lists
+        ReviewStats reviewStats = learningStatsService.reviewStats(userId);
+        stats.put("dueToday", Math.toIntExact(reviewStats.dueToday()));
+        stats.put("totalWords", reviewStats.totalWords());
+        stats.put("reviewedWords", Math.toIntExact(reviewStats.reviewedWords()));
 
         logger.info("SRS Stats (userId={}): dueToday={}, totalWords={}, reviewedWords={}",
-                userId, dueToday.size(), totalWords, reviewedWords.size());
+                userId, reviewStats.dueToday(), reviewStats.totalWords(), reviewStats.reviewedWords());
 
         return stats;
     }
@@ -0,0 +1,278 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates practice sentences for many words at once (word list import).
+ * Cache hits are resolved in one MGET; misses are packed into as few
+ * {@code generate_sentences_batch} prompts as the output token budget allows.
+ */
+@Service
+public class SentenceBatchService {
+    private static final Logger log = LoggerFactory.getLogger(SentenceBatchService.class);
+    private static final int MAX_SENTENCES_PER_WORD = 5;
+    private static final String BATCH_PROMPTS_METRIC = "chatbot.sentences.batch.prompts";
+    private static final String BATCH_WORDS_METRIC = "chatbot.sentences.batch.words";
+
+    public record WordResult(String word, List<PracticeSentence> sentences, boolean cached) {
+    }
+
+    public record BatchResult(List<WordResult> results, List<String> failed, int promptCount) {
+    }
+
+    private final ChatbotService chatbotService;
+    private final SentenceCacheService sentenceCacheService;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chatbot.sentences.batch.max-words:30}")
+    private int maxWords = 30;
+
+    @Value("${chatbot.sentences.batch.max-words-per-prompt:15}")
+    private int maxWordsPerPrompt = 15;
+
+    @Value("${chatbot.sentences.batch.max-output-tokens:6000}")
+    private int maxOutputTokens = 6000;
+
+    @Value("${chatbot.sentences.batch.estimated-tokens-per-word:350}")
+    private int estimatedTokensPerWord = 350;
+
+    @Autowired
+    public SentenceBatchService(ChatbotService chatbotService,
+                                SentenceCacheService sentenceCacheService,
+                                @Autowired(required = false) MeterRegistry meterRegistry,
+                                ObjectMapper objectMapper) {
+        this.chatbotService = chatbotService;
+        this.sentenceCacheService = sentenceCacheService;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    public int getMaxWords() {
+        return maxWords;
+    }
+
+    int getEstimatedTokensPerWord() {
+        return estimatedTokensPerWord;
+    }
+
+    /**
+     * @param words   raw words; trimmed, lower-cased and de-duplicated here
+     * @param levels  validated, sorted CEFR levels
+     * @param lengths validated, sorted sentence lengths
+     */
+    public BatchResult generate(List<String> words, List<String> levels, List<String> lengths) {
+        List<String> normalizedWords = normalizeWords(words);
+        Map<String, String> keysByWord = new LinkedHashMap<>();
+        for (String word : normalizedWords) {
+            keysByWord.put(word, SentenceCacheService.keyFor(word, levels, lengths));
+        }
+
+        Map<String, String> wordsByKey = new HashMap<>();
+        keysByWord.forEach((word, key) -> wordsByKey.put(key, word));
+        // Stale hits are served now and regenerated together in the background.
+        Map<String, List<PracticeSentence>> hits = sentenceCacheService.getAll(new ArrayList<>(keysByWord.values()),
+                staleKeys -> refresh(staleKeys.stream().map(wordsByKey::get).toList(), levels, lengths));
+        List<String> misses = normalizedWords.stream()
+                .filter(word -> !hits.containsKey(keysByWord.get(word)))
+                .toList();
+
+        Map<String, List<PracticeSentence>> generated = new HashMap<>();
+        int promptCount = generateAndStore(misses, levels, lengths, generated);
+
+        List<WordResult> results = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        for (String word : normalizedWords) {
+            List<PracticeSentence> cached = hits.get(keysByWord.get(word));
+            if (cached != null) {
+                results.add(new WordResult(word, cached, true));
+            } else if (generated.containsKey(word)) {
+                results.add(new WordResult(word, generated.get(word), false));
+            } else {
+                failed.add(word);
+            }
+        }
+        recordMetrics(promptCount, normalizedWords.size() - misses.size(), generated.size(), failed.size());
+        return new BatchResult(results, failed, promptCount);
+    }
+
+    /**
+     * Regenerates and stores {@code words} whether or not they are cached; used for
+     * entries past their soft expiry.
+     *
+     * @param words normalized words
+     */
+    public BatchResult refresh(List<String> words, List<String> levels, List<String> lengths) {
+        Map<String, List<PracticeSentence>> generated = new HashMap<>();
+        int promptCount = generateAndStore(words, levels, lengths, generated);
+        List<WordResult> results = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        for (String word : words) {
+            if (generated.containsKey(word)) {
+                results.add(new WordResult(word, generated.get(word), false));
+            } else {
+                failed.add(word);
+            }
+        }
+        recordMetrics(promptCount, 0, generated.size(), failed.size());
+        return new BatchResult(results, failed, promptCount);
+    }
+
+    /**
+     * Generates {@code words} in prompts of {@link #wordsPerPrompt()} and stores each
+     * chunk as soon as it arrives.
+     *
+     * @return number of prompts sent
+     */
+    private int generateAndStore(List<String> words, List<String> levels, List<String> lengths,
+                                 Map<String, List<PracticeSentence>> generated) {
+        int promptCount = 0;
+        for (List<String> chunk : chunk(words, wordsPerPrompt())) {
+            promptCount++;
+            long startMs = System.currentTimeMillis();
+            Map<String, List<PracticeSentence>> chunkResult;
+            try {
+                chunkResult = parseBatchResponse(
+                        chatbotService.generateSentencesBatch(buildMessage(chunk, levels, lengths)), chunk);
+            } catch (Exception e) {
+                // One failed prompt must not sink the words already resolved.
+                log.warn("Batch sentence generation failed for {} words", chunk.size(), e);
+                continue;
+            }
+            long perWordMs = (System.currentTimeMillis() - startMs) / Math.max(1, chunk.size());
+
+            Map<String, List<PracticeSentence>> toStore = new LinkedHashMap<>();
+            chunkResult.forEach((word, sentences) ->
+                    toStore.put(SentenceCacheService.keyFor(word, levels, lengths), sentences));
+            sentenceCacheService.putAll(toStore, perWordMs);
+            generated.putAll(chunkResult);
+        }
+        return promptCount;
+    }
+
+    /**
+     * Words per prompt, bounded by the configured cap and the output token budget.
+     */
+    int wordsPerPrompt() {
+        int byBudget = Math.max(1, maxOutputTokens / Math.max(1, estimatedTokensPerWord));
+        return Math.max(1, Math.min(maxWordsPerPrompt, byBudget));
+    }
+
+    List<String> normalizeWords(List<String> words) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (words != null) {
+            for (String word : words) {
+                if (word == null || word.isBlank()) {
+                    continue;
+                }
+                normalized.add(word.trim().toLowerCase(Locale.ROOT));
+                if (normalized.size() >= Math.max(1, maxWords)) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    private String buildMessage(List<String> words, List<String> levels, List<String> lengths) {
+        StringBuilder message = new StringBuilder();
+        message.append("Target words: ").append(String.join(", ", words.stream().map(w -> "'" + w + "'").toList()))
+                .append(".\n");
+        message.append("For EACH word, generate ").append(MAX_SENTENCES_PER_WORD)
+                .append(" diverse sentences, covering these combinations:\n");
+        for (String level : levels) {
+            for (String length : lengths) {
+                message.append(String.format("- Level: %s, Length: %s\n", level, length));
+            }
+        }
+        message.append("Make sentences diverse and cover different meanings if a word has multiple meanings.");
+        return message.toString();
+    }
+
+    Map<String, List<PracticeSentence>> parseBatchResponse(String json, List<String> requestedWords)
+            throws Exception {
+        JsonNode root = objectMapper.readTree(json);
+        Map<String, List<PracticeSentence>> byWord = new LinkedHashMap<>();
+        Set<String> requested = new LinkedHashSet<>(requestedWords);
+
+        JsonNode items = root.isArray() ? root : root.path("items");
+        if (items.isArray()) {
+            for (JsonNode item : items) {
+                addWord(byWord, requested, item.path("word").asText(""), item.path("sentences"));
+            }
+        } else if (root.isObject()) {
+            // Tolerate {"apple":[...], "pear":[...]} which models sometimes return instead.
+            root.fields().forEachRemaining(field -> addWord(byWord, requested, field.getKey(), field.getValue()));
+        }
+        return byWord;
+    }
+
+    private void addWord(Map<String, List<PracticeSentence>> byWord, Set<String> requested,
+                         String rawWord, JsonNode sentencesNode) {
+        String word = rawWord.trim().toLowerCase(Locale.ROOT);
+        if (!requested.contains(word) || byWord.containsKey(word) || !sentencesNode.isArray()) {
+            return;
+        }
+        List<PracticeSentence> sentences = new ArrayList<>();
+        for (JsonNode node : sentencesNode) {
+            String english = node.path("englishSentence").asText("").trim();
+            if (english.isEmpty()) {
+                continue;
+            }
+            sentences.add(new PracticeSentence(english,
+                    firstText(node, "turkishTranslation", "turkish_translation", "turkish"),
+                    firstText(node, "turkishFullTranslation", "turkish_full_translation")));
+            if (sentences.size() >= MAX_SENTENCES_PER_WORD) {
+                break;
+            }
+        }
+        if (!sentences.isEmpty()) {
+            byWord.put(word, sentences);
+        }
+    }
+
+    private static String firstText(JsonNode node, String... fieldNames) {
+        for (String fieldName : fieldNames) {
+            JsonNode value = node.get(fieldName);
+            if (value != null && value.isTextual()) {
+                return value.asText();
+            }
+        }
+        return null;
+    }
+
+    private static List<List<String>> chunk(List<String> words, int size) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < words.size(); i += size) {
+            chunks.add(words.subList(i, Math.min(words.size(), i + size)));
+        }
+        return chunks;
+    }
+
+    private void recordMetrics(int prompts, int cached, int generated, int failed) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(BATCH_PROMPTS_METRIC).increment(prompts);
+        meterRegistry.counter(BATCH_WORDS_METRIC, "outcome", "cached").increment(cached);
+        meterRegistry.counter(BATCH_WORDS_METRIC, "outcome", "generated").increment(generated);
+        meterRegistry.counter(BATCH_WORDS_METRIC, "outcome", "failed").increment(failed);
+    }
+}
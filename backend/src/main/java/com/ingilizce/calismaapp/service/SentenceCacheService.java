@@ -0,0 +1,637 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier cache for generated practice sentences.
+ *
+ * <p>L1 is a bounded in-heap map of already-deserialized lists; L2 is the shared
+ * Redis key ({@code sentences:*}). Writes and explicit invalidations are broadcast
+ * on a Redis pub/sub channel so other replicas drop their L1 copy.
+ *
+ * <p>Entries carry a soft expiry below the Redis TTL. Past it (or slightly before,
+ * picked probabilistically per request) the cached sentences are still returned and
+ * a background refresh regenerates them, so only unseen words pay for generation.
+ */
+@Service
+public class SentenceCacheService implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(SentenceCacheService.class);
+
+    public static final String INVALIDATION_CHANNEL = "sentences:invalidate";
+    public static final String CACHE_KEY_PREFIX = "sentences:";
+    static final String TIER_L1 = "l1";
+    static final String TIER_L2 = "l2";
+
+    private static final String CACHE_LOOKUP_TOTAL_METRIC = "chatbot.sentences.cache.lookup.total";
+    private static final String CACHE_LOOKUP_LATENCY_METRIC = "chatbot.sentences.cache.lookup.latency";
+    private static final String CACHE_WRITE_TOTAL_METRIC = "chatbot.sentences.cache.write.total";
+    private static final String CACHE_REFRESH_TOTAL_METRIC = "chatbot.sentences.cache.refresh.total";
+    private static final String L1_EVICTIONS_METRIC = "chatbot.sentences.cache.l1.evictions";
+    private static final String MESSAGE_SEPARATOR = "|";
+    // Arrays.asList tolerates contains(null), unlike List.of.
+    private static final List<String> VALID_LEVELS = Arrays.asList("A1", "A2", "B1", "B2", "C1", "C2");
+    private static final List<String> VALID_LENGTHS = Arrays.asList("short", "medium", "long");
+    private static final TypeReference<List<PracticeSentence>> SENTENCE_LIST_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Cached payload. Legacy entries (a bare JSON array) decode with
+     * {@code softExpiresAt = Long.MAX_VALUE} and are never refreshed early.
+     */
+    record CachedSentences(List<PracticeSentence> sentences, long createdAt, long softExpiresAt, long computeMs) {
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final BoundedLocalCache<CachedSentences> localCache;
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+    private final String nodeId = UUID.randomUUID().toString();
+    private ThreadPoolTaskExecutor refreshExecutor;
+
+    @Value("${cache.sentences.ttl:604800}") // Default: 7 days
+    private long cacheTtlSeconds = 604800;
+
+    @Value("${cache.sentences.soft-ttl:432000}") // Default: 5 days
+    private long softTtlSeconds = 432000;
+
+    @Value("${cache.sentences.refresh.enabled:true}")
+    private boolean refreshEnabled = true;
+
+    @Value("${cache.sentences.refresh.beta:1.0}")
+    private double refreshBeta = 1.0;
+
+    @Value("${cache.sentences.refresh.default-compute-ms:3000}")
+    private long defaultComputeMs = 3000;
+
+    @Value("${cache.sentences.l1.enabled:true}")
+    private boolean localEnabled = true;
+
+    @Value("${cache.sentences.l1.ttl-seconds:3600}")
+    private long localTtlSeconds = 3600;
+
+    @Value("${cache.sentences.l1.invalidation.enabled:false}")
+    private boolean invalidationEnabled;
+
+    @Autowired
+    public SentenceCacheService(@Autowired(required = false) RedisTemplate<String, String> redisTemplate,
+                                @Autowired(required = false) MeterRegistry meterRegistry,
+                                ObjectMapper objectMapper,
+                                @Value("${cache.sentences.l1.max-entries:10000}") int localMaxEntries,
+                                @Value("${cache.sentences.l1.max-weight-bytes:33554432}") long localMaxWeightBytes) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.localCache = new BoundedLocalCache<>(localMaxEntries, localMaxWeightBytes,
+                entry -> estimateWeight(entry.sentences()), System::currentTimeMillis, this::recordEviction);
+        if (meterRegistry != null) {
+            Gauge.builder("chatbot.sentences.cache.l1.size", localCache, BoundedLocalCache::size)
+                    .description("Entries held in the in-heap sentence cache")
+                    .register(meterRegistry);
+            Gauge.builder("chatbot.sentences.cache.l1.weight", localCache, BoundedLocalCache::weight)
+                    .description("Estimated bytes held in the in-heap sentence cache")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Autowired
+    void configureRefreshExecutor(@Value("${cache.sentences.refresh.pool-size:2}") int poolSize,
+                                  @Value("${cache.sentences.refresh.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, poolSize));
+        executor.setMaxPoolSize(Math.max(1, poolSize));
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setThreadNamePrefix("sentence-refresh-");
+        executor.initialize();
+        this.refreshExecutor = executor;
+    }
+
+    /**
+     * Cache key for a normalized word and its sorted level/length selections.
+     */
+    public static String keyFor(String normalizedWord, List<String> levels, List<String> lengths) {
+        return CACHE_KEY_PREFIX + normalizedWord + ":" + String.join(",", levels) + ":"
+                + String.join(",", lengths);
+    }
+
+    /**
+     * Valid CEFR levels, de-duplicated and sorted so equal selections share a key; B1 when none.
+     */
+    public static List<String> normalizeLevels(List<String> levels) {
+        List<String> normalized = levels.stream()
+                .filter(VALID_LEVELS::contains)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        return normalized.isEmpty() ? List.of("B1") : normalized;
+    }
+
+    /**
+     * Valid sentence lengths, de-duplicated and sorted; medium when none.
+     */
+    public static List<String> normalizeLengths(List<String> lengths) {
+        List<String> normalized = lengths.stream()
+                .filter(VALID_LENGTHS::contains)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        return normalized.isEmpty() ? List.of("medium") : normalized;
+    }
+
+    public Optional<List<PracticeSentence>> get(String cacheKey) {
+        return lookup(cacheKey).map(CachedSentences::sentences);
+    }
+
+    /**
+     * Resolves many keys at once: L1 first, then a single Redis MGET for the rest.
+     * Keys that miss (or fail to decode) are absent from the result.
+     */
+    public Map<String, List<PracticeSentence>> getAll(List<String> cacheKeys) {
+        return getAll(cacheKeys, null);
+    }
+
+    /**
+     * Like {@link #getAll(List)}, with the same soft-expiry check as
+     * {@link #get(String, Supplier)}: the found keys that are due for refresh are
+     * handed to {@code refresher} together, in one background task. The refresher is
+     * expected to regenerate and {@link #putAll} them itself.
+     */
+    public Map<String, List<PracticeSentence>> getAll(List<String> cacheKeys, Consumer<List<String>> refresher) {
+        Map<String, CachedSentences> entries = lookupAll(cacheKeys);
+        Map<String, List<PracticeSentence>> found = new LinkedHashMap<>();
+        List<String> due = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        entries.forEach((cacheKey, entry) -> {
+            found.put(cacheKey, entry.sentences());
+            if (refresher != null && shouldRefresh(entry, now, ThreadLocalRandom.current().nextDouble())) {
+                due.add(cacheKey);
+            }
+        });
+        if (!due.isEmpty()) {
+            scheduleRefresh(due, refresher);
+        }
+        return found;
+    }
+
+    /**
+     * Like {@link #getAll(List)}, but found keys that are due for refresh are left out
+     * instead of being refreshed in the background, so the caller regenerates them
+     * itself (the warm-up does, under its own pacing and prompt budget).
+     */
+    public Map<String, List<PracticeSentence>> getAllFresh(List<String> cacheKeys) {
+        Map<String, List<PracticeSentence>> fresh = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        lookupAll(cacheKeys).forEach((cacheKey, entry) -> {
+            if (!shouldRefresh(entry, now, ThreadLocalRandom.current().nextDouble())) {
+                fresh.put(cacheKey, entry.sentences());
+            }
+        });
+        return fresh;
+    }
+
+    private Map<String, CachedSentences> lookupAll(List<String> cacheKeys) {
+        Map<String, CachedSentences> found = new LinkedHashMap<>();
+        List<String> remaining = new ArrayList<>();
+        for (String cacheKey : cacheKeys) {
+            long startNs = System.nanoTime();
+            CachedSentences local = localEnabled ? localCache.get(cacheKey) : null;
+            if (local != null) {
+                recordLookupMetric(TIER_L1, "hit", System.nanoTime() - startNs);
+                found.put(cacheKey, local);
+            } else if (!remaining.contains(cacheKey)) {
+                remaining.add(cacheKey);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return found;
+        }
+
+        long startNs = System.nanoTime();
+        List<String> values;
+        try {
+            ValueOperations<String, String> ops = redisTemplate != null ? redisTemplate.opsForValue() : null;
+            if (ops == null) {
+                remaining.forEach(key -> recordLookupMetric(TIER_L2, "disabled", System.nanoTime() - startNs));
+                return found;
+            }
+            values = ops.multiGet(remaining);
+        } catch (Exception e) {
+            remaining.forEach(key -> recordLookupMetric(TIER_L2, "error", System.nanoTime() - startNs));
+            return found;
+        }
+
+        long latencyNs = System.nanoTime() - startNs;
+        for (int i = 0; i < remaining.size(); i++) {
+            String cacheKey = remaining.get(i);
+            String cachedJson = values != null && i < values.size() ? values.get(i) : null;
+            if (cachedJson == null || cachedJson.isBlank()) {
+                recordLookupMetric(TIER_L2, "miss", latencyNs);
+                continue;
+            }
+            try {
+                CachedSentences cached = decode(cachedJson);
+                putLocal(cacheKey, cached);
+                found.put(cacheKey, cached);
+                recordLookupMetric(TIER_L2, "hit", latencyNs);
+            } catch (Exception e) {
+                recordLookupMetric(TIER_L2, "error", latencyNs);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Like {@link #get(String)}, but when the entry is past its soft expiry (or is
+     * picked for early refresh) {@code refresher} is run in the background. The
+     * refresher is expected to regenerate and {@link #put} the entry itself.
+     */
+    public Optional<List<PracticeSentence>> get(String cacheKey, Supplier<List<PracticeSentence>> refresher) {
+        Optional<CachedSentences> cached = lookup(cacheKey);
+        cached.filter(entry -> shouldRefresh(entry, System.currentTimeMillis(),
+                        ThreadLocalRandom.current().nextDouble()))
+                .ifPresent(entry -> scheduleRefresh(cacheKey, refresher));
+        return cached.map(CachedSentences::sentences);
+    }
+
+    public void put(String cacheKey, List<PracticeSentence> sentences) {
+        put(cacheKey, sentences, 0L);
+    }
+
+    /**
+     * @param computeMs how long generating {@code sentences} took; it sizes the
+     *                  early-refresh window for this entry
+     */
+    public void put(String cacheKey, List<PracticeSentence> sentences, long computeMs) {
+        if (sentences == null || sentences.isEmpty()) {
+            recordWriteMetric("skipped");
+            return;
+        }
+
+        CachedSentences entry = newEntry(sentences, computeMs);
+        putLocal(cacheKey, entry);
+
+        try {
+            ValueOperations<String, String> ops = redisTemplate != null ? redisTemplate.opsForValue() : null;
+            if (ops == null) {
+                recordWriteMetric("skipped");
+                return;
+            }
+
+            String serialized = objectMapper.writeValueAsString(entry);
+            if (cacheTtlSeconds > 0) {
+                ops.set(cacheKey, serialized, Duration.ofSeconds(cacheTtlSeconds));
+            } else {
+                ops.set(cacheKey, serialized);
+            }
+            recordWriteMetric("stored");
+        } catch (Exception ignored) {
+            // Cache failures must not affect user-facing sentence generation.
+            recordWriteMetric("error");
+            return;
+        }
+        publishInvalidation(cacheKey);
+    }
+
+    /**
+     * Stores several entries, writing them to Redis in one pipelined round-trip.
+     *
+     * @param computeMs per-entry generation time used for the early-refresh window
+     */
+    public void putAll(Map<String, List<PracticeSentence>> entries, long computeMs) {
+        Map<String, String> serialized = new LinkedHashMap<>();
+        for (Map.Entry<String, List<PracticeSentence>> item : entries.entrySet()) {
+            List<PracticeSentence> sentences = item.getValue();
+            if (sentences == null || sentences.isEmpty()) {
+                recordWriteMetric("skipped");
+                continue;
+            }
+            CachedSentences entry = newEntry(sentences, computeMs);
+            putLocal(item.getKey(), entry);
+            try {
+                serialized.put(item.getKey(), objectMapper.writeValueAsString(entry));
+            } catch (Exception e) {
+                recordWriteMetric("error");
+            }
+        }
+        if (serialized.isEmpty()) {
+            return;
+        }
+        if (redisTemplate == null) {
+            serialized.keySet().forEach(key -> recordWriteMetric("skipped"));
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                    for (Map.Entry<String, String> item : serialized.entrySet()) {
+                        if (cacheTtlSeconds > 0) {
+                            stringOperations.opsForValue().set(item.getKey(), item.getValue(),
+                                    Duration.ofSeconds(cacheTtlSeconds));
+                        } else {
+                            stringOperations.opsForValue().set(item.getKey(), item.getValue());
+                        }
+                        if (invalidationEnabled) {
+                            stringOperations.convertAndSend(INVALIDATION_CHANNEL,
+                                    nodeId + MESSAGE_SEPARATOR + item.getKey());
+                        }
+                    }
+                    return null;
+                }
+            });
+            serialized.keySet().forEach(key -> recordWriteMetric("stored"));
+        } catch (Exception e) {
+            // Cache failures must not affect user-facing sentence generation.
+            serialized.keySet().forEach(key -> recordWriteMetric("error"));
+        }
+    }
+
+    /**
+     * Drops the entry from both tiers on every replica.
+     */
+    public void invalidate(String cacheKey) {
+        localCache.invalidate(cacheKey);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(cacheKey);
+        } catch (Exception e) {
+            log.warn("Failed to delete sentence cache key {}", cacheKey, e);
+        }
+        publishInvalidation(cacheKey);
+    }
+
+    public void clearLocal() {
+        localCache.clear();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator <= 0 || separator == body.length() - 1) {
+            return;
+        }
+        if (nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        localCache.invalidate(body.substring(separator + 1));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
+    }
+
+    private Optional<CachedSentences> lookup(String cacheKey) {
+        long startNs = System.nanoTime();
+        if (localEnabled) {
+            CachedSentences local = localCache.get(cacheKey);
+            if (local != null) {
+                recordLookupMetric(TIER_L1, "hit", System.nanoTime() - startNs);
+                return Optional.of(local);
+            }
+        }
+
+        String outcome = "miss";
+        try {
+            ValueOperations<String, String> ops = redisTemplate != null ? redisTemplate.opsForValue() : null;
+            if (ops == null) {
+                outcome = "disabled";
+                return Optional.empty();
+            }
+
+            String cachedJson = ops.get(cacheKey);
+            if (cachedJson == null || cachedJson.isBlank()) {
+                return Optional.empty();
+            }
+
+            CachedSentences cached = decode(cachedJson);
+            putLocal(cacheKey, cached);
+            outcome = "hit";
+            return Optional.of(cached);
+        } catch (Exception e) {
+            outcome = "error";
+            return Optional.empty();
+        } finally {
+            recordLookupMetric(TIER_L2, outcome, System.nanoTime() - startNs);
+        }
+    }
+
+    CachedSentences decode(String cachedJson) throws Exception {
+        JsonNode root = objectMapper.readTree(cachedJson);
+        if (root.isArray()) {
+            List<PracticeSentence> sentences = objectMapper.convertValue(root, SENTENCE_LIST_TYPE);
+            return new CachedSentences(immutableCopy(sentences), 0L, Long.MAX_VALUE, 0L);
+        }
+        List<PracticeSentence> sentences = objectMapper.convertValue(root.path("sentences"), SENTENCE_LIST_TYPE);
+        if (sentences == null) {
+            throw new IllegalArgumentException("Cached sentence payload has no sentences");
+        }
+        return new CachedSentences(immutableCopy(sentences),
+                root.path("createdAt").asLong(0L),
+                root.path("softExpiresAt").asLong(Long.MAX_VALUE),
+                root.path("computeMs").asLong(0L));
+    }
+
+    /**
+     * Probabilistic early expiration: refresh once {@code now - delta * beta * ln(rand)}
+     * reaches the soft expiry, where delta is the entry's generation time. Hot keys
+     * get refreshed by a single early request instead of a burst at the deadline.
+     */
+    boolean shouldRefresh(CachedSentences entry, long nowMs, double random) {
+        if (!refreshEnabled || entry.softExpiresAt() == Long.MAX_VALUE) {
+            return false;
+        }
+        if (nowMs >= entry.softExpiresAt()) {
+            return true;
+        }
+        long delta = entry.computeMs() > 0 ? entry.computeMs() : defaultComputeMs;
+        double gap = delta * Math.max(0.0, refreshBeta) * -Math.log(Math.max(random, Double.MIN_VALUE));
+        return nowMs + gap >= entry.softExpiresAt();
+    }
+
+    private void scheduleRefresh(String cacheKey, Supplier<List<PracticeSentence>> refresher) {
+        if (refresher != null) {
+            scheduleRefresh(List.of(cacheKey), keys -> refresher.get());
+        }
+    }
+
+    /**
+     * Runs {@code refresher} once in the background for the keys not already being
+     * refreshed; each key counts separately in the refresh metrics.
+     */
+    private void scheduleRefresh(List<String> cacheKeys, Consumer<List<String>> refresher) {
+        if (refresher == null || refreshExecutor == null) {
+            return;
+        }
+        List<String> claimed = new ArrayList<>();
+        for (String cacheKey : cacheKeys) {
+            if (refreshesInFlight.add(cacheKey)) {
+                claimed.add(cacheKey);
+            } else {
+                recordRefreshMetric("deduplicated");
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresher.accept(claimed);
+                    claimed.forEach(key -> recordRefreshMetric("success"));
+                } catch (Exception e) {
+                    // The stale entries keep serving until their hard TTL; next request retries.
+                    log.warn("Background sentence refresh failed for keys={}", claimed, e);
+                    claimed.forEach(key -> recordRefreshMetric("error"));
+                } finally {
+                    claimed.forEach(refreshesInFlight::remove);
+                }
+            });
+            claimed.forEach(key -> recordRefreshMetric("scheduled"));
+        } catch (RejectedExecutionException e) {
+            claimed.forEach(refreshesInFlight::remove);
+            claimed.forEach(key -> recordRefreshMetric("rejected"));
+        }
+    }
+
+    private CachedSentences newEntry(List<PracticeSentence> sentences, long computeMs) {
+        long now = System.currentTimeMillis();
+        return new CachedSentences(immutableCopy(sentences), now,
+                now + TimeUnit.SECONDS.toMillis(effectiveSoftTtlSeconds()), Math.max(0L, computeMs));
+    }
+
+    private void putLocal(String cacheKey, CachedSentences entry) {
+        if (!localEnabled) {
+            return;
+        }
+        localCache.put(cacheKey, entry, TimeUnit.SECONDS.toMillis(localTtlSeconds()));
+    }
+
+    /**
+     * L1 never outlives the Redis entry it mirrors.
+     */
+    long localTtlSeconds() {
+        if (cacheTtlSeconds <= 0) {
+            return localTtlSeconds;
+        }
+        return Math.min(localTtlSeconds, cacheTtlSeconds);
+    }
+
+    /**
+     * Soft TTL must leave room before the hard Redis TTL for stale hits to be served.
+     */
+    long effectiveSoftTtlSeconds() {
+        if (cacheTtlSeconds <= 0) {
+            return softTtlSeconds;
+        }
+        return Math.min(softTtlSeconds, cacheTtlSeconds);
+    }
+
+    private void publishInvalidation(String cacheKey) {
+        if (!invalidationEnabled || redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + MESSAGE_SEPARATOR + cacheKey);
+        } catch (Exception e) {
+            log.warn("Failed to publish sentence cache invalidation for {}", cacheKey, e);
+        }
+    }
+
+    private void recordLookupMetric(String tier, String outcome, long latencyNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(CACHE_LOOKUP_TOTAL_METRIC, "tier", tier, "outcome", outcome).increment();
+        meterRegistry.timer(CACHE_LOOKUP_LATENCY_METRIC, "tier", tier, "outcome", outcome)
+                .record(Math.max(0L, latencyNanos), TimeUnit.NANOSECONDS);
+    }
+
+    private void recordWriteMetric(String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(CACHE_WRITE_TOTAL_METRIC, "outcome", outcome).increment();
+    }
+
+    private void recordRefreshMetric(String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(CACHE_REFRESH_TOTAL_METRIC, "outcome", outcome).increment();
+    }
+
+    private void recordEviction(BoundedLocalCache.RemovalReason reason) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(L1_EVICTIONS_METRIC, "reason", reason.name().toLowerCase()).increment();
+    }
+
+    private static List<PracticeSentence> immutableCopy(List<PracticeSentence> sentences) {
+        // L1 hands the same instance to every caller, so it must not be mutable.
+        return Collections.unmodifiableList(new ArrayList<>(sentences));
+    }
+
+    static long estimateWeight(List<PracticeSentence> sentences) {
+        long bytes = 64L;
+        for (PracticeSentence sentence : sentences) {
+            if (sentence == null) {
+                continue;
+            }
+            bytes += 48L + chars(sentence.englishSentence()) + chars(sentence.turkishTranslation())
+                    + chars(sentence.turkishFullTranslation());
+        }
+        return bytes;
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0L : 40L + 2L * value.length();
+    }
+}
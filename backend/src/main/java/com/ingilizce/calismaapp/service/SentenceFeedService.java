@@ -0,0 +1,137 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
+import com.ingilizce.calismaapp.dto.SentenceFeedItem;
+import com.ingilizce.calismaapp.repository.SentencePracticeRepository;
+import com.ingilizce.calismaapp.repository.SentenceRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The user's practice sentences and word sentences as one list, newest first.
+ * <p>
+ * Both sources are read as keyset streams in the same order, {@code (date DESC, id DESC)},
+ * and merged; on equal dates practice sentences come before word sentences. The cursor
+ * is the position of the last returned row in that merged order, so each source can
+ * resume from it on its own: a practice-row cursor on date {@code d} still owes every
+ * word sentence of {@code d}, and a word-row cursor owes no more practice rows of {@code d}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SentenceFeedService {
+    private static final String PRACTICE_PREFIX = "p.";
+    private static final String WORD_PREFIX = "w.";
+    // Deepest row an offset page may reach; each source is read from the top, so this bounds the rows per request.
+    static final int MAX_OFFSET_ROWS = 10_000;
+
+    // Must match the SQL order of both sources. The dates are NOT NULL (words.learned_date, and
+    // sentence_practices.created_date since V013), so no NULLS FIRST/LAST rule has to agree.
+    static final Comparator<SentenceFeedItem> FEED_ORDER = Comparator
+            .comparing(SentenceFeedItem::createdDate, Comparator.<LocalDate>reverseOrder())
+            .thenComparing(item -> !item.isPractice())
+            .thenComparing(Comparator.comparingLong(SentenceFeedItem::rowId).reversed());
+
+    private final SentencePracticeRepository sentencePracticeRepository;
+    private final SentenceRepository sentenceRepository;
+
+    public SentenceFeedService(SentencePracticeRepository sentencePracticeRepository,
+                               SentenceRepository sentenceRepository) {
+        this.sentencePracticeRepository = sentencePracticeRepository;
+        this.sentenceRepository = sentenceRepository;
+    }
+
+    /**
+     * Exactly {@code size} rows (fewer only on the last page) after the opaque {@code cursor}.
+     *
+     * @throws IllegalArgumentException when the cursor was not issued by this feed
+     */
+    public CursorPage<SentenceFeedItem> getFeedAfter(Long userId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<SentenceFeedItem> practice;
+        List<SentenceFeedItem> words;
+        if (cursor == null || cursor.isBlank()) {
+            practice = sentencePracticeRepository.findFirstFeedItems(userId, limit);
+            words = sentenceRepository.findFirstFeedItems(userId, limit);
+        } else {
+            boolean afterPractice = cursor.startsWith(PRACTICE_PREFIX);
+            if (!afterPractice && !cursor.startsWith(WORD_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            KeysetCursor position = KeysetCursor.decode(cursor.substring(PRACTICE_PREFIX.length()));
+            if (position == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            practice = sentencePracticeRepository.findFeedItemsBefore(userId, position.date(),
+                    afterPractice ? position.id() : Long.MIN_VALUE, limit);
+            words = sentenceRepository.findFeedItemsBefore(userId, position.date(),
+                    afterPractice ? Long.MAX_VALUE : position.id(), limit);
+        }
+        return CursorPage.withTokens(merge(List.of(practice, words), size + 1), size,
+                SentenceFeedService::cursorFor);
+    }
+
+    /**
+     * Offset page of the merged list, for clients still on {@code page}/{@code size}.
+     * Reads up to {@code (page + 1) * size} rows per source, so pages ending past
+     * {@link #MAX_OFFSET_ROWS} are refused; prefer {@link #getFeedAfter}.
+     *
+     * @throws IllegalArgumentException when the page ends past {@link #MAX_OFFSET_ROWS}
+     */
+    public List<SentenceFeedItem> getFeedPage(Long userId, int page, int size) {
+        long offset = (long) page * size;
+        if (offset + size > MAX_OFFSET_ROWS) {
+            throw new IllegalArgumentException("page is too deep; use the cursor feed for rows past "
+                    + MAX_OFFSET_ROWS);
+        }
+        Limit limit = Limit.of((int) (offset + size));
+        List<SentenceFeedItem> merged = merge(List.of(
+                sentencePracticeRepository.findFirstFeedItems(userId, limit),
+                sentenceRepository.findFirstFeedItems(userId, limit)), limit.max());
+        if (offset >= merged.size()) {
+            return List.of();
+        }
+        return merged.subList((int) offset, (int) Math.min(offset + size, merged.size()));
+    }
+
+    /**
+     * K-way merge of lists already sorted by {@link #FEED_ORDER}, stopping after {@code max} rows.
+     */
+    static List<SentenceFeedItem> merge(List<List<SentenceFeedItem>> sources, int max) {
+        record Head(SentenceFeedItem item, Iterator<SentenceFeedItem> rest) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing(Head::item, FEED_ORDER));
+        for (List<SentenceFeedItem> source : sources) {
+            Iterator<SentenceFeedItem> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+        List<SentenceFeedItem> merged = new ArrayList<>(Math.min(max, 256));
+        while (!heads.isEmpty() && merged.size() < max) {
+            Head head = heads.poll();
+            merged.add(head.item());
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Cursor token for a row: its source plus its {@link KeysetCursor}.
+     */
+    static String cursorFor(SentenceFeedItem item) {
+        return (item.isPractice() ? PRACTICE_PREFIX : WORD_PREFIX)
+                + new KeysetCursor(item.createdDate(), item.rowId()).encode();
+    }
+}
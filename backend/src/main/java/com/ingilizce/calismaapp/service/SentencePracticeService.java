@@ -1,8 +1,11 @@
 package com.ingilizce.calismaapp.service;
 
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
 import com.ingilizce.calismaapp.entity.SentencePractice;
 import com.ingilizce.calismaapp.repository.SentencePracticeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -17,6 +20,9 @@ public class SentencePracticeService {
     @Autowired
     private SentencePracticeRepository sentencePracticeRepository;
 
+    @Autowired
+    private LearningStatsService learningStatsService;
+
     // Get all sentences for user
     public List<SentencePractice> getAllSentences(Long userId) {
         return sentencePracticeRepository.findByUserIdOrderByCreatedDateDesc(userId);
@@ -26,6 +32,17 @@ public class SentencePracticeService {
         return sentencePracticeRepository.findByUserIdOrderByCreatedDateDesc(userId, PageRequest.of(page, size));
     }
 
+    /**
+     * Newest-first page after {@code cursor} (null for the first page), without a count query.
+     */
+    public CursorPage<SentencePractice> getPracticeSentencesAfter(Long userId, KeysetCursor cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<SentencePractice> rows = cursor == null
+                ? sentencePracticeRepository.findFirstKeysetPage(userId, limit)
+                : sentencePracticeRepository.findKeysetPageBefore(userId, cursor.date(), cursor.id(), limit);
+        return CursorPage.of(rows, size, sp -> new KeysetCursor(sp.getCreatedDate(), sp.getId()));
+    }
+
     // Get sentence by ID and User
     public Optional<SentencePractice> getSentenceByIdAndUser(Long id, Long userId) {
         return sentencePracticeRepository.findByIdAndUserId(id, userId);
@@ -36,6 +53,11 @@ public class SentencePracticeService {
         if (sentencePractice.getUserId() == null) {
             throw new IllegalArgumentException("sentencePractice.userId is required");
         }
+        // Cursor pages key on the date; a row without one would never be reached.
+        if (sentencePractice.getCreatedDate() == null) {
+            sentencePractice.setCreatedDate(LocalDate.now());
+        }
+        learningStatsService.invalidate(sentencePractice.getUserId());
         return sentencePracticeRepository.save(sentencePractice);
     }
 
@@ -47,6 +69,7 @@ public class SentencePracticeService {
             sentence.setEnglishSentence(updatedSentence.getEnglishSentence());
             sentence.setTurkishTranslation(updatedSentence.getTurkishTranslation());
             sentence.setDifficulty(updatedSentence.getDifficulty());
+            learningStatsService.invalidate(userId);
             return sentencePracticeRepository.save(sentence);
         }
         return null;
@@ -57,6 +80,7 @@ public class SentencePracticeService {
         Optional<SentencePractice> sentence = getSentenceByIdAndUser(id, userId);
         if (sentence.isPresent()) {
             sentencePracticeRepository.deleteById(id);
+            learningStatsService.invalidate(userId);
             return true;
         }
         return false;
@@ -0,0 +1,228 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer for sentence cache misses. Concurrent misses for the same
+ * cache key share one generation; the optional Redis lock extends that across
+ * backend replicas (followers on other nodes poll the cache instead of calling Groq).
+ */
+@Service
+public class SentenceRequestCoalescer {
+    private static final Logger log = LoggerFactory.getLogger(SentenceRequestCoalescer.class);
+    private static final String LOCK_PREFIX = "lock:";
+    private static final String COALESCE_TOTAL_METRIC = "chatbot.sentences.cache.coalesce.total";
+    private static final String COALESCE_WAITERS_METRIC = "chatbot.sentences.cache.coalesce.waiters";
+    private static final String COALESCE_INFLIGHT_METRIC = "chatbot.sentences.cache.coalesce.inflight";
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final class Flight {
+        private final CompletableFuture<List<PracticeSentence>> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger(0);
+    }
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.sentences.single-flight.wait-timeout-ms:40000}")
+    private long waitTimeoutMs = 40000;
+
+    @Value("${cache.sentences.single-flight.redis-lock.enabled:false}")
+    private boolean redisLockEnabled;
+
+    @Value("${cache.sentences.single-flight.redis-lock.ttl-ms:45000}")
+    private long redisLockTtlMs = 45000;
+
+    @Value("${cache.sentences.single-flight.redis-lock.poll-interval-ms:250}")
+    private long redisPollIntervalMs = 250;
+
+    @Autowired
+    public SentenceRequestCoalescer(@Autowired(required = false) StringRedisTemplate stringRedisTemplate,
+                                    @Autowired(required = false) MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            meterRegistry.gaugeMapSize(COALESCE_INFLIGHT_METRIC, List.of(), flights);
+        }
+    }
+
+    /**
+     * Returns the sentences for {@code cacheKey}, running {@code generator} at most once
+     * per key at a time on this node (and, with the Redis lock, across nodes).
+     *
+     * @param cacheProbe re-reads the shared cache; used by the leader before generating
+     *                   and by cross-node followers
+     * @param generator  generates and stores the sentences; only the leader runs it
+     */
+    public List<PracticeSentence> load(String cacheKey,
+                                       Supplier<Optional<List<PracticeSentence>>> cacheProbe,
+                                       Supplier<List<PracticeSentence>> generator) {
+        Flight flight = new Flight();
+        Flight inFlight = flights.putIfAbsent(cacheKey, flight);
+        if (inFlight != null) {
+            inFlight.waiters.incrementAndGet();
+            recordOutcome("waiter");
+            return await(inFlight);
+        }
+
+        recordOutcome("leader");
+        try {
+            List<PracticeSentence> result = canUseRedisLock()
+                    ? loadWithRedisLock(cacheKey, cacheProbe, generator)
+                    : generateUnlessCached(cacheProbe, generator);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(cacheKey, flight);
+            recordWaiters(flight.waiters.get());
+        }
+    }
+
+    private List<PracticeSentence> await(Flight flight) {
+        try {
+            return flight.result.get(Math.max(1L, waitTimeoutMs), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            recordOutcome("waiter_timeout");
+            throw new RuntimeException("Timed out waiting for in-flight sentence generation");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for in-flight sentence generation");
+        }
+    }
+
+    private List<PracticeSentence> loadWithRedisLock(String cacheKey,
+                                                     Supplier<Optional<List<PracticeSentence>>> cacheProbe,
+                                                     Supplier<List<PracticeSentence>> generator) {
+        String lockKey = LOCK_PREFIX + cacheKey;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired;
+        try {
+            acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, Duration.ofMillis(Math.max(1000L, redisLockTtlMs)));
+        } catch (Exception e) {
+            // Lock is an optimisation only; a Redis outage must not block generation.
+            log.warn("Sentence single-flight lock unavailable for key={}", cacheKey, e);
+            recordOutcome("remote_lock_error");
+            return generateUnlessCached(cacheProbe, generator);
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return generateUnlessCached(cacheProbe, generator);
+            } finally {
+                releaseLock(lockKey, token);
+            }
+        }
+
+        long deadlineMs = System.currentTimeMillis() + Math.max(1L, waitTimeoutMs);
+        while (System.currentTimeMillis() < deadlineMs && !Thread.currentThread().isInterrupted()) {
+            sleepQuietly(redisPollIntervalMs);
+            Optional<List<PracticeSentence>> cached = cacheProbe.get();
+            if (cached.isPresent()) {
+                recordOutcome("remote_waiter");
+                return cached.get();
+            }
+            if (!isLockHeld(lockKey)) {
+                break;
+            }
+        }
+
+        recordOutcome("remote_fallback");
+        return generateUnlessCached(cacheProbe, generator);
+    }
+
+    /**
+     * Runs once leadership is won: a flight that finished on this or another node
+     * between the caller's cache miss and now has already stored the sentences.
+     */
+    private List<PracticeSentence> generateUnlessCached(Supplier<Optional<List<PracticeSentence>>> cacheProbe,
+                                                        Supplier<List<PracticeSentence>> generator) {
+        Optional<List<PracticeSentence>> cached = cacheProbe.get();
+        if (cached.isPresent()) {
+            recordOutcome("leader_cache_hit");
+            return cached.get();
+        }
+        return generator.get();
+    }
+
+    private boolean isLockHeld(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(lockKey));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void releaseLock(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Failed to release sentence single-flight lock {}", lockKey, e);
+        }
+    }
+
+    private boolean canUseRedisLock() {
+        return redisLockEnabled && stringRedisTemplate != null;
+    }
+
+    private void recordOutcome(String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(COALESCE_TOTAL_METRIC, "outcome", outcome).increment();
+    }
+
+    private void recordWaiters(int waiters) {
+        if (meterRegistry == null) {
+            return;
+        }
+        DistributionSummary.builder(COALESCE_WAITERS_METRIC)
+                .description("Requests that shared one sentence generation")
+                .register(meterRegistry)
+                .record(waiters);
+    }
+
+    protected void sleepQuietly(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
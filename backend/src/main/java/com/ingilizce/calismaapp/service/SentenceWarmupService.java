@@ -0,0 +1,488 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import com.ingilizce.calismaapp.repository.WordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-populates the {@code sentences:*} cache after deploys and Redis flushes.
+ * Words are ranked by how often they appear in {@code words} rows (or taken from
+ * an imported frequency list); only missing level/length combinations are sent to
+ * the LLM, through {@link SentenceBatchService}, under a concurrency cap, a
+ * prompts-per-minute pace and a per-run prompt budget. Progress is checkpointed
+ * in Redis by rank so a paused or interrupted run resumes where it stopped.
+ */
+@Service
+public class SentenceWarmupService {
+    private static final Logger log = LoggerFactory.getLogger(SentenceWarmupService.class);
+    static final String PROGRESS_KEY = "warmup:sentences:progress";
+    private static final String RUN_LOCK_KEY = "lock:warmup:sentences";
+    private static final String SOURCE_REPOSITORY = "repository";
+    private static final String SOURCE_IMPORT = "import";
+    private static final Duration PROGRESS_TTL = Duration.ofDays(7);
+    private static final String RUNS_METRIC = "chatbot.sentences.warmup.runs";
+    private static final String WORDS_METRIC = "chatbot.sentences.warmup.words";
+    private static final String PROMPTS_METRIC = "chatbot.sentences.warmup.prompts";
+    private static final String TOKENS_METRIC = "chatbot.sentences.warmup.llm.tokens.estimated";
+    private static final String DURATION_METRIC = "chatbot.sentences.warmup.duration";
+    private static final String THROUGHPUT_METRIC = "chatbot.sentences.warmup.throughput";
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    public record Combination(List<String> levels, List<String> lengths) {
+    }
+
+    /**
+     * Outcome of one run. {@code outcome} is completed, budget_exhausted or failed;
+     * ranks are zero-based positions in the ranked word list.
+     */
+    public record WarmupReport(String source, int startRank, int nextRank, int totalWords,
+                               int cachedWords, int generatedWords, int failedWords,
+                               int prompts, long estimatedTokens, long durationMs, String outcome) {
+    }
+
+    record Progress(String source, int nextRank) {
+    }
+
+    private final WordRepository wordRepository;
+    private final SentenceBatchService sentenceBatchService;
+    private final SentenceCacheService sentenceCacheService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong lastThroughputMilli = new AtomicLong(0L);
+    private final Object paceLock = new Object();
+    private long nextPromptAtMs;
+    private volatile Progress localProgress;
+    private volatile WarmupReport lastReport;
+    private ThreadPoolTaskExecutor workerExecutor;
+    private ThreadPoolTaskExecutor coordinatorExecutor;
+
+    @Value("${cache.sentences.warmup.max-words:1000}")
+    private int maxWords = 1000;
+
+    @Value("${cache.sentences.warmup.combinations:B1:medium}")
+    private List<String> combinations = List.of("B1:medium");
+
+    @Value("${cache.sentences.warmup.concurrency:2}")
+    private int concurrency = 2;
+
+    @Value("${cache.sentences.warmup.prompts-per-minute:20}")
+    private int promptsPerMinute = 20;
+
+    @Value("${cache.sentences.warmup.max-prompts-per-run:100}")
+    private int maxPromptsPerRun = 100;
+
+    @Value("${cache.sentences.warmup.lock-ttl-ms:3600000}")
+    private long lockTtlMs = 3600000;
+
+    @Autowired
+    public SentenceWarmupService(WordRepository wordRepository,
+                                 SentenceBatchService sentenceBatchService,
+                                 SentenceCacheService sentenceCacheService,
+                                 @Autowired(required = false) StringRedisTemplate stringRedisTemplate,
+                                 @Autowired(required = false) MeterRegistry meterRegistry,
+                                 ObjectMapper objectMapper) {
+        this.wordRepository = wordRepository;
+        this.sentenceBatchService = sentenceBatchService;
+        this.sentenceCacheService = sentenceCacheService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        if (meterRegistry != null) {
+            meterRegistry.gauge(THROUGHPUT_METRIC, lastThroughputMilli, value -> value.get() / 1000.0);
+        }
+    }
+
+    @Autowired
+    void configureExecutors(@Value("${cache.sentences.warmup.concurrency:2}") int poolSize) {
+        ThreadPoolTaskExecutor workers = new ThreadPoolTaskExecutor();
+        workers.setCorePoolSize(Math.max(1, poolSize));
+        workers.setMaxPoolSize(Math.max(1, poolSize));
+        workers.setThreadNamePrefix("sentence-warmup-");
+        workers.initialize();
+        this.workerExecutor = workers;
+
+        ThreadPoolTaskExecutor coordinator = new ThreadPoolTaskExecutor();
+        coordinator.setCorePoolSize(1);
+        coordinator.setMaxPoolSize(1);
+        coordinator.setQueueCapacity(0);
+        coordinator.setThreadNamePrefix("sentence-warmup-run-");
+        coordinator.initialize();
+        this.coordinatorExecutor = coordinator;
+    }
+
+    @Scheduled(cron = "${cache.sentences.warmup.cron:-}")
+    public void scheduledWarmup() {
+        // A paced run lasts minutes; running it here would hold a scheduler thread that
+        // the progress flush and the Piper checks also need.
+        if (!trigger(null)) {
+            recordRun("skipped");
+        }
+    }
+
+    /**
+     * Starts a run in the background. Returns false when one is already running here.
+     *
+     * @param importedWords optional frequency-ordered word list; the repository ranking when null/empty
+     */
+    public boolean trigger(List<String> importedWords) {
+        if (running.get()) {
+            return false;
+        }
+        if (coordinatorExecutor == null) {
+            return run(importedWords).isPresent();
+        }
+        try {
+            coordinatorExecutor.execute(() -> run(importedWords));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public WarmupReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Runs one warm-up pass synchronously. Empty when another run holds the lock.
+     */
+    public Optional<WarmupReport> run(List<String> importedWords) {
+        if (!running.compareAndSet(false, true)) {
+            recordRun("skipped");
+            return Optional.empty();
+        }
+        String lockToken = UUID.randomUUID().toString();
+        try {
+            if (!acquireRunLock(lockToken)) {
+                log.info("Sentence warm-up skipped: another node holds {}", RUN_LOCK_KEY);
+                recordRun("skipped");
+                return Optional.empty();
+            }
+            try {
+                WarmupReport report = execute(importedWords);
+                lastReport = report;
+                recordRun(report.outcome());
+                return Optional.of(report);
+            } finally {
+                releaseRunLock(lockToken);
+            }
+        } catch (RuntimeException e) {
+            log.error("Sentence warm-up failed", e);
+            recordRun("failed");
+            return Optional.empty();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private WarmupReport execute(List<String> importedWords) {
+        long startMs = System.currentTimeMillis();
+        List<Combination> combos = parseCombinations(combinations);
+        boolean imported = importedWords != null && !importedWords.isEmpty();
+        List<String> ranked = imported ? normalizeImported(importedWords) : rankRepositoryWords();
+        String source = sourceFingerprint(imported ? SOURCE_IMPORT : SOURCE_REPOSITORY,
+                imported ? ranked : List.of(), combos);
+
+        Progress progress = loadProgress();
+        int startRank = progress != null && source.equals(progress.source())
+                ? Math.min(Math.max(0, progress.nextRank()), ranked.size())
+                : 0;
+        if (startRank > 0) {
+            log.info("Resuming sentence warm-up at rank {} of {}", startRank, ranked.size());
+        }
+
+        int wordsPerChunk = Math.max(1, Math.min(sentenceBatchService.wordsPerPrompt(),
+                sentenceBatchService.getMaxWords()));
+        int windowSize = wordsPerChunk * Math.max(1, concurrency);
+        RunTotals totals = new RunTotals();
+        int rank = startRank;
+        String outcome = "completed";
+
+        while (rank < ranked.size()) {
+            if (totals.prompts >= Math.max(1, maxPromptsPerRun)) {
+                outcome = "budget_exhausted";
+                break;
+            }
+            List<String> window = ranked.subList(rank, Math.min(ranked.size(), rank + windowSize));
+            processWindow(window, combos, wordsPerChunk, totals);
+            rank += window.size();
+            // Windows finish completely before the cursor moves, so a crash re-runs at most one window.
+            saveProgress(new Progress(source, rank));
+        }
+        if ("completed".equals(outcome)) {
+            clearProgress();
+        }
+
+        long durationMs = Math.max(1L, System.currentTimeMillis() - startMs);
+        int processed = totals.cached + totals.generated + totals.failed;
+        lastThroughputMilli.set(processed * 1_000_000L / durationMs);
+        recordDuration(durationMs);
+        log.info("Sentence warm-up {}: ranks {}-{} of {}, cached={}, generated={}, failed={}, prompts={}",
+                outcome, startRank, rank, ranked.size(), totals.cached, totals.generated, totals.failed,
+                totals.prompts);
+        return new WarmupReport(source.substring(0, source.indexOf('|')), startRank, rank, ranked.size(),
+                totals.cached, totals.generated, totals.failed, totals.prompts,
+                (long) totals.generated * sentenceBatchService.getEstimatedTokensPerWord(), durationMs, outcome);
+    }
+
+    private void processWindow(List<String> window, List<Combination> combos, int wordsPerChunk,
+                               RunTotals totals) {
+        List<CompletableFuture<SentenceBatchService.BatchResult>> tasks = new ArrayList<>();
+        for (Combination combo : combos) {
+            List<String> misses = findMisses(window, combo);
+            totals.add(window.size() - misses.size(), 0, 0, 0);
+            for (int i = 0; i < misses.size(); i += wordsPerChunk) {
+                List<String> chunk = misses.subList(i, Math.min(misses.size(), i + wordsPerChunk));
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    pace();
+                    // refresh, not generate: a stale miss would otherwise be served from cache again.
+                    return sentenceBatchService.refresh(chunk, combo.levels(), combo.lengths());
+                }, workerExecutor).exceptionally(e -> {
+                    log.warn("Sentence warm-up chunk failed for {} words", chunk.size(), e);
+                    return new SentenceBatchService.BatchResult(List.of(), chunk, 0);
+                }));
+            }
+        }
+        for (CompletableFuture<SentenceBatchService.BatchResult> task : tasks) {
+            SentenceBatchService.BatchResult result = task.join();
+            int generated = (int) result.results().stream().filter(r -> !r.cached()).count();
+            int cached = result.results().size() - generated;
+            totals.add(cached, generated, result.failed().size(), result.promptCount());
+        }
+    }
+
+    private List<String> findMisses(List<String> words, Combination combo) {
+        Map<String, String> wordsByKey = new LinkedHashMap<>();
+        for (String word : words) {
+            wordsByKey.put(SentenceCacheService.keyFor(word, combo.levels(), combo.lengths()), word);
+        }
+        // Hits past their soft expiry count as misses, so they are regenerated here under
+        // pace() and the prompt budget rather than on the cache's refresh pool.
+        Map<String, List<PracticeSentence>> hits = sentenceCacheService.getAllFresh(new ArrayList<>(wordsByKey.keySet()));
+        List<String> misses = new ArrayList<>();
+        wordsByKey.forEach((key, word) -> {
+            if (!hits.containsKey(key)) {
+                misses.add(word);
+            }
+        });
+        return misses;
+    }
+
+    /**
+     * Spaces prompt starts evenly at the configured prompts-per-minute rate.
+     */
+    private void pace() {
+        long intervalMs = 60_000L / Math.max(1, promptsPerMinute);
+        long waitMs;
+        synchronized (paceLock) {
+            long now = System.currentTimeMillis();
+            long startAt = Math.max(now, nextPromptAtMs);
+            nextPromptAtMs = startAt + intervalMs;
+            waitMs = startAt - now;
+        }
+        if (waitMs > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while pacing warm-up prompts");
+            }
+        }
+    }
+
+    private List<String> rankRepositoryWords() {
+        List<String> words = wordRepository.findWordsRankedByFrequency(PageRequest.of(0, Math.max(1, maxWords)));
+        return normalizeImported(words);
+    }
+
+    private List<String> normalizeImported(List<String> words) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String word : words) {
+            if (word == null || word.isBlank()) {
+                continue;
+            }
+            normalized.add(word.trim().toLowerCase(Locale.ROOT));
+            if (normalized.size() >= Math.max(1, maxWords)) {
+                break;
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    /**
+     * Parses {@code levels:lengths} entries such as {@code B1:medium} or {@code A1+A2:short+medium}.
+     */
+    static List<Combination> parseCombinations(List<String> raw) {
+        Set<Combination> parsed = new LinkedHashSet<>();
+        for (String entry : raw) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                log.warn("Ignoring sentence warm-up combination '{}'", entry);
+                continue;
+            }
+            parsed.add(new Combination(
+                    SentenceCacheService.normalizeLevels(Arrays.asList(parts[0].trim().toUpperCase(Locale.ROOT).split("\\+"))),
+                    SentenceCacheService.normalizeLengths(Arrays.asList(parts[1].trim().toLowerCase(Locale.ROOT).split("\\+")))));
+        }
+        if (parsed.isEmpty()) {
+            parsed.add(new Combination(List.of("B1"), List.of("medium")));
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    private static String sourceFingerprint(String source, List<String> words, List<Combination> combos) {
+        return source + "|" + Integer.toHexString(words.hashCode()) + "|" + Integer.toHexString(combos.hashCode());
+    }
+
+    private Progress loadProgress() {
+        if (stringRedisTemplate == null) {
+            return localProgress;
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(PROGRESS_KEY);
+            return json == null ? null : objectMapper.readValue(json, Progress.class);
+        } catch (Exception e) {
+            log.warn("Sentence warm-up progress unavailable, starting from the top", e);
+            return null;
+        }
+    }
+
+    private void saveProgress(Progress progress) {
+        localProgress = progress;
+        if (stringRedisTemplate == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(PROGRESS_KEY, objectMapper.writeValueAsString(progress),
+                    PROGRESS_TTL);
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint sentence warm-up progress", e);
+        }
+    }
+
+    private void clearProgress() {
+        localProgress = null;
+        if (stringRedisTemplate == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(PROGRESS_KEY);
+        } catch (Exception e) {
+            log.warn("Failed to clear sentence warm-up progress", e);
+        }
+    }
+
+    private boolean acquireRunLock(String token) {
+        if (stringRedisTemplate == null) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(RUN_LOCK_KEY, token, Duration.ofMillis(Math.max(1000L, lockTtlMs))));
+        } catch (Exception e) {
+            // Without Redis there is no shared cache to warm either; the run will mostly fail fast.
+            log.warn("Sentence warm-up lock unavailable", e);
+            return true;
+        }
+    }
+
+    private void releaseRunLock(String token) {
+        if (stringRedisTemplate == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(RUN_LOCK_KEY), token);
+        } catch (Exception e) {
+            log.warn("Failed to release sentence warm-up lock", e);
+        }
+    }
+
+    private void recordRun(String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter(RUNS_METRIC, "outcome", outcome).increment();
+    }
+
+    private void recordDuration(long durationMs) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder(DURATION_METRIC)
+                .description("Sentence cache warm-up run duration")
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (coordinatorExecutor != null) {
+            coordinatorExecutor.shutdown();
+        }
+        if (workerExecutor != null) {
+            workerExecutor.shutdown();
+        }
+    }
+
+    private final class RunTotals {
+        private int cached;
+        private int generated;
+        private int failed;
+        private int prompts;
+
+        private void add(int cachedWords, int generatedWords, int failedWords, int promptCount) {
+            cached += cachedWords;
+            generated += generatedWords;
+            failed += failedWords;
+            prompts += promptCount;
+            if (meterRegistry == null) {
+                return;
+            }
+            meterRegistry.counter(WORDS_METRIC, "outcome", "cached").increment(cachedWords);
+            meterRegistry.counter(WORDS_METRIC, "outcome", "generated").increment(generatedWords);
+            meterRegistry.counter(WORDS_METRIC, "outcome", "failed").increment(failedWords);
+            meterRegistry.counter(PROMPTS_METRIC).increment(promptCount);
+            meterRegistry.counter(TOKENS_METRIC)
+                    .increment((double) generatedWords * sentenceBatchService.getEstimatedTokensPerWord());
+        }
+    }
+}
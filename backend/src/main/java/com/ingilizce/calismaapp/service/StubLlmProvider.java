@@ -0,0 +1,97 @@
+package com.ingilizce.calismaapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline provider with canned, well-formed answers per prompt type, so the router
+ * and everything behind it can be load-tested without Groq or Ollama. The same
+ * input always yields the same output; latency and a failure every N calls are
+ * configurable to exercise failover and hedging. Off by default.
+ */
+@Component
+public class StubLlmProvider implements LlmProvider {
+    static final String NAME = "stub";
+
+    private static final Map<String, String> RESPONSES = Map.of(
+            "generate_sentences", "{\"sentences\":[{\"englishSentence\":\"This is a stub sentence.\","
+                    + "\"turkishTranslation\":\"taslak\",\"turkishFullTranslation\":\"Bu bir taslak cümledir.\"}]}",
+            "generate_sentences_batch", "{\"items\":[]}",
+            "check_translation_tr", "{\"isCorrect\":true,\"correctTranslation\":\"\",\"feedback\":\"stub\"}",
+            "check_translation_en", "{\"isCorrect\":true,\"correctTranslation\":\"\",\"feedback\":\"stub\"}",
+            "speaking_questions", "{\"questions\":[\"Describe your hometown.\"],"
+                    + "\"instructions\":\"stub\",\"timeLimit\":60,\"preparationTime\":0}",
+            "speaking_evaluation", "{\"overallScore\":6,\"criteria\":{},\"feedback\":\"stub\","
+                    + "\"strengths\":[],\"improvements\":[]}",
+            GrammarCheckService.PROMPT_ID, "{\"hasErrors\":false,\"errors\":[],\"errorCount\":0}",
+            GrammarCheckService.BATCH_PROMPT_ID, "{\"results\":[]}");
+
+    private final AtomicLong calls = new AtomicLong();
+
+    @Value("${llm.providers.stub.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${llm.providers.stub.cost-weight:0.1}")
+    private double costWeight = 0.1;
+
+    @Value("${llm.providers.stub.latency-ms:50}")
+    private long latencyMs = 50;
+
+    // 0 = never fail
+    @Value("${llm.providers.stub.fail-every:0}")
+    private int failEvery = 0;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public double costWeight() {
+        return costWeight;
+    }
+
+    @Override
+    public String complete(String promptId, List<Map<String, String>> messages, boolean jsonResponse) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Stub call interrupted", e);
+            }
+        }
+        return answer(promptId, messages, jsonResponse);
+    }
+
+    @Override
+    public CompletableFuture<String> completeAsync(String promptId, List<Map<String, String>> messages,
+                                                   boolean jsonResponse) {
+        return CompletableFuture.supplyAsync(() -> answer(promptId, messages, jsonResponse),
+                CompletableFuture.delayedExecutor(Math.max(0L, latencyMs), TimeUnit.MILLISECONDS));
+    }
+
+    private String answer(String promptId, List<Map<String, String>> messages, boolean jsonResponse) {
+        if (failEvery > 0 && calls.incrementAndGet() % failEvery == 0) {
+            throw new IllegalStateException("Stub failure (every " + failEvery + " calls)");
+        }
+        String canned = RESPONSES.get(promptId);
+        if (canned != null) {
+            return canned;
+        }
+        String last = messages == null || messages.isEmpty() ? "" : messages.get(messages.size() - 1).get("content");
+        int hash = last == null ? 0 : Math.floorMod(last.hashCode(), 10_000);
+        return jsonResponse ? "{\"stub\":true,\"input\":" + hash + "}" : "Stub reply " + hash + ".";
+    }
+}
@@ -0,0 +1,291 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for synthesized Piper audio. Entries are keyed by
+ * SHA-256 of (voice model file, normalized text), so the same word or example
+ * sentence is only ever synthesized once per voice.
+ * <p>
+ * Two tiers, both LRU and bounded by total bytes: a small in-memory tier for the
+ * hottest clips and a disk tier under {@code tts.cache.dir} that survives restarts.
+ * A disk hit is promoted to memory.
+ */
+@Service
+public class TtsAudioCache {
+    private static final Logger log = LoggerFactory.getLogger(TtsAudioCache.class);
+    private static final String LOOKUP_METRIC = "tts.cache.lookup.total";
+    private static final String BYTES_METRIC = "tts.cache.bytes";
+    private static final String EVICTIONS_METRIC = "tts.cache.evictions.total";
+    private static final String FILE_SUFFIX = ".wav";
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    private final MeterRegistry meterRegistry;
+    // Access-ordered: iteration starts at the least recently used entry.
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong memoryBytes = new AtomicLong();
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    @Value("${tts.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${tts.cache.memory-max-bytes:33554432}")
+    private long memoryMaxBytes = 33_554_432L;
+
+    @Value("${tts.cache.disk-max-bytes:536870912}")
+    private long diskMaxBytes = 536_870_912L;
+
+    @Value("${tts.cache.dir:}")
+    private String configuredDir = "";
+
+    private Path directory;
+
+    @Autowired
+    public TtsAudioCache(@Autowired(required = false) MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            meterRegistry.gauge(BYTES_METRIC, Tags.of("tier", "memory"), memoryBytes);
+            meterRegistry.gauge(BYTES_METRIC, Tags.of("tier", "disk"), diskBytes);
+        }
+    }
+
+    /**
+     * Creates the disk directory and indexes whatever a previous run left there,
+     * oldest file first so that it is the first to be evicted.
+     */
+    @PostConstruct
+    void init() {
+        if (!enabled || diskMaxBytes <= 0) {
+            return;
+        }
+        Path dir = configuredDir == null || configuredDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "tts-cache")
+                : Paths.get(configuredDir.trim());
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            log.warn("TTS disk cache disabled, cannot create {}", dir, e);
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(dir)) {
+            listing.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(files::add);
+        } catch (IOException e) {
+            log.warn("Could not index TTS disk cache at {}", dir, e);
+        }
+        files.sort(Comparator.comparingLong(TtsAudioCache::lastModified));
+        synchronized (disk) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = fileSize(file);
+                if (size > 0) {
+                    disk.put(name.substring(0, name.length() - FILE_SUFFIX.length()), size);
+                    diskBytes.addAndGet(size);
+                }
+            }
+            directory = dir;
+            evictDisk();
+        }
+        log.info("TTS disk cache at {}: {} clips, {} bytes", dir, disk.size(), diskBytes.get());
+    }
+
+    public Optional<byte[]> get(String model, String text) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = keyFor(model, text);
+        byte[] audio;
+        synchronized (memory) {
+            audio = memory.get(key);
+        }
+        if (audio != null) {
+            synchronized (disk) {
+                // Keep the disk tier's recency in step so a hot clip is not evicted there.
+                disk.get(key);
+            }
+            record("memory_hit");
+            return Optional.of(audio);
+        }
+        audio = readDisk(key);
+        if (audio != null) {
+            record("disk_hit");
+            putMemory(key, audio);
+            return Optional.of(audio);
+        }
+        record("miss");
+        return Optional.empty();
+    }
+
+    public boolean contains(String model, String text) {
+        if (!enabled) {
+            return false;
+        }
+        String key = keyFor(model, text);
+        synchronized (memory) {
+            if (memory.containsKey(key)) {
+                return true;
+            }
+        }
+        synchronized (disk) {
+            return directory != null && disk.containsKey(key);
+        }
+    }
+
+    public void put(String model, String text, byte[] audio) {
+        if (!enabled || audio == null || audio.length == 0) {
+            return;
+        }
+        String key = keyFor(model, text);
+        putMemory(key, audio);
+        writeDisk(key, audio);
+    }
+
+    static String keyFor(String model, String text) {
+        String material = (model == null ? "" : model) + KEY_SEPARATOR + PromptResultCache.normalize(text);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void putMemory(String key, byte[] audio) {
+        if (audio.length > memoryMaxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            byte[] previous = memory.put(key, audio);
+            memoryBytes.addAndGet(audio.length - (previous != null ? previous.length : 0));
+            Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+            while (memoryBytes.get() > memoryMaxBytes && eldest.hasNext()) {
+                memoryBytes.addAndGet(-eldest.next().getValue().length);
+                eldest.remove();
+                recordEviction("memory");
+            }
+        }
+    }
+
+    private byte[] readDisk(String key) {
+        synchronized (disk) {
+            if (directory == null || disk.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            // Deleted underneath us (or unreadable): forget it, the caller re-synthesizes.
+            log.debug("TTS disk cache entry {} unreadable: {}", key, e.getMessage());
+            synchronized (disk) {
+                Long size = disk.remove(key);
+                if (size != null) {
+                    diskBytes.addAndGet(-size);
+                }
+            }
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, byte[] audio) {
+        Path dir;
+        synchronized (disk) {
+            dir = directory;
+            if (dir == null || audio.length > diskMaxBytes || disk.containsKey(key)) {
+                return;
+            }
+        }
+        Path target = dir.resolve(key + FILE_SUFFIX);
+        Path temp = dir.resolve(key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.write(temp, audio);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write TTS disk cache entry {}", key, e);
+            deleteQuietly(temp);
+            return;
+        }
+        synchronized (disk) {
+            Long previous = disk.put(key, (long) audio.length);
+            diskBytes.addAndGet(audio.length - (previous != null ? previous : 0L));
+            evictDisk();
+        }
+    }
+
+    // Caller holds the disk lock.
+    private void evictDisk() {
+        Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+        while (diskBytes.get() > diskMaxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            deleteQuietly(directory.resolve(entry.getKey() + FILE_SUFFIX));
+            diskBytes.addAndGet(-entry.getValue());
+            eldest.remove();
+            recordEviction("disk");
+        }
+    }
+
+    private void record(String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(LOOKUP_METRIC, "outcome", outcome).increment();
+        }
+    }
+
+    private void recordEviction(String tier) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(EVICTIONS_METRIC, "tier", tier).increment();
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
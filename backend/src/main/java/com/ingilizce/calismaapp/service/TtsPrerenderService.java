@@ -0,0 +1,269 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.entity.Word;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders the audio for a learner's review session ahead of time: every due word
+ * from {@link SRSService#getWordsForReview} and each of its example sentences.
+ * Clips already in the audio cache are skipped, clips being rendered for another
+ * session are shared, and the rest run on a small bounded pool so a session
+ * opening never competes with live synthesis for more than a few Piper slots.
+ * <p>
+ * The manifest lists every clip with its {@code /api/tts/audio} URL and ETag, so
+ * the client can fetch them with ordinary cacheable GETs; {@link #writeZip} sends
+ * them all in one response instead.
+ */
+@Service
+public class TtsPrerenderService {
+    private static final Logger log = LoggerFactory.getLogger(TtsPrerenderService.class);
+    private static final String CLIPS_METRIC = "tts.prerender.clips.total";
+    static final String STATUS_READY = "ready";
+    static final String STATUS_PENDING = "pending";
+    static final String STATUS_UNAVAILABLE = "unavailable";
+
+    public record Clip(String kind, Long wordId, Long sentenceId, String text, String etag, String url,
+                       String status) {
+    }
+
+    public record Manifest(String voice, int total, int ready, int pending, List<Clip> clips) {
+    }
+
+    private final SRSService srsService;
+    private final PiperTtsService piperTtsService;
+    private final PiperAvailabilityMonitor availabilityMonitor;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    // Keyed by clip ETag: one render per clip however many sessions ask for it.
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    // Null in plain unit tests: renders then run inline.
+    private ThreadPoolTaskExecutor renderExecutor;
+
+    @Value("${tts.prerender.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${tts.prerender.max-clips:300}")
+    private int maxClips = 300;
+
+    @Autowired
+    public TtsPrerenderService(SRSService srsService, PiperTtsService piperTtsService,
+                               @Autowired(required = false) PiperAvailabilityMonitor availabilityMonitor,
+                               @Autowired(required = false) MeterRegistry meterRegistry,
+                               ObjectMapper objectMapper) {
+        this.srsService = srsService;
+        this.piperTtsService = piperTtsService;
+        this.availabilityMonitor = availabilityMonitor;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    void configureRenderExecutor(@Value("${tts.prerender.concurrency:2}") int concurrency,
+                                 @Value("${tts.prerender.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, concurrency));
+        executor.setMaxPoolSize(Math.max(1, concurrency));
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setThreadNamePrefix("tts-prerender-");
+        executor.initialize();
+        this.renderExecutor = executor;
+    }
+
+    /**
+     * Lists the session's clips and queues the ones not rendered yet. Returns at once;
+     * pending clips become ready in the audio cache as the pool works through them.
+     */
+    public Manifest prerenderReviewSession(Long userId, String voice) {
+        List<Clip> clips = new ArrayList<>();
+        int ready = 0;
+        int pending = 0;
+        boolean available = isPiperAvailable();
+        for (Clip clip : collectClips(userId, voice)) {
+            String status;
+            if (piperTtsService.isAudioCached(clip.text(), voice)) {
+                status = STATUS_READY;
+                record("cached");
+            } else if (available && enabled && submit(clip, voice) != null) {
+                status = STATUS_PENDING;
+            } else {
+                status = STATUS_UNAVAILABLE;
+            }
+            if (STATUS_READY.equals(status)) {
+                ready++;
+            } else if (STATUS_PENDING.equals(status)) {
+                pending++;
+            }
+            clips.add(withStatus(clip, status));
+        }
+        return new Manifest(voice, clips.size(), ready, pending, clips);
+    }
+
+    /**
+     * Streams the whole session as a zip: one WAV per clip plus {@code manifest.json}.
+     * Clips are rendered (or joined, if already rendering) as needed; ones that cannot
+     * be rendered are left out and marked {@code unavailable} in the manifest.
+     */
+    public void writeZip(Long userId, String voice, OutputStream out) throws IOException {
+        List<Clip> collected = collectClips(userId, voice);
+        boolean available = isPiperAvailable();
+        // Queue everything first so the pool renders ahead of the zip writer.
+        Map<Clip, CompletableFuture<byte[]>> renders = new LinkedHashMap<>();
+        for (Clip clip : collected) {
+            if (available && enabled && !piperTtsService.isAudioCached(clip.text(), voice)) {
+                renders.put(clip, submit(clip, voice));
+            }
+        }
+
+        List<Clip> written = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // WAV barely compresses; don't spend CPU on it.
+        zip.setLevel(Deflater.BEST_SPEED);
+        int index = 0;
+        for (Clip clip : collected) {
+            Optional<byte[]> audio = audioFor(clip, voice, renders.get(clip));
+            if (audio.isEmpty()) {
+                written.add(withStatus(clip, STATUS_UNAVAILABLE));
+                continue;
+            }
+            String name = String.format("%03d-%s.wav", ++index, clip.etag());
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(audio.get());
+            zip.closeEntry();
+            // Inside the zip the entry name takes the place of the URL.
+            written.add(new Clip(clip.kind(), clip.wordId(), clip.sentenceId(), clip.text(), clip.etag(), name,
+                    STATUS_READY));
+        }
+        int ready = (int) written.stream().filter(clip -> STATUS_READY.equals(clip.status())).count();
+        zip.putNextEntry(new ZipEntry("manifest.json"));
+        zip.write(objectMapper.writeValueAsBytes(new Manifest(voice, written.size(), ready, 0, written)));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private List<Clip> collectClips(Long userId, String voice) {
+        Map<String, Clip> clips = new LinkedHashMap<>();
+        for (Word word : srsService.getWordsForReview(userId)) {
+            addClip(clips, "word", word.getId(), null, word.getEnglishWord(), voice);
+            if (word.getSentences() != null) {
+                for (Sentence sentence : word.getSentences()) {
+                    addClip(clips, "sentence", word.getId(), sentence.getId(), sentence.getSentence(), voice);
+                }
+            }
+        }
+        return new ArrayList<>(clips.values());
+    }
+
+    private void addClip(Map<String, Clip> clips, String kind, Long wordId, Long sentenceId, String text,
+                         String voice) {
+        if (text == null || text.isBlank() || clips.size() >= maxClips) {
+            return;
+        }
+        String trimmed = text.trim();
+        // Same content address as the audio endpoint: duplicate texts collapse to one clip.
+        String etag = piperTtsService.getAudioETag(trimmed, voice);
+        UriComponentsBuilder url = UriComponentsBuilder.fromPath("/api/tts/audio").queryParam("text", trimmed);
+        if (voice != null && !voice.isBlank()) {
+            url.queryParam("voice", voice);
+        }
+        clips.putIfAbsent(etag, new Clip(kind, wordId, sentenceId, trimmed, etag, url.encode().toUriString(), null));
+    }
+
+    private CompletableFuture<byte[]> submit(Clip clip, String voice) {
+        CompletableFuture<byte[]> existing = inFlight.get(clip.etag());
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(clip.etag(), render);
+        if (existing != null) {
+            return existing;
+        }
+        Runnable task = () -> {
+            try {
+                render.complete(piperTtsService.synthesizeAudio(clip.text(), voice));
+                record("rendered");
+            } catch (RuntimeException e) {
+                log.warn("Pre-render failed for clip {}: {}", clip.etag(), e.getMessage());
+                record("failed");
+                render.completeExceptionally(e);
+            } finally {
+                inFlight.remove(clip.etag(), render);
+            }
+        };
+        if (renderExecutor == null) {
+            task.run();
+            return render;
+        }
+        try {
+            renderExecutor.execute(task);
+            return render;
+        } catch (TaskRejectedException e) {
+            inFlight.remove(clip.etag(), render);
+            record("rejected");
+            return null;
+        }
+    }
+
+    private Optional<byte[]> audioFor(Clip clip, String voice, CompletableFuture<byte[]> render) {
+        try {
+            if (render != null) {
+                return Optional.of(render.join());
+            }
+            Optional<byte[]> cached = piperTtsService.findCachedAudio(clip.text(), voice);
+            if (cached.isPresent() || !isPiperAvailable() || !enabled) {
+                return cached;
+            }
+            // Queue was full when the zip started: render this one on the response thread.
+            return Optional.of(piperTtsService.synthesizeAudio(clip.text(), voice));
+        } catch (RuntimeException e) {
+            log.warn("Leaving clip {} out of the session zip: {}", clip.etag(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private boolean isPiperAvailable() {
+        return availabilityMonitor == null || availabilityMonitor.isAvailable();
+    }
+
+    private static Clip withStatus(Clip clip, String status) {
+        return new Clip(clip.kind(), clip.wordId(), clip.sentenceId(), clip.text(), clip.etag(), clip.url(), status);
+    }
+
+    private void record(String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(CLIPS_METRIC, "outcome", outcome).increment();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (renderExecutor != null) {
+            renderExecutor.shutdown();
+        }
+    }
+}
@@ -3,9 +3,13 @@ package com.ingilizce.calismaapp.service;
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.entity.Sentence;
 import com.ingilizce.calismaapp.dto.CreateWordRequest;
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.repository.WordRepository;
 import com.ingilizce.calismaapp.repository.SentenceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -30,11 +34,14 @@ public class WordService {
     private LeaderboardService leaderboardService;
 
     @Autowired
-    private ProgressService progressService;
+    private ProgressEngine progressEngine;
 
     @Autowired
     private ActivityPublisher activityPublisher;
 
+    @Autowired
+    private LearningStatsService learningStatsService;
+
     public List<Word> getAllWords(Long userId) {
         return wordRepository.findByUserId(userId);
     }
@@ -43,6 +50,26 @@ public class WordService {
         return wordRepository.findByUserId(userId, PageRequest.of(page, size));
     }
 
+    /**
+     * Newest-first page after {@code cursor} (null for the first page), without a count query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Word> getWordsAfter(Long userId, KeysetCursor cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Word> rows = cursor == null
+                ? wordRepository.findFirstKeysetPage(userId, limit)
+                : wordRepository.findKeysetPageBefore(userId, cursor.date(), cursor.id(), limit);
+        return CursorPage.of(rows, size, word -> new KeysetCursor(word.getLearnedDate(), word.getId()));
+    }
+
+    public Page<WordSummary> getWordSummariesPage(Long userId, int page, int size) {
+        return wordRepository.findSummariesByUserId(userId, PageRequest.of(page, size));
+    }
+
+    public List<WordSummary> getWordSummariesByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        return wordRepository.findSummariesByUserIdAndDateRange(userId, startDate, endDate);
+    }
+
     public List<Word> getWordsByDate(Long userId, LocalDate date) {
         return wordRepository.findByUserIdAndLearnedDate(userId, date);
     }
@@ -76,6 +103,7 @@ public class WordService {
         }
 
         Word savedWord = wordRepository.save(word);
+        learningStatsService.invalidate(savedWord.getUserId());
 
         if (isNew) {
             // Gamification: Add 10 points
@@ -93,8 +121,7 @@ public class WordService {
                 System.err.println("Activity publish error: " + e.getMessage());
             }
 
-            progressService.awardXp(savedWord.getUserId(), 5, "New Word: " + word.getEnglishWord());
-            progressService.updateStreak(savedWord.getUserId());
+            progressEngine.recordActivity(savedWord.getUserId(), 5, "New Word: " + word.getEnglishWord());
         }
 
         return savedWord;
@@ -125,10 +152,18 @@ public class WordService {
         return wordRepository.findByIdAndUserId(id, userId);
     }
 
+    /**
+     * The word with its sentences fetched in the same statement, for the detail view.
+     */
+    public Optional<Word> getWordDetail(Long id, Long userId) {
+        return wordRepository.findWithSentencesByIdAndUserId(id, userId);
+    }
+
     public void deleteWord(Long id, Long userId) {
         Optional<Word> word = getWordByIdAndUser(id, userId);
         if (word.isPresent()) {
             wordRepository.deleteById(id);
+            learningStatsService.invalidate(userId);
         }
         // If not found or not owned, do nothing (or throw exception)
     }
@@ -142,6 +177,7 @@ public class WordService {
             word.setTurkishMeaning(wordDetails.getTurkishMeaning());
             word.setLearnedDate(wordDetails.getLearnedDate());
             word.setNotes(wordDetails.getNotes());
+            learningStatsService.invalidate(userId);
             return wordRepository.save(word);
         }
         return null;
@@ -165,7 +201,8 @@ public class WordService {
 
             Sentence newSentence = new Sentence(sentence, translation, difficulty != null ? difficulty : "easy", word);
             word.addSentence(newSentence);
-            progressService.awardXp(userId, 3, "New Sentence for: " + word.getEnglishWord());
+            progressEngine.awardXp(userId, 3, "New Sentence for: " + word.getEnglishWord());
+            learningStatsService.invalidate(userId);
             return wordRepository.save(word);
         }
         return null;
@@ -184,6 +221,7 @@ public class WordService {
             if (sentence.getWord().getId().equals(wordId) && word.getUserId().equals(userId)) {
                 word.removeSentence(sentence);
                 sentenceRepository.delete(sentence);
+                learningStatsService.invalidate(userId);
                 return wordRepository.save(word);
             }
         }
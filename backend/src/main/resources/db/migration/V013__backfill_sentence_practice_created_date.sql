@@ -0,0 +1,17 @@
+-- V013: sentence_practices.created_date is the keyset sort key for practice pages and the
+-- merged sentence feed, so it can no longer be NULL. Hibernate inserts an explicit NULL
+-- (bypassing the column DEFAULT) when a client omitted the date, so such rows exist.
+-- Legacy rows take the user's oldest known date, so they stay at the end of the list.
+
+UPDATE sentence_practices sp
+   SET created_date = COALESCE(
+           (SELECT MIN(other.created_date)
+              FROM sentence_practices other
+             WHERE other.user_id = sp.user_id
+               AND other.created_date IS NOT NULL),
+           CURRENT_DATE)
+ WHERE sp.created_date IS NULL;
+
+ALTER TABLE sentence_practices
+    ALTER COLUMN created_date SET DEFAULT CURRENT_DATE,
+    ALTER COLUMN created_date SET NOT NULL;
@@ -0,0 +1,6 @@
+-- /api/sentences/word-sentences/cursor pages by sentences.id: a user with many
+-- sentences is served by a backward walk of the primary key, a sparse one through
+-- their words (idx_word_user) and this index, so no page sorts the whole join.
+
+CREATE INDEX IF NOT EXISTS idx_sentences_word_id
+    ON sentences(word_id, id);
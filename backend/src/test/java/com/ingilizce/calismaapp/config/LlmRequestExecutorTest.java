@@ -0,0 +1,82 @@
+package com.ingilizce.calismaapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmRequestExecutorTest {
+
+    @Test
+    void blockingMode_ShouldRunHandlerInline() {
+        LlmRequestExecutor executor = new LlmRequestExecutor(new LlmExecutionProperties(), null);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<ResponseEntity<Thread>> future = executor.submit(
+                () -> ResponseEntity.ok(Thread.currentThread()));
+
+        assertFalse(executor.isAsync());
+        assertTrue(future.isDone());
+        assertEquals(caller, future.join().getBody());
+    }
+
+    @Test
+    void asyncMode_ShouldRunHandlerOnDedicatedPool() {
+        LlmExecutionProperties properties = new LlmExecutionProperties();
+        properties.setMode("async");
+        LlmRequestExecutor executor = new LlmRequestExecutor(properties, null);
+        try {
+            ResponseEntity<String> response = executor.submit(
+                    () -> ResponseEntity.ok(Thread.currentThread().getName())).join();
+
+            assertTrue(executor.isAsync());
+            assertTrue(response.getBody().startsWith("llm-req-"));
+            assertNotEquals(Thread.currentThread().getName(), response.getBody());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void asyncMode_ShouldRejectWithRetryAfter_WhenPoolSaturated() throws Exception {
+        LlmExecutionProperties properties = new LlmExecutionProperties();
+        properties.setMode("async");
+        properties.setCorePoolSize(1);
+        properties.setMaxPoolSize(1);
+        properties.setQueueCapacity(0);
+        properties.setRetryAfterSeconds(7);
+        LlmRequestExecutor executor = new LlmRequestExecutor(properties, null);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                awaitQuietly(release);
+                return ResponseEntity.ok("slow");
+            });
+
+            ResponseEntity<String> rejected = executor.<String>submit(() -> ResponseEntity.ok("fast"))
+                    .get(1, TimeUnit.SECONDS);
+
+            assertEquals(503, rejected.getStatusCode().value());
+            assertEquals("7", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,17 +7,25 @@ import com.ingilizce.calismaapp.repository.WordReviewRepository;
 import com.ingilizce.calismaapp.security.CurrentUserContext;
 import com.ingilizce.calismaapp.security.JwtAuthenticationFilter;
 import com.ingilizce.calismaapp.security.UserHeaderConsistencyFilter;
+import com.ingilizce.calismaapp.service.LearningStatsService;
+import com.ingilizce.calismaapp.service.SentenceWarmupService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = AdminController.class)
@@ -42,6 +50,12 @@ class AdminControllerTest {
     @MockBean
     private CurrentUserContext currentUserContext;
 
+    @MockBean
+    private SentenceWarmupService sentenceWarmupService;
+
+    @MockBean
+    private LearningStatsService learningStatsService;
+
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -58,6 +72,7 @@ class AdminControllerTest {
         verify(sentencePracticeRepository).deleteAll();
         verify(sentenceRepository).deleteAll();
         verify(wordRepository).deleteAll();
+        verify(learningStatsService).invalidateAll();
     }
 
     @Test
@@ -68,4 +83,29 @@ class AdminControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Error resetting data: db-fail"));
     }
+
+    @Test
+    void warmupSentenceCache_ShouldStartRunWithImportedWords() throws Exception {
+        when(sentenceWarmupService.trigger(List.of("apple", "pear"))).thenReturn(true);
+
+        mockMvc.perform(post("/api/admin/cache/sentences/warmup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"words\":[\"apple\",\"pear\"]}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.started").value(true));
+    }
+
+    @Test
+    void warmupSentenceCache_ShouldReturnConflict_WhenAlreadyRunning() throws Exception {
+        when(sentenceWarmupService.trigger(null)).thenReturn(false);
+        when(sentenceWarmupService.isRunning()).thenReturn(true);
+
+        mockMvc.perform(post("/api/admin/cache/sentences/warmup"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.running").value(true));
+
+        mockMvc.perform(get("/api/admin/cache/sentences/warmup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(true));
+    }
 }
@@ -6,11 +6,15 @@ import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.repository.UserRepository;
 import com.ingilizce.calismaapp.service.ChatbotService;
 import com.ingilizce.calismaapp.service.GrammarCheckService;
+import com.ingilizce.calismaapp.service.LlmJobService;
+import com.ingilizce.calismaapp.service.PromptConcurrencyLimiter;
+import com.ingilizce.calismaapp.service.SentenceCacheService;
 import com.ingilizce.calismaapp.service.WordService;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.search.MeterNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,17 +24,27 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.time.LocalDateTime;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -58,6 +72,9 @@ public class ChatbotControllerTest {
     @MockBean
     private GrammarCheckService grammarCheckService;
 
+    @MockBean
+    private LlmJobService llmJobService;
+
     @MockBean
     private RedisTemplate<String, String> redisTemplate;
 
@@ -70,8 +87,12 @@ public class ChatbotControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SentenceCacheService sentenceCacheService;
+
     @BeforeEach
     void setUp() {
+        sentenceCacheService.clearLocal();
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(activeUser()));
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(anyString())).thenReturn(null);
@@ -81,7 +102,7 @@ public class ChatbotControllerTest {
     void chatReturnsForbiddenWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .header("X-User-Id", "2")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"Hello\"}"))
@@ -92,7 +113,7 @@ public class ChatbotControllerTest {
     void chatReturnsForbiddenForUserOneWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(1L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"Hello\"}"))
@@ -101,7 +122,7 @@ public class ChatbotControllerTest {
 
     @Test
     void chatReturnsBadRequestWhenMessageMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"   \"}"))
@@ -112,7 +133,7 @@ public class ChatbotControllerTest {
     void chatReturnsOkWhenValid() throws Exception {
         when(chatbotService.chat("Hello")).thenReturn("Hi there!");
 
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"Hello\"}"))
@@ -121,9 +142,21 @@ public class ChatbotControllerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void chatReturnsServiceUnavailableWithRetryAfterWhenPromptBulkheadIsFull() throws Exception {
+        when(chatbotService.chat("Hello")).thenThrow(new PromptConcurrencyLimiter.LimitExceededException("chat", 3));
+
+        perform(post("/api/chatbot/chat")
+                .header("X-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"message\":\"Hello\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
     @Test
     void chatReturnsBadRequestWhenHeaderMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"Hello\"}"))
                 .andExpect(status().isBadRequest());
@@ -133,7 +166,7 @@ public class ChatbotControllerTest {
 
     @Test
     void chatReturnsBadRequestWhenHeaderInvalid() throws Exception {
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .header("X-User-Id", "invalid")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"Hello\"}"))
@@ -146,7 +179,7 @@ public class ChatbotControllerTest {
     void chatReturnsInternalServerErrorWhenServiceThrows() throws Exception {
         when(chatbotService.chat(anyString())).thenThrow(new RuntimeException("downstream"));
 
-        mockMvc.perform(post("/api/chatbot/chat")
+        perform(post("/api/chatbot/chat")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"message\":\"Hello\"}"))
@@ -155,7 +188,7 @@ public class ChatbotControllerTest {
 
     @Test
     void generateSentencesReturnsBadRequestWhenWordMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{}"))
@@ -164,13 +197,13 @@ public class ChatbotControllerTest {
 
     @Test
     void generateSentencesReturnsCachedResponseWhenAvailable() throws Exception {
-        double beforeLookupHit = counterValue("chatbot.sentences.cache.lookup.total", "hit");
-        long beforeLookupTimerHit = timerCount("chatbot.sentences.cache.lookup.latency", "hit");
+        double beforeLookupHit = counterValue("chatbot.sentences.cache.lookup.total", "l2", "hit");
+        long beforeLookupTimerHit = timerCount("chatbot.sentences.cache.lookup.latency", "l2", "hit");
 
         when(valueOperations.get(anyString()))
                 .thenReturn("[{\"englishSentence\":\"Cached sentence\",\"turkishFullTranslation\":\"Onbellekten\"}]");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"apple\"}"))
@@ -180,19 +213,41 @@ public class ChatbotControllerTest {
                 .andExpect(jsonPath("$.sentences[0]").value("Cached sentence"));
 
         verify(chatbotService, never()).generateSentences(anyString());
-        assertEquals(beforeLookupHit + 1.0, counterValue("chatbot.sentences.cache.lookup.total", "hit"), 0.0001);
-        assertEquals(beforeLookupTimerHit + 1, timerCount("chatbot.sentences.cache.lookup.latency", "hit"));
+        assertEquals(beforeLookupHit + 1.0, counterValue("chatbot.sentences.cache.lookup.total", "l2", "hit"), 0.0001);
+        assertEquals(beforeLookupTimerHit + 1, timerCount("chatbot.sentences.cache.lookup.latency", "l2", "hit"));
+    }
+
+    @Test
+    void generateSentencesServesRepeatedLookupFromLocalTier() throws Exception {
+        double beforeL1Hit = counterValue("chatbot.sentences.cache.lookup.total", "l1", "hit");
+
+        when(valueOperations.get(anyString()))
+                .thenReturn("[{\"englishSentence\":\"Cached sentence\",\"turkishFullTranslation\":\"Onbellekten\"}]");
+
+        for (int i = 0; i < 2; i++) {
+            perform(post("/api/chatbot/generate-sentences")
+                    .header("X-User-Id", "1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"word\":\"apple\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.cached").value(true))
+                    .andExpect(jsonPath("$.sentences[0]").value("Cached sentence"));
+        }
+
+        verify(valueOperations, times(1)).get(anyString());
+        verify(chatbotService, never()).generateSentences(anyString());
+        assertEquals(beforeL1Hit + 1.0, counterValue("chatbot.sentences.cache.lookup.total", "l1", "hit"), 0.0001);
     }
 
     @Test
     void generateSentencesCachesFreshResponseWhenCacheMiss() throws Exception {
-        double beforeLookupMiss = counterValue("chatbot.sentences.cache.lookup.total", "miss");
+        double beforeLookupMiss = counterValue("chatbot.sentences.cache.lookup.total", "l2", "miss");
         double beforeWriteStored = counterValue("chatbot.sentences.cache.write.total", "stored");
 
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("[{\"englishSentence\":\"I eat apple\",\"turkishFullTranslation\":\"Elma yerim\"}]");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"apple\"}"))
@@ -201,27 +256,29 @@ public class ChatbotControllerTest {
                 .andExpect(jsonPath("$.cached").value(false));
 
         verify(valueOperations).set(anyString(), anyString(), any(Duration.class));
-        assertEquals(beforeLookupMiss + 1.0, counterValue("chatbot.sentences.cache.lookup.total", "miss"), 0.0001);
+        // The request's miss plus the coalescing leader's re-check before generating.
+        assertEquals(beforeLookupMiss + 2.0, counterValue("chatbot.sentences.cache.lookup.total", "l2", "miss"), 0.0001);
         assertEquals(beforeWriteStored + 1.0, counterValue("chatbot.sentences.cache.write.total", "stored"), 0.0001);
     }
 
     @Test
     void generateSentencesRecordsCacheErrorMetricWhenCacheReadFails() throws Exception {
-        double beforeLookupError = counterValue("chatbot.sentences.cache.lookup.total", "error");
+        double beforeLookupError = counterValue("chatbot.sentences.cache.lookup.total", "l2", "error");
         double beforeWriteStored = counterValue("chatbot.sentences.cache.write.total", "stored");
 
         when(valueOperations.get(anyString())).thenThrow(new RuntimeException("redis-down"));
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("[{\"englishSentence\":\"I eat apple\",\"turkishFullTranslation\":\"Elma yerim\"}]");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"apple\"}"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.cached").value(false));
 
-        assertEquals(beforeLookupError + 1.0, counterValue("chatbot.sentences.cache.lookup.total", "error"), 0.0001);
+        // The request's read plus the coalescing leader's re-check before generating.
+        assertEquals(beforeLookupError + 2.0, counterValue("chatbot.sentences.cache.lookup.total", "l2", "error"), 0.0001);
         assertEquals(beforeWriteStored + 1.0, counterValue("chatbot.sentences.cache.write.total", "stored"), 0.0001);
     }
 
@@ -229,13 +286,46 @@ public class ChatbotControllerTest {
     void generateSentencesReturnsForbiddenWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "2")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"apple\"}"))
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void generateSentencesBatchResolvesCacheHitsAndGeneratesMissesInOnePrompt() throws Exception {
+        when(valueOperations.multiGet(anyList())).thenReturn(java.util.Arrays.asList(
+                "[{\"englishSentence\":\"Cached apple\",\"turkishFullTranslation\":\"Onbellek\"}]", null));
+        when(chatbotService.generateSentencesBatch(anyString())).thenReturn(
+                "{\"items\":[{\"word\":\"pear\",\"sentences\":[{\"englishSentence\":\"I like pears\"}]}]}");
+
+        perform(post("/api/chatbot/generate-sentences/batch")
+                .header("X-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"words\":[\"apple\",\"pear\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.promptCount").value(1))
+                .andExpect(jsonPath("$.cachedCount").value(1))
+                .andExpect(jsonPath("$.generatedCount").value(1))
+                .andExpect(jsonPath("$.results[0].word").value("apple"))
+                .andExpect(jsonPath("$.results[0].cached").value(true))
+                .andExpect(jsonPath("$.results[1].sentences[0]").value("I like pears"));
+
+        verify(chatbotService, times(1)).generateSentencesBatch(anyString());
+        verify(chatbotService, never()).generateSentences(anyString());
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void generateSentencesBatchReturnsBadRequestWhenWordsMissing() throws Exception {
+        perform(post("/api/chatbot/generate-sentences/batch")
+                .header("X-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"words\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void generateSentencesFallsBackToDefaultLevelAndLengthWhenInvalid() throws Exception {
         Map<String, Object> request = Map.of(
@@ -246,7 +336,7 @@ public class ChatbotControllerTest {
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("[{\"englishSentence\":\"I eat apple\",\"turkishFullTranslation\":\"Elma yerim\"}]");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
@@ -270,7 +360,7 @@ public class ChatbotControllerTest {
                 ]
                 """);
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"apple\"}"))
@@ -283,7 +373,7 @@ public class ChatbotControllerTest {
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("{\"sentences\":[{\"englishSentence\":\"I read\",\"turkishFullTranslation\":\"Okurum\"}]}");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"book\"}"))
@@ -297,7 +387,7 @@ public class ChatbotControllerTest {
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("{\"englishSentence\":\"I run\",\"turkishFullTranslation\":\"Koşarım\"}");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"run\"}"))
@@ -310,7 +400,7 @@ public class ChatbotControllerTest {
     void generateSentencesReturnsInternalServerErrorWhenParsingFails() throws Exception {
         when(chatbotService.generateSentences(anyString())).thenReturn("not-json-at-all");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"apple\"}"))
@@ -322,7 +412,7 @@ public class ChatbotControllerTest {
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("[{\"englishSentence\":\"I read\",\"turkishFullTranslation\":\"Okurum\"}]");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"book\",\"checkGrammar\":\"true\"}"))
@@ -335,7 +425,7 @@ public class ChatbotControllerTest {
         when(chatbotService.generateSentences(anyString()))
                 .thenReturn("{\"englishSentence\":\"Fallback\",\"turkishFullTranslation\":null}");
 
-        mockMvc.perform(post("/api/chatbot/generate-sentences")
+        perform(post("/api/chatbot/generate-sentences")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"word\":\"fallback\"}"))
@@ -346,7 +436,7 @@ public class ChatbotControllerTest {
 
     @Test
     void checkGrammarReturnsBadRequestWhenSentenceMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/check-grammar")
+        perform(post("/api/chatbot/check-grammar")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"\"}"))
@@ -358,7 +448,7 @@ public class ChatbotControllerTest {
         when(grammarCheckService.checkGrammar("I goes to school"))
                 .thenReturn(Map.of("hasErrors", true, "errorCount", 1));
 
-        mockMvc.perform(post("/api/chatbot/check-grammar")
+        perform(post("/api/chatbot/check-grammar")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"I goes to school\"}"))
@@ -370,7 +460,7 @@ public class ChatbotControllerTest {
     void checkGrammarReturnsInternalServerErrorWhenServiceThrows() throws Exception {
         when(grammarCheckService.checkGrammar(anyString())).thenThrow(new RuntimeException("grammar down"));
 
-        mockMvc.perform(post("/api/chatbot/check-grammar")
+        perform(post("/api/chatbot/check-grammar")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"Test\"}"))
@@ -381,7 +471,7 @@ public class ChatbotControllerTest {
     void checkGrammarReturnsForbiddenWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/check-grammar")
+        perform(post("/api/chatbot/check-grammar")
                 .header("X-User-Id", "2")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"I am fine\"}"))
@@ -390,7 +480,7 @@ public class ChatbotControllerTest {
 
     @Test
     void checkTranslationReturnsBadRequestWhenUserTranslationMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"englishSentence\":\"I love coding\"}"))
@@ -399,7 +489,7 @@ public class ChatbotControllerTest {
 
     @Test
     void checkTranslationReturnsBadRequestWhenTurkishSentenceMissingForTrToEn() throws Exception {
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"TR_TO_EN\",\"userTranslation\":\"I love coding\"}"))
@@ -408,7 +498,7 @@ public class ChatbotControllerTest {
 
     @Test
     void checkTranslationReturnsBadRequestWhenEnglishSentenceMissingForEnToTr() throws Exception {
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -420,7 +510,7 @@ public class ChatbotControllerTest {
         when(chatbotService.checkTranslation(anyString()))
                 .thenReturn("{\"isCorrect\":true,\"correctTranslation\":\"Kodlamayı seviyorum\",\"feedback\":\"İyi\"}");
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"englishSentence\":\"I love coding\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -434,7 +524,7 @@ public class ChatbotControllerTest {
         when(chatbotService.checkTranslation(anyString()))
                 .thenReturn("Bu ceviri dogru gorunuyor.");
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"englishSentence\":\"I love coding\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -447,7 +537,7 @@ public class ChatbotControllerTest {
     void checkTranslationHandlesNullServiceResponseWithSafeFallback() throws Exception {
         when(chatbotService.checkTranslation(anyString())).thenReturn(null);
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"englishSentence\":\"I love coding\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -461,7 +551,7 @@ public class ChatbotControllerTest {
         when(chatbotService.checkEnglishTranslation(anyString()))
                 .thenReturn("{\"isCorrect\":true,\"correctTranslation\":\"I am learning\",\"feedback\":\"Good\"}");
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("""
@@ -483,7 +573,7 @@ public class ChatbotControllerTest {
     void checkTranslationReturnsInternalServerErrorWhenServiceThrows() throws Exception {
         when(chatbotService.checkTranslation(anyString())).thenThrow(new RuntimeException("llm down"));
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"englishSentence\":\"I love coding\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -494,7 +584,7 @@ public class ChatbotControllerTest {
     void checkTranslationReturnsForbiddenWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "2")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"englishSentence\":\"I love coding\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -505,7 +595,7 @@ public class ChatbotControllerTest {
     void checkTranslationUsesDefaultFieldsWhenJsonHasNoExpectedKeys() throws Exception {
         when(chatbotService.checkTranslation(anyString())).thenReturn("{}");
 
-        mockMvc.perform(post("/api/chatbot/check-translation")
+        perform(post("/api/chatbot/check-translation")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"direction\":\"EN_TO_TR\",\"englishSentence\":\"I love coding\",\"userTranslation\":\"Kodlamayı seviyorum\"}"))
@@ -517,7 +607,7 @@ public class ChatbotControllerTest {
 
     @Test
     void saveToTodayReturnsBadRequestWhenEnglishWordMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/save-to-today")
+        perform(post("/api/chatbot/save-to-today")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"meanings\":[\"elma\"]}"))
@@ -535,7 +625,7 @@ public class ChatbotControllerTest {
         when(wordService.addSentence(anyLong(), anyString(), anyString(), anyString(), anyLong())).thenReturn(saved);
         when(wordService.getWordByIdAndUser(10L, 1L)).thenReturn(Optional.of(saved));
 
-        mockMvc.perform(post("/api/chatbot/save-to-today")
+        perform(post("/api/chatbot/save-to-today")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("""
@@ -561,7 +651,7 @@ public class ChatbotControllerTest {
         when(wordService.saveWord(any(Word.class))).thenReturn(saved);
         when(wordService.getWordByIdAndUser(11L, 1L)).thenReturn(Optional.of(saved));
 
-        mockMvc.perform(post("/api/chatbot/save-to-today")
+        perform(post("/api/chatbot/save-to-today")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"englishWord\":\"book\",\"meanings\":[\"kitap\"]}"))
@@ -575,7 +665,7 @@ public class ChatbotControllerTest {
     void saveToTodayReturnsInternalServerErrorWhenSaveFails() throws Exception {
         when(wordService.saveWord(any(Word.class))).thenThrow(new RuntimeException("db down"));
 
-        mockMvc.perform(post("/api/chatbot/save-to-today")
+        perform(post("/api/chatbot/save-to-today")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"englishWord\":\"apple\"}"))
@@ -584,7 +674,7 @@ public class ChatbotControllerTest {
 
     @Test
     void generateSpeakingTestQuestionsReturnsBadRequestWhenParamsMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/speaking-test/generate-questions")
+        perform(post("/api/chatbot/speaking-test/generate-questions")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\"}"))
@@ -596,7 +686,7 @@ public class ChatbotControllerTest {
         when(chatbotService.generateSpeakingTestQuestions(anyString()))
                 .thenReturn("{\"questions\":[\"Q1\",\"Q2\"]}");
 
-        mockMvc.perform(post("/api/chatbot/speaking-test/generate-questions")
+        perform(post("/api/chatbot/speaking-test/generate-questions")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"part\":\"Part 1\"}"))
@@ -608,7 +698,7 @@ public class ChatbotControllerTest {
     void generateSpeakingTestQuestionsReturnsInternalServerErrorWhenInvalidJson() throws Exception {
         when(chatbotService.generateSpeakingTestQuestions(anyString())).thenReturn("not-json");
 
-        mockMvc.perform(post("/api/chatbot/speaking-test/generate-questions")
+        perform(post("/api/chatbot/speaking-test/generate-questions")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"part\":\"Part 1\"}"))
@@ -619,16 +709,120 @@ public class ChatbotControllerTest {
     void generateSpeakingTestQuestionsReturnsForbiddenWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/speaking-test/generate-questions")
+        perform(post("/api/chatbot/speaking-test/generate-questions")
                 .header("X-User-Id", "2")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"part\":\"Part 1\"}"))
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateSpeakingTestQuestionsJobReturnsAcceptedAndRunsTheSamePrompt() throws Exception {
+        when(chatbotService.generateSpeakingTestQuestions(anyString()))
+                .thenReturn("```json{\"questions\":[\"Q1\"]}```");
+        when(llmJobService.submit(eq(1L), eq("speaking_questions"), eq("retry-1"), any()))
+                .thenReturn(new LlmJobService.Submission(job("job-1", 1L, LlmJobService.STATUS_PENDING), true));
+
+        perform(post("/api/chatbot/speaking-test/generate-questions/jobs")
+                .header("X-User-Id", "1")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"testType\":\"IELTS\",\"part\":\"Part 1\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/chatbot/jobs/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.existing").value(true))
+                .andExpect(jsonPath("$.eventsUrl").value("/api/chatbot/jobs/job-1/events"));
+
+        ArgumentCaptor<Supplier> work = ArgumentCaptor.forClass(Supplier.class);
+        verify(llmJobService).submit(eq(1L), eq("speaking_questions"), eq("retry-1"), work.capture());
+        Map<String, Object> result = (Map<String, Object>) work.getValue().get();
+        assertEquals(List.of("Q1"), result.get("questions"));
+    }
+
+    @Test
+    void evaluateSpeakingTestJobValidatesBeforeSubmitting() throws Exception {
+        perform(post("/api/chatbot/speaking-test/evaluate/jobs")
+                .header("X-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"testType\":\"IELTS\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(llmJobService, never()).submit(anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    void getJobReturnsOnlyTheOwnersJob() throws Exception {
+        when(llmJobService.get("job-1")).thenReturn(Optional.of(job("job-1", 1L, LlmJobService.STATUS_DONE)));
+
+        perform(get("/api/chatbot/jobs/job-1").header("X-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("done"))
+                .andExpect(jsonPath("$.result.score").value(7));
+        perform(get("/api/chatbot/jobs/job-1").header("X-User-Id", "2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void chatStreamRelaysDeltasThenDoneEvent() throws Exception {
+        when(chatbotService.chatStream(eq("Hello"), any())).thenAnswer(invocation -> {
+            Consumer<String> onDelta = invocation.getArgument(1);
+            onDelta.accept("Hi ");
+            onDelta.accept("there!");
+            return CompletableFuture.completedFuture("Hi there!");
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/chatbot/chat/stream")
+                        .header("X-User-Id", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Hello\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:delta"));
+        assertTrue(body.contains("\"text\":\"there!\""));
+        assertTrue(body.contains("event:done"));
+        assertTrue(body.contains("\"response\":\"Hi there!\""));
+    }
+
+    @Test
+    void chatStreamReturnsForbiddenWhenSubscriptionInactive() throws Exception {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
+
+        mockMvc.perform(post("/api/chatbot/chat/stream")
+                        .header("X-User-Id", "2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Hello\"}"))
+                .andExpect(status().isForbidden());
+
+        verify(chatbotService, never()).chatStream(anyString(), any());
+    }
+
+    @Test
+    void evaluateSpeakingTestStreamSendsParsedJsonInDoneEvent() throws Exception {
+        when(chatbotService.evaluateSpeakingTestStream(anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture("{\"score\":80}"));
+
+        MvcResult result = mockMvc.perform(post("/api/chatbot/speaking-test/evaluate/stream")
+                        .header("X-User-Id", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"testType\":\"IELTS\",\"question\":\"Q\",\"response\":\"A\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:done"));
+        assertTrue(body.contains("\"score\":80"));
+    }
+
     @Test
     void evaluateSpeakingTestReturnsBadRequestWhenParamsMissing() throws Exception {
-        mockMvc.perform(post("/api/chatbot/speaking-test/evaluate")
+        perform(post("/api/chatbot/speaking-test/evaluate")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"question\":\"Q\"}"))
@@ -639,7 +833,7 @@ public class ChatbotControllerTest {
     void evaluateSpeakingTestReturnsOkWhenValid() throws Exception {
         when(chatbotService.evaluateSpeakingTest(anyString())).thenReturn("{\"score\":80}");
 
-        mockMvc.perform(post("/api/chatbot/speaking-test/evaluate")
+        perform(post("/api/chatbot/speaking-test/evaluate")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"question\":\"Q\",\"response\":\"A\"}"))
@@ -651,7 +845,7 @@ public class ChatbotControllerTest {
     void evaluateSpeakingTestReturnsInternalServerErrorWhenInvalidJson() throws Exception {
         when(chatbotService.evaluateSpeakingTest(anyString())).thenReturn("bad-json");
 
-        mockMvc.perform(post("/api/chatbot/speaking-test/evaluate")
+        perform(post("/api/chatbot/speaking-test/evaluate")
                 .header("X-User-Id", "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"question\":\"Q\",\"response\":\"A\"}"))
@@ -662,7 +856,7 @@ public class ChatbotControllerTest {
     void evaluateSpeakingTestReturnsForbiddenWhenSubscriptionInactive() throws Exception {
         when(userRepository.findById(2L)).thenReturn(Optional.of(inactiveUser()));
 
-        mockMvc.perform(post("/api/chatbot/speaking-test/evaluate")
+        perform(post("/api/chatbot/speaking-test/evaluate")
                 .header("X-User-Id", "2")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"testType\":\"IELTS\",\"question\":\"Q\",\"response\":\"A\"}"))
@@ -689,11 +883,33 @@ public class ChatbotControllerTest {
         }
     }
 
-    private long timerCount(String metricName, String outcome) {
+    private double counterValue(String metricName, String tier, String outcome) {
+        try {
+            return meterRegistry.get(metricName).tag("tier", tier).tag("outcome", outcome).counter().count();
+        } catch (MeterNotFoundException ignored) {
+            return 0.0;
+        }
+    }
+
+    private long timerCount(String metricName, String tier, String outcome) {
         try {
-            return meterRegistry.get(metricName).tag("outcome", outcome).timer().count();
+            return meterRegistry.get(metricName).tag("tier", tier).tag("outcome", outcome).timer().count();
         } catch (MeterNotFoundException ignored) {
             return 0L;
         }
     }
+
+    private static LlmJobService.Job job(String id, Long userId, String status) {
+        Map<String, Object> result = LlmJobService.STATUS_DONE.equals(status) ? Map.of("score", 7) : null;
+        return new LlmJobService.Job(id, "speaking_questions", userId, status, result, null, null, 0L, 0L);
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions actions = mockMvc.perform(requestBuilder);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
 }
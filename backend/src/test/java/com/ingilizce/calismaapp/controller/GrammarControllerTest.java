@@ -9,6 +9,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
 import java.util.Map;
@@ -19,6 +22,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -44,7 +48,7 @@ class GrammarControllerTest {
         when(grammarCheckService.checkGrammar("I goes to school"))
                 .thenReturn(Map.of("hasErrors", true, "errorCount", 1, "errors", List.of(Map.of("message", "err"))));
 
-        mockMvc.perform(post("/api/grammar/check")
+        perform(post("/api/grammar/check")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"I goes to school\"}"))
                 .andExpect(status().isOk())
@@ -54,7 +58,7 @@ class GrammarControllerTest {
 
     @Test
     void checkGrammarReturnsBadRequestForEmptySentence() throws Exception {
-        mockMvc.perform(post("/api/grammar/check")
+        perform(post("/api/grammar/check")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"   \"}"))
                 .andExpect(status().isBadRequest())
@@ -65,7 +69,7 @@ class GrammarControllerTest {
     void checkGrammarReturnsInternalServerErrorWhenServiceThrows() throws Exception {
         when(grammarCheckService.checkGrammar(any())).thenThrow(new RuntimeException("broken"));
 
-        mockMvc.perform(post("/api/grammar/check")
+        perform(post("/api/grammar/check")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentence\":\"Test\"}"))
                 .andExpect(status().isInternalServerError())
@@ -74,10 +78,11 @@ class GrammarControllerTest {
 
     @Test
     void checkMultipleSentencesReturnsOk() throws Exception {
+        when(grammarCheckService.getMaxBatchSentences()).thenReturn(50);
         when(grammarCheckService.checkMultipleSentences(List.of("One", "Two")))
                 .thenReturn(Map.of("One", List.of(Map.of("message", "m1"))));
 
-        mockMvc.perform(post("/api/grammar/check-multiple")
+        perform(post("/api/grammar/check-multiple")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentences\":[\"One\",\"Two\"]}"))
                 .andExpect(status().isOk())
@@ -86,27 +91,75 @@ class GrammarControllerTest {
 
     @Test
     void checkMultipleSentencesReturnsBadRequestForEmptyList() throws Exception {
-        mockMvc.perform(post("/api/grammar/check-multiple")
+        perform(post("/api/grammar/check-multiple")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentences\":[]}"))
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void checkMultipleSentencesReturnsBadRequestWhenOverLimit() throws Exception {
+        when(grammarCheckService.getMaxBatchSentences()).thenReturn(1);
+
+        perform(post("/api/grammar/check-multiple")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sentences\":[\"One\",\"Two\"]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(grammarCheckService, never()).checkMultipleSentences(any());
+    }
+
     @Test
     void checkMultipleSentencesReturnsInternalServerErrorWhenServiceThrows() throws Exception {
+        when(grammarCheckService.getMaxBatchSentences()).thenReturn(50);
         when(grammarCheckService.checkMultipleSentences(any())).thenThrow(new RuntimeException("broken"));
 
-        mockMvc.perform(post("/api/grammar/check-multiple")
+        perform(post("/api/grammar/check-multiple")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"sentences\":[\"One\"]}"))
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void checkBatchReturnsPerSentenceStatusInRequestOrder() throws Exception {
+        when(grammarCheckService.getMaxBatchSentences()).thenReturn(50);
+        when(grammarCheckService.checkBatch(List.of("One", "Two"))).thenReturn(new GrammarCheckService.BatchResult(
+                List.of(new GrammarCheckService.SentenceResult("One",
+                                Map.of("hasErrors", true, "errorCount", 1, "errors", List.of(Map.of("message", "m1"))), null),
+                        new GrammarCheckService.SentenceResult("Two", null, "timeout")),
+                1, 0));
+
+        perform(post("/api/grammar/check-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sentences\":[\"One\",\"Two\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("ok"))
+                .andExpect(jsonPath("$.results[0].errors[0].message").value("m1"))
+                .andExpect(jsonPath("$.results[1].status").value("failed"))
+                .andExpect(jsonPath("$.results[1].message").value("timeout"))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.withErrors").value(1));
+    }
+
+    @Test
+    void checkBatchReturnsBadRequestWhenOverLimit() throws Exception {
+        when(grammarCheckService.getMaxBatchSentences()).thenReturn(1);
+
+        perform(post("/api/grammar/check-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sentences\":[\"One\",\"Two\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At most 1 sentences per request"));
+
+        verify(grammarCheckService, never()).checkBatch(any());
+    }
+
     @Test
     void getStatusReturnsOk() throws Exception {
         when(grammarCheckService.isEnabled()).thenReturn(true);
 
-        mockMvc.perform(get("/api/grammar/status"))
+        perform(get("/api/grammar/status"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.enabled").value(true))
                 .andExpect(jsonPath("$.service").value("JLanguageTool"));
@@ -116,7 +169,7 @@ class GrammarControllerTest {
     void toggleGrammarCheckUpdatesValue() throws Exception {
         when(grammarCheckService.isEnabled()).thenReturn(true);
 
-        mockMvc.perform(post("/api/grammar/toggle")
+        perform(post("/api/grammar/toggle")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"enabled\":true}"))
                 .andExpect(status().isOk())
@@ -130,7 +183,7 @@ class GrammarControllerTest {
     void toggleGrammarCheckHandlesMissingEnabledField() throws Exception {
         when(grammarCheckService.isEnabled()).thenReturn(false);
 
-        mockMvc.perform(post("/api/grammar/toggle")
+        perform(post("/api/grammar/toggle")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{}"))
                 .andExpect(status().isOk())
@@ -139,4 +192,13 @@ class GrammarControllerTest {
 
         verify(grammarCheckService, never()).setEnabled(anyBoolean());
     }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions actions = mockMvc.perform(requestBuilder);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
 }
@@ -0,0 +1,132 @@
+package com.ingilizce.calismaapp.controller;
+
+import com.ingilizce.calismaapp.entity.User;
+import com.ingilizce.calismaapp.repository.UserRepository;
+import com.ingilizce.calismaapp.service.ChatbotService;
+import com.ingilizce.calismaapp.service.WordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saturates /api/chatbot/chat with slow (mocked) LLM calls on a deliberately tiny Tomcat
+ * pool and checks that /api/words latency stays far below the LLM latency in async mode.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "GROQ_API_KEY=dummy-key",
+        "spring.datasource.url=jdbc:h2:mem:llmisolationdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=1",
+        "app.llm.execution.mode=async",
+        "app.llm.execution.core-pool-size=32",
+        "app.llm.execution.max-pool-size=32"
+})
+class LlmExecutionIsolationLoadTest {
+    private static final long LLM_LATENCY_MS = 1500;
+    private static final int SATURATING_CHAT_CALLS = 16;
+    private static final int WORD_LIST_SAMPLES = 40;
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private ChatbotService chatbotService;
+
+    @MockBean
+    private WordService wordService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void wordListP99StaysLowWhileChatbotCallsAreSaturated() throws Exception {
+        User user = new User("load@test.com", "pw");
+        user.setSubscriptionEndDate(LocalDateTime.now().plusDays(1));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(wordService.getWordsPage(anyLong(), anyInt(), anyInt())).thenReturn(Page.empty());
+        when(chatbotService.chat(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(LLM_LATENCY_MS);
+            return "slow reply";
+        });
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, client.send(wordListRequest(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+
+        List<CompletableFuture<HttpResponse<String>>> chatCalls = new ArrayList<>();
+        for (int i = 0; i < SATURATING_CHAT_CALLS; i++) {
+            HttpRequest chat = HttpRequest.newBuilder(URI.create(baseUrl() + "/api/chatbot/chat"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("X-User-Id", "1")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"hello " + i + "\"}"))
+                    .build();
+            chatCalls.add(client.sendAsync(chat, HttpResponse.BodyHandlers.ofString()));
+        }
+        Thread.sleep(200);
+
+        List<Long> latenciesMs = new ArrayList<>();
+        for (int i = 0; i < WORD_LIST_SAMPLES; i++) {
+            long startNs = System.nanoTime();
+            HttpResponse<String> response = client.send(wordListRequest(), HttpResponse.BodyHandlers.ofString());
+            latenciesMs.add((System.nanoTime() - startNs) / 1_000_000L);
+            assertEquals(200, response.statusCode());
+        }
+
+        long p99 = percentile(latenciesMs, 99);
+        assertTrue(p99 < LLM_LATENCY_MS / 2,
+                "word-list p99 should not queue behind LLM calls, was " + p99 + " ms");
+
+        for (CompletableFuture<HttpResponse<String>> chatCall : chatCalls) {
+            assertEquals(200, chatCall.join().statusCode());
+        }
+    }
+
+    private HttpRequest wordListRequest() {
+        return HttpRequest.newBuilder(URI.create(baseUrl() + "/api/words?page=0&size=20"))
+                .timeout(Duration.ofSeconds(30))
+                .header("X-User-Id", "1")
+                .GET()
+                .build();
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    private static long percentile(List<Long> values, int percentile) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil((percentile / 100.0) * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ingilizce.calismaapp.controller;
 
 import com.ingilizce.calismaapp.model.Achievement;
+import com.ingilizce.calismaapp.service.ProgressEngine;
 import com.ingilizce.calismaapp.service.ProgressService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +40,9 @@ class ProgressControllerTest {
     @MockBean
     private ProgressService progressService;
 
+    @MockBean
+    private ProgressEngine progressEngine;
+
     @Test
     void getStatsReturnsOk() throws Exception {
         when(progressService.getStats(USER_ID)).thenReturn(Map.of("level", 3, "totalXp", 240));
@@ -93,7 +97,7 @@ class ProgressControllerTest {
 
     @Test
     void checkAchievementsReturnsOk() throws Exception {
-        when(progressService.checkAndUnlockAchievements(USER_ID)).thenReturn(List.of(Achievement.FIRST_WORD));
+        when(progressEngine.checkAchievements(USER_ID)).thenReturn(List.of(Achievement.FIRST_WORD));
 
         mockMvc.perform(post("/api/progress/check-achievements").header(USER_ID_HEADER, USER_ID))
                 .andExpect(status().isOk())
@@ -102,7 +106,7 @@ class ProgressControllerTest {
 
     @Test
     void checkAchievementsReturnsInternalServerErrorWhenServiceFails() throws Exception {
-        when(progressService.checkAndUnlockAchievements(USER_ID)).thenThrow(new RuntimeException("failure"));
+        when(progressEngine.checkAchievements(USER_ID)).thenThrow(new RuntimeException("failure"));
 
         mockMvc.perform(post("/api/progress/check-achievements").header(USER_ID_HEADER, USER_ID))
                 .andExpect(status().isInternalServerError());
@@ -119,7 +123,8 @@ class ProgressControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalXp").value(300));
 
-        verify(progressService).awardXp(USER_ID, 25, "daily");
+        verify(progressEngine).awardXp(USER_ID, 25, "daily");
+        verify(progressEngine).checkAchievements(USER_ID);
     }
 
     @Test
@@ -1,7 +1,9 @@
 package com.ingilizce.calismaapp.controller;
 
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.service.SRSService;
+import com.ingilizce.calismaapp.service.TtsPrerenderService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -13,12 +15,14 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -39,6 +43,9 @@ public class SRSControllerTest {
     @MockBean
     private SRSService srsService;
 
+    @MockBean
+    private TtsPrerenderService ttsPrerenderService;
+
     @Test
     void testGetDueWords() throws Exception {
         when(srsService.getWordsForReview(USER_ID)).thenReturn(new ArrayList<>());
@@ -57,6 +64,18 @@ public class SRSControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void testGetDueWordSummaries() throws Exception {
+        when(srsService.getReviewSummaries(USER_ID)).thenReturn(List.of(
+                new WordSummary(7L, "house", "ev", null, null, null, null, 2, 2.5, null, 3L)));
+
+        mockMvc.perform(get("/api/srs/review-words/summary")
+                .header(USER_ID_HEADER, USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].sentenceCount").value(3));
+    }
+
     @Test
     void testEvaluateWord() throws Exception {
         when(srsService.submitReview(USER_ID, 1L, 4)).thenReturn(new Word());
@@ -107,4 +126,19 @@ public class SRSControllerTest {
                 .header(USER_ID_HEADER, USER_ID))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    void testGetReviewAudioManifest() throws Exception {
+        when(ttsPrerenderService.prerenderReviewSession(USER_ID, "amy")).thenReturn(
+                new TtsPrerenderService.Manifest("amy", 1, 0, 1, List.of(new TtsPrerenderService.Clip(
+                        "word", 7L, null, "apple", "abc", "/api/tts/audio?text=apple&voice=amy", "pending"))));
+
+        mockMvc.perform(get("/api/srs/review-audio")
+                .header(USER_ID_HEADER, USER_ID)
+                .param("voice", "amy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pending").value(1))
+                .andExpect(jsonPath("$.clips[0].url").value("/api/tts/audio?text=apple&voice=amy"))
+                .andExpect(jsonPath("$.clips[0].status").value("pending"));
+    }
 }
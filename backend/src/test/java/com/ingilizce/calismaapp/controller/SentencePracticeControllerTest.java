@@ -1,9 +1,14 @@
 package com.ingilizce.calismaapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
+import com.ingilizce.calismaapp.dto.SentenceFeedItem;
+import com.ingilizce.calismaapp.dto.SentenceStats;
 import com.ingilizce.calismaapp.entity.Sentence;
 import com.ingilizce.calismaapp.entity.SentencePractice;
-import com.ingilizce.calismaapp.entity.Word;
+import com.ingilizce.calismaapp.service.LearningStatsService;
+import com.ingilizce.calismaapp.service.SentenceFeedService;
 import com.ingilizce.calismaapp.service.SentencePracticeService;
 import com.ingilizce.calismaapp.repository.SentenceRepository;
 import org.junit.jupiter.api.Test;
@@ -50,40 +55,52 @@ public class SentencePracticeControllerTest {
     @MockBean
     private SentenceRepository sentenceRepository;
 
+    @MockBean
+    private SentenceFeedService sentenceFeedService;
+
+    @MockBean
+    private LearningStatsService learningStatsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void testGetAllSentences() throws Exception {
-        SentencePractice practice = new SentencePractice();
-        practice.setId(10L);
-        practice.setEnglishSentence("Practice sentence");
-        practice.setTurkishTranslation("Alistirma cumlesi");
-        practice.setDifficulty(SentencePractice.DifficultyLevel.MEDIUM);
-        practice.setCreatedDate(LocalDate.now());
-
-        Word word = new Word();
-        word.setId(20L);
-        word.setEnglishWord("hello");
-        word.setTurkishMeaning("merhaba");
-        word.setLearnedDate(LocalDate.now());
-
-        Sentence sentence = new Sentence();
-        sentence.setId(30L);
-        sentence.setSentence("Hello world");
-        sentence.setTranslation("Merhaba dunya");
-        sentence.setDifficulty(null); // fallback branch -> "easy"
-        sentence.setWord(word);
-
-        when(sentencePracticeService.getPracticeSentencesPage(eq(1L), eq(0), eq(100)))
-                .thenReturn(new PageImpl<>(List.of(practice), PageRequest.of(0, 100), 1));
-        when(sentenceRepository.findAllWithWordByUserId(eq(1L), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of(sentence), PageRequest.of(0, 100), 1));
+        LocalDate today = LocalDate.now();
+        SentenceFeedItem practice = new SentenceFeedItem(10L, "Practice sentence", "Alistirma cumlesi",
+                SentencePractice.DifficultyLevel.MEDIUM, today);
+        SentenceFeedItem wordSentence = new SentenceFeedItem(30L, "Hello world", "Merhaba dunya", null,
+                today, "hello", "merhaba"); // null difficulty -> "easy"
+
+        when(sentenceFeedService.getFeedPage(1L, 0, 100)).thenReturn(List.of(practice, wordSentence));
 
         mockMvc.perform(get("/api/sentences")
                 .header("X-User-Id", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value("practice_10"))
+                .andExpect(jsonPath("$[0].difficulty").value("MEDIUM"))
+                .andExpect(jsonPath("$[0].word").doesNotExist())
+                .andExpect(jsonPath("$[0].rowId").doesNotExist())
+                .andExpect(jsonPath("$[1].id").value("word_30"))
+                .andExpect(jsonPath("$[1].source").value("word"))
+                .andExpect(jsonPath("$[1].difficulty").value("easy"))
+                .andExpect(jsonPath("$[1].wordTranslation").value("merhaba"));
+    }
+
+    @Test
+    void testGetSentenceFeed_NormalizesSizeAndPassesCursorThrough() throws Exception {
+        when(sentenceFeedService.getFeedAfter(1L, "w.abc", 200))
+                .thenReturn(new CursorPage<>(List.of(), null, false));
+
+        mockMvc.perform(get("/api/sentences/feed")
+                .header("X-User-Id", "1")
+                .param("cursor", "w.abc")
+                .param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        verify(sentenceFeedService).getFeedAfter(1L, "w.abc", 200);
     }
 
     @Test
@@ -92,6 +109,7 @@ public class SentencePracticeControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(sentencePracticeService, never()).getPracticeSentencesPage(anyLong(), anyInt(), anyInt());
+        verify(sentenceFeedService, never()).getFeedPage(anyLong(), anyInt(), anyInt());
     }
 
     @Test
@@ -123,6 +141,36 @@ public class SentencePracticeControllerTest {
         verify(sentencePracticeService, never()).getPracticeSentencesPage(anyLong(), anyInt(), anyInt());
     }
 
+    @Test
+    void testGetPracticeSentencesByCursor_PassesDecodedCursorAndNormalizesSize() throws Exception {
+        KeysetCursor cursor = new KeysetCursor(LocalDate.of(2026, 2, 1), 40L);
+        SentencePractice practice = new SentencePractice();
+        practice.setId(39L);
+        practice.setEnglishSentence("Older sentence");
+        practice.setDifficulty(SentencePractice.DifficultyLevel.EASY);
+        when(sentencePracticeService.getPracticeSentencesAfter(1L, cursor, 200))
+                .thenReturn(new CursorPage<>(List.of(practice), "next-token", true));
+
+        mockMvc.perform(get("/api/sentences/practice/cursor")
+                .header("X-User-Id", "1")
+                .param("cursor", cursor.encode())
+                .param("size", "999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void testGetPracticeSentencesByCursor_RejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/sentences/practice/cursor")
+                .header("X-User-Id", "1")
+                .param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+
+        verify(sentencePracticeService, never()).getPracticeSentencesAfter(anyLong(), any(), anyInt());
+    }
+
     @Test
     void testCreateSentence() throws Exception {
         SentencePractice sp = new SentencePractice();
@@ -218,6 +266,7 @@ public class SentencePracticeControllerTest {
                 .andExpect(status().isOk());
 
         verify(sentenceRepository).delete(ownedSentence);
+        verify(learningStatsService).invalidate(1L);
     }
 
     @Test
@@ -332,17 +381,10 @@ public class SentencePracticeControllerTest {
 
     @Test
     void testGetAllSentences_WordDifficultyLowercase_WithoutWordInfo() throws Exception {
-        Sentence sentence = new Sentence();
-        sentence.setId(99L);
-        sentence.setSentence("A hard sentence");
-        sentence.setTranslation("Zor bir cumle");
-        sentence.setDifficulty("HARD");
-        sentence.setWord(null);
-
-        when(sentencePracticeService.getPracticeSentencesPage(eq(1L), eq(0), eq(100)))
-                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 100), 0));
-        when(sentenceRepository.findAllWithWordByUserId(eq(1L), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of(sentence), PageRequest.of(0, 100), 1));
+        SentenceFeedItem sentence = new SentenceFeedItem(99L, "A hard sentence", "Zor bir cumle", "HARD",
+                LocalDate.now(), null, null);
+
+        when(sentenceFeedService.getFeedPage(1L, 0, 100)).thenReturn(List.of(sentence));
 
         mockMvc.perform(get("/api/sentences")
                 .header("X-User-Id", "1"))
@@ -354,17 +396,7 @@ public class SentencePracticeControllerTest {
 
     @Test
     void testGetStatistics() throws Exception {
-        when(sentencePracticeService.getTotalSentenceCount(anyLong())).thenReturn(10L);
-        when(sentencePracticeService.getSentenceCountByDifficulty(anyLong(), eq(SentencePractice.DifficultyLevel.EASY)))
-                .thenReturn(3L);
-        when(sentencePracticeService.getSentenceCountByDifficulty(anyLong(), eq(SentencePractice.DifficultyLevel.MEDIUM)))
-                .thenReturn(4L);
-        when(sentencePracticeService.getSentenceCountByDifficulty(anyLong(), eq(SentencePractice.DifficultyLevel.HARD)))
-                .thenReturn(3L);
-        when(sentenceRepository.countByUserId(anyLong())).thenReturn(5L);
-        when(sentenceRepository.countByDifficultyAndUserId(eq("easy"), anyLong())).thenReturn(2L);
-        when(sentenceRepository.countByDifficultyAndUserId(eq("medium"), anyLong())).thenReturn(2L);
-        when(sentenceRepository.countByDifficultyAndUserId(eq("hard"), anyLong())).thenReturn(1L);
+        when(learningStatsService.sentenceStats(1L)).thenReturn(new SentenceStats(15, 5, 6, 4));
 
         mockMvc.perform(get("/api/sentences/stats")
                 .header("X-User-Id", "1"))
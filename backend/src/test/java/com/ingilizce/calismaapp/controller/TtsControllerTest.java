@@ -1,5 +1,6 @@
 package com.ingilizce.calismaapp.controller;
 
+import com.ingilizce.calismaapp.service.PiperAvailabilityMonitor;
 import com.ingilizce.calismaapp.service.PiperTtsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,13 +10,27 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,9 +49,12 @@ class TtsControllerTest {
     @MockBean
     private PiperTtsService piperTtsService;
 
+    @MockBean
+    private PiperAvailabilityMonitor piperAvailabilityMonitor;
+
     @Test
     void synthesizeReturnsBadRequestWhenTextMissing() throws Exception {
-        mockMvc.perform(post("/api/tts/synthesize")
+        perform(post("/api/tts/synthesize")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"voice\":\"amy\"}"))
                 .andExpect(status().isBadRequest())
@@ -45,9 +63,9 @@ class TtsControllerTest {
 
     @Test
     void synthesizeReturnsServiceUnavailableWhenPiperUnavailable() throws Exception {
-        when(piperTtsService.isAvailable()).thenReturn(false);
+        when(piperAvailabilityMonitor.isAvailable()).thenReturn(false);
 
-        mockMvc.perform(post("/api/tts/synthesize")
+        perform(post("/api/tts/synthesize")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"text\":\"hello\",\"voice\":\"amy\"}"))
                 .andExpect(status().isServiceUnavailable())
@@ -56,10 +74,10 @@ class TtsControllerTest {
 
     @Test
     void synthesizeReturnsAudioWhenSuccessful() throws Exception {
-        when(piperTtsService.isAvailable()).thenReturn(true);
+        when(piperAvailabilityMonitor.isAvailable()).thenReturn(true);
         when(piperTtsService.synthesizeSpeech(eq("hello world"), eq("amy"))).thenReturn("BASE64_AUDIO");
 
-        mockMvc.perform(post("/api/tts/synthesize")
+        perform(post("/api/tts/synthesize")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"text\":\"  hello world  \",\"voice\":\"amy\"}"))
                 .andExpect(status().isOk())
@@ -68,27 +86,117 @@ class TtsControllerTest {
         verify(piperTtsService).synthesizeSpeech("hello world", "amy");
     }
 
+    @Test
+    void synthesizeServesCachedAudioWithoutCheckingPiper() throws Exception {
+        when(piperTtsService.findCachedSpeech("hello", "amy")).thenReturn(Optional.of("CACHED_AUDIO"));
+
+        perform(post("/api/tts/synthesize")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"text\":\"hello\",\"voice\":\"amy\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.audio").value("CACHED_AUDIO"));
+
+        verify(piperAvailabilityMonitor, never()).isAvailable();
+        verify(piperTtsService, never()).synthesizeSpeech(anyString(), anyString());
+    }
+
     @Test
     void synthesizeReturnsInternalServerErrorWhenSynthesisFails() throws Exception {
-        when(piperTtsService.isAvailable()).thenReturn(true);
+        when(piperAvailabilityMonitor.isAvailable()).thenReturn(true);
         when(piperTtsService.synthesizeSpeech(anyString(), anyString())).thenThrow(new RuntimeException("failed"));
 
-        mockMvc.perform(post("/api/tts/synthesize")
+        perform(post("/api/tts/synthesize")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"text\":\"hello\",\"voice\":\"amy\"}"))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.error").value("Failed to synthesize: failed"));
     }
 
+    @Test
+    void audioReturnsWavWithETag_AndHonoursRangeAndIfNoneMatch() throws Exception {
+        when(piperTtsService.getAudioETag("hello", "amy")).thenReturn("abc123");
+        when(piperTtsService.findCachedAudio("hello", "amy")).thenReturn(Optional.of(new byte[] { 1, 2, 3, 4 }));
+
+        perform(get("/api/tts/audio").param("text", " hello ").param("voice", "amy"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("audio/wav"))
+                .andExpect(header().string("ETag", "W/\"abc123\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().bytes(new byte[] { 1, 2, 3, 4 }));
+
+        perform(get("/api/tts/audio").param("text", "hello").param("voice", "amy").header("Range", "bytes=1-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1-2/4"))
+                .andExpect(content().bytes(new byte[] { 2, 3 }));
+
+        perform(get("/api/tts/audio").param("text", "hello").param("voice", "amy").header("Range", "bytes=9-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */4"));
+
+        perform(get("/api/tts/audio").param("text", "hello").param("voice", "amy")
+                .header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified());
+
+        perform(get("/api/tts/audio").param("text", "hello").param("voice", "amy")
+                .header("If-None-Match", "W/\"abc123\""))
+                .andExpect(status().isNotModified());
+
+        // If-Range needs a strong validator; the whole clip is sent instead of a slice.
+        perform(get("/api/tts/audio").param("text", "hello").param("voice", "amy")
+                .header("Range", "bytes=1-2").header("If-Range", "W/\"abc123\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[] { 1, 2, 3, 4 }));
+
+        verify(piperAvailabilityMonitor, never()).isAvailable();
+        verify(piperTtsService, never()).synthesizeAudio(anyString(), anyString());
+    }
+
+    @Test
+    void audioStreamsFromPiperOnCacheMiss() throws Exception {
+        when(piperTtsService.getAudioETag("hello", null)).thenReturn("abc123");
+        when(piperAvailabilityMonitor.isAvailable()).thenReturn(true);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write(new byte[] { 9, 8, 7 });
+            return null;
+        }).when(piperTtsService).streamSpeech(eq("hello"), isNull(), any(OutputStream.class));
+
+        perform(get("/api/tts/audio").param("text", "hello"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"abc123\""))
+                .andExpect(content().bytes(new byte[] { 9, 8, 7 }));
+
+        // A Range on a miss cannot refer to this render, so it is streamed whole as well.
+        perform(get("/api/tts/audio").param("text", "hello").header("Range", "bytes=1-"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Range"))
+                .andExpect(content().bytes(new byte[] { 9, 8, 7 }));
+
+        verify(piperTtsService, never()).synthesizeAudio(anyString(), any());
+    }
+
     @Test
     void getStatusReturnsAvailabilityAndVoices() throws Exception {
-        when(piperTtsService.isAvailable()).thenReturn(true);
-        when(piperTtsService.getSupportedVoices()).thenReturn(new String[] { "default", "ryan" });
+        when(piperAvailabilityMonitor.getSnapshot())
+                .thenReturn(new PiperAvailabilityMonitor.Snapshot(true, List.of("default", "ryan"), 0L));
 
-        mockMvc.perform(get("/api/tts/status"))
+        perform(get("/api/tts/status"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.available").value(true))
                 .andExpect(jsonPath("$.voices[0]").value("default"))
                 .andExpect(jsonPath("$.voices[1]").value("ryan"));
+
+        // Served from the cached snapshot; the request never forks Piper.
+        verify(piperTtsService, never()).isAvailable();
+        verify(piperTtsService, never()).getSupportedVoices();
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions actions = mockMvc.perform(requestBuilder);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
     }
 }
@@ -1,6 +1,8 @@
 package com.ingilizce.calismaapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.WordSummary;
 import com.ingilizce.calismaapp.entity.Sentence;
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.service.WordService;
@@ -92,6 +94,39 @@ public class WordControllerTest {
                 verify(wordService).getWordsPage(1L, 0, 200);
         }
 
+        @Test
+        void testGetWordsByCursor_FirstPageHasNoCursor() throws Exception {
+                when(wordService.getWordsAfter(1L, null, 50))
+                                .thenReturn(new CursorPage<>(List.of(), null, false));
+
+                mockMvc.perform(get("/api/words/cursor")
+                                .header("X-User-Id", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.hasMore").value(false))
+                                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+                verify(wordService).getWordsAfter(1L, null, 50);
+        }
+
+        @Test
+        void testGetWordSummaries_ReturnsCountsAndNormalizesPaging() throws Exception {
+                WordSummary summary = new WordSummary(3L, "apple", "elma", LocalDate.of(2026, 1, 2), null,
+                                "easy", null, 0, 2.5, null, 4L);
+                when(wordService.getWordSummariesPage(1L, 0, 200))
+                                .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 200), 1));
+
+                mockMvc.perform(get("/api/words/summaries")
+                                .header("X-User-Id", "1")
+                                .param("page", "-1")
+                                .param("size", "500"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].englishWord").value("apple"))
+                                .andExpect(jsonPath("$.content[0].sentenceCount").value(4))
+                                .andExpect(jsonPath("$.content[0].sentences").doesNotExist());
+
+                verify(wordService).getWordSummariesPage(1L, 0, 200);
+        }
+
         @Test
         void testCreateWord() throws Exception {
                 Word word = new Word();
@@ -128,7 +163,7 @@ public class WordControllerTest {
                 word.setId(5L);
                 word.setEnglishWord("House");
 
-                when(wordService.getWordByIdAndUser(5L, 1L)).thenReturn(Optional.of(word));
+                when(wordService.getWordDetail(5L, 1L)).thenReturn(Optional.of(word));
 
                 mockMvc.perform(get("/api/words/5").header("X-User-Id", "1"))
                                 .andExpect(status().isOk())
@@ -138,7 +173,7 @@ public class WordControllerTest {
 
         @Test
         void testGetWordByIdNotFound() throws Exception {
-                when(wordService.getWordByIdAndUser(99L, 1L)).thenReturn(Optional.empty());
+                when(wordService.getWordDetail(99L, 1L)).thenReturn(Optional.empty());
 
                 mockMvc.perform(get("/api/words/99").header("X-User-Id", "1"))
                                 .andExpect(status().isNotFound());
@@ -154,7 +189,7 @@ public class WordControllerTest {
                 sentence.setWord(word);
                 word.setSentences(List.of(sentence));
 
-                when(wordService.getWordByIdAndUser(7L, 1L)).thenReturn(Optional.of(word));
+                when(wordService.getWordDetail(7L, 1L)).thenReturn(Optional.of(word));
 
                 mockMvc.perform(get("/api/words/7/sentences").header("X-User-Id", "1"))
                                 .andExpect(status().isOk())
@@ -164,7 +199,7 @@ public class WordControllerTest {
 
         @Test
         void testGetWordSentencesNotFound() throws Exception {
-                when(wordService.getWordByIdAndUser(8L, 1L)).thenReturn(Optional.empty());
+                when(wordService.getWordDetail(8L, 1L)).thenReturn(Optional.empty());
 
                 mockMvc.perform(get("/api/words/8/sentences").header("X-User-Id", "1"))
                                 .andExpect(status().isNotFound());
@@ -0,0 +1,47 @@
+package com.ingilizce.calismaapp.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_ShouldRoundTripThroughOpaqueUrlSafeToken() {
+        KeysetCursor cursor = new KeysetCursor(LocalDate.of(2026, 3, 14), 12345L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("2026"));
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, KeysetCursor.decode(token));
+    }
+
+    @Test
+    void decode_ShouldTreatBlankAsFirstPage_AndRejectGarbage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("aGVsbG8"));
+    }
+
+    @Test
+    void cursorPage_ShouldDropProbeRow_AndPointAtLastReturnedRow() {
+        List<KeysetCursor> rows = List.of(
+                new KeysetCursor(LocalDate.of(2026, 1, 3), 3),
+                new KeysetCursor(LocalDate.of(2026, 1, 2), 2),
+                new KeysetCursor(LocalDate.of(2026, 1, 1), 1));
+
+        CursorPage<KeysetCursor> page = CursorPage.of(rows, 2, row -> row);
+        CursorPage<KeysetCursor> last = CursorPage.of(rows, 3, row -> row);
+
+        assertEquals(2, page.items().size());
+        assertTrue(page.hasMore());
+        assertEquals(rows.get(1), KeysetCursor.decode(page.nextCursor()));
+        assertFalse(last.hasMore());
+        assertNull(last.nextCursor());
+    }
+}
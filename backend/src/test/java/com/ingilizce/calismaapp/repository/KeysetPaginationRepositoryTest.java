@@ -0,0 +1,148 @@
+package com.ingilizce.calismaapp.repository;
+
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.KeysetCursor;
+import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.entity.SentencePractice;
+import com.ingilizce.calismaapp.entity.Word;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class KeysetPaginationRepositoryTest {
+
+    private static final Long USER_ID = 7L;
+    private static final int ROWS = 23;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Autowired
+    private SentencePracticeRepository sentencePracticeRepository;
+
+    @Autowired
+    private SentenceRepository sentenceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            // Several rows per date so the id tie-breaker is exercised.
+            LocalDate date = start.plusDays(i / 4);
+            Word word = new Word("word" + i, "kelime" + i, date);
+            word.setUserId(USER_ID);
+            entityManager.persist(word);
+            entityManager.persist(new Sentence("sentence " + i, "cümle", "easy", word));
+
+            SentencePractice practice = new SentencePractice("practice " + i, "pratik",
+                    SentencePractice.DifficultyLevel.EASY);
+            practice.setUserId(USER_ID);
+            practice.setCreatedDate(date);
+            entityManager.persist(practice);
+        }
+        Word otherUsers = new Word("other", "diğer", start);
+        otherUsers.setUserId(USER_ID + 1);
+        entityManager.persist(otherUsers);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void words_ShouldWalkEveryRowOnceNewestFirst_WithConstantStatementsPerPage() {
+        // Page select plus one batched load of the eager sentences.
+        List<Word> walked = walk(2,
+                limit -> wordRepository.findFirstKeysetPage(USER_ID, limit),
+                (cursor, limit) -> wordRepository.findKeysetPageBefore(USER_ID, cursor.date(), cursor.id(), limit),
+                word -> new KeysetCursor(word.getLearnedDate(), word.getId()));
+
+        assertOrderedAndComplete(walked.stream().map(word -> new KeysetCursor(word.getLearnedDate(), word.getId()))
+                .toList());
+    }
+
+    @Test
+    void practiceSentences_ShouldWalkEveryRowOnceNewestFirst_WithOneStatementPerPage() {
+        List<SentencePractice> walked = walk(1,
+                limit -> sentencePracticeRepository.findFirstKeysetPage(USER_ID, limit),
+                (cursor, limit) -> sentencePracticeRepository.findKeysetPageBefore(USER_ID, cursor.date(),
+                        cursor.id(), limit),
+                sp -> new KeysetCursor(sp.getCreatedDate(), sp.getId()));
+
+        assertOrderedAndComplete(walked.stream().map(sp -> new KeysetCursor(sp.getCreatedDate(), sp.getId()))
+                .toList());
+    }
+
+    @Test
+    void wordSentences_ShouldWalkEveryRowOnceByDescendingId() {
+        // The fetched words' eager sentence lists are batch-loaded once per page.
+        List<Sentence> walked = walk(2,
+                limit -> sentenceRepository.findFirstKeysetPageWithWord(USER_ID, limit),
+                (cursor, limit) -> sentenceRepository.findKeysetPageWithWordBefore(USER_ID, cursor.id(), limit),
+                s -> new KeysetCursor(s.getWord().getLearnedDate(), s.getId()));
+
+        assertEquals(ROWS, walked.size());
+        for (int i = 1; i < walked.size(); i++) {
+            assertTrue(walked.get(i).getId() < walked.get(i - 1).getId(), "out of order at " + i);
+        }
+    }
+
+    private <T> List<T> walk(int statementsPerPage, Function<Limit, List<T>> first,
+                             BiFunction<KeysetCursor, Limit, List<T>> next,
+                             Function<T, KeysetCursor> keyOf) {
+        List<T> walked = new ArrayList<>();
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        CursorPage<T> page = CursorPage.of(first.apply(limit), PAGE_SIZE, keyOf);
+        int pages = 1;
+        walked.addAll(page.items());
+        while (page.hasMore()) {
+            page = CursorPage.of(next.apply(KeysetCursor.decode(page.nextCursor()), limit), PAGE_SIZE, keyOf);
+            walked.addAll(page.items());
+            pages++;
+            assertTrue(page.items().size() <= PAGE_SIZE);
+        }
+        assertEquals((ROWS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+        // No count query, and the cost of a page does not grow with its depth.
+        assertEquals((long) pages * statementsPerPage, statistics.getPrepareStatementCount());
+        return walked;
+    }
+
+    private static void assertOrderedAndComplete(List<KeysetCursor> keys) {
+        assertEquals(ROWS, keys.size());
+        assertEquals(ROWS, keys.stream().map(KeysetCursor::id).distinct().count());
+        for (int i = 1; i < keys.size(); i++) {
+            KeysetCursor previous = keys.get(i - 1);
+            KeysetCursor current = keys.get(i);
+            int byDate = current.date().compareTo(previous.date());
+            assertTrue(byDate < 0 || (byDate == 0 && current.id() < previous.id()),
+                    "out of order at " + i + ": " + previous + " then " + current);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ingilizce.calismaapp.repository;
+
+import com.ingilizce.calismaapp.dto.WordSummary;
+import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.entity.Word;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class WordRepositoryStatementCountTest {
+
+    private static final Long USER_ID = 42L;
+    private static final int WORDS = 200;
+    private static final int SENTENCES_PER_WORD = 3;
+
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long firstWordId;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < WORDS; i++) {
+            Word word = new Word("word" + i, "kelime" + i, start.plusDays(i % 30));
+            word.setUserId(USER_ID);
+            if (i % 4 == 0) {
+                // Every fourth word is scheduled, one day apart: 50 scheduled words in total.
+                word.setNextReviewDate(start.plusDays(i));
+            }
+            entityManager.persist(word);
+            for (int j = 0; j < SENTENCES_PER_WORD; j++) {
+                entityManager.persist(new Sentence("sentence " + i + "-" + j, "cümle", "easy", word));
+            }
+            if (firstWordId == null) {
+                firstWordId = word.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryPage_ShouldUseSameStatementCount_RegardlessOfPageSize() {
+        Page<WordSummary> small = wordRepository.findSummariesByUserId(USER_ID, PageRequest.of(0, 10));
+        long smallStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        Page<WordSummary> full = wordRepository.findSummariesByUserId(USER_ID, PageRequest.of(0, WORDS));
+        long fullStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(10, small.getNumberOfElements());
+        assertEquals(WORDS, full.getNumberOfElements());
+        assertEquals(WORDS, small.getTotalElements());
+        assertTrue(full.getContent().stream().allMatch(summary -> summary.sentenceCount() == SENTENCES_PER_WORD));
+        // Page query plus count query, whatever the page size: sentences are counted in SQL.
+        assertEquals(2, smallStatements);
+        assertEquals(smallStatements, fullStatements);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void entityPage_ShouldBatchSentenceLoads_InsteadOfOneSelectPerWord() {
+        Page<Word> page = wordRepository.findByUserId(USER_ID, PageRequest.of(0, WORDS));
+        page.getContent().forEach(word -> assertEquals(SENTENCES_PER_WORD, word.getSentences().size()));
+
+        // Words + count + ceil(200 / 100) batched sentence selects, not 200 per-word selects.
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void detail_ShouldFetchWordAndSentencesInOneStatement() {
+        Word word = wordRepository.findWithSentencesByIdAndUserId(firstWordId, USER_ID).orElseThrow();
+
+        assertEquals(SENTENCES_PER_WORD, word.getSentences().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(wordRepository.findWithSentencesByIdAndUserId(firstWordId, USER_ID + 1).isEmpty());
+    }
+
+    @Test
+    void dueSummaries_ShouldBeOneStatement() {
+        // Words 0, 4, ..., 96 are due by day 99; 100 onwards and unscheduled words are not.
+        List<WordSummary> due = wordRepository.findDueSummariesByUserId(USER_ID,
+                LocalDate.of(2026, 1, 1).plusDays(99));
+
+        assertEquals(25, due.size());
+        assertTrue(due.stream().allMatch(summary -> summary.sentenceCount() == SENTENCES_PER_WORD));
+        assertEquals("word0", due.get(0).englishWord());
+        assertEquals("word96", due.get(24).englishWord());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
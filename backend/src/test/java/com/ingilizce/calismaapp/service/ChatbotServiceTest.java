@@ -1,20 +1,28 @@
 package com.ingilizce.calismaapp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,7 +36,7 @@ class ChatbotServiceTest {
 
     @BeforeEach
     void setUp() {
-        chatbotService = new ChatbotService(groqService);
+        chatbotService = new ChatbotService(groqService, null, null, new ObjectMapper(), null);
     }
 
     @Test
@@ -123,4 +131,25 @@ class ChatbotServiceTest {
         List<Map<String, String>> messages = messagesCaptor.getValue();
         assertEquals("my answer Return ONLY JSON.", messages.get(1).get("content"));
     }
+
+    @Test
+    void checkTranslation_ShouldServeRepeatedAnswerFromResultCache() {
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        ChatbotService cachedService = new ChatbotService(groqService, null,
+                new PromptResultCache(redisTemplate, null), new ObjectMapper(), null);
+        when(groqService.chatCompletion(anyList(), anyBoolean())).thenReturn("{\"isCorrect\":true}");
+
+        assertEquals("{\"isCorrect\":true}", cachedService.checkTranslation("English sentence: Hi."));
+        String key = PromptResultCache.keyFor(PromptCatalog.checkTranslation().id(),
+                PromptCatalog.checkTranslation().version(), List.of("English sentence:  Hi. "));
+        verify(valueOperations).set(eq(key), eq("{\"isCorrect\":true}"), any(Duration.class));
+
+        when(valueOperations.get(key)).thenReturn("{\"isCorrect\":true}");
+        assertEquals("{\"isCorrect\":true}", cachedService.checkTranslation("English sentence:  Hi. "));
+        verify(groqService, times(1)).chatCompletion(anyList(), anyBoolean());
+    }
 }
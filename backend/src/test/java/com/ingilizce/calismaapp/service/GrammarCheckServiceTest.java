@@ -1,15 +1,19 @@
 package com.ingilizce.calismaapp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,17 +28,13 @@ class GrammarCheckServiceTest {
     @Mock
     private GroqService groqService;
 
-    // We don't need to mock ObjectMapper, it's a real object initialized in
-    // constructor.
-    // But since it is instantiated inside constructor of Service, we can't easily
-    // replace it if we wanted to.
-    // However, InjectMocks will try to constructor inject GroqService.
-    // The real ObjectMapper will be created. That is fine.
-
-    // NOTE: InjectMocks uses the constructor that takes GroqService.
-    @InjectMocks
     private GrammarCheckService grammarCheckService;
 
+    @BeforeEach
+    void setUp() {
+        grammarCheckService = new GrammarCheckService(groqService, null, null, null, new ObjectMapper(), null);
+    }
+
     @Test
     void checkGrammar_ShouldReturnErrors_WhenGrammarIsIncorrect() {
         // Mock Response JSON String
@@ -150,6 +150,79 @@ class GrammarCheckServiceTest {
         assertTrue(results.isEmpty());
     }
 
+    @Test
+    void checkBatch_ShouldPackSentencesIntoOnePrompt_AndRetryMissingOnesSingly() {
+        String batchJson = "{\"results\":[" +
+                "{\"index\":0,\"hasErrors\":true,\"errorCount\":1,\"errors\":[{\"message\":\"Verb\"}]}," +
+                "{\"index\":7,\"hasErrors\":false,\"errorCount\":0,\"errors\":[]}" +
+                "]}";
+        String singleJson = "{\"hasErrors\":false,\"errorCount\":0,\"errors\":[]}";
+        when(groqService.chatCompletion(anyList(), eq(true)))
+                .thenReturn(batchJson)
+                .thenReturn(singleJson);
+
+        GrammarCheckService.BatchResult batch = grammarCheckService.checkBatch(
+                List.of("I goes home.", "She plays.", "I goes home.", " "));
+
+        assertEquals(4, batch.results().size());
+        assertEquals(2, batch.promptCount());
+        assertEquals(true, batch.results().get(0).result().get("hasErrors"));
+        assertFalse(batch.results().get(0).result().containsKey("index"));
+        assertEquals(false, batch.results().get(1).result().get("hasErrors"));
+        assertSame(batch.results().get(0), batch.results().get(2));
+        assertEquals(false, batch.results().get(3).result().get("hasErrors"));
+        verify(groqService, times(2)).chatCompletion(anyList(), eq(true));
+    }
+
+    @Test
+    void checkBatch_ShouldReportPerSentenceFailures_WithoutFailingTheBatch() {
+        String singleJson = "{\"hasErrors\":false,\"errorCount\":0,\"errors\":[]}";
+        when(groqService.chatCompletion(anyList(), eq(true)))
+                .thenThrow(new RuntimeException("batch timeout"))
+                .thenReturn(singleJson)
+                .thenThrow(new RuntimeException("API Error"));
+
+        GrammarCheckService.BatchResult batch = grammarCheckService.checkBatch(List.of("S1", "S2"));
+
+        assertFalse(batch.results().get(0).isFailed());
+        assertTrue(batch.results().get(1).isFailed());
+        assertTrue(batch.results().get(1).error().contains("API Error"));
+        assertEquals(Map.of(), grammarCheckService.checkMultipleSentences(List.of()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkGrammar_ShouldNotShareCachedOffsets_BetweenWhitespaceVariants() {
+        Map<String, String> store = new HashMap<>();
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> store.get(invocation.getArgument(0)));
+        doAnswer(invocation -> store.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        GrammarCheckService cached = new GrammarCheckService(groqService, null,
+                new PromptResultCache(redisTemplate, null), null, new ObjectMapper(), null);
+        // "has" sits at 2-5 in the first sentence and at 3-6 once the double space shifts it.
+        when(groqService.chatCompletion(anyList(), eq(true))).thenReturn(
+                "{\"hasErrors\":true,\"errorCount\":1,\"errors\":[{\"fromPos\":2,\"toPos\":5}]}",
+                "{\"hasErrors\":true,\"errorCount\":1,\"errors\":[{\"fromPos\":3,\"toPos\":6}]}");
+
+        Map<String, Object> single = cached.checkGrammar("I has a cat");
+        Map<String, Object> doubled = cached.checkGrammar("I  has a cat");
+        Map<String, Object> again = cached.checkGrammar("I has a cat");
+
+        assertEquals(List.of(2, 5), offsets(single));
+        assertEquals(List.of(3, 6), offsets(doubled));
+        assertEquals(List.of(2, 5), offsets(again));
+        verify(groqService, times(2)).chatCompletion(anyList(), eq(true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> offsets(Map<String, Object> result) {
+        Map<String, Object> error = ((List<Map<String, Object>>) result.get("errors")).get(0);
+        return List.of(error.get("fromPos"), error.get("toPos"));
+    }
+
     @Test
     void isEnabled_ShouldReflectSetEnabledValue() {
         grammarCheckService.setEnabled(true);
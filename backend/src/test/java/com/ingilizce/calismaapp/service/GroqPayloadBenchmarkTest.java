@@ -0,0 +1,88 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ingilizce.calismaapp.dto.ChatCompletionRequest;
+import com.ingilizce.calismaapp.dto.ChatCompletionResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Allocation per Groq call for the request/response (de)serialization in
+ * {@link GroqService}: nested HashMaps and raw Map casts against the typed records
+ * bound through prebuilt readers and writers, measured with {@link Microbenchmark};
+ * opt in with {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class GroqPayloadBenchmarkTest {
+
+    private static final List<Map<String, String>> MESSAGES = List.of(
+            Map.of("role", "system", "content", "You are an English teacher. Reply with JSON only."),
+            Map.of("role", "user", "content", "Target word: 'apple'. Return ONLY pure, minified JSON."));
+    private static final String RESPONSE = """
+            {"id":"chatcmpl-9b1","object":"chat.completion","created":1718000000,"model":"llama-3.3-70b-versatile",\
+            "choices":[{"index":0,"message":{"role":"assistant","content":"{\\"sentences\\":[{\\"englishSentence\\":\
+            \\"I ate an apple.\\",\\"turkishTranslation\\":\\"elma\\"}]}"},"logprobs":null,"finish_reason":"stop"}],\
+            "usage":{"queue_time":0.02,"prompt_tokens":180,"prompt_time":0.01,"completion_tokens":60,\
+            "completion_time":0.2,"total_tokens":240,"total_time":0.21},\
+            "system_fingerprint":"fp_abc","x_groq":{"id":"req_01"}}""";
+
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+    private final ObjectWriter requestWriter = sharedMapper.writerFor(ChatCompletionRequest.class);
+    private final ObjectReader responseReader = sharedMapper.readerFor(ChatCompletionResponse.class);
+
+    @Test
+    void compareBindings() {
+        assertEquals(legacy(), typed());
+
+        Microbenchmark.report("legacy (HashMap body + Map casts)", this::legacy, String::length);
+        Microbenchmark.report("typed records (shared reader/writer)", this::typed, String::length);
+    }
+
+    // The pre-record path: GroqService.buildRequestBody + extractContent.
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private String legacy() {
+        try {
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("model", "llama-3.3-70b-versatile");
+            requestBody.put("messages", MESSAGES);
+            requestBody.put("temperature", 0.7);
+            Map<String, String> responseFormat = new HashMap<>();
+            responseFormat.put("type", "json_object");
+            requestBody.put("response_format", responseFormat);
+            byte[] payload = legacyMapper.writeValueAsBytes(requestBody);
+
+            Map body = legacyMapper.readValue(RESPONSE, Map.class);
+            List choices = (List) body.get("choices");
+            Map message = (Map) ((Map) choices.get(0)).get("message");
+            return payload.length + (String) message.get("content");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String typed() {
+        try {
+            List<ChatCompletionRequest.Message> messages = new ArrayList<>(MESSAGES.size());
+            for (Map<String, String> message : MESSAGES) {
+                messages.add(new ChatCompletionRequest.Message(message.get("role"), message.get("content")));
+            }
+            byte[] payload = requestWriter.writeValueAsBytes(new ChatCompletionRequest("llama-3.3-70b-versatile",
+                    messages, 0.7, ChatCompletionRequest.JSON_OBJECT, null));
+
+            ChatCompletionResponse body = responseReader.readValue(RESPONSE);
+            return payload.length + body.messageContent();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.ingilizce.calismaapp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.ChatCompletionRequest;
+import com.ingilizce.calismaapp.dto.ChatCompletionResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,23 +11,37 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,7 +57,7 @@ class GroqServiceTest {
 
     @BeforeEach
     void setUp() {
-        groqService = new GroqService(false);
+        groqService = new GroqService(false, new ObjectMapper());
         ReflectionTestUtils.setField(groqService, "apiKey", "test-api-key");
         ReflectionTestUtils.setField(groqService, "apiUrl", "http://api.groq.com/test");
         ReflectionTestUtils.setField(groqService, "model", "llama3-8b");
@@ -56,21 +73,11 @@ class GroqServiceTest {
     @Test
     void chatCompletion_ShouldReturnContent_WhenResponseIsSuccessful() {
         // Prepare Mock Response
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("content", "Hello AI");
+        ChatCompletionResponse body = completion("Hello AI");
 
-        Map<String, Object> choiceMap = new HashMap<>();
-        choiceMap.put("message", messageMap);
+        ResponseEntity<ChatCompletionResponse> responseEntity = new ResponseEntity<>(body, HttpStatus.OK);
 
-        List<Map<String, Object>> choices = new ArrayList<>();
-        choices.add(choiceMap);
-
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", choices);
-
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(bodyMap, HttpStatus.OK);
-
-        when(restTemplate.postForEntity(eq("http://api.groq.com/test"), any(HttpEntity.class), eq(Map.class)))
+        when(restTemplate.postForEntity(eq("http://api.groq.com/test"), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
                 .thenReturn(responseEntity);
 
         // Call method
@@ -83,12 +90,12 @@ class GroqServiceTest {
         String result = groqService.chatCompletion(messages, false);
 
         assertEquals("Hello AI", result);
-        verify(restTemplate).postForEntity(eq("http://api.groq.com/test"), any(HttpEntity.class), eq(Map.class));
+        verify(restTemplate).postForEntity(eq("http://api.groq.com/test"), any(HttpEntity.class), eq(ChatCompletionResponse.class));
     }
 
     @Test
     void chatCompletion_ShouldThrowException_WhenApiFails() {
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
                 .thenThrow(new RuntimeException("Connection Refused"));
 
         List<Map<String, String>> messages = new ArrayList<>();
@@ -98,8 +105,8 @@ class GroqServiceTest {
 
     @Test
     void chatCompletion_ShouldReturnNull_WhenResponseBodyIsNull() {
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(null, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenReturn(responseEntity);
+        ResponseEntity<ChatCompletionResponse> responseEntity = new ResponseEntity<>(null, HttpStatus.OK);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenReturn(responseEntity);
 
         String result = groqService.chatCompletion(new ArrayList<>(), false);
 
@@ -108,8 +115,9 @@ class GroqServiceTest {
 
     @Test
     void chatCompletion_ShouldReturnNull_WhenStatusIsNot2xx() {
-        ResponseEntity<Map> responseEntity = new ResponseEntity<>(new HashMap<>(), HttpStatus.BAD_REQUEST);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenReturn(responseEntity);
+        ResponseEntity<ChatCompletionResponse> responseEntity = new ResponseEntity<>(
+                new ChatCompletionResponse(null, null), HttpStatus.BAD_REQUEST);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenReturn(responseEntity);
 
         String result = groqService.chatCompletion(new ArrayList<>(), false);
 
@@ -118,16 +126,15 @@ class GroqServiceTest {
 
     @Test
     void chatCompletion_ShouldReturnNull_WhenChoicesMissingOrEmpty() {
-        Map<String, Object> noChoices = new HashMap<>();
-        ResponseEntity<Map> response1 = new ResponseEntity<>(noChoices, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenReturn(response1);
+        ChatCompletionResponse noChoices = new ChatCompletionResponse(null, null);
+        ResponseEntity<ChatCompletionResponse> response1 = new ResponseEntity<>(noChoices, HttpStatus.OK);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenReturn(response1);
 
         assertNull(groqService.chatCompletion(new ArrayList<>(), false));
 
-        Map<String, Object> emptyChoices = new HashMap<>();
-        emptyChoices.put("choices", new ArrayList<>());
-        ResponseEntity<Map> response2 = new ResponseEntity<>(emptyChoices, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenReturn(response2);
+        ChatCompletionResponse emptyChoices = new ChatCompletionResponse(new ArrayList<>(), null);
+        ResponseEntity<ChatCompletionResponse> response2 = new ResponseEntity<>(emptyChoices, HttpStatus.OK);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenReturn(response2);
 
         assertNull(groqService.chatCompletion(new ArrayList<>(), false));
     }
@@ -140,7 +147,7 @@ class GroqServiceTest {
                 HttpHeaders.EMPTY,
                 "{\"error\":\"invalid\"}".getBytes(),
                 null);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenThrow(ex);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenThrow(ex);
 
         RuntimeException thrown = assertThrows(RuntimeException.class,
                 () -> groqService.chatCompletion(new ArrayList<>(), true));
@@ -155,7 +162,7 @@ class GroqServiceTest {
                 HttpHeaders.EMPTY,
                 "{\"error\":\"server\"}".getBytes(),
                 null);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenThrow(ex);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenThrow(ex);
 
         RuntimeException thrown = assertThrows(RuntimeException.class,
                 () -> groqService.chatCompletion(new ArrayList<>(), false));
@@ -171,22 +178,17 @@ class GroqServiceTest {
                 "{\"error\":\"upstream\"}".getBytes(),
                 null);
 
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("content", "ok-after-retry");
-        Map<String, Object> choiceMap = new HashMap<>();
-        choiceMap.put("message", messageMap);
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", List.of(choiceMap));
-        ResponseEntity<Map> success = new ResponseEntity<>(bodyMap, HttpStatus.OK);
+        ChatCompletionResponse body = completion("ok-after-retry");
+        ResponseEntity<ChatCompletionResponse> success = new ResponseEntity<>(body, HttpStatus.OK);
 
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
                 .thenThrow(ex)
                 .thenReturn(success);
 
         String result = groqService.chatCompletion(List.of(Map.of("role", "user", "content", "ping")), false);
 
         assertEquals("ok-after-retry", result);
-        verify(restTemplate, times(2)).postForEntity(anyString(), any(HttpEntity.class), eq(Map.class));
+        verify(restTemplate, times(2)).postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class));
     }
 
     @Test
@@ -201,7 +203,7 @@ class GroqServiceTest {
                 HttpHeaders.EMPTY,
                 "{\"error\":\"down\"}".getBytes(),
                 null);
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class))).thenThrow(ex);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class))).thenThrow(ex);
 
         assertThrows(RuntimeException.class, () -> groqService.chatCompletion(new ArrayList<>(), false));
 
@@ -209,25 +211,20 @@ class GroqServiceTest {
                 () -> groqService.chatCompletion(new ArrayList<>(), false));
         assertTrue(second.getMessage().contains("circuit is open"));
 
-        verify(restTemplate, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(Map.class));
+        verify(restTemplate, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class));
     }
 
     @Test
     void constructor_ShouldCreateService_WhenInsecureSslEnabled() {
-        GroqService insecure = new GroqService(true);
+        GroqService insecure = new GroqService(true, new ObjectMapper());
         assertNotNull(insecure);
     }
 
     @Test
     void chatCompletion_ShouldIncludeJsonResponseFormatAndHeaders_WhenJsonModeEnabled() {
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("content", "{\"ok\":true}");
-        Map<String, Object> choiceMap = new HashMap<>();
-        choiceMap.put("message", messageMap);
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", List.of(choiceMap));
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
-                .thenReturn(new ResponseEntity<>(bodyMap, HttpStatus.OK));
+        ChatCompletionResponse body = completion("{\"ok\":true}");
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
 
         List<Map<String, String>> messages = List.of(Map.of("role", "user", "content", "hello"));
         String result = groqService.chatCompletion(messages, true);
@@ -235,48 +232,40 @@ class GroqServiceTest {
         assertEquals("{\"ok\":true}", result);
 
         ArgumentCaptor<HttpEntity> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
-        verify(restTemplate).postForEntity(eq("http://api.groq.com/test"), entityCaptor.capture(), eq(Map.class));
+        verify(restTemplate).postForEntity(eq("http://api.groq.com/test"), entityCaptor.capture(), eq(ChatCompletionResponse.class));
 
         HttpEntity entity = entityCaptor.getValue();
         HttpHeaders headers = entity.getHeaders();
         assertEquals("Bearer test-api-key", headers.getFirst("Authorization"));
         assertEquals("application/json", headers.getContentType().toString());
 
-        Map<String, Object> requestBody = (Map<String, Object>) entity.getBody();
-        assertEquals("llama3-8b", requestBody.get("model"));
-        assertEquals(messages, requestBody.get("messages"));
-        assertEquals(0.7, requestBody.get("temperature"));
-        assertTrue(requestBody.containsKey("response_format"));
+        ChatCompletionRequest requestBody = (ChatCompletionRequest) entity.getBody();
+        assertEquals("llama3-8b", requestBody.model());
+        assertEquals(List.of(new ChatCompletionRequest.Message("user", "hello")), requestBody.messages());
+        assertEquals(0.7, requestBody.temperature());
+        assertEquals("json_object", requestBody.responseFormat().type());
+        assertNull(requestBody.stream());
     }
 
     @Test
     void chatCompletion_ShouldNotIncludeResponseFormat_WhenJsonModeDisabled() {
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("content", "plain text");
-        Map<String, Object> choiceMap = new HashMap<>();
-        choiceMap.put("message", messageMap);
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", List.of(choiceMap));
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
-                .thenReturn(new ResponseEntity<>(bodyMap, HttpStatus.OK));
+        ChatCompletionResponse body = completion("plain text");
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
 
         groqService.chatCompletion(List.of(Map.of("role", "user", "content", "hello")), false);
 
         ArgumentCaptor<HttpEntity> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
-        verify(restTemplate).postForEntity(eq("http://api.groq.com/test"), entityCaptor.capture(), eq(Map.class));
-        Map<String, Object> requestBody = (Map<String, Object>) entityCaptor.getValue().getBody();
-        assertFalse(requestBody.containsKey("response_format"));
+        verify(restTemplate).postForEntity(eq("http://api.groq.com/test"), entityCaptor.capture(), eq(ChatCompletionResponse.class));
+        ChatCompletionRequest requestBody = (ChatCompletionRequest) entityCaptor.getValue().getBody();
+        assertNull(requestBody.responseFormat());
     }
 
     @Test
     void chatCompletion_ShouldReturnNull_WhenMessageContentIsMissing() {
-        Map<String, Object> messageMap = new HashMap<>();
-        Map<String, Object> choiceMap = new HashMap<>();
-        choiceMap.put("message", messageMap);
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", List.of(choiceMap));
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
-                .thenReturn(new ResponseEntity<>(bodyMap, HttpStatus.OK));
+        ChatCompletionResponse body = completion(null);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
 
         String result = groqService.chatCompletion(new ArrayList<>(), false);
 
@@ -285,10 +274,10 @@ class GroqServiceTest {
 
     @Test
     void chatCompletion_ShouldWrapException_WhenResponseBodyShapeIsInvalid() {
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", List.of("not-a-map"));
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
-                .thenReturn(new ResponseEntity<>(bodyMap, HttpStatus.OK));
+        // A body that does not bind fails inside RestTemplate's message converter.
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
+                .thenThrow(new RestClientException("Error while extracting response",
+                        new HttpMessageNotReadableException("Cannot deserialize choices", (HttpInputMessage) null)));
 
         RuntimeException thrown = assertThrows(RuntimeException.class,
                 () -> groqService.chatCompletion(new ArrayList<>(), false));
@@ -297,7 +286,7 @@ class GroqServiceTest {
 
     @Test
     void insecureConstructor_ShouldCreateHttpsRequestFactoryConnection() throws Exception {
-        GroqService insecure = new GroqService(true);
+        GroqService insecure = new GroqService(true, new ObjectMapper());
         RestTemplate realTemplate = (RestTemplate) ReflectionTestUtils.getField(insecure, "restTemplate");
         assertNotNull(realTemplate);
 
@@ -310,23 +299,30 @@ class GroqServiceTest {
     void chatCompletion_ShouldHandleEmptyApiKey_BranchCoverage() {
         ReflectionTestUtils.setField(groqService, "apiKey", "");
 
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("content", "ok");
-        Map<String, Object> choiceMap = new HashMap<>();
-        choiceMap.put("message", messageMap);
-        Map<String, Object> bodyMap = new HashMap<>();
-        bodyMap.put("choices", List.of(choiceMap));
-        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
-                .thenReturn(new ResponseEntity<>(bodyMap, HttpStatus.OK));
+        ChatCompletionResponse body = completion("ok");
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(ChatCompletionResponse.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
 
         String result = groqService.chatCompletion(List.of(Map.of("role", "user", "content", "ping")), false);
 
         assertEquals("ok", result);
     }
 
+    @Test
+    void constructor_ShouldBindRestTemplateToSharedObjectMapper() {
+        ObjectMapper shared = new ObjectMapper();
+        GroqService service = new GroqService(false, shared);
+
+        RestTemplate template = (RestTemplate) ReflectionTestUtils.getField(service, "restTemplate");
+        assertTrue(template.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .allMatch(mapper -> mapper == shared));
+    }
+
     @Test
     void createTrustAllManagers_ShouldProvideNoopTrustManager() throws Exception {
-        GroqService service = new GroqService(false);
+        GroqService service = new GroqService(false, new ObjectMapper());
 
         TrustManager[] managers = service.createTrustAllManagers();
         assertEquals(1, managers.length);
@@ -347,9 +343,184 @@ class GroqServiceTest {
         assertEquals(SimpleClientHttpRequestFactory.class, template.getRequestFactory().getClass());
     }
 
+    @Test
+    void chatCompletion_ShouldUseHttpClient_WhenTransportIsHttpClient() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        ReflectionTestUtils.setField(groqService, "transport", "http-client");
+        HttpResponse<String> response = httpResponse(200,
+                "{\"choices\":[{\"message\":{\"content\":\"pooled\"}}]}");
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+
+        String result = groqService.chatCompletion(List.of(Map.of("role", "user", "content", "hi")), true);
+
+        assertEquals("pooled", result);
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("Bearer test-api-key", requestCaptor.getValue().headers().firstValue("Authorization").orElse(null));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void chatCompletion_ShouldRetryHttpClientTransportOnIOException() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        ReflectionTestUtils.setField(groqService, "transport", "http-client");
+        HttpResponse<String> response = httpResponse(200,
+                "{\"choices\":[{\"message\":{\"content\":\"ok-after-retry\"}}]}");
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new IOException("connection reset"))
+                .thenReturn(response);
+
+        assertEquals("ok-after-retry", groqService.chatCompletion(new ArrayList<>(), false));
+        verify(httpClient, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void chatCompletion_ShouldNotRetryHttpClientTransportOnClientError() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        ReflectionTestUtils.setField(groqService, "transport", "http-client");
+        HttpResponse<String> response = httpResponse(401, "{\"error\":\"unauthorized\"}");
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> groqService.chatCompletion(new ArrayList<>(), false));
+        assertTrue(thrown.getMessage().contains("Groq API Error"));
+        verify(httpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void chatCompletionAsync_ShouldRetryServerErrorAndComplete() {
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        HttpResponse<String> failure = httpResponse(503, "{\"error\":\"down\"}");
+        HttpResponse<String> success = httpResponse(200,
+                "{\"choices\":[{\"message\":{\"content\":\"async-ok\"}}]}");
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(failure))
+                .thenReturn(CompletableFuture.completedFuture(success));
+
+        String result = groqService.chatCompletionAsync(List.of(Map.of("role", "user", "content", "hi")), false)
+                .join();
+
+        assertEquals("async-ok", result);
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void chatCompletionAsync_ShouldOpenCircuitAfterThreshold_AndFailFastNextCall() {
+        ReflectionTestUtils.setField(groqService, "maxAttempts", 1);
+        ReflectionTestUtils.setField(groqService, "failureThreshold", 1);
+        ReflectionTestUtils.setField(groqService, "openDurationMs", 60000L);
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("timeout")));
+
+        CompletionException first = assertThrows(CompletionException.class,
+                () -> groqService.chatCompletionAsync(new ArrayList<>(), false).join());
+        assertTrue(first.getCause().getMessage().contains("Failed to communicate with AI service"));
+
+        CompletionException second = assertThrows(CompletionException.class,
+                () -> groqService.chatCompletionAsync(new ArrayList<>(), false).join());
+        assertTrue(second.getCause().getMessage().contains("circuit is open"));
+
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void chatCompletionStream_ShouldRelayDeltasAndReturnFullText() {
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        HttpResponse<Stream<String>> response = streamResponse(200,
+                "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}",
+                "",
+                "data: {\"choices\":[{\"delta\":{\"content\":\"Hel\"}}]}",
+                "data: {\"choices\":[{\"delta\":{\"content\":\"lo\"}}]}",
+                "data: [DONE]");
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+        List<String> deltas = new CopyOnWriteArrayList<>();
+
+        String result = groqService.chatCompletionStream(List.of(Map.of("role", "user", "content", "hi")), false,
+                deltas::add).join();
+
+        assertEquals("Hello", result);
+        assertEquals(List.of("Hel", "lo"), deltas);
+    }
+
+    @Test
+    void chatCompletionStream_ShouldCountServerErrorTowardsCircuit() {
+        ReflectionTestUtils.setField(groqService, "failureThreshold", 1);
+        ReflectionTestUtils.setField(groqService, "openDurationMs", 60000L);
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        HttpResponse<Stream<String>> response = streamResponse(503, "{\"error\":\"down\"}");
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        CompletionException first = assertThrows(CompletionException.class,
+                () -> groqService.chatCompletionStream(new ArrayList<>(), false, delta -> { }).join());
+        assertTrue(first.getCause().getMessage().contains("down"));
+
+        CompletionException second = assertThrows(CompletionException.class,
+                () -> groqService.chatCompletionStream(new ArrayList<>(), false, delta -> { }).join());
+        assertTrue(second.getCause().getMessage().contains("circuit is open"));
+    }
+
+    @Test
+    void chatCompletionStream_ShouldStopWithoutFailure_WhenConsumerGoesAway() {
+        ReflectionTestUtils.setField(groqService, "failureThreshold", 1);
+        HttpClient httpClient = mock(HttpClient.class);
+        ReflectionTestUtils.setField(groqService, "httpClient", httpClient);
+        HttpResponse<Stream<String>> response = streamResponse(200,
+                "data: {\"choices\":[{\"delta\":{\"content\":\"a\"}}]}",
+                "data: {\"choices\":[{\"delta\":{\"content\":\"b\"}}]}",
+                "data: [DONE]");
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        CompletableFuture<String> stream = groqService.chatCompletionStream(new ArrayList<>(), false, delta -> {
+            throw new IllegalStateException("client disconnected");
+        });
+
+        assertThrows(CancellationException.class, stream::join);
+        // A client disconnect must not open the circuit.
+        assertEquals(0, ((AtomicInteger) ReflectionTestUtils.getField(groqService, "consecutiveFailures")).get());
+    }
+
+    @Test
+    void createHttpClient_ShouldPreferHttp2() {
+        HttpClient client = groqService.createHttpClient(false);
+        assertEquals(HttpClient.Version.HTTP_2, client.version());
+        assertNotNull(new GroqService(true, new ObjectMapper()).createHttpClient(true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> httpResponse(int status, String body) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        lenient().when(response.statusCode()).thenReturn(status);
+        lenient().when(response.body()).thenReturn(body);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChatCompletionResponse completion(String content) {
+        return new ChatCompletionResponse(List.of(new ChatCompletionResponse.Choice(
+                new ChatCompletionResponse.Message("assistant", content), null)), null);
+    }
+
+    private static HttpResponse<Stream<String>> streamResponse(int status, String... lines) {
+        HttpResponse<Stream<String>> response = mock(HttpResponse.class);
+        lenient().when(response.statusCode()).thenReturn(status);
+        lenient().when(response.body()).thenReturn(Stream.of(lines));
+        return response;
+    }
+
     static class FailingInsecureGroqService extends GroqService {
         FailingInsecureGroqService() {
-            super(true);
+            super(true, new ObjectMapper());
         }
 
         @Override
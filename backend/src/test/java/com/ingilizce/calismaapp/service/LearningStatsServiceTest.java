@@ -0,0 +1,135 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.ReviewStats;
+import com.ingilizce.calismaapp.dto.SentenceStats;
+import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.entity.SentencePractice;
+import com.ingilizce.calismaapp.entity.Word;
+import com.ingilizce.calismaapp.repository.SentencePracticeRepository;
+import com.ingilizce.calismaapp.repository.SentenceRepository;
+import com.ingilizce.calismaapp.repository.WordRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class LearningStatsServiceTest {
+
+    private static final Long USER_ID = 11L;
+
+    @Autowired
+    private WordRepository wordRepository;
+
+    @Autowired
+    private SentenceRepository sentenceRepository;
+
+    @Autowired
+    private SentencePracticeRepository sentencePracticeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LearningStatsService learningStatsService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate today = LocalDate.now();
+        String[] wordDifficulties = {"easy", "medium", "hard", "HARD", null};
+        for (int i = 0; i < 50; i++) {
+            Word word = new Word("word" + i, "kelime" + i, today.minusDays(i));
+            word.setUserId(USER_ID);
+            // 20 due (today or earlier), 10 due later, 20 never scheduled; 30 reviewed at least once
+            if (i < 20) {
+                word.setNextReviewDate(today.minusDays(i % 3));
+            } else if (i < 30) {
+                word.setNextReviewDate(today.plusDays(3));
+            }
+            word.setReviewCount(i < 30 ? 1 + i % 4 : 0);
+            entityManager.persist(word);
+            entityManager.persist(new Sentence("s" + i, "c", wordDifficulties[i % wordDifficulties.length], word));
+        }
+        for (int i = 0; i < 12; i++) {
+            SentencePractice practice = new SentencePractice("p" + i, "t", SentencePractice.DifficultyLevel.values()[i % 3]);
+            practice.setUserId(USER_ID);
+            entityManager.persist(practice);
+        }
+        Word otherUser = new Word("other", "diğer", today);
+        otherUser.setUserId(USER_ID + 1);
+        otherUser.setNextReviewDate(today);
+        entityManager.persist(otherUser);
+        entityManager.flush();
+        entityManager.clear();
+
+        learningStatsService = new LearningStatsService(wordRepository, sentenceRepository,
+                sentencePracticeRepository, 100);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void reviewStats_ShouldMatchTheLegacyCounts_InOneStatementWithoutLoadingWords() {
+        ReviewStats stats = learningStatsService.reviewStats(USER_ID);
+
+        assertEquals(new ReviewStats(20, 50, 30), stats);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertEquals(wordRepository.findByUserIdAndNextReviewDateLessThanEqual(USER_ID, LocalDate.now()).size(),
+                stats.dueToday());
+        assertEquals(wordRepository.findByUserIdAndReviewCountGreaterThan(USER_ID, 0).size(), stats.reviewedWords());
+    }
+
+    @Test
+    void sentenceStats_ShouldAddBothTables_WithOneStatementEach() {
+        SentenceStats stats = learningStatsService.sentenceStats(USER_ID);
+
+        // Word sentences: 10 each of easy/medium/hard; "HARD" and null only count toward the total, as before.
+        assertEquals(new SentenceStats(62, 14, 14, 14), stats);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void cache_ShouldServeRepeatReads_UntilTheUserWrites() {
+        learningStatsService.sentenceStats(USER_ID);
+        learningStatsService.reviewStats(USER_ID);
+        long afterFirstRead = statistics.getPrepareStatementCount();
+
+        learningStatsService.sentenceStats(USER_ID);
+        learningStatsService.reviewStats(USER_ID);
+        assertEquals(afterFirstRead, statistics.getPrepareStatementCount());
+
+        SentencePractice added = new SentencePractice("new", "yeni", SentencePractice.DifficultyLevel.HARD);
+        added.setUserId(USER_ID);
+        entityManager.persistAndFlush(added);
+        learningStatsService.invalidate(USER_ID);
+
+        assertEquals(15, learningStatsService.sentenceStats(USER_ID).hard());
+    }
+
+    @Test
+    void cache_ShouldBeBypassed_WhenDisabled() {
+        ReflectionTestUtils.setField(learningStatsService, "cacheEnabled", false);
+
+        learningStatsService.reviewStats(USER_ID);
+        learningStatsService.reviewStats(USER_ID);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,151 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LlmJobServiceTest {
+
+    private LlmJobService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ShouldAttachRetriesWithTheSameIdempotencyKeyToTheFirstJob() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new LlmJobService(null, meterRegistry, new ObjectMapper());
+        AtomicInteger calls = new AtomicInteger();
+
+        LlmJobService.Submission first = service.submit(1L, "speaking_evaluation", "key-1",
+                () -> Map.of("score", calls.incrementAndGet()));
+        LlmJobService.Submission retry = service.submit(1L, "speaking_evaluation", "key-1",
+                () -> Map.of("score", calls.incrementAndGet()));
+        LlmJobService.Submission otherUser = service.submit(2L, "speaking_evaluation", "key-1",
+                () -> Map.of("score", calls.incrementAndGet()));
+
+        assertFalse(first.existing());
+        assertTrue(retry.existing());
+        assertEquals(first.job().id(), retry.job().id());
+        assertNotEquals(first.job().id(), otherUser.job().id());
+        assertEquals(2, calls.get());
+        LlmJobService.Job stored = service.get(first.job().id()).orElseThrow();
+        assertEquals(LlmJobService.STATUS_DONE, stored.status());
+        assertEquals(1, stored.result().get("score"));
+        assertEquals(1.0, meterRegistry.get("llm.jobs.total").tag("outcome", "attached").counter().count(), 0.0001);
+    }
+
+    @Test
+    void submit_ShouldReleaseTheKeyWhenAJobFails_SoARetryStartsOver() {
+        service = new LlmJobService(null, null, new ObjectMapper());
+
+        LlmJobService.Submission busy = service.submit(1L, "speaking_questions", "key-1", () -> {
+            throw new PromptConcurrencyLimiter.LimitExceededException("speaking_questions", 3);
+        });
+        LlmJobService.Submission retry = service.submit(1L, "speaking_questions", "key-1",
+                () -> Map.of("questions", "ok"));
+
+        LlmJobService.Job failed = service.get(busy.job().id()).orElseThrow();
+        assertEquals(LlmJobService.STATUS_FAILED, failed.status());
+        assertEquals(3L, failed.retryAfterSeconds());
+        assertFalse(retry.existing());
+        assertEquals(LlmJobService.STATUS_DONE, retry.job().status());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_ShouldClaimIdempotencyKeysAndStoreJobsInRedisWithTtl() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("llm:job:idem:1:speaking_questions:key-1")).thenReturn("job-on-other-node");
+        when(valueOperations.get("llm:job:job-on-other-node")).thenReturn(
+                "{\"id\":\"job-on-other-node\",\"type\":\"speaking_questions\",\"userId\":1,\"status\":\"running\"}");
+        service = new LlmJobService(redisTemplate, null, new ObjectMapper());
+
+        LlmJobService.Submission submission = service.submit(1L, "speaking_questions", "key-1",
+                () -> Map.of("questions", "never"));
+
+        assertTrue(submission.existing());
+        assertEquals("job-on-other-node", submission.job().id());
+        assertEquals(LlmJobService.STATUS_RUNNING, submission.job().status());
+        verify(valueOperations, never()).set(eq("llm:job:job-on-other-node"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_ShouldWriteThePendingJobBeforeClaimingTheKey_AndDropItWhenAttaching() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("llm:job:idem:1:speaking_questions:key-1")).thenReturn("job-on-other-node");
+        when(valueOperations.get("llm:job:job-on-other-node")).thenReturn(
+                "{\"id\":\"job-on-other-node\",\"type\":\"speaking_questions\",\"userId\":1,\"status\":\"pending\"}");
+        service = new LlmJobService(redisTemplate, null, new ObjectMapper());
+
+        LlmJobService.Submission submission = service.submit(1L, "speaking_questions", "key-1",
+                () -> Map.of("questions", "never"));
+
+        assertTrue(submission.existing());
+        ArgumentCaptor<String> ownRecord = ArgumentCaptor.forClass(String.class);
+        InOrder order = inOrder(valueOperations, redisTemplate);
+        order.verify(valueOperations).set(ownRecord.capture(), anyString(), any(Duration.class));
+        order.verify(valueOperations).setIfAbsent(eq("llm:job:idem:1:speaking_questions:key-1"), anyString(),
+                any(Duration.class));
+        order.verify(redisTemplate).delete(ownRecord.getValue());
+        verify(valueOperations, never()).set(eq("llm:job:idem:1:speaking_questions:key-1"), anyString(),
+                any(Duration.class));
+    }
+
+    @Test
+    void watch_ShouldNotifyOnceWhenTheJobFinishes() throws Exception {
+        service = new LlmJobService(null, null, new ObjectMapper());
+        service.configureJobExecutor(1, 10);
+        CompletableFuture<Map<String, Object>> release = new CompletableFuture<>();
+
+        LlmJobService.Submission submission = service.submit(1L, "speaking_questions", null, release::join);
+        CountDownLatch notified = new CountDownLatch(1);
+        AtomicInteger notifications = new AtomicInteger();
+        Runnable stop = service.watch(submission.job().id(), job -> {
+            notifications.incrementAndGet();
+            notified.countDown();
+        });
+        release.complete(Map.of("questions", "ready"));
+
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        stop.run();
+        assertEquals(1, notifications.get());
+    }
+}
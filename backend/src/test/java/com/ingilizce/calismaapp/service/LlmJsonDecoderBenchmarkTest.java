@@ -0,0 +1,74 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput and allocation of {@link LlmJsonDecoder} against the regex/substring/
+ * double-parse path it replaced, measured with {@link Microbenchmark}; opt in with
+ * {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class LlmJsonDecoderBenchmarkTest {
+
+    private static final String RAW = """
+            Here are your sentences:
+            ```json
+            [
+              {"englishSentence":"I ate an apple for breakfast.","turkish":"elma","turkishFullTranslation":"Kahvaltıda bir elma yedim."},
+              {"englishSentence":"The apple tree is old.","turkish_translation":"elma ağacı","turkishFullTranslation":"Elma ağacı yaşlı."},
+              {"englishSentence":"She bought apples.","turkishTranslation":"elmalar","turkishFullTranslation":"Elmalar aldı."},
+              {"englishSentence":"An apple a day keeps the doctor away.","turkish":"elma","turkishFullTranslation":"Günde bir elma doktoru uzak tutar."},
+              {"englishSentence":"Apple pie is delicious.","turkish":"elmalı turta","turkishFullTranslation":"Elmalı turta lezzetlidir."}
+            ]
+            ```
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    void compareDecoders() throws Exception {
+        assertEquals(legacy(RAW), LlmJsonDecoder.decodePracticeSentences(RAW));
+
+        Microbenchmark.report("legacy (regex + substring + 2 parses)", () -> {
+            try {
+                return legacy(RAW);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, List::size);
+        Microbenchmark.report("LlmJsonDecoder (single streaming pass)",
+                () -> LlmJsonDecoder.decodePracticeSentences(RAW), List::size);
+    }
+
+    // The pre-LlmJsonDecoder path: ChatbotService.normalizeJson followed by
+    // ChatbotController.generateAndCacheSentences' parsing.
+    private List<PracticeSentence> legacy(String raw) throws Exception {
+        String cleaned = raw.trim().replaceAll("```json", "").replaceAll("```", "").trim();
+        int arrStart = cleaned.indexOf('[');
+        int arrEnd = cleaned.lastIndexOf(']');
+        cleaned = cleaned.substring(arrStart, arrEnd + 1).trim();
+        objectMapper.readValue(cleaned, Object.class);
+
+        String json = cleaned.trim().replaceAll("```json", "").replaceAll("```", "").trim();
+        json = json.replaceAll("\"turkishTransliteration\"", "\"turkishTranslation\"");
+        json = json.replaceAll("\"turkish_translation\"", "\"turkishTranslation\"");
+        json = json.replaceAll("\"turkish\"", "\"turkishTranslation\"");
+        Object parsed = objectMapper.readValue(json, Object.class);
+        if (parsed instanceof Map<?, ?>) {
+            throw new IllegalStateException("benchmark input is an array");
+        }
+        return objectMapper.readValue(json, new TypeReference<List<PracticeSentence>>() {
+        });
+    }
+}
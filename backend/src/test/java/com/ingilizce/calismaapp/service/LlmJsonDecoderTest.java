@@ -0,0 +1,70 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmJsonDecoderTest {
+
+    @Test
+    void decodePracticeSentences_ShouldSkipFencesAndProseAndRemapAliases() {
+        String raw = """
+                Sure! [Note: two sentences below]
+                ```json
+                [
+                  {"englishSentence":"I ate an apple.","turkish":"elma","turkishFullTranslation":"Bir elma yedim."},
+                  {"englishSentence":"Apples are red.","turkish":"x","turkish_translation":"elmalar","extra":{"a":[1]}}
+                ]
+                ```
+                Hope this helps {really}.
+                """;
+
+        List<PracticeSentence> sentences = LlmJsonDecoder.decodePracticeSentences(raw);
+
+        assertEquals(List.of(
+                new PracticeSentence("I ate an apple.", "elma", "Bir elma yedim."),
+                new PracticeSentence("Apples are red.", "elmalar", null)), sentences);
+    }
+
+    @Test
+    void decodePracticeSentences_ShouldAcceptWrapperAndSingleObject() {
+        assertEquals(List.of(new PracticeSentence("Hi.", "selam", null)),
+                LlmJsonDecoder.decodePracticeSentences("{\"sentences\":[{\"englishSentence\":\"Hi.\","
+                        + "\"turkishTranslation\":\"selam\",\"turkish\":\"merhaba\"}],\"count\":1}"));
+        assertEquals(List.of(new PracticeSentence("Hi.", "selam", "Selam.")),
+                LlmJsonDecoder.decodePracticeSentences("{\"englishSentence\":\"Hi.\",\"turkish_translation\":\"selam\","
+                        + "\"turkish_full_translation\":\"Selam.\"}"));
+        assertThrows(IllegalArgumentException.class, () -> LlmJsonDecoder.decodePracticeSentences("no json here"));
+    }
+
+    @Test
+    void locate_ShouldReturnTheFirstValueOfTheRequestedShape() {
+        String raw = "Result: {\"note\":1} then [{\"englishSentence\":\"A\"}] trailing ]";
+
+        LlmJsonDecoder.Span object = LlmJsonDecoder.locate(raw, true, false, false).orElseThrow();
+        LlmJsonDecoder.Span array = LlmJsonDecoder.locate(raw, true, true, true).orElseThrow();
+
+        assertEquals("{\"note\":1}", raw.substring(object.start(), object.end()));
+        assertEquals("[{\"englishSentence\":\"A\"}]", raw.substring(array.start(), array.end()));
+        assertTrue(LlmJsonDecoder.locate("{\"a\":1", true, true, false).isEmpty());
+    }
+
+    @Test
+    void salvageFields_ShouldKeepFieldsReadBeforeTruncation() {
+        Map<String, Object> fields = LlmJsonDecoder.salvageFields(
+                "```json\n{\"isCorrect\": true, \"feedback\": \"He said \\\"hi\\\"\", \"correctTransl",
+                Set.of("isCorrect", "feedback", "correctTranslation")).orElseThrow();
+
+        assertEquals(Boolean.TRUE, fields.get("isCorrect"));
+        assertEquals("He said \"hi\"", fields.get("feedback"));
+        assertEquals(2, fields.size());
+        assertTrue(LlmJsonDecoder.salvageFields("plain text", Set.of("feedback")).isEmpty());
+    }
+}
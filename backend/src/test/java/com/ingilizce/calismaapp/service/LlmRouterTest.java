@@ -0,0 +1,222 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmRouterTest {
+
+    private static final List<Map<String, String>> MESSAGES = List.of(Map.of("role", "user", "content", "hi"));
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void complete_ShouldFailOverToNextProvider_WhenBestOneFails() {
+        FakeProvider groq = new FakeProvider("groq", 1.0, prompt -> {
+            throw new RuntimeException("Groq API Error: circuit is open");
+        });
+        FakeProvider ollama = new FakeProvider("ollama", 1.0, prompt -> "from-ollama");
+        LlmRouter router = router(groq, ollama);
+
+        assertEquals("from-ollama", router.complete("speaking_evaluation", MESSAGES, true));
+        assertEquals(1, groq.calls.get());
+        assertEquals(1.0, meterRegistry.counter("llm.router.calls.total",
+                "prompt", "speaking_evaluation", "provider", "groq", "outcome", "failure").count());
+    }
+
+    @Test
+    void rank_ShouldPreferLowerLatencyTimesCost_PerPromptType() {
+        FakeProvider groq = new FakeProvider("groq", 1.0, prompt -> "groq");
+        FakeProvider ollama = new FakeProvider("ollama", 0.5, prompt -> "ollama");
+        LlmRouter router = router(groq, ollama);
+
+        // No samples yet: equal default latency, so the cheaper provider leads.
+        assertEquals("ollama", router.rank("chat_buddy").get(0).name());
+
+        // Ollama turns slow: 3000 ms * 0.5 loses to 1000 ms * 1.0.
+        ollama.latencyMs = 3000;
+        groq.latencyMs = 1000;
+        for (int i = 0; i < 5; i++) {
+            sample(router, "chat_buddy", ollama);
+            sample(router, "chat_buddy", groq);
+        }
+        assertEquals("groq", router.rank("chat_buddy").get(0).name());
+        assertEquals(3000.0, router.rankings("chat_buddy").get(1).p95Ms());
+        // Other prompt types keep their own stats.
+        assertEquals("ollama", router.rank("speaking_evaluation").get(0).name());
+    }
+
+    @Test
+    void rank_ShouldDemoteErroringProvider_UntilItsFailuresAgeOut() {
+        FakeProvider groq = new FakeProvider("groq", 0.5, prompt -> {
+            throw new RuntimeException("down");
+        });
+        FakeProvider ollama = new FakeProvider("ollama", 1.0, prompt -> "ollama");
+        LlmRouter router = router(groq, ollama);
+        ReflectionTestUtils.setField(router, "minSamples", 1);
+
+        assertEquals("ollama", router.complete("speaking_questions", MESSAGES, true));
+        assertEquals("ollama", router.complete("speaking_questions", MESSAGES, true));
+        assertEquals(1, groq.calls.get());
+        LlmRouter.Ranking demoted = router.rankings("speaking_questions").get(1);
+        assertEquals("groq", demoted.provider());
+        assertFalse(demoted.healthy());
+        assertEquals(1.0, demoted.errorRate());
+
+        // After the window the failure is forgotten and Groq (cheaper) leads again.
+        now.addAndGet(400_000L);
+        assertEquals("groq", router.rank("speaking_questions").get(0).name());
+    }
+
+    @Test
+    void complete_ShouldHedgeToRunnerUp_WhenPrimaryIsSlowForLatencyCriticalPrompt() {
+        FakeProvider slow = new FakeProvider("groq", 0.5, prompt -> "late");
+        slow.asyncResult = new CompletableFuture<>(); // never answers on its own
+        FakeProvider fast = new FakeProvider("ollama", 1.0, prompt -> "hedged");
+        LlmRouter router = router(slow, fast);
+        ReflectionTestUtils.setField(router, "hedgeDelayMs", 20L);
+
+        assertEquals("hedged", router.complete("chat_buddy", MESSAGES, false));
+        assertTrue(slow.asyncResult.isCancelled());
+        assertEquals(1.0, meterRegistry.counter("llm.router.hedges.total",
+                "prompt", "chat_buddy", "provider", "ollama", "outcome", "won").count());
+    }
+
+    @Test
+    void complete_ShouldRankDownAPrimaryThatAlwaysLosesTheHedge() {
+        FakeProvider slow = new FakeProvider("groq", 0.5, prompt -> "late");
+        FakeProvider fast = new FakeProvider("ollama", 1.0, prompt -> "hedged");
+        LlmRouter router = router(slow, fast);
+        ReflectionTestUtils.setField(router, "hedgeDelayMs", 20L);
+        assertEquals("groq", router.rank("chat_buddy").get(0).name());
+
+        slow.asyncResult = new CompletableFuture<>(); // never answers on its own
+        assertEquals("hedged", router.complete("chat_buddy", MESSAGES, false));
+
+        // The cancelled call counts as at least the hedge delay, so the fast runner-up now leads.
+        List<LlmRouter.Ranking> rankings = router.rankings("chat_buddy");
+        assertEquals("ollama", rankings.get(0).provider());
+        assertEquals("groq", rankings.get(1).provider());
+        assertEquals(1, rankings.get(1).samples());
+        assertTrue(rankings.get(1).p95Ms() >= 20.0);
+        assertEquals(0.0, rankings.get(1).errorRate());
+
+        // The next call goes to the runner-up first and needs no hedge.
+        assertEquals("hedged", router.complete("chat_buddy", MESSAGES, false));
+        assertEquals(1, slow.asyncCalls.get());
+    }
+
+    @Test
+    void complete_ShouldNotHedge_PromptsOutsideTheHedgeList() {
+        FakeProvider groq = new FakeProvider("groq", 0.5, prompt -> "groq");
+        FakeProvider ollama = new FakeProvider("ollama", 1.0, prompt -> "ollama");
+        LlmRouter router = router(groq, ollama);
+        ReflectionTestUtils.setField(router, "hedgeDelayMs", 0L);
+
+        assertEquals("groq", router.complete("speaking_evaluation", MESSAGES, true));
+        assertEquals(0, ollama.calls.get());
+        assertEquals(0, groq.asyncCalls.get());
+    }
+
+    @Test
+    void complete_ShouldThrow_WhenNoProviderIsEnabled() {
+        FakeProvider groq = new FakeProvider("groq", 1.0, prompt -> "groq");
+        groq.enabled = false;
+
+        assertThrows(IllegalStateException.class, () -> router(groq).complete("chat_buddy", MESSAGES, false));
+    }
+
+    @Test
+    void stubProvider_ShouldAnswerDeterministicallyWithWellFormedJson() {
+        StubLlmProvider stub = new StubLlmProvider();
+        ReflectionTestUtils.setField(stub, "latencyMs", 0L);
+
+        String first = stub.complete("check_translation_tr", MESSAGES, true);
+        assertEquals(first, stub.complete("check_translation_tr", MESSAGES, true));
+        assertEquals(Boolean.TRUE, LlmJsonDecoder.decodeObject(first).get("isCorrect"));
+        assertEquals(1, LlmJsonDecoder.decodePracticeSentences(
+                stub.completeAsync("generate_sentences", MESSAGES, true).join()).size());
+        assertEquals(stub.complete("chat_buddy", MESSAGES, false), stub.complete("chat_buddy", MESSAGES, false));
+
+        ReflectionTestUtils.setField(stub, "failEvery", 2);
+        stub.complete("chat_buddy", MESSAGES, false);
+        assertThrows(IllegalStateException.class, () -> stub.complete("chat_buddy", MESSAGES, false));
+    }
+
+    private static void sample(LlmRouter router, String promptId, FakeProvider provider) {
+        ReflectionTestUtils.invokeMethod(router, "timed", promptId, provider,
+                (Supplier<String>) () -> provider.run(promptId));
+    }
+
+    private LlmRouter router(LlmProvider... providers) {
+        return new LlmRouter(List.of(providers), meterRegistry, now::get);
+    }
+
+    private final class FakeProvider implements LlmProvider {
+        private final String name;
+        private final double costWeight;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger asyncCalls = new AtomicInteger();
+        private volatile Function<String, String> behaviour;
+        private volatile CompletableFuture<String> asyncResult;
+        private volatile long latencyMs;
+        private volatile boolean enabled = true;
+
+        FakeProvider(String name, double costWeight, Function<String, String> behaviour) {
+            this.name = name;
+            this.costWeight = costWeight;
+            this.behaviour = behaviour;
+        }
+
+        String run(String promptId) {
+            calls.incrementAndGet();
+            now.addAndGet(latencyMs);
+            return behaviour.apply(promptId);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public double costWeight() {
+            return costWeight;
+        }
+
+        @Override
+        public String complete(String promptId, List<Map<String, String>> messages, boolean jsonResponse) {
+            return run(promptId);
+        }
+
+        @Override
+        public CompletableFuture<String> completeAsync(String promptId, List<Map<String, String>> messages,
+                                                       boolean jsonResponse) {
+            asyncCalls.incrementAndGet();
+            if (asyncResult != null) {
+                return asyncResult;
+            }
+            try {
+                return CompletableFuture.completedFuture(run(promptId));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ingilizce.calismaapp.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Timing and per-thread allocation loop shared by the opt-in {@code *BenchmarkTest}
+ * classes ({@code -Dbenchmarks=true}). Not a JMH harness (JMH is not in the build),
+ * so numbers are indicative only.
+ */
+final class Microbenchmark {
+
+    static final int WARMUP = 20_000;
+    static final int ITERATIONS = 100_000;
+
+    private Microbenchmark() {
+    }
+
+    /**
+     * Runs {@code operation} {@link #WARMUP} times, then prints ns/op and bytes
+     * allocated per op over {@link #ITERATIONS} runs. {@code sink} folds each result
+     * into a printed checksum so the JIT cannot drop the work.
+     */
+    static <T> void report(String name, Supplier<T> operation, ToIntFunction<T> sink) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.get();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int checksum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += sink.applyAsInt(operation.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%-42s %8.0f ns/op %8d B/op (sink=%d)%n", name, (double) elapsed / ITERATIONS,
+                allocated / ITERATIONS, checksum);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PiperAvailabilityMonitorTest {
+
+    @TempDir
+    Path modelDir;
+
+    @Test
+    void isAvailable_ShouldProbeOnceAndThenServeTheSnapshot() {
+        PiperTtsService piperTtsService = mock(PiperTtsService.class);
+        when(piperTtsService.isAvailable()).thenReturn(true);
+        when(piperTtsService.getSupportedVoices()).thenReturn(new String[] { "default", "amy" });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PiperAvailabilityMonitor monitor = new PiperAvailabilityMonitor(piperTtsService, meterRegistry);
+
+        assertTrue(monitor.isAvailable());
+        assertTrue(monitor.isAvailable());
+        assertEquals(List.of("default", "amy"), monitor.getSnapshot().voices());
+
+        verify(piperTtsService, times(1)).isAvailable();
+        assertEquals(1.0, meterRegistry.get("piper.available").gauge().value(), 0.0001);
+        assertEquals(1.0, meterRegistry.get("piper.availability.probes.total").tag("outcome", "up")
+                .counter().count(), 0.0001);
+    }
+
+    @Test
+    void onSynthesisSuccess_ShouldMarkPiperAvailableWithoutWaitingForTheNextProbe() {
+        PiperTtsService piperTtsService = mock(PiperTtsService.class);
+        when(piperTtsService.isAvailable()).thenReturn(false);
+        when(piperTtsService.getSupportedVoices()).thenReturn(new String[] { "default" });
+        PiperAvailabilityMonitor monitor = new PiperAvailabilityMonitor(piperTtsService, null);
+
+        monitor.refresh();
+        assertFalse(monitor.isAvailable());
+
+        monitor.onSynthesisSuccess();
+
+        assertTrue(monitor.isAvailable());
+        assertEquals(List.of("default"), monitor.getSnapshot().voices());
+    }
+
+    @Test
+    void modelFileChange_ShouldTriggerABackgroundRefresh() throws Exception {
+        PiperTtsService piperTtsService = mock(PiperTtsService.class);
+        when(piperTtsService.getModelBaseDir()).thenReturn(modelDir.toString());
+        when(piperTtsService.isAvailable()).thenReturn(false, true);
+        when(piperTtsService.getSupportedVoices()).thenReturn(new String[0], new String[] { "default" });
+        PiperAvailabilityMonitor monitor = new PiperAvailabilityMonitor(piperTtsService, null);
+
+        monitor.start();
+        try {
+            verify(piperTtsService, timeout(5000).times(1)).getSupportedVoices();
+            assertFalse(monitor.isAvailable());
+
+            Files.write(modelDir.resolve("en_US-amy-medium.onnx"), new byte[] { 1 });
+
+            verify(piperTtsService, timeout(10000).atLeast(2)).getSupportedVoices();
+            verify(piperTtsService).addSynthesisListener(monitor);
+            assertTrue(monitor.isAvailable());
+            assertEquals(List.of("default"), monitor.getSnapshot().voices());
+        } finally {
+            monitor.shutdown();
+        }
+    }
+}
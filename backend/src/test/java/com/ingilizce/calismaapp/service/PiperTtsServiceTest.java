@@ -2,6 +2,7 @@ package com.ingilizce.calismaapp.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
@@ -21,6 +22,9 @@ import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -75,6 +79,122 @@ class PiperTtsServiceTest {
         assertTrue(service.lastCommand.stream().anyMatch(s -> s.endsWith("en_US-amy-medium.onnx")));
     }
 
+    @Test
+    void synthesizeSpeech_ShouldServeRepeatTextFromAudioCache_WithoutStartingPiper(@TempDir Path cacheDir) {
+        TtsAudioCache audioCache = new TtsAudioCache(null);
+        ReflectionTestUtils.setField(audioCache, "configuredDir", cacheDir.toString());
+        audioCache.init();
+        StubPiperTtsService cachedService = new StubPiperTtsService(audioCache, null);
+        ReflectionTestUtils.setField(cachedService, "configuredPiperPath", "/mock/piper");
+        cachedService.synthProcess = synthProcess;
+        cachedService.modelContent = new byte[] { 1, 2, 3, 4 };
+        cachedService.existingPaths.putAll(service.existingPaths);
+        cachedService.executablePaths.putAll(service.executablePaths);
+
+        assertFalse(cachedService.findCachedSpeech("Hello world", "amy").isPresent());
+        String first = cachedService.synthesizeSpeech("Hello world", "amy");
+        cachedService.startProcessCalled = false;
+
+        assertEquals(first, cachedService.synthesizeSpeech(" Hello   world ", "amy"));
+        assertFalse(cachedService.startProcessCalled);
+        assertEquals(first, cachedService.findCachedSpeech("Hello world", "amy").orElseThrow());
+        assertFalse(cachedService.findCachedSpeech("Hello world", "alan").isPresent());
+    }
+
+    @Test
+    void synthesizeSpeech_ShouldUseWorkerPool_AndFallBackToProcess_WhenWorkerFails() {
+        PiperWorkerPool workerPool = mock(PiperWorkerPool.class);
+        when(workerPool.isEnabled()).thenReturn(true);
+        StubPiperTtsService pooledService = new StubPiperTtsService(null, workerPool);
+        ReflectionTestUtils.setField(pooledService, "configuredPiperPath", "/mock/piper");
+        pooledService.synthProcess = synthProcess;
+        pooledService.modelContent = new byte[] { 1, 2, 3, 4 };
+        pooledService.existingPaths.putAll(service.existingPaths);
+        pooledService.executablePaths.putAll(service.executablePaths);
+
+        pooledService.synthesizeSpeech("Hello", "amy");
+        assertFalse(pooledService.startProcessCalled);
+        verify(workerPool).synthesize(eq("/mock/piper"), endsWith("en_US-amy-medium.onnx"), any(File.class),
+                eq("Hello"), eq(Path.of("/tmp/mock.wav")));
+
+        doThrow(new PiperWorkerPool.WorkerFailureException("worker exited", null))
+                .when(workerPool).synthesize(any(), any(), any(), any(), any());
+        String audio = pooledService.synthesizeSpeech("Hello", "amy");
+
+        assertTrue(pooledService.startProcessCalled);
+        assertEquals(Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3, 4 }), audio);
+    }
+
+    @Test
+    void synthesizeSpeech_ShouldFallBackToProcess_WhenWorkerQueueTimesOut() {
+        PiperWorkerPool workerPool = mock(PiperWorkerPool.class);
+        when(workerPool.isEnabled()).thenReturn(true);
+        doThrow(new PiperWorkerPool.QueueTimeoutException("en_US-amy-medium.onnx", 5000))
+                .when(workerPool).synthesize(any(), any(), any(), any(), any());
+        StubPiperTtsService pooledService = new StubPiperTtsService(null, workerPool);
+        ReflectionTestUtils.setField(pooledService, "configuredPiperPath", "/mock/piper");
+        pooledService.synthProcess = synthProcess;
+        pooledService.modelContent = new byte[] { 1, 2, 3, 4 };
+        pooledService.existingPaths.putAll(service.existingPaths);
+        pooledService.executablePaths.putAll(service.executablePaths);
+
+        String audio = pooledService.synthesizeSpeech("Hello", "amy");
+
+        assertTrue(pooledService.startProcessCalled);
+        assertEquals(Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3, 4 }), audio);
+    }
+
+    @Test
+    void streamSpeech_ShouldCopyPiperStdoutToClient_AndCacheTheClip(@TempDir Path cacheDir) throws Exception {
+        TtsAudioCache audioCache = new TtsAudioCache(null);
+        ReflectionTestUtils.setField(audioCache, "configuredDir", cacheDir.toString());
+        audioCache.init();
+        StubPiperTtsService streamingService = new StubPiperTtsService(audioCache, null);
+        ReflectionTestUtils.setField(streamingService, "configuredPiperPath", "/mock/piper");
+        streamingService.existingPaths.putAll(service.existingPaths);
+        streamingService.executablePaths.putAll(service.executablePaths);
+        Process streamProcess = mock(Process.class);
+        ByteArrayOutputStream streamStdin = new ByteArrayOutputStream();
+        when(streamProcess.getOutputStream()).thenReturn(streamStdin);
+        when(streamProcess.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[] { 5, 6, 7 }));
+        when(streamProcess.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(streamProcess.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(streamProcess.exitValue()).thenReturn(0);
+        streamingService.streamProcess = streamProcess;
+
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+        streamingService.streamSpeech("Hello", "amy", client);
+
+        assertArrayEquals(new byte[] { 5, 6, 7 }, client.toByteArray());
+        assertEquals("Hello", streamStdin.toString(StandardCharsets.UTF_8));
+        assertTrue(streamingService.lastCommand.get(2).endsWith("en_US-amy-medium.onnx"));
+        assertEquals(List.of("--output_file", "-"), streamingService.lastCommand.subList(3, 5));
+        assertArrayEquals(new byte[] { 5, 6, 7 }, streamingService.synthesizeAudio("Hello", "amy"));
+        assertFalse(streamingService.startProcessCalled);
+    }
+
+    @Test
+    void streamSpeech_ShouldDestroyProcess_WhenInputCannotBeWritten() throws Exception {
+        Process streamProcess = mock(Process.class);
+        when(streamProcess.getOutputStream()).thenReturn(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+        when(streamProcess.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(streamProcess.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(streamProcess.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(streamProcess.exitValue()).thenReturn(0);
+        service.streamProcess = streamProcess;
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> service.streamSpeech("Hello", "amy", new ByteArrayOutputStream()));
+
+        assertTrue(ex.getMessage().contains("could not write input"));
+        verify(streamProcess).destroyForcibly();
+    }
+
     @Test
     void synthesizeSpeech_ShouldUseDefaultAmy_WhenVoiceIsNull() {
         service.synthesizeSpeech("text", null);
@@ -342,7 +462,15 @@ class PiperTtsServiceTest {
     }
 
     static class StubPiperTtsService extends PiperTtsService {
+        StubPiperTtsService() {
+        }
+
+        StubPiperTtsService(TtsAudioCache audioCache, PiperWorkerPool workerPool) {
+            super(audioCache, workerPool);
+        }
+
         Process synthProcess;
+        Process streamProcess;
         Process availabilityProcess;
         boolean startProcessCalled;
         boolean throwOnRead;
@@ -416,6 +544,12 @@ class PiperTtsServiceTest {
             return synthProcess;
         }
 
+        @Override
+        protected Process startStreamingProcess(List<String> command, File workingDir) {
+            lastCommand = command;
+            return streamProcess;
+        }
+
         @Override
         protected Process startAvailabilityProcess(String piperPath) throws IOException {
             if (throwOnAvailabilityStart) {
@@ -0,0 +1,196 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PiperWorkerPoolTest {
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FakePiperWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new FakePiperWorkerPool(meterRegistry);
+        ReflectionTestUtils.setField(pool, "poolSize", 1);
+        ReflectionTestUtils.setField(pool, "queueTimeoutMs", 500L);
+        ReflectionTestUtils.setField(pool, "requestTimeoutMs", 2000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void synthesize_ShouldReuseOneLongLivedProcessPerModel() throws Exception {
+        pool.synthesize("piper", "/piper/amy.onnx", null, "Hello", dir.resolve("a.wav"));
+        pool.synthesize("piper", "/piper/amy.onnx", null, "World\nagain", dir.resolve("b.wav"));
+
+        assertEquals(1, pool.started.size());
+        assertTrue(pool.started.get(0).command.contains("--json-input"));
+        assertEquals("Hello", Files.readString(dir.resolve("a.wav")));
+        assertEquals("World again", Files.readString(dir.resolve("b.wav")));
+        assertEquals(2.0, meterRegistry.get("piper.workers.requests.total").tag("outcome", "ok").counter().count(),
+                0.0001);
+    }
+
+    @Test
+    void synthesize_ShouldReplaceWorkerThatCrashed() throws Exception {
+        pool.synthesize("piper", "/piper/amy.onnx", null, "one", dir.resolve("a.wav"));
+        pool.started.get(0).crash();
+
+        pool.synthesize("piper", "/piper/amy.onnx", null, "two", dir.resolve("b.wav"));
+
+        assertEquals(2, pool.started.size());
+        assertEquals("two", Files.readString(dir.resolve("b.wav")));
+        assertEquals(1.0, meterRegistry.get("piper.workers.replaced.total").counter().count(), 0.0001);
+    }
+
+    @Test
+    void synthesize_ShouldDiscardSilentWorker_AndRejectWhenQueueTimesOut() {
+        ReflectionTestUtils.setField(pool, "requestTimeoutMs", 200L);
+        pool.answer = false;
+
+        assertThrows(PiperWorkerPool.WorkerFailureException.class,
+                () -> pool.synthesize("piper", "/piper/amy.onnx", null, "hi", dir.resolve("a.wav")));
+        assertFalse(pool.started.get(0).isAlive());
+
+        pool.holdWorker = true;
+        Thread holder = new Thread(() -> {
+            try {
+                pool.synthesize("piper", "/piper/amy.onnx", null, "slow", dir.resolve("b.wav"));
+            } catch (RuntimeException ignored) {
+                // expected: the held worker times out
+            }
+        });
+        holder.start();
+        while (pool.started.size() < 2) {
+            Thread.onSpinWait();
+        }
+        ReflectionTestUtils.setField(pool, "queueTimeoutMs", 50L);
+
+        assertThrows(PiperWorkerPool.QueueTimeoutException.class,
+                () -> pool.synthesize("piper", "/piper/amy.onnx", null, "next", dir.resolve("c.wav")));
+    }
+
+    static class FakePiperWorkerPool extends PiperWorkerPool {
+        final List<FakePiperProcess> started = new ArrayList<>();
+        volatile boolean answer = true;
+        volatile boolean holdWorker;
+
+        FakePiperWorkerPool(SimpleMeterRegistry meterRegistry) {
+            super(meterRegistry, new ObjectMapper());
+        }
+
+        @Override
+        protected synchronized Process startWorkerProcess(List<String> command, File workingDir) throws IOException {
+            FakePiperProcess process = new FakePiperProcess(command, answer && !holdWorker);
+            started.add(process);
+            return process;
+        }
+    }
+
+    /**
+     * Mimics `piper --json-input`: one JSON line in, WAV written, output path printed.
+     */
+    static class FakePiperProcess extends Process {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+        final List<String> command;
+        private final PipedOutputStream stdin = new PipedOutputStream();
+        private final PipedInputStream stdout = new PipedInputStream();
+        private final PrintStream stdoutWriter;
+        private volatile boolean alive = true;
+
+        FakePiperProcess(List<String> command, boolean answer) throws IOException {
+            this.command = command;
+            PipedInputStream piperIn = new PipedInputStream(stdin);
+            this.stdoutWriter = new PrintStream(new PipedOutputStream(stdout), true, StandardCharsets.UTF_8);
+            Thread loop = new Thread(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(piperIn, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null && answer) {
+                        JsonNode json = MAPPER.readTree(line);
+                        Path output = Path.of(json.get("output_file").asText());
+                        Files.writeString(output, json.get("text").asText());
+                        stdoutWriter.println(output);
+                    }
+                } catch (IOException ignored) {
+                    // pipe closed
+                }
+            });
+            loop.setDaemon(true);
+            loop.start();
+        }
+
+        void crash() {
+            alive = false;
+            stdoutWriter.close();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return stdin;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return stdout;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() {
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            return 0;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+
+        @Override
+        public void destroy() {
+            crash();
+        }
+    }
+}
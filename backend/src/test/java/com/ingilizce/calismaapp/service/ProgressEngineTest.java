@@ -0,0 +1,250 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.ProgressDelta;
+import com.ingilizce.calismaapp.entity.UserProgress;
+import com.ingilizce.calismaapp.entity.Word;
+import com.ingilizce.calismaapp.model.Achievement;
+import com.ingilizce.calismaapp.repository.UserAchievementRepository;
+import com.ingilizce.calismaapp.repository.UserProgressRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import({ProgressEngine.class, ProgressService.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProgressEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private ProgressEngine progressEngine;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private UserProgressRepository progressRepository;
+
+    @Autowired
+    private UserAchievementRepository achievementRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // The engine bean outlives each test's rolled-back transaction; start every test with it empty.
+        progressEngine.flushAndEvaluate();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void flush_ShouldWriteBufferedActionsAsAFewBulkStatements() {
+        persistProgress(1L, 40, 2, 2, TODAY.minusDays(1));
+        persistProgress(2L, 0, 5, 5, TODAY.minusDays(3));
+        statistics.clear();
+
+        // Ten reviews each for two users with a row and one without: nothing hits the database yet.
+        for (int i = 0; i < 10; i++) {
+            progressEngine.recordActivity(1L, 3, "Review");
+            progressEngine.recordActivity(2L, 3, "Review");
+            progressEngine.recordActivity(3L, 3, "Review");
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(3, progressEngine.bufferedUsers());
+
+        assertEquals(3, progressEngine.flush());
+
+        // Existing-row lookup, one insert for user 3, one XP increment (same delta), one streak update (same day).
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, progressEngine.bufferedUsers());
+        assertProgress(1L, 70, 3, 3);
+        assertProgress(2L, 30, 1, 5);
+        assertProgress(3L, 30, 1, 1);
+
+        // Same day again: XP grows, the streak is not counted twice.
+        progressEngine.recordActivity(1L, 5, "New Word");
+        progressEngine.awardXp(2L, 3, "New Sentence");
+        progressEngine.flush();
+        assertProgress(1L, 75, 3, 3);
+        assertProgress(2L, 33, 1, 5);
+    }
+
+    @Test
+    void evaluateAchievements_ShouldReadUnlockedCodesOnce() {
+        persistProgress(4L, 95, 1, 1, TODAY);
+        Word word = new Word("apple", "elma", TODAY);
+        word.setUserId(4L);
+        entityManager.persistAndFlush(word);
+        entityManager.clear();
+        statistics.clear();
+
+        List<Achievement> unlocked = progressService.evaluateAchievements(4L);
+
+        assertTrue(unlocked.contains(Achievement.FIRST_WORD));
+        // Progress, word count, review count, unlocked codes, then one insert per new achievement.
+        assertEquals(4 + unlocked.size(), statistics.getPrepareStatementCount());
+        assertTrue(progressService.evaluateAchievements(4L).isEmpty());
+    }
+
+    @Test
+    void evaluatePending_ShouldUnlockOnce_AndBufferTheRewardXp() {
+        Word word = new Word("apple", "elma", TODAY);
+        word.setUserId(5L);
+        entityManager.persistAndFlush(word);
+        progressEngine.recordActivity(5L, 95, "New Word");
+        progressEngine.flush();
+        assertEquals(1, progressEngine.pendingEvaluations());
+
+        assertEquals(1, progressEngine.evaluatePending());
+        assertEquals(0, progressEngine.pendingEvaluations());
+        assertEquals(1, progressEngine.bufferedUsers());
+
+        // The reward is written by the next flush, which levels the user up on evaluation.
+        progressEngine.flushAndEvaluate();
+        entityManager.clear();
+        UserProgress progress = progressRepository.findByUserId(5L).orElseThrow();
+        assertTrue(progress.getTotalXp() >= 95 + Achievement.FIRST_WORD.getXpReward());
+        assertEquals(progress.levelForTotalXp(), progress.getLevel());
+        assertEquals(2, progress.getLevel());
+        assertTrue(achievementRepository.existsByUserIdAndAchievementCode(5L, Achievement.FIRST_WORD.getCode()));
+        long firstWordRows = achievementRepository.findByUserId(5L).stream()
+                .filter(unlocked -> Achievement.FIRST_WORD.getCode().equals(unlocked.getAchievementCode()))
+                .count();
+        assertEquals(1, firstWordRows);
+    }
+
+    @Test
+    void checkAchievements_ShouldWriteBufferedAndRewardXp_BeforeReturning() {
+        Word word = new Word("apple", "elma", TODAY);
+        word.setUserId(10L);
+        entityManager.persistAndFlush(word);
+        progressEngine.awardXp(10L, 95, "Manual award");
+
+        List<Achievement> unlocked = progressEngine.checkAchievements(10L);
+
+        assertTrue(unlocked.contains(Achievement.FIRST_WORD));
+        assertEquals(0, progressEngine.bufferedUsers());
+        assertEquals(0, progressEngine.pendingEvaluations());
+        entityManager.clear();
+        UserProgress progress = progressRepository.findByUserId(10L).orElseThrow();
+        int rewards = unlocked.stream().mapToInt(Achievement::getXpReward).sum();
+        assertEquals(95 + rewards, progress.getTotalXp());
+        assertEquals(progress.levelForTotalXp(), progress.getLevel());
+        assertTrue(progressEngine.checkAchievements(10L).isEmpty());
+    }
+
+    @Test
+    void flush_ShouldKeepDeltas_WhenWriteFails() {
+        ProgressService failing = mock(ProgressService.class);
+        doThrow(new IllegalStateException("db down")).doNothing().when(failing).applyProgressDeltas(anyMap());
+        ProgressEngine engine = new ProgressEngine(failing, null);
+
+        engine.recordActivity(6L, 4, "Review");
+        assertEquals(0, engine.flush());
+        engine.recordActivity(6L, 5, "Review");
+        assertEquals(1, engine.flush());
+
+        verify(failing).applyProgressDeltas(Map.of(6L, ProgressDelta.of(9, TODAY)));
+        assertEquals(1, engine.pendingEvaluations());
+    }
+
+    @Test
+    void flush_ShouldCountEveryBufferedActiveDay_AfterFailedFlushes() {
+        persistProgress(9L, 0, 4, 4, TODAY.minusDays(4));
+        // Three days of activity piled up behind failed flushes, written in one go.
+        ProgressDelta delta = ProgressDelta.of(1, TODAY.minusDays(3))
+                .plus(ProgressDelta.of(1, TODAY.minusDays(2)))
+                .plus(ProgressDelta.of(1, TODAY.minusDays(1)))
+                .plus(ProgressDelta.of(1, TODAY));
+        assertEquals(4, delta.activeDays().size());
+
+        progressService.applyProgressDeltas(Map.of(9L, delta));
+
+        assertProgress(9L, 4, 8, 8);
+    }
+
+    @Test
+    void evaluatePending_ShouldRetryUser_UntilEvaluationSucceeds() {
+        ProgressService flaky = mock(ProgressService.class);
+        when(flaky.evaluateAchievements(7L))
+                .thenThrow(new IllegalStateException("timeout"))
+                .thenReturn(List.of(Achievement.FIRST_REVIEW));
+        ProgressEngine engine = new ProgressEngine(flaky, null);
+
+        engine.recordActivity(7L, 1, "Review");
+        engine.flush();
+        assertEquals(0, engine.evaluatePending());
+        assertEquals(1, engine.pendingEvaluations());
+
+        assertEquals(1, engine.evaluatePending());
+        assertEquals(0, engine.pendingEvaluations());
+        engine.flush();
+        verify(flaky).applyProgressDeltas(Map.of(7L, ProgressDelta.xpOnly(Achievement.FIRST_REVIEW.getXpReward())));
+    }
+
+    @Test
+    void recordActivity_ShouldWriteThrough_WhenDisabled() {
+        ProgressService direct = mock(ProgressService.class);
+        ProgressEngine engine = new ProgressEngine(direct, null);
+        ReflectionTestUtils.setField(engine, "enabled", false);
+
+        engine.recordActivity(8L, 5, "New Word");
+        engine.awardXp(8L, 3, "New Sentence");
+
+        verify(direct).awardXp(8L, 5, "New Word");
+        verify(direct).updateStreak(8L);
+        verify(direct).awardXp(8L, 3, "New Sentence");
+        engine.checkAchievements(8L);
+        verify(direct).checkAndUnlockAchievements(8L);
+        assertEquals(0, engine.bufferedUsers());
+    }
+
+    @Test
+    void recordActivity_ShouldRejectInvalidUserId() {
+        assertThrows(IllegalArgumentException.class, () -> progressEngine.recordActivity(0L, 5, "Review"));
+    }
+
+    private void persistProgress(Long userId, int totalXp, int currentStreak, int longestStreak,
+                                 LocalDate lastActivityDate) {
+        UserProgress progress = new UserProgress();
+        progress.setUserId(userId);
+        progress.setTotalXp(totalXp);
+        progress.setCurrentStreak(currentStreak);
+        progress.setLongestStreak(longestStreak);
+        progress.setLastActivityDate(lastActivityDate);
+        entityManager.persistAndFlush(progress);
+        entityManager.clear();
+    }
+
+    private void assertProgress(Long userId, int totalXp, int currentStreak, int longestStreak) {
+        entityManager.clear();
+        UserProgress progress = progressRepository.findByUserId(userId).orElseThrow();
+        assertEquals(totalXp, progress.getTotalXp());
+        assertEquals(currentStreak, progress.getCurrentStreak());
+        assertEquals(longestStreak, progress.getLongestStreak());
+        assertEquals(TODAY, progress.getLastActivityDate());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PromptConcurrencyLimiterTest {
+
+    private AtomicLong now;
+    private SimpleMeterRegistry meterRegistry;
+    private PromptConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0L);
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new PromptConcurrencyLimiter(meterRegistry, now::get);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 4);
+    }
+
+    @Test
+    void acquire_ShouldRejectImmediatelyAtLimit_WithoutAffectingOtherPrompts() {
+        PromptConcurrencyLimiter.Permit first = limiter.acquire("check_grammar");
+        limiter.acquire("check_grammar");
+
+        PromptConcurrencyLimiter.LimitExceededException rejected = assertThrows(
+                PromptConcurrencyLimiter.LimitExceededException.class, () -> limiter.acquire("check_grammar"));
+
+        assertEquals("check_grammar", rejected.getPromptId());
+        assertEquals(1L, rejected.getRetryAfterSeconds());
+        limiter.acquire("chat").success();
+        assertEquals(1.0, meterRegistry.get("groq.bulkhead.rejected.total").tag("prompt", "check_grammar")
+                .counter().count(), 0.0001);
+        assertEquals(2.0, meterRegistry.get("groq.bulkhead.inflight").tag("prompt", "check_grammar")
+                .gauge().value(), 0.0001);
+
+        first.ignore();
+        limiter.acquire("check_grammar");
+    }
+
+    @Test
+    void limit_ShouldGrowOnFastUtilizedCalls_AndShrinkOnSlowCallsAndFailures() {
+        PromptConcurrencyLimiter.Permit a = limiter.acquire("chat");
+        PromptConcurrencyLimiter.Permit b = limiter.acquire("chat");
+        now.addAndGet(1000);
+        a.success();
+        b.success();
+        assertEquals(4.0, limit("chat"), 0.0001);
+
+        PromptConcurrencyLimiter.Permit slow = limiter.acquire("chat");
+        now.addAndGet(5000);
+        slow.success();
+        assertEquals(3.6, limit("chat"), 0.0001);
+        // Smoothed latency moved towards 5s, so the hint rounds up to 2s.
+        assertEquals(2L, assertThrows(PromptConcurrencyLimiter.LimitExceededException.class, () -> {
+            for (int i = 0; i < 4; i++) {
+                limiter.acquire("chat");
+            }
+        }).getRetryAfterSeconds());
+
+        assertThrows(IllegalStateException.class, () -> limiter.execute("speaking", () -> {
+            throw new IllegalStateException("groq down");
+        }));
+        assertEquals(1.8, limit("speaking"), 0.0001);
+        assertEquals(0.0, meterRegistry.get("groq.bulkhead.inflight").tag("prompt", "speaking")
+                .gauge().value(), 0.0001);
+    }
+
+    @Test
+    void execute_ShouldPassThrough_WhenDisabled() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("chat");
+        }
+
+        assertEquals("ok", limiter.execute("chat", () -> "ok"));
+    }
+
+    private double limit(String promptId) {
+        return meterRegistry.get("groq.bulkhead.limit").tag("prompt", promptId).gauge().value();
+    }
+}
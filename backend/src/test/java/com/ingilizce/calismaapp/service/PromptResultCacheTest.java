@@ -0,0 +1,108 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PromptResultCacheTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private PromptResultCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PromptResultCache(redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void keyFor_ShouldIgnoreWhitespaceNoise_ButNotCaseOrVersion() {
+        String key = PromptResultCache.keyFor("check_grammar", 1, List.of("She go  to school."));
+
+        assertEquals(key, PromptResultCache.keyFor("check_grammar", 1, List.of("  She go\tto school. ")));
+        assertNotEquals(key, PromptResultCache.keyFor("check_grammar", 1, List.of("she go to school.")));
+        assertNotEquals(key, PromptResultCache.keyFor("check_grammar", 2, List.of("She go to school.")));
+        assertNotEquals(PromptResultCache.keyFor("p", 1, List.of("a b", "c")),
+                PromptResultCache.keyFor("p", 1, List.of("a", "b c")));
+        assertTrue(key.startsWith("llm:result:check_grammar:v1:"));
+    }
+
+    @Test
+    void keyFor_ShouldKeepWhitespace_WhenInputsMatchExactly() {
+        String key = PromptResultCache.keyFor("check_grammar", 1, List.of("She go to school."),
+                PromptResultCache.InputMatching.EXACT);
+
+        assertEquals(key, PromptResultCache.keyFor("check_grammar", 1, List.of("She go to school."),
+                PromptResultCache.InputMatching.EXACT));
+        assertNotEquals(key, PromptResultCache.keyFor("check_grammar", 1, List.of("She go  to school."),
+                PromptResultCache.InputMatching.EXACT));
+        assertNotEquals(key, PromptResultCache.keyFor("check_grammar", 1, List.of("She go to school.")));
+    }
+
+    @Test
+    void getOrCompute_ShouldReturnCachedResultWithoutComputing() {
+        when(valueOperations.get(anyString())).thenReturn("{\"hasErrors\":false}");
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = cache.getOrCompute("check_grammar", 1, List.of("Hi."),
+                () -> String.valueOf(calls.incrementAndGet()), value -> true);
+
+        assertEquals("{\"hasErrors\":false}", result);
+        assertEquals(0, calls.get());
+        assertEquals(1.0, counter("llm.result.cache.lookup.total", "hit"), 0.0001);
+    }
+
+    @Test
+    void getOrCompute_ShouldStoreCacheableMissWithTtl_AndSkipRejectedResults() {
+        String stored = cache.getOrCompute("check_translation_tr", 1, List.of("msg"), () -> "{\"isCorrect\":true}",
+                value -> value.startsWith("{"));
+        String skipped = cache.getOrCompute("check_translation_tr", 1, List.of("other"), () -> "not json",
+                value -> value.startsWith("{"));
+
+        assertEquals("{\"isCorrect\":true}", stored);
+        assertEquals("not json", skipped);
+        verify(valueOperations).set(eq(PromptResultCache.keyFor("check_translation_tr", 1, List.of("msg"))),
+                eq("{\"isCorrect\":true}"), eq(Duration.ofSeconds(86400)));
+        verify(valueOperations, never()).set(anyString(), eq("not json"), any(Duration.class));
+        assertEquals(2.0, meterRegistry.get("llm.result.cache.lookup.total")
+                .tag("prompt", "check_translation_tr").tag("outcome", "miss").counter().count(), 0.0001);
+    }
+
+    @Test
+    void getOrCompute_ShouldFallThroughWhenRedisIsDown() {
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        String result = cache.getOrCompute("check_grammar", 1, List.of("Hi."), () -> "fresh", value -> true);
+
+        assertEquals("fresh", result);
+        assertEquals(1.0, counter("llm.result.cache.lookup.total", "error"), 0.0001);
+    }
+
+    private double counter(String metric, String outcome) {
+        return meterRegistry.get(metric).tag("prompt", "check_grammar").tag("outcome", outcome).counter().count();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ingilizce.calismaapp.service;
 
+import com.ingilizce.calismaapp.dto.ReviewStats;
 import com.ingilizce.calismaapp.entity.Word;
 import com.ingilizce.calismaapp.repository.WordRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,7 +26,10 @@ public class SRSServiceTest {
     private WordRepository wordRepository;
 
     @Mock
-    private ProgressService progressService;
+    private ProgressEngine progressEngine;
+
+    @Mock
+    private LearningStatsService learningStatsService;
 
     @InjectMocks
     private SRSService srsService;
@@ -61,7 +65,7 @@ public class SRSServiceTest {
         assertNotNull(updated);
         assertEquals(2, updated.getReviewCount());
         assertNotNull(updated.getNextReviewDate());
-        verify(progressService).awardXp(eq(1L), eq(5), anyString());
+        verify(progressEngine).recordActivity(eq(1L), eq(5), anyString());
     }
 
     @Test
@@ -77,15 +81,13 @@ public class SRSServiceTest {
         Word updated = srsService.submitReview(1L, 1L, 1);
 
         assertEquals(LocalDate.now().plusDays(1), updated.getNextReviewDate());
-        verify(progressService).awardXp(eq(1L), eq(1), anyString());
+        verify(progressEngine).recordActivity(eq(1L), eq(1), anyString());
+        verify(learningStatsService).invalidate(1L);
     }
 
     @Test
     void getStats_ShouldReturnCorrectData() {
-        when(wordRepository.findByUserIdAndNextReviewDateLessThanEqual(eq(1L), any(LocalDate.class)))
-                .thenReturn(new ArrayList<>());
-        when(wordRepository.countByUserId(1L)).thenReturn(10L);
-        when(wordRepository.findByUserIdAndReviewCountGreaterThan(1L, 0)).thenReturn(new ArrayList<>());
+        when(learningStatsService.reviewStats(1L)).thenReturn(new ReviewStats(0, 10, 0));
 
         var stats = srsService.getStats(1L);
         assertEquals(10L, stats.get("totalWords"));
@@ -125,8 +127,7 @@ public class SRSServiceTest {
 
         assertEquals(2, updated.getReviewCount());
         assertEquals(LocalDate.now().plusDays(6), updated.getNextReviewDate());
-        verify(progressService).awardXp(eq(1L), eq(4), contains("Quality: 4"));
-        verify(progressService).updateStreak(1L);
+        verify(progressEngine).recordActivity(eq(1L), eq(4), contains("Quality: 4"));
     }
 
     @Test
@@ -144,7 +145,7 @@ public class SRSServiceTest {
 
         assertEquals(3, updated.getReviewCount());
         assertEquals(LocalDate.now().plusDays(14), updated.getNextReviewDate());
-        verify(progressService).awardXp(eq(1L), eq(2), contains("Quality: 3"));
+        verify(progressEngine).recordActivity(eq(1L), eq(2), contains("Quality: 3"));
     }
 
     @Test
@@ -162,7 +163,7 @@ public class SRSServiceTest {
 
         assertEquals(1.3, updated.getEaseFactor());
         assertEquals(LocalDate.now().plusDays(1), updated.getNextReviewDate());
-        verify(progressService).awardXp(eq(1L), eq(1), contains("Quality: 0"));
+        verify(progressEngine).recordActivity(eq(1L), eq(1), contains("Quality: 0"));
     }
 
     @Test
@@ -217,10 +218,7 @@ public class SRSServiceTest {
 
     @Test
     void getStats_ShouldReturnAllKeysWithExpectedCounts() {
-        when(wordRepository.findByUserIdAndNextReviewDateLessThanEqual(eq(1L), any(LocalDate.class)))
-                .thenReturn(List.of(new Word(), new Word()));
-        when(wordRepository.countByUserId(1L)).thenReturn(7L);
-        when(wordRepository.findByUserIdAndReviewCountGreaterThan(1L, 0)).thenReturn(List.of(new Word()));
+        when(learningStatsService.reviewStats(1L)).thenReturn(new ReviewStats(2, 7, 1));
 
         Map<String, Object> stats = srsService.getStats(1L);
 
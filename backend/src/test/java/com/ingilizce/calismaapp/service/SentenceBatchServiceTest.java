@@ -0,0 +1,115 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SentenceBatchServiceTest {
+
+    private static final List<String> LEVELS = List.of("B1");
+    private static final List<String> LENGTHS = List.of("medium");
+
+    private ChatbotService chatbotService;
+    private SentenceCacheService sentenceCacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private SentenceBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        chatbotService = mock(ChatbotService.class);
+        sentenceCacheService = mock(SentenceCacheService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new SentenceBatchService(chatbotService, sentenceCacheService, meterRegistry, new ObjectMapper());
+    }
+
+    @Test
+    void generate_ShouldServeHitsFromCache_AndGenerateMissesInOnePrompt() {
+        String appleKey = SentenceCacheService.keyFor("apple", LEVELS, LENGTHS);
+        when(sentenceCacheService.getAll(anyList(), any())).thenReturn(Map.of(appleKey,
+                List.of(new PracticeSentence("Cached apple.", "elma", "Onbellek."))));
+        when(chatbotService.generateSentencesBatch(anyString())).thenReturn("""
+                {"items":[
+                  {"word":"pear","sentences":[{"englishSentence":"I like pears.","turkish":"armut","turkishFullTranslation":"Armut severim."}]},
+                  {"word":"Kiwi","sentences":[{"englishSentence":"Kiwi is green.","turkish_translation":"kivi"}]}
+                ]}""");
+
+        SentenceBatchService.BatchResult result = service.generate(List.of("Apple", " pear ", "kiwi", "apple"),
+                LEVELS, LENGTHS);
+
+        assertEquals(1, result.promptCount());
+        assertEquals(List.of("apple", "pear", "kiwi"), result.results().stream()
+                .map(SentenceBatchService.WordResult::word).toList());
+        assertTrue(result.results().get(0).cached());
+        assertFalse(result.results().get(1).cached());
+        assertEquals("armut", result.results().get(1).sentences().get(0).turkishTranslation());
+        assertEquals("kivi", result.results().get(2).sentences().get(0).turkishTranslation());
+        assertTrue(result.failed().isEmpty());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, List<PracticeSentence>>> stored = ArgumentCaptor.forClass(Map.class);
+        verify(sentenceCacheService).putAll(stored.capture(), anyLong());
+        assertEquals(2, stored.getValue().size());
+        assertTrue(stored.getValue().containsKey(SentenceCacheService.keyFor("pear", LEVELS, LENGTHS)));
+    }
+
+    @Test
+    void generate_ShouldSplitMissesByTokenBudget_AndReportWordsMissingFromResponse() {
+        ReflectionTestUtils.setField(service, "maxOutputTokens", 700);
+        ReflectionTestUtils.setField(service, "estimatedTokensPerWord", 350);
+        when(sentenceCacheService.getAll(anyList(), any())).thenReturn(Map.of());
+        when(chatbotService.generateSentencesBatch(anyString()))
+                .thenReturn("{\"a\":[{\"englishSentence\":\"A sentence.\"}]}")
+                .thenThrow(new RuntimeException("groq down"));
+
+        SentenceBatchService.BatchResult result = service.generate(List.of("a", "b", "c", "d"), LEVELS, LENGTHS);
+
+        assertEquals(2, service.wordsPerPrompt());
+        assertEquals(2, result.promptCount());
+        verify(chatbotService, times(2)).generateSentencesBatch(anyString());
+        assertEquals(List.of("a"), result.results().stream().map(SentenceBatchService.WordResult::word).toList());
+        assertEquals(List.of("b", "c", "d"), result.failed());
+        assertEquals(3.0, meterRegistry.get("chatbot.sentences.batch.words").tag("outcome", "failed")
+                .counter().count(), 0.0001);
+    }
+
+    @Test
+    void generate_ShouldNotCallLlm_WhenEverythingIsCached() {
+        when(sentenceCacheService.getAll(anyList(), any())).thenReturn(Map.of(
+                SentenceCacheService.keyFor("apple", LEVELS, LENGTHS),
+                List.of(new PracticeSentence("Cached apple.", null, null))));
+
+        SentenceBatchService.BatchResult result = service.generate(List.of("apple"), LEVELS, LENGTHS);
+
+        assertEquals(0, result.promptCount());
+        verify(chatbotService, never()).generateSentencesBatch(anyString());
+        verify(sentenceCacheService, never()).putAll(anyMap(), anyLong());
+    }
+
+    @Test
+    void normalizeWords_ShouldCapAtMaxWords() {
+        ReflectionTestUtils.setField(service, "maxWords", 2);
+
+        assertEquals(List.of("one", "two"), service.normalizeWords(List.of("One", "", "two", "three")));
+    }
+}
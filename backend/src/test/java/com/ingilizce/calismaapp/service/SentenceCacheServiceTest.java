@@ -0,0 +1,317 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SentenceCacheServiceTest {
+
+    private static final String KEY = "sentences:apple:B1:medium";
+    private static final String CACHED_JSON =
+            "[{\"englishSentence\":\"I eat an apple.\",\"turkishFullTranslation\":\"Bir elma yerim.\"}]";
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private SentenceCacheService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new SentenceCacheService(redisTemplate, meterRegistry, new ObjectMapper(), 100, 1_000_000L);
+    }
+
+    @Test
+    void l2HitShouldPopulateL1_AndSecondLookupShouldSkipRedis() {
+        when(valueOperations.get(KEY)).thenReturn(CACHED_JSON);
+
+        Optional<List<PracticeSentence>> first = service.get(KEY);
+        Optional<List<PracticeSentence>> second = service.get(KEY);
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.orElseThrow());
+        verify(valueOperations, times(1)).get(KEY);
+        assertEquals(1.0, lookups("l2", "hit"), 0.0001);
+        assertEquals(1.0, lookups("l1", "hit"), 0.0001);
+        assertThrows(UnsupportedOperationException.class, () -> second.get().add(null));
+    }
+
+    @Test
+    void missShouldBeRecordedOnL2Tier() {
+        assertTrue(service.get(KEY).isEmpty());
+        assertEquals(1.0, lookups("l2", "miss"), 0.0001);
+    }
+
+    @Test
+    void putShouldWriteBothTiers_AndBroadcastWhenInvalidationEnabled() {
+        ReflectionTestUtils.setField(service, "invalidationEnabled", true);
+
+        service.put(KEY, List.of(new PracticeSentence("I eat an apple.", null, "Bir elma yerim.")));
+
+        verify(valueOperations).set(eq(KEY), anyString(), eq(Duration.ofSeconds(604800)));
+        verify(redisTemplate).convertAndSend(eq(SentenceCacheService.INVALIDATION_CHANNEL), endsWith("|" + KEY));
+        assertTrue(service.get(KEY).isPresent());
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void getAllShouldUseL1ThenSingleMultiGetForRemainingKeys() {
+        when(valueOperations.get("sentences:l1:B1:medium")).thenReturn(CACHED_JSON);
+        service.get("sentences:l1:B1:medium");
+        when(valueOperations.multiGet(List.of(KEY, "sentences:none:B1:medium")))
+                .thenReturn(Arrays.asList(CACHED_JSON, null));
+
+        Map<String, List<PracticeSentence>> found =
+                service.getAll(List.of("sentences:l1:B1:medium", KEY, "sentences:none:B1:medium"));
+
+        assertEquals(2, found.size());
+        assertTrue(found.containsKey(KEY));
+        verify(valueOperations, times(1)).multiGet(anyList());
+        assertEquals(1.0, lookups("l2", "miss"), 0.0001);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putAllShouldWriteEntriesInOnePipelineAndPopulateL1() {
+        service.putAll(Map.of(KEY, List.of(new PracticeSentence("I eat an apple.", null, null)),
+                "sentences:empty:B1:medium", List.of()), 500L);
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        assertTrue(service.get(KEY).isPresent());
+        verify(valueOperations, never()).get(anyString());
+        assertEquals(1.0, meterRegistry.get("chatbot.sentences.cache.write.total")
+                .tag("outcome", "stored").counter().count(), 0.0001);
+    }
+
+    @Test
+    void invalidationFromAnotherNodeShouldEvictL1Only() {
+        when(valueOperations.get(KEY)).thenReturn(CACHED_JSON);
+        service.get(KEY);
+
+        service.onMessage(message("other-node|" + KEY), null);
+        service.get(KEY);
+
+        verify(valueOperations, times(2)).get(KEY);
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void ownInvalidationMessageShouldBeIgnored() {
+        when(valueOperations.get(KEY)).thenReturn(CACHED_JSON);
+        service.get(KEY);
+        String nodeId = (String) ReflectionTestUtils.getField(service, "nodeId");
+
+        service.onMessage(message(nodeId + "|" + KEY), null);
+        service.get(KEY);
+
+        verify(valueOperations, times(1)).get(KEY);
+    }
+
+    @Test
+    void localTtlShouldNeverExceedRedisTtl() {
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 60L);
+        assertEquals(60L, service.localTtlSeconds());
+
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 604800L);
+        assertEquals(3600L, service.localTtlSeconds());
+    }
+
+    @Test
+    void putShouldStoreSoftExpiryMetadataInPayload() throws Exception {
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+
+        service.put(KEY, List.of(new PracticeSentence("I eat an apple.", null, "Bir elma yerim.")), 1200L);
+
+        verify(valueOperations).set(eq(KEY), payload.capture(), eq(Duration.ofSeconds(604800)));
+        SentenceCacheService.CachedSentences decoded = service.decode(payload.getValue());
+        assertEquals(1, decoded.sentences().size());
+        assertEquals(1200L, decoded.computeMs());
+        assertEquals(TimeUnit.SECONDS.toMillis(432000), decoded.softExpiresAt() - decoded.createdAt());
+    }
+
+    @Test
+    void legacyArrayPayloadShouldNeverBeRefreshed() throws Exception {
+        SentenceCacheService.CachedSentences legacy = service.decode(CACHED_JSON);
+
+        assertEquals(1, legacy.sentences().size());
+        assertFalse(service.shouldRefresh(legacy, System.currentTimeMillis(), 0.0001));
+    }
+
+    @Test
+    void shouldRefreshShouldFireAfterSoftExpiryAndProbabilisticallyJustBefore() {
+        SentenceCacheService.CachedSentences entry =
+                new SentenceCacheService.CachedSentences(List.of(), 0L, 100_000L, 2_000L);
+
+        assertTrue(service.shouldRefresh(entry, 100_000L, 0.99));
+        // -ln(0.5) * 2000ms ~= 1386ms early-refresh window
+        assertTrue(service.shouldRefresh(entry, 99_000L, 0.5));
+        assertFalse(service.shouldRefresh(entry, 98_000L, 0.5));
+        assertFalse(service.shouldRefresh(entry, 10_000L, 0.0001));
+    }
+
+    @Test
+    void staleHitShouldReturnCachedSentencesAndRefreshOnceInBackground() throws Exception {
+        String stalePayload = "{\"sentences\":[{\"englishSentence\":\"Old sentence.\"}],"
+                + "\"createdAt\":1,\"softExpiresAt\":2,\"computeMs\":100}";
+        when(valueOperations.get(KEY)).thenReturn(stalePayload);
+        service.configureRefreshExecutor(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger refreshes = new AtomicInteger();
+        Supplier<List<PracticeSentence>> refresher = () -> {
+            refreshes.incrementAndGet();
+            awaitQuietly(release);
+            return List.of();
+        };
+
+        try {
+            Optional<List<PracticeSentence>> first = service.get(KEY, refresher);
+            Optional<List<PracticeSentence>> second = service.get(KEY, refresher);
+
+            assertEquals("Old sentence.", first.orElseThrow().get(0).englishSentence());
+            assertTrue(second.isPresent());
+            release.countDown();
+            waitForRefreshOutcome("success");
+        } finally {
+            service.shutdown();
+        }
+
+        assertEquals(1, refreshes.get());
+        assertEquals(1.0, meterRegistry.get("chatbot.sentences.cache.refresh.total")
+                .tag("outcome", "deduplicated").counter().count(), 0.0001);
+    }
+
+    @Test
+    void staleBatchHitsShouldBeRefreshedTogetherInBackground() throws Exception {
+        String stalePayload = "{\"sentences\":[{\"englishSentence\":\"Old sentence.\"}],"
+                + "\"createdAt\":1,\"softExpiresAt\":2,\"computeMs\":100}";
+        String freshPayload = "{\"sentences\":[{\"englishSentence\":\"New sentence.\"}],"
+                + "\"createdAt\":1,\"softExpiresAt\":" + Long.MAX_VALUE / 2 + ",\"computeMs\":100}";
+        String staleKey = "sentences:pear:B1:medium";
+        when(valueOperations.multiGet(List.of(KEY, staleKey, "sentences:none:B1:medium")))
+                .thenReturn(Arrays.asList(freshPayload, stalePayload, null));
+        service.configureRefreshExecutor(1, 10);
+        List<List<String>> refreshed = new CopyOnWriteArrayList<>();
+
+        try {
+            Map<String, List<PracticeSentence>> found = service.getAll(
+                    List.of(KEY, staleKey, "sentences:none:B1:medium"), refreshed::add);
+
+            assertEquals(2, found.size());
+            assertEquals("Old sentence.", found.get(staleKey).get(0).englishSentence());
+            waitForRefreshOutcome("success");
+        } finally {
+            service.shutdown();
+        }
+
+        assertEquals(List.of(List.of(staleKey)), refreshed);
+    }
+
+    @Test
+    void getAllFreshShouldLeaveStaleHitsOutWithoutRefreshingThem() throws Exception {
+        String stalePayload = "{\"sentences\":[{\"englishSentence\":\"Old sentence.\"}],"
+                + "\"createdAt\":1,\"softExpiresAt\":2,\"computeMs\":100}";
+        String freshPayload = "{\"sentences\":[{\"englishSentence\":\"New sentence.\"}],"
+                + "\"createdAt\":1,\"softExpiresAt\":" + Long.MAX_VALUE / 2 + ",\"computeMs\":100}";
+        String staleKey = "sentences:pear:B1:medium";
+        when(valueOperations.multiGet(List.of(KEY, staleKey))).thenReturn(Arrays.asList(freshPayload, stalePayload));
+
+        Map<String, List<PracticeSentence>> found = service.getAllFresh(List.of(KEY, staleKey));
+
+        assertEquals(List.of(KEY), List.copyOf(found.keySet()));
+        assertTrue(meterRegistry.find("chatbot.sentences.cache.refresh.total").counters().isEmpty());
+    }
+
+    @Test
+    void boundedLocalCacheShouldEvictLeastRecentlyUsedByCountAndWeight() {
+        AtomicLong now = new AtomicLong(0L);
+        BoundedLocalCache<String> cache = new BoundedLocalCache<>(2, 10L, value -> value.length(), now::get, null);
+
+        cache.put("a", "111", 1000L);
+        cache.put("b", "222", 1000L);
+        cache.get("a");
+        cache.put("c", "333", 1000L);
+
+        assertNull(cache.get("b"));
+        assertEquals("111", cache.get("a"));
+
+        cache.put("d", "4444", 1000L);
+        assertNull(cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(7L, cache.weight());
+
+        now.set(1000L);
+        assertNull(cache.get("a"));
+        assertNull(cache.get("d"));
+        assertEquals(0L, cache.weight());
+    }
+
+    private void waitForRefreshOutcome(String outcome) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (meterRegistry.find("chatbot.sentences.cache.refresh.total").tag("outcome", outcome).counter() != null) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double lookups(String tier, String outcome) {
+        return meterRegistry.get("chatbot.sentences.cache.lookup.total")
+                .tag("tier", tier).tag("outcome", outcome).counter().count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(SentenceCacheService.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,130 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.CursorPage;
+import com.ingilizce.calismaapp.dto.SentenceFeedItem;
+import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.entity.SentencePractice;
+import com.ingilizce.calismaapp.entity.Word;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SentenceFeedService.class)
+class SentenceFeedServiceTest {
+
+    private static final Long USER_ID = 5L;
+    private static final LocalDate START = LocalDate.of(2026, 4, 1);
+
+    @Autowired
+    private SentenceFeedService sentenceFeedService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private int practiceRows;
+    private int wordSentenceRows;
+
+    @BeforeEach
+    void setUp() {
+        // Uneven sources with shared dates: 17 practice rows over 6 days, 2 sentences per word over 4 days.
+        for (int i = 0; i < 17; i++) {
+            SentencePractice practice = new SentencePractice("practice " + i, "pratik",
+                    SentencePractice.DifficultyLevel.values()[i % 3]);
+            practice.setUserId(USER_ID);
+            practice.setCreatedDate(START.plusDays(i % 6));
+            entityManager.persist(practice);
+            practiceRows++;
+        }
+        for (int i = 0; i < 5; i++) {
+            Word word = new Word("word" + i, "kelime" + i, START.plusDays(i % 4));
+            word.setUserId(USER_ID);
+            entityManager.persist(word);
+            for (int j = 0; j < 2; j++) {
+                entityManager.persist(new Sentence("sentence " + i + "-" + j, "cümle", j == 0 ? "HARD" : null, word));
+                wordSentenceRows++;
+            }
+        }
+        SentencePractice otherUser = new SentencePractice("not mine", "benim değil",
+                SentencePractice.DifficultyLevel.EASY);
+        otherUser.setUserId(USER_ID + 1);
+        entityManager.persist(otherUser);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getFeedAfter_ShouldReturnExactPagesOfOneMergedNewestFirstStream() {
+        int size = 4;
+        List<SentenceFeedItem> walked = new ArrayList<>();
+        CursorPage<SentenceFeedItem> page = sentenceFeedService.getFeedAfter(USER_ID, null, size);
+        walked.addAll(page.items());
+        while (page.hasMore()) {
+            assertEquals(size, page.items().size());
+            page = sentenceFeedService.getFeedAfter(USER_ID, page.nextCursor(), size);
+            walked.addAll(page.items());
+        }
+
+        int total = practiceRows + wordSentenceRows;
+        assertEquals(total, walked.size());
+        assertEquals(total, walked.stream().map(SentenceFeedItem::id).distinct().count());
+        for (int i = 1; i < walked.size(); i++) {
+            assertTrue(SentenceFeedService.FEED_ORDER.compare(walked.get(i - 1), walked.get(i)) < 0,
+                    "out of order at " + i);
+        }
+        assertEquals(START.plusDays(5), walked.get(0).createdDate());
+    }
+
+    @Test
+    void getFeedPage_ShouldMatchTheCursorWalk() {
+        List<SentenceFeedItem> cursorWalk = new ArrayList<>();
+        CursorPage<SentenceFeedItem> page = sentenceFeedService.getFeedAfter(USER_ID, null, 200);
+        cursorWalk.addAll(page.items());
+
+        assertEquals(cursorWalk.subList(0, 10), sentenceFeedService.getFeedPage(USER_ID, 0, 10));
+        assertEquals(cursorWalk.subList(10, 20), sentenceFeedService.getFeedPage(USER_ID, 1, 10));
+        assertEquals(cursorWalk.subList(20, 27), sentenceFeedService.getFeedPage(USER_ID, 2, 10));
+        assertTrue(sentenceFeedService.getFeedPage(USER_ID, 3, 10).isEmpty());
+    }
+
+    @Test
+    void getFeedPage_ShouldRejectPagesPastTheOffsetCap() {
+        int size = 200;
+        int lastPage = SentenceFeedService.MAX_OFFSET_ROWS / size - 1;
+
+        assertTrue(sentenceFeedService.getFeedPage(USER_ID, lastPage, size).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> sentenceFeedService.getFeedPage(USER_ID, lastPage + 1, size));
+        assertThrows(IllegalArgumentException.class,
+                () -> sentenceFeedService.getFeedPage(USER_ID, Integer.MAX_VALUE, size));
+    }
+
+    @Test
+    void projection_ShouldKeepTheLegacyRowShape() {
+        List<SentenceFeedItem> all = sentenceFeedService.getFeedPage(USER_ID, 0, 200);
+
+        SentenceFeedItem wordSentence = all.stream().filter(item -> !item.isPractice()).findFirst().orElseThrow();
+        assertTrue(wordSentence.id().startsWith("word_"));
+        assertTrue(wordSentence.difficulty().equals("hard") || wordSentence.difficulty().equals("easy"));
+        assertNotNull(wordSentence.word());
+
+        SentenceFeedItem practice = all.stream().filter(SentenceFeedItem::isPractice).findFirst().orElseThrow();
+        assertTrue(practice.id().startsWith("practice_"));
+        assertNull(practice.word());
+    }
+
+    @Test
+    void getFeedAfter_ShouldRejectForeignCursor() {
+        assertThrows(IllegalArgumentException.class, () -> sentenceFeedService.getFeedAfter(USER_ID, "x.abc", 10));
+        assertThrows(IllegalArgumentException.class, () -> sentenceFeedService.getFeedAfter(USER_ID, "p.", 10));
+    }
+}
@@ -25,6 +25,9 @@ public class SentencePracticeServiceTest {
     @Mock
     private SentencePracticeRepository sentencePracticeRepository;
 
+    @Mock
+    private LearningStatsService learningStatsService;
+
     @InjectMocks
     private SentencePracticeService sentencePracticeService;
 
@@ -122,6 +125,7 @@ public class SentencePracticeServiceTest {
         boolean deleted = sentencePracticeService.deleteSentence(1L, 1L);
         assertTrue(deleted);
         verify(sentencePracticeRepository).deleteById(1L);
+        verify(learningStatsService).invalidate(1L);
     }
 
     @Test
@@ -0,0 +1,202 @@
+package com.ingilizce.calismaapp.service;
+
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SentenceRequestCoalescerTest {
+
+    private static final List<PracticeSentence> SENTENCES = List.of(
+            new PracticeSentence("I eat an apple.", "elma", "Bir elma yerim."));
+
+    @Test
+    void concurrentMissesForSameKey_ShouldShareOneGeneration() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SentenceRequestCoalescer coalescer = new SentenceRequestCoalescer(null, meterRegistry);
+        AtomicInteger generations = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        int callers = 6;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<PracticeSentence>>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.load("sentences:apple:B1:medium", Optional::empty, () -> {
+                generations.incrementAndGet();
+                leaderStarted.countDown();
+                awaitQuietly(release);
+                return SENTENCES;
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.load("sentences:apple:B1:medium", Optional::empty, () -> {
+                    generations.incrementAndGet();
+                    return SENTENCES;
+                })));
+            }
+            waitForWaiters(meterRegistry, callers - 1);
+            release.countDown();
+
+            for (Future<List<PracticeSentence>> result : results) {
+                assertSame(SENTENCES, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, generations.get());
+        assertEquals(1.0, counterValue(meterRegistry, "leader"), 0.0001);
+        assertEquals(callers - 1, counterValue(meterRegistry, "waiter"), 0.0001);
+        assertEquals(callers - 1, meterRegistry.get("chatbot.sentences.cache.coalesce.waiters")
+                .summary().totalAmount(), 0.0001);
+        assertEquals(0.0, meterRegistry.get("chatbot.sentences.cache.coalesce.inflight").gauge().value(), 0.0001);
+    }
+
+    @Test
+    void leaderFailure_ShouldPropagate_AndNextCallShouldStartNewFlight() {
+        SentenceRequestCoalescer coalescer = new SentenceRequestCoalescer(null, null);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> coalescer.load("sentences:x:B1:medium", Optional::empty, () -> {
+                    throw new RuntimeException("groq down");
+                }));
+        assertEquals("groq down", thrown.getMessage());
+
+        assertSame(SENTENCES, coalescer.load("sentences:x:B1:medium", Optional::empty, () -> SENTENCES));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisLockHeldElsewhere_ShouldReturnSentencesFromCacheWithoutGenerating() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(eq("lock:sentences:pear:B1:medium"), anyString(), any(Duration.class)))
+                .thenReturn(false);
+        when(redisTemplate.hasKey("lock:sentences:pear:B1:medium")).thenReturn(true);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SentenceRequestCoalescer coalescer = lockEnabled(new SentenceRequestCoalescer(redisTemplate, meterRegistry));
+        AtomicInteger probes = new AtomicInteger();
+
+        List<PracticeSentence> result = coalescer.load("sentences:pear:B1:medium",
+                () -> probes.incrementAndGet() < 2 ? Optional.empty() : Optional.of(SENTENCES),
+                () -> {
+                    throw new AssertionError("generator must not run on follower node");
+                });
+
+        assertSame(SENTENCES, result);
+        assertEquals(1.0, counterValue(meterRegistry, "remote_waiter"), 0.0001);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisLockAcquired_ShouldGenerateAndReleaseLock() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(eq("lock:sentences:kiwi:B1:medium"), anyString(), any(Duration.class)))
+                .thenReturn(true);
+
+        SentenceRequestCoalescer coalescer = lockEnabled(new SentenceRequestCoalescer(redisTemplate, null));
+
+        assertSame(SENTENCES, coalescer.load("sentences:kiwi:B1:medium", Optional::empty, () -> SENTENCES));
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisLockAcquired_ShouldServeEntryStoredByFinishedFlight_WithoutGenerating() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(eq("lock:sentences:plum:B1:medium"), anyString(), any(Duration.class)))
+                .thenReturn(true);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SentenceRequestCoalescer coalescer = lockEnabled(new SentenceRequestCoalescer(redisTemplate, meterRegistry));
+
+        List<PracticeSentence> result = coalescer.load("sentences:plum:B1:medium", () -> Optional.of(SENTENCES),
+                () -> {
+                    throw new AssertionError("generator must not run when the cache was filled meanwhile");
+                });
+
+        assertSame(SENTENCES, result);
+        assertEquals(1.0, counterValue(meterRegistry, "leader_cache_hit"), 0.0001);
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisLockReleasedWithoutCacheEntry_ShouldFallBackToLocalGeneration() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.hasKey("lock:sentences:fig:B1:medium")).thenReturn(false);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SentenceRequestCoalescer coalescer = lockEnabled(new SentenceRequestCoalescer(redisTemplate, meterRegistry));
+
+        assertSame(SENTENCES, coalescer.load("sentences:fig:B1:medium", Optional::empty, () -> SENTENCES));
+        assertEquals(1.0, counterValue(meterRegistry, "remote_fallback"), 0.0001);
+    }
+
+    private static SentenceRequestCoalescer lockEnabled(SentenceRequestCoalescer coalescer) {
+        ReflectionTestUtils.setField(coalescer, "redisLockEnabled", true);
+        ReflectionTestUtils.setField(coalescer, "redisPollIntervalMs", 1L);
+        ReflectionTestUtils.setField(coalescer, "waitTimeoutMs", 2000L);
+        return coalescer;
+    }
+
+    private static double counterValue(SimpleMeterRegistry meterRegistry, String outcome) {
+        return meterRegistry.get("chatbot.sentences.cache.coalesce.total").tag("outcome", outcome).counter().count();
+    }
+
+    private static void waitForWaiters(SimpleMeterRegistry meterRegistry, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (meterRegistry.find("chatbot.sentences.cache.coalesce.total").tag("outcome", "waiter").counter() != null
+                    && counterValue(meterRegistry, "waiter") >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.dto.PracticeSentence;
+import com.ingilizce.calismaapp.repository.WordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SentenceWarmupServiceTest {
+
+    private static final List<String> LEVELS = List.of("B1");
+    private static final List<String> LENGTHS = List.of("medium");
+
+    private WordRepository wordRepository;
+    private SentenceBatchService sentenceBatchService;
+    private SentenceCacheService sentenceCacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private SentenceWarmupService service;
+
+    @BeforeEach
+    void setUp() {
+        wordRepository = mock(WordRepository.class);
+        sentenceBatchService = mock(SentenceBatchService.class);
+        sentenceCacheService = mock(SentenceCacheService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(sentenceBatchService.wordsPerPrompt()).thenReturn(2);
+        when(sentenceBatchService.getMaxWords()).thenReturn(30);
+        when(sentenceBatchService.getEstimatedTokensPerWord()).thenReturn(350);
+        when(sentenceBatchService.refresh(anyList(), eq(LEVELS), eq(LENGTHS))).thenAnswer(invocation -> {
+            List<String> words = invocation.getArgument(0);
+            return new SentenceBatchService.BatchResult(words.stream()
+                    .map(word -> new SentenceBatchService.WordResult(word,
+                            List.of(new PracticeSentence("A " + word + ".", null, null)), false))
+                    .toList(), List.of(), 1);
+        });
+        service = new SentenceWarmupService(wordRepository, sentenceBatchService, sentenceCacheService,
+                null, meterRegistry, new ObjectMapper());
+        service.configureExecutors(2);
+        ReflectionTestUtils.setField(service, "promptsPerMinute", 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void run_ShouldGenerateOnlyMissingWords_InFrequencyOrder() {
+        when(wordRepository.findWordsRankedByFrequency(any(Pageable.class)))
+                .thenReturn(List.of("Apple", "pear", "kiwi", "apple", "plum"));
+        String pearKey = SentenceCacheService.keyFor("pear", LEVELS, LENGTHS);
+        when(sentenceCacheService.getAllFresh(anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(0);
+            return keys.contains(pearKey)
+                    ? Map.of(pearKey, List.of(new PracticeSentence("Cached pear.", null, null)))
+                    : Map.of();
+        });
+
+        SentenceWarmupService.WarmupReport report = service.run(null).orElseThrow();
+
+        assertEquals("completed", report.outcome());
+        assertEquals(4, report.totalWords());
+        assertEquals(4, report.nextRank());
+        assertEquals(1, report.cachedWords());
+        assertEquals(3, report.generatedWords());
+        assertEquals(3L * 350, report.estimatedTokens());
+        verify(sentenceBatchService).refresh(List.of("apple", "kiwi"), LEVELS, LENGTHS);
+        verify(sentenceBatchService).refresh(List.of("plum"), LEVELS, LENGTHS);
+        assertEquals(3.0, meterRegistry.get("chatbot.sentences.warmup.words").tag("outcome", "generated")
+                .counter().count(), 0.0001);
+        assertEquals(1050.0, meterRegistry.get("chatbot.sentences.warmup.llm.tokens.estimated")
+                .counter().count(), 0.0001);
+    }
+
+    @Test
+    void run_ShouldStopAtPromptBudget_AndResumeFromCheckpointNextTime() {
+        ReflectionTestUtils.setField(service, "maxPromptsPerRun", 1);
+        ReflectionTestUtils.setField(service, "concurrency", 1);
+        List<String> imported = List.of("one", "two", "three", "four", "five");
+        when(sentenceCacheService.getAllFresh(anyList())).thenReturn(Map.of());
+
+        SentenceWarmupService.WarmupReport first = service.run(imported).orElseThrow();
+
+        assertEquals("budget_exhausted", first.outcome());
+        assertEquals(0, first.startRank());
+        assertEquals(2, first.nextRank());
+        assertEquals("import", first.source());
+        verify(wordRepository, never()).findWordsRankedByFrequency(any(Pageable.class));
+
+        SentenceWarmupService.WarmupReport second = service.run(imported).orElseThrow();
+
+        assertEquals(2, second.startRank());
+        assertEquals(4, second.nextRank());
+        verify(sentenceBatchService).refresh(List.of("three", "four"), LEVELS, LENGTHS);
+        verify(sentenceBatchService, times(2)).refresh(anyList(), eq(LEVELS), eq(LENGTHS));
+        assertEquals(2.0, meterRegistry.get("chatbot.sentences.warmup.runs").tag("outcome", "budget_exhausted")
+                .counter().count(), 0.0001);
+    }
+
+    @Test
+    void run_ShouldRegenerateStaleHits_UnderItsOwnBudget() {
+        ReflectionTestUtils.setField(service, "maxPromptsPerRun", 1);
+        ReflectionTestUtils.setField(service, "concurrency", 1);
+        // "pear" is in the cache but past its soft expiry, so getAllFresh leaves it out.
+        when(sentenceCacheService.getAllFresh(anyList())).thenReturn(Map.of());
+
+        SentenceWarmupService.WarmupReport report = service.run(List.of("pear", "plum", "kiwi")).orElseThrow();
+
+        assertEquals("budget_exhausted", report.outcome());
+        assertEquals(2, report.generatedWords());
+        verify(sentenceBatchService).refresh(List.of("pear", "plum"), LEVELS, LENGTHS);
+        verify(sentenceBatchService, never()).generate(anyList(), anyList(), anyList());
+        verify(sentenceCacheService, never()).getAll(anyList(), any());
+    }
+
+    @Test
+    void scheduledWarmup_ShouldHandTheRunToTheCoordinator_AndReturnAtOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(wordRepository.findWordsRankedByFrequency(any(Pageable.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of("apple");
+        });
+        when(sentenceCacheService.getAllFresh(anyList())).thenReturn(Map.of());
+
+        service.scheduledWarmup();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!service.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(service.isRunning());
+        // The one coordinator thread is busy: a second tick is skipped instead of queued.
+        service.scheduledWarmup();
+        assertEquals(1.0, meterRegistry.get("chatbot.sentences.warmup.runs").tag("outcome", "skipped")
+                .counter().count(), 0.0001);
+
+        release.countDown();
+        deadline = System.currentTimeMillis() + 5000;
+        while (service.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("completed", service.getLastReport().outcome());
+    }
+
+    @Test
+    void parseCombinations_ShouldNormalizeAndDropInvalidEntries() {
+        List<SentenceWarmupService.Combination> combos = SentenceWarmupService.parseCombinations(
+                List.of("b1:medium", "A2+A1:short+long", "broken", "B1:MEDIUM"));
+
+        assertEquals(List.of("B1|medium", "A1,A2|long,short"), combos.stream()
+                .map(c -> String.join(",", c.levels()) + "|" + String.join(",", c.lengths()))
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.ingilizce.calismaapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtsAudioCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void keyFor_ShouldIgnoreWhitespaceNoise_ButNotVoiceOrCase() {
+        String key = TtsAudioCache.keyFor("en_US-amy-medium.onnx", "Hello  world");
+
+        assertEquals(key, TtsAudioCache.keyFor("en_US-amy-medium.onnx", " Hello world "));
+        assertNotEquals(key, TtsAudioCache.keyFor("en_GB-alan-medium.onnx", "Hello world"));
+        assertNotEquals(key, TtsAudioCache.keyFor("en_US-amy-medium.onnx", "hello world"));
+    }
+
+    @Test
+    void get_ShouldServeFromDiskAfterRestart_AndPromoteToMemory() {
+        TtsAudioCache first = newCache(1024, 1024);
+        first.put("amy", "apple", new byte[] { 1, 2, 3 });
+
+        TtsAudioCache restarted = newCache(1024, 1024);
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, restarted.get("amy", "apple").orElseThrow());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, restarted.get("amy", "apple").orElseThrow());
+        assertFalse(restarted.get("amy", "pear").isPresent());
+        assertEquals(1.0, lookups("disk_hit"), 0.0001);
+        assertEquals(1.0, lookups("memory_hit"), 0.0001);
+        assertEquals(1.0, lookups("miss"), 0.0001);
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedByBytes_InBothTiers() throws Exception {
+        TtsAudioCache cache = newCache(8, 8);
+        cache.put("amy", "one", new byte[4]);
+        cache.put("amy", "two", new byte[4]);
+        cache.get("amy", "one");
+        cache.put("amy", "three", new byte[4]);
+
+        assertTrue(cache.contains("amy", "one"));
+        assertFalse(cache.contains("amy", "two"));
+        assertTrue(cache.contains("amy", "three"));
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(8.0, meterRegistry.get("tts.cache.bytes").tag("tier", "disk").gauge().value(), 0.0001);
+        assertEquals(1.0, meterRegistry.get("tts.cache.evictions.total").tag("tier", "disk").counter().count(),
+                0.0001);
+    }
+
+    private TtsAudioCache newCache(long memoryMaxBytes, long diskMaxBytes) {
+        TtsAudioCache cache = new TtsAudioCache(meterRegistry);
+        ReflectionTestUtils.setField(cache, "configuredDir", dir.toString());
+        ReflectionTestUtils.setField(cache, "memoryMaxBytes", memoryMaxBytes);
+        ReflectionTestUtils.setField(cache, "diskMaxBytes", diskMaxBytes);
+        cache.init();
+        return cache;
+    }
+
+    private double lookups(String outcome) {
+        return meterRegistry.get("tts.cache.lookup.total").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ingilizce.calismaapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingilizce.calismaapp.entity.Sentence;
+import com.ingilizce.calismaapp.entity.Word;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TtsPrerenderServiceTest {
+
+    private SRSService srsService;
+    private PiperTtsService piperTtsService;
+    private PiperAvailabilityMonitor availabilityMonitor;
+    private TtsPrerenderService service;
+
+    @BeforeEach
+    void setUp() {
+        srsService = mock(SRSService.class);
+        piperTtsService = mock(PiperTtsService.class);
+        availabilityMonitor = mock(PiperAvailabilityMonitor.class);
+        when(availabilityMonitor.isAvailable()).thenReturn(true);
+        when(piperTtsService.getAudioETag(anyString(), any())).thenAnswer(inv -> "etag-" + inv.getArgument(0));
+        // No executor configured: renders run inline.
+        service = new TtsPrerenderService(srsService, piperTtsService, availabilityMonitor, null, new ObjectMapper());
+
+        Word apple = word(1L, "apple", "I ate an apple.", "The apple is red.");
+        Word red = word(2L, "red", "The apple is red.");
+        when(srsService.getWordsForReview(5L)).thenReturn(List.of(apple, red));
+    }
+
+    @Test
+    void prerenderReviewSession_ShouldDedupeClipsAndRenderOnlyMissingOnes() {
+        when(piperTtsService.isAudioCached("apple", "amy")).thenReturn(true);
+        when(piperTtsService.synthesizeAudio(anyString(), any())).thenReturn(new byte[] { 1 });
+
+        TtsPrerenderService.Manifest manifest = service.prerenderReviewSession(5L, "amy");
+
+        assertEquals(4, manifest.total());
+        assertEquals(1, manifest.ready());
+        assertEquals(3, manifest.pending());
+        assertEquals(List.of("apple", "I ate an apple.", "The apple is red.", "red"),
+                manifest.clips().stream().map(TtsPrerenderService.Clip::text).toList());
+        assertEquals("/api/tts/audio?text=I%20ate%20an%20apple.&voice=amy", manifest.clips().get(1).url());
+        verify(piperTtsService, never()).synthesizeAudio("apple", "amy");
+        verify(piperTtsService, times(1)).synthesizeAudio("The apple is red.", "amy");
+    }
+
+    @Test
+    void writeZip_ShouldBundleAvailableClipsAndMarkTheRestInTheManifest() throws Exception {
+        when(availabilityMonitor.isAvailable()).thenReturn(false);
+        when(piperTtsService.findCachedAudio("apple", null)).thenReturn(Optional.of(new byte[] { 9, 9 }));
+        when(piperTtsService.findCachedAudio("red", null)).thenReturn(Optional.of(new byte[] { 7 }));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeZip(5L, null, out);
+
+        List<String> names = new ArrayList<>();
+        byte[] firstClip = null;
+        JsonNode manifest = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                byte[] content = zip.readAllBytes();
+                if (firstClip == null) {
+                    firstClip = content;
+                }
+                if (entry.getName().equals("manifest.json")) {
+                    manifest = new ObjectMapper().readTree(content);
+                }
+            }
+        }
+
+        assertEquals(List.of("001-etag-apple.wav", "002-etag-red.wav", "manifest.json"), names);
+        assertArrayEquals(new byte[] { 9, 9 }, firstClip);
+        assertEquals(4, manifest.get("total").asInt());
+        assertEquals(2, manifest.get("ready").asInt());
+        assertEquals("unavailable", manifest.get("clips").get(1).get("status").asText());
+        assertEquals("002-etag-red.wav", manifest.get("clips").get(3).get("url").asText());
+        verify(piperTtsService, never()).synthesizeAudio(anyString(), any());
+    }
+
+    private static Word word(Long id, String english, String... sentences) {
+        Word word = new Word(english, "-", LocalDate.now());
+        word.setId(id);
+        long sentenceId = id * 10;
+        for (String text : sentences) {
+            Sentence sentence = new Sentence(text, "-", "easy", word);
+            sentence.setId(sentenceId++);
+            word.getSentences().add(sentence);
+        }
+        return word;
+    }
+}
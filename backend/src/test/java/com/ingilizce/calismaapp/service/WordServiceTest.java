@@ -44,7 +44,10 @@ class WordServiceTest {
     // We mock other dependencies to avoid NPEs during context load if they are
     // autowired
     @Mock
-    private ProgressService progressService;
+    private ProgressEngine progressEngine;
+
+    @Mock
+    private LearningStatsService learningStatsService;
 
     @BeforeEach
     void setUp() {
@@ -111,7 +114,7 @@ class WordServiceTest {
         verify(wordRepository, never()).save(incoming);
         verify(leaderboardService, never()).incrementScore(anyLong(), anyDouble());
         verify(activityPublisher, never()).publishWordAdded(anyLong(), anyString());
-        verify(progressService, never()).awardXp(anyLong(), anyInt(), anyString());
+        verify(progressEngine, never()).recordActivity(anyLong(), anyInt(), anyString());
     }
 
     @Test
@@ -230,8 +233,7 @@ class WordServiceTest {
         assertEquals(50L, result.getId());
         verify(leaderboardService, never()).incrementScore(anyLong(), anyDouble());
         verify(activityPublisher, never()).publishWordAdded(anyLong(), anyString());
-        verify(progressService, never()).awardXp(anyLong(), anyInt(), anyString());
-        verify(progressService, never()).updateStreak(anyLong());
+        verify(progressEngine, never()).recordActivity(anyLong(), anyInt(), anyString());
     }
 
     @Test
@@ -251,8 +253,7 @@ class WordServiceTest {
                 .publishWordAdded(eq(4L), anyString());
 
         assertDoesNotThrow(() -> wordService.saveWord(incoming));
-        verify(progressService).awardXp(eq(4L), eq(5), contains("resilience"));
-        verify(progressService).updateStreak(4L);
+        verify(progressEngine).recordActivity(eq(4L), eq(5), contains("resilience"));
     }
 
     @Test
@@ -311,7 +312,7 @@ class WordServiceTest {
 
         Word result = wordService.addSentence(1L, "Test", "Test TR", "easy", 1L);
         assertNotNull(result);
-        verify(progressService).awardXp(eq(1L), eq(3), anyString());
+        verify(progressEngine).awardXp(eq(1L), eq(3), anyString());
     }
 
     @Test
@@ -338,7 +339,7 @@ class WordServiceTest {
         Word result = wordService.addSentence(1L, "x", "y", "hard", 1L);
 
         assertNull(result);
-        verify(progressService, never()).awardXp(anyLong(), anyInt(), anyString());
+        verify(progressEngine, never()).awardXp(anyLong(), anyInt(), anyString());
     }
 
     @Test
@@ -355,7 +356,7 @@ class WordServiceTest {
 
         assertNotNull(result);
         verify(wordRepository, never()).save(any());
-        verify(progressService, never()).awardXp(anyLong(), anyInt(), anyString());
+        verify(progressEngine, never()).awardXp(anyLong(), anyInt(), anyString());
     }
 
     @Test
@@ -372,7 +373,7 @@ class WordServiceTest {
 
         assertNotNull(result);
         verify(sentenceRepository, never()).findByWordIdAndSentenceAndTranslation(anyLong(), any(), any());
-        verify(progressService).awardXp(eq(1L), eq(3), contains("null-path"));
+        verify(progressEngine).awardXp(eq(1L), eq(3), contains("null-path"));
     }
 
     @Test